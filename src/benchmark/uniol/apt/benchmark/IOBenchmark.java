@@ -0,0 +1,119 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import uniol.apt.adt.pn.PetriNet;
+import uniol.apt.io.parser.Parser;
+import uniol.apt.io.parser.impl.AptPNParser;
+import uniol.apt.io.parser.impl.PnmlPNParser;
+import uniol.apt.io.renderer.Renderer;
+import uniol.apt.io.renderer.impl.AptPNRenderer;
+import uniol.apt.io.renderer.impl.PnmlPNRenderer;
+
+/**
+ * Benchmarks for parsing and rendering Petri nets.
+ * @author Uli Schlachter
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IOBenchmark {
+	/**
+	 * The workload to use, see {@link Workloads}.
+	 */
+	@Param({"philnet:10", "bitnet:10", "cycle:100", "tnet:3", "file:nets/crashkurs-cc1-net.apt"})
+	public String workload;
+
+	/**
+	 * The file format that is parsed and rendered.
+	 */
+	@Param({"apt", "pnml"})
+	public String format;
+
+	private Parser<PetriNet> parser;
+	private Renderer<PetriNet> renderer;
+	private List<PetriNet> nets;
+	private List<String> texts;
+
+	/**
+	 * Create the nets and their textual representations.
+	 * @throws Exception if the workload cannot be created.
+	 */
+	@Setup
+	public void setup() throws Exception {
+		switch (format) {
+			case "apt":
+				parser = new AptPNParser();
+				renderer = new AptPNRenderer();
+				break;
+			case "pnml":
+				parser = new PnmlPNParser();
+				renderer = new PnmlPNRenderer();
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown format '" + format + "'");
+		}
+		nets = Workloads.createNets(workload);
+		texts = new ArrayList<>(nets.size());
+		for (PetriNet pn : nets)
+			texts.add(renderer.render(pn));
+	}
+
+	/**
+	 * Parse the textual representations of the nets.
+	 * @return The parsed nets.
+	 * @throws Exception if parsing fails.
+	 */
+	@Benchmark
+	public List<PetriNet> parse() throws Exception {
+		List<PetriNet> result = new ArrayList<>(texts.size());
+		for (String text : texts)
+			result.add(parser.parseString(text));
+		return result;
+	}
+
+	/**
+	 * Render the nets into their textual representation.
+	 * @return The rendered nets.
+	 * @throws Exception if rendering fails.
+	 */
+	@Benchmark
+	public List<String> render() throws Exception {
+		List<String> result = new ArrayList<>(nets.size());
+		for (PetriNet pn : nets)
+			result.add(renderer.render(pn));
+		return result;
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -0,0 +1,136 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import uniol.apt.adt.pn.PetriNet;
+import uniol.apt.adt.ts.TransitionSystem;
+import uniol.apt.analysis.coverability.CoverabilityGraph;
+import uniol.apt.analysis.exception.UnboundedException;
+import uniol.apt.analysis.invariants.InvariantCalculator;
+import uniol.apt.analysis.invariants.InvariantCalculator.InvariantAlgorithm;
+
+/**
+ * Benchmarks for the analysis of Petri nets. Since analysis results are cached in the Petri nets, every invocation
+ * works on fresh copies of the nets.
+ * @author Uli Schlachter
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PetriNetAnalysisBenchmark {
+	/**
+	 * The workload to use, see {@link Workloads}.
+	 */
+	@Param({"philnet:5", "bitnet:8", "cycle:100", "tnet:3", "file:nets/crashkurs-cc1-net.apt"})
+	public String workload;
+
+	/**
+	 * The algorithm that is used for calculating invariants. This is a separate state so that only the invariants
+	 * benchmark is parameterized with it.
+	 */
+	@State(Scope.Benchmark)
+	static public class Algorithm {
+		/**
+		 * The algorithm to use.
+		 */
+		@Param({"FARKAS", "PIPE", "SPARSE"})
+		public InvariantAlgorithm algorithm;
+	}
+
+	private List<PetriNet> nets;
+	private List<PetriNet> boundedNets;
+	private List<PetriNet> copies;
+	private List<PetriNet> boundedCopies;
+
+	/**
+	 * Create the nets of the workload.
+	 * @throws Exception if the workload cannot be created.
+	 */
+	@Setup
+	public void setup() throws Exception {
+		nets = Workloads.createNets(workload);
+		boundedNets = Workloads.filterBounded(nets);
+	}
+
+	/**
+	 * Create fresh copies of the nets so that no cached analysis results are used.
+	 */
+	@Setup(Level.Invocation)
+	public void copy() {
+		copies = Workloads.copyNets(nets);
+		boundedCopies = Workloads.copyNets(boundedNets);
+	}
+
+	/**
+	 * Calculate the reachability graphs of the bounded nets.
+	 * @return The reachability graphs.
+	 * @throws UnboundedException Never, since only bounded nets are used.
+	 */
+	@Benchmark
+	public List<TransitionSystem> reachabilityGraph() throws UnboundedException {
+		List<TransitionSystem> result = new ArrayList<>(boundedCopies.size());
+		for (PetriNet pn : boundedCopies)
+			result.add(CoverabilityGraph.getReachabilityGraph(pn).toReachabilityLTS());
+		return result;
+	}
+
+	/**
+	 * Calculate the coverability graphs of the nets.
+	 * @return The number of nodes in the coverability graphs.
+	 */
+	@Benchmark
+	public int coverabilityGraph() {
+		int result = 0;
+		for (PetriNet pn : copies)
+			result += CoverabilityGraph.get(pn).calculateNodes();
+		return result;
+	}
+
+	/**
+	 * Calculate the S- and T-invariants of the nets.
+	 * @param algorithm The algorithm to use.
+	 * @return The invariants.
+	 */
+	@Benchmark
+	public List<Object> invariants(Algorithm algorithm) {
+		List<Object> result = new ArrayList<>(2 * copies.size());
+		for (PetriNet pn : copies) {
+			result.add(InvariantCalculator.calcSInvariants(pn, algorithm.algorithm));
+			result.add(InvariantCalculator.calcTInvariants(pn, algorithm.algorithm));
+		}
+		return result;
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
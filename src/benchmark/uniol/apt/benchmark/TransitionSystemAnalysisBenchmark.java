@@ -0,0 +1,134 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import uniol.apt.adt.pn.PetriNet;
+import uniol.apt.adt.ts.TransitionSystem;
+import uniol.apt.analysis.bisimulation.Bisimulation;
+import uniol.apt.analysis.isomorphism.IsomorphismLogic;
+import uniol.apt.analysis.language.LanguageEquivalence;
+import uniol.apt.analysis.synthesize.SynthesizePN;
+
+/**
+ * Benchmarks for the analysis of labelled transition systems. The transition systems are the reachability graphs of
+ * the Petri nets of the workload. Since analysis results are cached in the transition systems, every invocation
+ * works on fresh copies.
+ * @author Uli Schlachter
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TransitionSystemAnalysisBenchmark {
+	/**
+	 * The workload to use, see {@link Workloads}.
+	 */
+	@Param({"philnet:2", "bitnet:4", "cycle:20", "tnet:2", "file:nets/crashkurs-cc1-net.apt"})
+	public String workload;
+
+	private List<TransitionSystem> ltss;
+	private List<TransitionSystem> copies;
+	private List<TransitionSystem> otherCopies;
+
+	/**
+	 * Create the transition systems of the workload.
+	 * @throws Exception if the workload cannot be created.
+	 */
+	@Setup
+	public void setup() throws Exception {
+		ltss = Workloads.createLTSs(workload);
+	}
+
+	/**
+	 * Create fresh copies of the transition systems so that no cached analysis results are used.
+	 */
+	@Setup(Level.Invocation)
+	public void copy() {
+		copies = Workloads.copyLTSs(ltss);
+		otherCopies = Workloads.copyLTSs(ltss);
+	}
+
+	/**
+	 * Synthesize Petri nets from the transition systems.
+	 * @return The synthesized Petri nets.
+	 * @throws Exception if synthesis fails.
+	 */
+	@Benchmark
+	public List<PetriNet> synthesis() throws Exception {
+		List<PetriNet> result = new ArrayList<>(copies.size());
+		for (TransitionSystem ts : copies)
+			result.add(SynthesizePN.Builder.createForIsomorphicBehaviour(ts).build().synthesizePetriNet());
+		return result;
+	}
+
+	/**
+	 * Check each transition system for isomorphism with a copy of itself.
+	 * @return The number of isomorphic pairs.
+	 */
+	@Benchmark
+	public int isomorphism() {
+		int result = 0;
+		for (int i = 0; i < copies.size(); i++)
+			if (new IsomorphismLogic(copies.get(i), otherCopies.get(i), true).isIsomorphic())
+				result++;
+		return result;
+	}
+
+	/**
+	 * Check each transition system for language equivalence with a copy of itself.
+	 * @return The number of language equivalent pairs.
+	 */
+	@Benchmark
+	public int languageEquivalence() {
+		int result = 0;
+		for (int i = 0; i < copies.size(); i++)
+			if (LanguageEquivalence.checkLanguageEquivalence(copies.get(i), otherCopies.get(i)) == null)
+				result++;
+		return result;
+	}
+
+	/**
+	 * Check each transition system for bisimilarity with a copy of itself.
+	 * @return The number of bisimilar pairs.
+	 */
+	@Benchmark
+	public int bisimulation() {
+		int result = 0;
+		for (int i = 0; i < copies.size(); i++)
+			if (new Bisimulation().checkBisimulation(copies.get(i), otherCopies.get(i)))
+				result++;
+		return result;
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
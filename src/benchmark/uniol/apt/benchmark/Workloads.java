@@ -0,0 +1,146 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import uniol.apt.adt.pn.PetriNet;
+import uniol.apt.adt.ts.TransitionSystem;
+import uniol.apt.analysis.bounded.Bounded;
+import uniol.apt.analysis.coverability.CoverabilityGraph;
+import uniol.apt.analysis.exception.UnboundedException;
+import uniol.apt.generator.bitnet.SimpleBitNetGenerator;
+import uniol.apt.generator.cycle.CycleGenerator;
+import uniol.apt.generator.philnet.TristatePhilNetGenerator;
+import uniol.apt.generator.tnet.TNetGenerator;
+import uniol.apt.io.parser.ParseException;
+import uniol.apt.io.parser.impl.AptPNParser;
+
+/**
+ * Creation of the Petri nets that the benchmarks work on. A workload is described by a string of the form
+ * "generator:argument" where generator is one of the following:
+ * <ul>
+ * <li>philnet: A tristate philosophers net with the given number of philosophers.</li>
+ * <li>bitnet: A bit net with the given number of bits.</li>
+ * <li>cycle: A cycle with the given number of transitions and one token.</li>
+ * <li>tnet: All t-nets with at most the given number of places.</li>
+ * <li>file: The Petri net from the file with the given name in APT format, e.g. from the nets/ directory.</li>
+ * </ul>
+ * @author Uli Schlachter
+ */
+public class Workloads {
+	private Workloads() {
+	}
+
+	/**
+	 * Create the Petri nets that are described by a workload.
+	 * @param workload The description of the workload.
+	 * @return A list of Petri nets.
+	 * @throws IOException When the given file cannot be read.
+	 * @throws ParseException When the given file cannot be parsed.
+	 */
+	static public List<PetriNet> createNets(String workload) throws IOException, ParseException {
+		int index = workload.indexOf(':');
+		if (index == -1)
+			throw new IllegalArgumentException("Invalid workload '" + workload + "'");
+		String generator = workload.substring(0, index);
+		String argument = workload.substring(index + 1);
+		switch (generator) {
+			case "philnet":
+				return Collections.singletonList(
+						new TristatePhilNetGenerator().generateNet(Integer.parseInt(argument)));
+			case "bitnet":
+				return Collections.singletonList(
+						new SimpleBitNetGenerator().generateNet(Integer.parseInt(argument)));
+			case "cycle":
+				return Collections.singletonList(
+						new CycleGenerator().generateNet(Integer.parseInt(argument), 1));
+			case "tnet":
+				List<PetriNet> result = new ArrayList<>();
+				for (PetriNet pn : new TNetGenerator(Integer.parseInt(argument)))
+					result.add(pn);
+				return result;
+			case "file":
+				return Collections.singletonList(new AptPNParser().parseFile(argument));
+			default:
+				throw new IllegalArgumentException("Unknown generator '" + generator + "' in workload '"
+						+ workload + "'");
+		}
+	}
+
+	/**
+	 * Select the bounded Petri nets from a list. Unbounded nets have an infinite reachability graph and thus cannot
+	 * be used for benchmarks which need the reachability graph.
+	 * @param nets The nets to filter.
+	 * @return A list of the bounded nets.
+	 */
+	static public List<PetriNet> filterBounded(List<PetriNet> nets) {
+		List<PetriNet> result = new ArrayList<>();
+		for (PetriNet pn : nets)
+			if (Bounded.isBounded(pn))
+				result.add(pn);
+		return result;
+	}
+
+	/**
+	 * Create the reachability graphs of the bounded Petri nets that are described by a workload.
+	 * @param workload The description of the workload.
+	 * @return A list of transition systems.
+	 * @throws IOException When the given file cannot be read.
+	 * @throws ParseException When the given file cannot be parsed.
+	 * @throws UnboundedException Never, since only bounded nets are used.
+	 */
+	static public List<TransitionSystem> createLTSs(String workload)
+			throws IOException, ParseException, UnboundedException {
+		List<TransitionSystem> result = new ArrayList<>();
+		for (PetriNet pn : filterBounded(createNets(workload)))
+			result.add(CoverabilityGraph.get(pn).toReachabilityLTS());
+		return result;
+	}
+
+	/**
+	 * Create deep copies of some Petri nets so that no cached analysis results are reused.
+	 * @param nets The nets to copy.
+	 * @return A list of copies.
+	 */
+	static public List<PetriNet> copyNets(List<PetriNet> nets) {
+		List<PetriNet> result = new ArrayList<>(nets.size());
+		for (PetriNet pn : nets)
+			result.add(new PetriNet(pn));
+		return result;
+	}
+
+	/**
+	 * Create deep copies of some transition systems so that no cached analysis results are reused.
+	 * @param ltss The transition systems to copy.
+	 * @return A list of copies.
+	 */
+	static public List<TransitionSystem> copyLTSs(List<TransitionSystem> ltss) {
+		List<TransitionSystem> result = new ArrayList<>(ltss.size());
+		for (TransitionSystem ts : ltss)
+			result.add(new TransitionSystem(ts));
+		return result;
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -83,7 +83,7 @@ public abstract class AbstractAptServiceProcessor extends AbstractServiceProcess
 			if (this.types.isSameType(this.types.erasure(actual), searched)) {
 				String type = MyTypes.asDeclaredType(actual).getTypeArguments().get(0)
 					.toString();
-				getSet(type).add(className);
+				getSet(type).add(getIndexEntry(classEle, className));
 			}
 		}
 	}
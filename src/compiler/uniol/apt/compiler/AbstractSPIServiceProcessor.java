@@ -28,7 +28,8 @@ import javax.lang.model.element.TypeElement;
 
 
 /**
- * Annotation processor generating ServiceLoader-style SPI information in META-INF.
+ * Annotation processor generating ServiceLoader-style SPI information in META-INF. If {@link getKeyConstantName}
+ * is overridden, an index for lazy loading is additionally written to META-INF/uniol/apt/compiler/[interface]/index.
  * @author Uli Schlachter
  */
 abstract public class AbstractSPIServiceProcessor extends AbstractServiceProcessor {
@@ -58,23 +59,29 @@ abstract public class AbstractSPIServiceProcessor extends AbstractServiceProcess
 	}
 
 	private Set<String> services;
+	private Set<String> index;
 
 	@Override
 	public synchronized void init(ProcessingEnvironment procEnv) {
 		super.init(procEnv);
 
 		this.services  = new HashSet<>();
+		this.index     = new HashSet<>();
 	}
 
 	@Override
 	protected void visitClass(TypeElement classEle, String className) {
 		this.services.add(className);
+		this.index.add(getIndexEntry(classEle, className));
 	}
 
 	@Override
 	protected void produceOutput() {
 		try {
 			writeResourceList("META-INF/services/" + this.interfaceName, services);
+			if (getKeyConstantName() != null)
+				writeResourceList("META-INF/uniol/apt/compiler/" + this.interfaceName + "/index",
+						index);
 		} catch (IOException ex) {
 			error("Caught IOException: %s", ex.getMessage());
 		}
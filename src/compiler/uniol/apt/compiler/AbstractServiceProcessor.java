@@ -39,7 +39,9 @@ import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
 import javax.tools.Diagnostic;
@@ -109,6 +111,47 @@ public abstract class AbstractServiceProcessor extends AbstractProcessor {
 	 */
 	abstract protected void produceOutput();
 
+	/**
+	 * Get the name of a compile-time constant through which annotated classes can make the key that they are looked
+	 * up with (e.g. the name of a module or the format of a parser) known at compile time. This key is written to
+	 * the index next to the class name, so that the class only has to be loaded when it is actually used. The
+	 * default implementation returns null, meaning that no keys are indexed.
+	 * @return The name of the constant or null.
+	 * @see getIndexEntry
+	 */
+	protected String getKeyConstantName() {
+		return null;
+	}
+
+	/**
+	 * Get the line that describes an annotated class in an index. This is the name of the class, followed by a
+	 * space and the value of the constant from {@link getKeyConstantName} if the class declares such a constant.
+	 * @param classEle The TypeElement that represents the class that is being compiled.
+	 * @param className The name of the class represented by classEle.
+	 * @return The index entry.
+	 */
+	protected String getIndexEntry(TypeElement classEle, String className) {
+		String constantName = getKeyConstantName();
+		if (constantName == null)
+			return className;
+		for (VariableElement field : ElementFilter.fieldsIn(classEle.getEnclosedElements())) {
+			if (!field.getSimpleName().contentEquals(constantName))
+				continue;
+			Object value = field.getConstantValue();
+			if (!(value instanceof String)) {
+				error(field, "%s of class %s is not a String constant.", constantName, className);
+				return className;
+			}
+			String key = (String) value;
+			if (key.isEmpty() || !key.equals(key.toLowerCase()) || key.contains(" ")) {
+				error(field, "%s of class %s has invalid value '%s'.", constantName, className, key);
+				return className;
+			}
+			return className + " " + key;
+		}
+		return className;
+	}
+
 	@Override
 	public synchronized void init(ProcessingEnvironment procEnv) {
 		super.init(procEnv);
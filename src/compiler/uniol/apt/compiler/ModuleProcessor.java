@@ -24,7 +24,8 @@ import uniol.apt.module.Module;
 
 /**
  * Annotation processor which scans for an AptModule annotation, analyzes all classes marked by this
- * annotation and writes their names in a file in META-INF
+ * annotation and writes their names in a file in META-INF. Modules which declare their name in a constant NAME are
+ * additionally indexed under this name, so that they are only loaded when they are used.
  *
  * @author vsp
  */
@@ -35,6 +36,11 @@ public class ModuleProcessor extends AbstractSPIServiceProcessor {
 	public ModuleProcessor() {
 		super(AptModule.class, Module.class, false);
 	}
+
+	@Override
+	protected String getKeyConstantName() {
+		return "NAME";
+	}
 }
 
 // vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -24,7 +24,8 @@ import uniol.apt.io.parser.Parser;
 
 /**
  * Annotation Processor which searches for classes annotated with AptParser, analyzes them and write them in lists in
- * META-INF where the Parsers class can find them.
+ * META-INF where the Parsers class can find them. Classes which declare their format in a constant FORMAT are
+ * listed together with this format, so that they are only loaded when they are used.
  *
  * @author vsp
  */
@@ -35,6 +36,11 @@ public class ParserProcessor extends AbstractAptServiceProcessor {
 	public ParserProcessor() {
 		super(AptParser.class, Parser.class);
 	}
+
+	@Override
+	protected String getKeyConstantName() {
+		return "FORMAT";
+	}
 }
 
 // vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -24,7 +24,8 @@ import uniol.apt.io.renderer.Renderer;
 
 /**
  * Annotation Processor which searches for classes annotated with AptRenderer, analyzes them and write them in lists in
- * META-INF where the Renderers class can find them.
+ * META-INF where the Renderers class can find them. Classes which declare their format in a constant FORMAT are
+ * listed together with this format, so that they are only loaded when they are used.
  *
  * @author vsp
  */
@@ -35,6 +36,11 @@ public class RendererProcessor extends AbstractAptServiceProcessor {
 	public RendererProcessor() {
 		super(AptRenderer.class, Renderer.class);
 	}
+
+	@Override
+	protected String getKeyConstantName() {
+		return "FORMAT";
+	}
 }
 
 // vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
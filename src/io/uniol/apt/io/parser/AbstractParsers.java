@@ -19,26 +19,20 @@
 
 package uniol.apt.io.parser;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.net.URL;
-import java.util.Enumeration;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Set;
 
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.io.LineIterator;
+import uniol.apt.util.ServiceIndex;
 
 /**
- * Class which provides the correct parser for a given format.
+ * Class which provides the correct parser for a given format. The parsers are only instantiated when they are
+ * first used.
  *
  * @author vsp
  *
  * @param <T> The class which the parsers generate.
  */
 public class AbstractParsers<T> implements Parsers<T> {
-	private Map<String, Parser<T>> parsers;
+	private final ServiceIndex<Parser<T>> parsers;
 
 	/**
 	 * Constructor
@@ -47,61 +41,16 @@ public class AbstractParsers<T> implements Parsers<T> {
 	 */
 	@SuppressWarnings("unchecked") // I hate type erasure and other java things ...
 	protected AbstractParsers(Class<T> clazz) {
-		this.parsers     = new HashMap<>();
-
-		String className = clazz.getCanonicalName();
-
-		ClassLoader cl   = getClass().getClassLoader();
-		try {
-			Enumeration<URL> parserNames = cl.getResources("META-INF/uniol/apt/compiler/"
-					+ Parser.class.getCanonicalName() + "/" + className);
-
-			while (parserNames.hasMoreElements()) {
-				try (InputStream is = parserNames.nextElement().openStream()) {
-					LineIterator lIter = IOUtils.lineIterator(is, "UTF-8");
-					while (lIter.hasNext()) {
-						String parserName = lIter.next();
-						Class<? extends Parser<T>> parserClass;
-						try {
-							parserClass =
-								(Class<? extends Parser<T>>) cl.loadClass(parserName);
-						} catch (ClassNotFoundException ex) {
-							throw new RuntimeException(String.format(
-									"Could not load class %s",
-									parserName), ex);
-						}
-						Parser<T> parser;
-						try {
-							parser = parserClass.getDeclaredConstructor().newInstance();
-						} catch (ClassCastException
-								| ReflectiveOperationException ex) {
-							throw new RuntimeException(String.format(
-									"Could not instantiate %s",
-									parserName), ex);
-						}
-						String format = parser.getFormat();
-						if (format == null || format.equals("")
-								|| !format.equals(format.toLowerCase())) {
-							throw new RuntimeException(String.format(
-									"Parser %s reports an invalid format: %s",
-									parserName, format));
-						}
-						Parser<T> oldParser = this.parsers.get(format);
-						if (oldParser != null && !oldParser.getClass().equals(parserClass)) {
-							throw new RuntimeException(String.format(
-								"Different parsers claim, to interpret format %s:"
-								+ " %s and %s", format,
-								oldParser.getClass().getCanonicalName(),
-								parserName));
-						}
-						this.parsers.put(format, parser);
-					}
-				}
+		String resourceName = "META-INF/uniol/apt/compiler/" + Parser.class.getCanonicalName() + "/"
+			+ clazz.getCanonicalName();
+		Class<Parser<T>> parserClass = (Class<Parser<T>>) (Class<?>) Parser.class;
+		this.parsers = new ServiceIndex<Parser<T>>(parserClass, getClass().getClassLoader(), resourceName,
+				"parser", "format") {
+			@Override
+			protected String getKey(Parser<T> parser) {
+				return parser.getFormat();
 			}
-		} catch (IOException ex) {
-			throw new RuntimeException("Failed to discover parsers", ex);
-		}
-
+		};
 	}
 
 	@Override
@@ -115,7 +64,7 @@ public class AbstractParsers<T> implements Parsers<T> {
 
 	@Override
 	public Set<String> getSupportedFormats() {
-		return this.parsers.keySet();
+		return this.parsers.getKeys();
 	}
 }
 
@@ -34,9 +34,11 @@ import uniol.apt.io.parser.Parser;
  */
 @AptParser
 public class GenetPNParser extends PetrifyPNParser implements Parser<PetriNet> {
+	public final static String FORMAT = "genet";
+
 	@Override
 	public String getFormat() {
-		return "genet";
+		return FORMAT;
 	}
 
 	@Override
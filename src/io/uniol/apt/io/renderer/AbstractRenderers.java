@@ -19,26 +19,20 @@
 
 package uniol.apt.io.renderer;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.net.URL;
-import java.util.Enumeration;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Set;
 
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.io.LineIterator;
+import uniol.apt.util.ServiceIndex;
 
 /**
- * Class which provides the correct renderer for a given format.
+ * Class which provides the correct renderer for a given format. The renderers are only instantiated when they are
+ * first used.
  *
  * @author vsp
  *
  * @param <T> The class which the renderers should render.
  */
 public class AbstractRenderers<T> implements Renderers<T> {
-	private Map<String, Renderer<T>> renderers;
+	private final ServiceIndex<Renderer<T>> renderers;
 
 	/**
 	 * Constructor
@@ -47,62 +41,16 @@ public class AbstractRenderers<T> implements Renderers<T> {
 	 */
 	@SuppressWarnings("unchecked") // I hate type erasure and other java things ...
 	protected AbstractRenderers(Class<T> clazz) {
-		this.renderers   = new HashMap<>();
-
-		String className = clazz.getCanonicalName();
-
-		ClassLoader cl   = getClass().getClassLoader();
-		try {
-			Enumeration<URL> rendererNames = cl.getResources("META-INF/uniol/apt/compiler/"
-					+ Renderer.class.getCanonicalName() + "/" + className);
-
-			while (rendererNames.hasMoreElements()) {
-				try (InputStream is = rendererNames.nextElement().openStream()) {
-					LineIterator lIter = IOUtils.lineIterator(is, "UTF-8");
-					while (lIter.hasNext()) {
-						String rendererName = lIter.next();
-						Class<? extends Renderer<T>> rendererClass;
-						try {
-							rendererClass = (Class<? extends Renderer<T>>)
-								cl.loadClass(rendererName);
-						} catch (ClassNotFoundException ex) {
-							throw new RuntimeException(String.format(
-									"Could not load class %s",
-									rendererName), ex);
-						}
-						Renderer<T> renderer;
-						try {
-							renderer = rendererClass.getDeclaredConstructor().newInstance();
-						} catch (ClassCastException
-								| ReflectiveOperationException ex) {
-							throw new RuntimeException(String.format(
-									"Could not instantiate %s",
-									rendererName), ex);
-						}
-						String format = renderer.getFormat();
-						if (format == null || format.equals("")
-								|| !format.equals(format.toLowerCase())) {
-							throw new RuntimeException(String.format(
-									"Renderer %s reports an invalid format: %s",
-									rendererName, format));
-						}
-						Renderer<T> oldRenderer = this.renderers.get(format);
-						if (oldRenderer != null
-								&& !oldRenderer.getClass().equals(rendererClass)) {
-							throw new RuntimeException(String.format(
-								"Different renderers claim, to interpret format %s:"
-								+ " %s and %s", format,
-								oldRenderer.getClass().getCanonicalName(),
-								rendererName));
-						}
-						this.renderers.put(format, renderer);
-					}
-				}
+		String resourceName = "META-INF/uniol/apt/compiler/" + Renderer.class.getCanonicalName() + "/"
+			+ clazz.getCanonicalName();
+		Class<Renderer<T>> rendererClass = (Class<Renderer<T>>) (Class<?>) Renderer.class;
+		this.renderers = new ServiceIndex<Renderer<T>>(rendererClass, getClass().getClassLoader(), resourceName,
+				"renderer", "format") {
+			@Override
+			protected String getKey(Renderer<T> renderer) {
+				return renderer.getFormat();
 			}
-		} catch (IOException ex) {
-			throw new RuntimeException("Failed to discover renderers", ex);
-		}
-
+		};
 	}
 
 	@Override
@@ -116,7 +64,7 @@ public class AbstractRenderers<T> implements Renderers<T> {
 
 	@Override
 	public Set<String> getSupportedFormats() {
-		return this.renderers.keySet();
+		return this.renderers.getKeys();
 	}
 }
 
@@ -29,8 +29,10 @@ import uniol.apt.io.renderer.Renderer;
  */
 @AptRenderer
 public class DotPNRenderer extends AbstractSTRenderer<PetriNet> implements Renderer<PetriNet> {
+	public final static String FORMAT = "dot";
+
 	public DotPNRenderer() {
-		super("uniol/apt/io/renderer/impl/DotPN.stg", "pn", "dot", "dot");
+		super("uniol/apt/io/renderer/impl/DotPN.stg", "pn", FORMAT, "dot");
 	}
 }
 
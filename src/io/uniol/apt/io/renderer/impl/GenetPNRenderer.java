@@ -46,9 +46,11 @@ import uniol.apt.io.renderer.RenderException;
  */
 @AptRenderer
 public class GenetPNRenderer extends AbstractRenderer<PetriNet> implements Renderer<PetriNet> {
+	public final static String FORMAT = "genet";
+
 	@Override
 	public String getFormat() {
-		return "genet";
+		return FORMAT;
 	}
 
 	@Override
@@ -38,9 +38,11 @@ import uniol.apt.io.renderer.RenderException;
  */
 @AptRenderer
 public class PetrifyPNRenderer extends GenetPNRenderer implements Renderer<PetriNet> {
+	public final static String FORMAT = "petrify";
+
 	@Override
 	public String getFormat() {
-		return "petrify";
+		return FORMAT;
 	}
 
 	@Override
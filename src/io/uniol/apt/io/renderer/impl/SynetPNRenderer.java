@@ -30,8 +30,10 @@ import uniol.apt.io.renderer.Renderer;
  */
 @AptRenderer
 public class SynetPNRenderer extends AbstractSTRenderer<PetriNet> implements Renderer<PetriNet> {
+	public final static String FORMAT = "synet";
+
 	public SynetPNRenderer() {
-		super("uniol/apt/io/renderer/impl/SynetPN.stg", "pn", "synet", "net");
+		super("uniol/apt/io/renderer/impl/SynetPN.stg", "pn", FORMAT, "net");
 	}
 }
 
@@ -29,8 +29,10 @@ import uniol.apt.io.renderer.Renderer;
  */
 @AptRenderer
 public class TikzLTSRenderer extends AbstractSTRenderer<TransitionSystem> implements Renderer<TransitionSystem> {
+	public final static String FORMAT = "tikz";
+
 	public TikzLTSRenderer() {
-		super("uniol/apt/io/renderer/impl/TikzLTS.stg", "ts", "tikz", "tex");
+		super("uniol/apt/io/renderer/impl/TikzLTS.stg", "ts", FORMAT, "tex");
 	}
 }
 
@@ -29,8 +29,10 @@ import uniol.apt.io.renderer.Renderer;
  */
 @AptRenderer
 public class TikzPNRenderer extends AbstractSTRenderer<PetriNet> implements Renderer<PetriNet> {
+	public final static String FORMAT = "tikz";
+
 	public TikzPNRenderer() {
-		super("uniol/apt/io/renderer/impl/TikzPN.stg", "pn", "tikz", "tex");
+		super("uniol/apt/io/renderer/impl/TikzPN.stg", "pn", FORMAT, "tex");
 	}
 }
 
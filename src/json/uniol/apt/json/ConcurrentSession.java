@@ -0,0 +1,170 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.json;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import uniol.apt.util.interrupt.InterrupterRegistry;
+import uniol.apt.util.interrupt.ThreadStatusInterrupter;
+
+/**
+ * Reads JSON commands from a reader and executes them concurrently on a pool of worker threads. Results are written
+ * as soon as they are available, so they can appear in a different order than the commands that produced them.
+ * Commands should include an "id" entry which is copied to their result.
+ * @author Uli Schlachter
+ */
+public class ConcurrentSession {
+	private final Reader input;
+	private final Writer output;
+	private final JSONExecutor executor;
+	private final ExecutorService workers;
+
+	// Number of commands which were submitted, but whose result was not yet written; guarded by "this"
+	private int pending = 0;
+	// First error that happened while writing a result; guarded by "this"
+	private IOException writeError = null;
+
+	/**
+	 * Constructor.
+	 * @param input Reader to read JSON input from.
+	 * @param output Output to write JSON results to.
+	 * @param executor Executor used to execute the input received.
+	 * @param workers The thread pool on which commands are executed.
+	 */
+	public ConcurrentSession(Reader input, Writer output, JSONExecutor executor, ExecutorService workers) {
+		this.input = input;
+		this.output = output;
+		this.executor = executor;
+		this.workers = workers;
+	}
+
+	/**
+	 * Read and execute commands until EOF is reached or malformed JSON is read. This function only returns after
+	 * the results for all commands were written.
+	 * @throws IOException When an I/O error occurs.
+	 * @throws InterruptedException When the current thread is interrupted while waiting for pending commands.
+	 */
+	public void run() throws IOException, InterruptedException {
+		JSONTokener tokener = new JSONTokener(input);
+
+		// The dance with nextClean() and back() is needed so that EOF is detected correctly, see Main.
+		boolean exit = false;
+		try {
+			tokener.nextClean();
+			while (!tokener.end() && !exit) {
+				tokener.back();
+
+				try {
+					submit(new JSONObject(tokener));
+				} catch (JSONException e) {
+					// Exception in JSON parsing, abort reading
+					exit = true;
+					write(JSONUtilities.toJSONObject(e));
+				}
+
+				tokener.nextClean();
+			}
+		} finally {
+			waitForPendingCommands();
+		}
+
+		synchronized (this) {
+			if (writeError != null)
+				throw writeError;
+		}
+	}
+
+	private void submit(final JSONObject command) throws IOException {
+		synchronized (this) {
+			pending++;
+		}
+		try {
+			workers.execute(new Runnable() {
+				@Override
+				public void run() {
+					execute(command);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			commandDone();
+			JSONObject result = JSONUtilities.toJSONObject(e);
+			Object id = command.opt("id");
+			if (id != null)
+				result.put("id", id);
+			write(result);
+		}
+	}
+
+	private void execute(JSONObject command) {
+		JSONObject result;
+		// Each command gets its own interrupter context, so that shutting down the pool aborts running modules
+		InterrupterRegistry.setCurrentThreadInterrupter(new ThreadStatusInterrupter());
+		try {
+			result = executor.execute(command);
+		} catch (RuntimeException e) {
+			result = JSONUtilities.toJSONObject(e);
+			Object id = command.opt("id");
+			if (id != null)
+				result.put("id", id);
+		} finally {
+			InterrupterRegistry.clearCurrentThreadInterrupter();
+		}
+
+		try {
+			write(result);
+		} catch (IOException e) {
+			synchronized (this) {
+				if (writeError == null)
+					writeError = e;
+			}
+		} finally {
+			commandDone();
+		}
+	}
+
+	private void write(JSONObject result) throws IOException {
+		synchronized (output) {
+			result.write(output, 1, 0);
+			output.write("\n\n");
+			output.flush();
+		}
+	}
+
+	private synchronized void commandDone() {
+		pending--;
+		if (pending == 0)
+			notifyAll();
+	}
+
+	private synchronized void waitForPendingCommands() throws InterruptedException {
+		while (pending > 0)
+			wait();
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -40,6 +40,7 @@ import uniol.apt.module.impl.Parameter;
 import uniol.apt.module.impl.ReturnValue;
 import uniol.apt.ui.ParametersTransformer;
 import uniol.apt.ui.ReturnValuesTransformer;
+import uniol.apt.ui.impl.CachingParametersTransformer;
 import uniol.apt.util.interrupt.ChainedInterrupter;
 import uniol.apt.util.interrupt.Interrupter;
 import uniol.apt.util.interrupt.InterrupterRegistry;
@@ -73,16 +74,22 @@ public class JSONExecutor {
 	}
 
 	/**
-	 * Execute a command given as a JSONObject.
+	 * Execute a command given as a JSONObject. If the command contains an "id" entry, the result will contain the
+	 * same entry so that results can be matched to the command that produced them.
 	 * @param arguments The JSONObject describing what should be done.
 	 * @return The result of the command.
 	 */
 	public JSONObject execute(JSONObject arguments) {
+		JSONObject result;
 		try {
-			return doExecute(arguments);
+			result = doExecute(arguments);
 		} catch (JSONException e) {
-			return JSONUtilities.toJSONObject(e);
+			result = JSONUtilities.toJSONObject(e);
 		}
+		Object id = arguments.opt("id");
+		if (id != null)
+			result.put("id", id);
+		return result;
 	}
 
 	private JSONObject doExecute(JSONObject arguments) {
@@ -226,6 +233,7 @@ public class JSONExecutor {
 			ModuleInput input = transformArguments(module, arguments.getJSONObject("arguments"));
 			ModuleOutputImpl output = ModuleUtils.getModuleOutput(module);
 			module.run(input, output);
+			updateCache(module, input);
 			return output;
 		} finally {
 			if (originalInterrupter != null)
@@ -233,6 +241,17 @@ public class JSONExecutor {
 		}
 	}
 
+	private void updateCache(Module module, ModuleInput input) {
+		if (!(parametersTransformer instanceof CachingParametersTransformer))
+			return;
+		CachingParametersTransformer transformer = (CachingParametersTransformer) parametersTransformer;
+		for (Parameter parameter : ModuleUtils.getAllParameters(module)) {
+			Object arg = input.getParameter(parameter.getName(), parameter.getKlass());
+			if (arg != null)
+				transformer.updateCache(arg);
+		}
+	}
+
 	private ModuleInput transformArguments(Module module, JSONObject arguments) throws ModuleException {
 		ModuleInputImpl input = new ModuleInputImpl();
 		for (Parameter parameter : ModuleUtils.getAllParameters(module)) {
@@ -19,11 +19,16 @@
 
 package uniol.apt.json;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -32,11 +37,15 @@ import org.json.JSONTokener;
 import uniol.apt.module.AptModuleRegistry;
 import uniol.apt.ui.impl.AptParametersTransformer;
 import uniol.apt.ui.impl.AptReturnValuesTransformer;
+import uniol.apt.ui.impl.CachingParametersTransformer;
+import uniol.apt.ui.impl.ParsedObjectCache;
 
 /**
  * @author Uli Schlachter
  */
 public class Main {
+	private static final int DEFAULT_CACHE_SIZE = 64;
+
 	/**
 	 * Constructor.
 	 * @param input Reader to read JSON input from.
@@ -72,16 +81,107 @@ public class Main {
 	}
 
 	/**
-	 * Program entry point.
+	 * Program entry point. Without arguments, commands are read from standard input and executed one after
+	 * another. The following arguments switch to concurrent execution:
+	 * <ul>
+	 * <li><pre>--threads N</pre> executes commands on a pool of N worker threads.</li>
+	 * <li><pre>--port P</pre> accepts connections on the given local TCP port instead of reading from standard
+	 * input. Each connection is handled like standard input in concurrent mode.</li>
+	 * <li><pre>--cache-size N</pre> keeps up to N parsed Petri nets and transition systems in memory so that
+	 * they do not have to be parsed again when they are used by another command.</li>
+	 * <li><pre>--cache-dir DIR</pre> additionally keeps parsed objects and their coverability graphs in the
+	 * given directory so that they survive restarts.</li>
+	 * </ul>
 	 * @param args command line arguments
 	 * @throws IOException when reading from standard input or writing to standard output fails
+	 * @throws InterruptedException when interrupted while waiting for running commands
 	 */
-	public static void main(String[] args) throws IOException {
-		JSONExecutor executor = new JSONExecutor(AptModuleRegistry.INSTANCE, AptParametersTransformer.INSTANCE,
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int threads = 0;
+		int port = -1;
+		int cacheSize = DEFAULT_CACHE_SIZE;
+		File cacheDir = null;
+		for (int i = 0; i < args.length; i++) {
+			if (i + 1 >= args.length)
+				usage();
+			switch (args[i]) {
+				case "--threads":
+					threads = parsePositive(args[++i]);
+					break;
+				case "--port":
+					port = parsePositive(args[++i]);
+					break;
+				case "--cache-size":
+					cacheSize = parsePositive(args[++i]);
+					break;
+				case "--cache-dir":
+					cacheDir = new File(args[++i]);
+					break;
+				default:
+					usage();
+					break;
+			}
+		}
+
+		if (threads == 0 && port == -1 && cacheDir == null) {
+			JSONExecutor executor = new JSONExecutor(AptModuleRegistry.INSTANCE,
+					AptParametersTransformer.INSTANCE, AptReturnValuesTransformer.INSTANCE);
+			try (Writer writer = new OutputStreamWriter(System.out, "UTF-8")) {
+				new Main(new InputStreamReader(System.in, "UTF-8"), writer, executor);
+			}
+			return;
+		}
+
+		if (threads == 0 && port == -1) {
+			JSONExecutor executor = new JSONExecutor(AptModuleRegistry.INSTANCE,
+					new CachingParametersTransformer(AptParametersTransformer.INSTANCE,
+						new ParsedObjectCache(cacheSize, cacheDir)),
+					AptReturnValuesTransformer.INSTANCE);
+			try (Writer writer = new OutputStreamWriter(System.out, "UTF-8")) {
+				new Main(new InputStreamReader(System.in, "UTF-8"), writer, executor);
+			}
+			return;
+		}
+
+		if (threads == 0)
+			threads = Runtime.getRuntime().availableProcessors();
+		JSONExecutor executor = new JSONExecutor(AptModuleRegistry.INSTANCE,
+				new CachingParametersTransformer(AptParametersTransformer.INSTANCE,
+					new ParsedObjectCache(cacheSize, cacheDir)),
 				AptReturnValuesTransformer.INSTANCE);
-		try (Writer writer = new OutputStreamWriter(System.out, "UTF-8")) {
-			new Main(new InputStreamReader(System.in, "UTF-8"), writer, executor);
+		ExecutorService workers = Executors.newFixedThreadPool(threads);
+		try {
+			if (port == -1) {
+				try (Writer writer = new OutputStreamWriter(System.out, "UTF-8")) {
+					new ConcurrentSession(new InputStreamReader(System.in, "UTF-8"), writer,
+							executor, workers).run();
+				}
+			} else {
+				ServerSocket socket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+				try (SocketServer server = new SocketServer(socket, executor, workers)) {
+					server.serve();
+				}
+			}
+		} finally {
+			workers.shutdownNow();
+		}
+	}
+
+	private static int parsePositive(String arg) {
+		try {
+			int result = Integer.parseInt(arg);
+			if (result > 0)
+				return result;
+		} catch (NumberFormatException e) {
+			// Fall through to usage() below
 		}
+		usage();
+		return -1;
+	}
+
+	private static void usage() {
+		System.err.println("Usage: apt-json [--threads N] [--port P] [--cache-size N] [--cache-dir DIR]");
+		System.exit(1);
 	}
 }
 
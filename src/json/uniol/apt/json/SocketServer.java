@@ -0,0 +1,99 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * A server which accepts connections on a socket and handles each of them as a {@link ConcurrentSession}. All
+ * connections share the same pool of worker threads and the same {@link JSONExecutor}.
+ * @author Uli Schlachter
+ */
+public class SocketServer implements Closeable {
+	private final ServerSocket socket;
+	private final JSONExecutor executor;
+	private final ExecutorService workers;
+
+	/**
+	 * Constructor.
+	 * @param socket The socket on which connections are accepted.
+	 * @param executor Executor used to execute the commands received.
+	 * @param workers The thread pool on which commands are executed.
+	 */
+	public SocketServer(ServerSocket socket, JSONExecutor executor, ExecutorService workers) {
+		this.socket = socket;
+		this.executor = executor;
+		this.workers = workers;
+	}
+
+	/**
+	 * Accept and handle connections until this server is closed.
+	 * @throws IOException When accepting a connection fails for a reason other than this server being closed.
+	 */
+	public void serve() throws IOException {
+		while (!socket.isClosed()) {
+			final Socket connection;
+			try {
+				connection = socket.accept();
+			} catch (IOException e) {
+				if (socket.isClosed())
+					return;
+				throw e;
+			}
+
+			Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					handle(connection);
+				}
+			}, "apt-json-" + connection.getRemoteSocketAddress());
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	private void handle(Socket connection) {
+		try (Socket conn = connection;
+				Reader reader = new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8);
+				Writer writer = new OutputStreamWriter(conn.getOutputStream(), StandardCharsets.UTF_8)) {
+			new ConcurrentSession(reader, writer, executor, workers).run();
+		} catch (IOException e) {
+			// The client went away; there is no one left to report this to
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		socket.close();
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
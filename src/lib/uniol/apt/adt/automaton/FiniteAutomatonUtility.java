@@ -39,6 +39,7 @@ import org.apache.commons.collections4.Predicate;
 
 import uniol.apt.adt.ts.Arc;
 import uniol.apt.adt.ts.TransitionSystem;
+import uniol.apt.util.interrupt.InterruptPoller;
 import uniol.apt.util.interrupt.InterrupterRegistry;
 import uniol.apt.util.EquivalenceRelation;
 import uniol.apt.util.IEquivalenceRelation;
@@ -1121,8 +1122,9 @@ public class FiniteAutomatonUtility {
 			DFAState finalState = null;
 			DFAState nonFinalState = null;
 			EquivalenceRelation<DFAState> relation = new EquivalenceRelation<>();
+			InterruptPoller poller = new InterruptPoller();
 			for (DFAState state : statesIterable(a)) {
-				InterrupterRegistry.throwIfInterruptRequestedForCurrentThread();
+				poller.poll();
 				if (state.isFinalState()) {
 					if (finalState == null)
 						finalState = state;
@@ -1171,10 +1173,11 @@ public class FiniteAutomatonUtility {
 			int nextIndex = 1;
 			Map<Integer, Map<Symbol, Integer>> transitions = new HashMap<>();
 			Deque<Set<DFAState>> unhandled = new LinkedList<>();
+			InterruptPoller poller = new InterruptPoller();
 
 			unhandled.add(partition.getClass(initialState));
 			while (!unhandled.isEmpty()) {
-				InterrupterRegistry.throwIfInterruptRequestedForCurrentThread();
+				poller.poll();
 				Set<DFAState> state = unhandled.removeFirst();
 
 				DFAState representingState = state.iterator().next();
@@ -39,20 +39,26 @@ import uniol.apt.util.Pair;
  */
 public class Extensible implements IExtensible {
 
-	private final Map<String, Extension> extensions = new HashMap<>();
+	// Extensions indexed by the index of their ExtensionKey; allocated on first use
+	private Extension[] extensions = null;
+	// Extensions whose name does not belong to an ExtensionKey; allocated on first use
+	private Map<String, Extension> namedExtensions = null;
 
 	private static class Extension {
+		final String name;
 		final Object value;
 		final Set<ExtensionProperty> properties;
 
-		public Extension(Object value) {
+		public Extension(String name, Object value) {
+			this.name = name;
 			this.value = value;
 			this.properties = Collections.emptySet();
 		}
 
-		public Extension(Object value, ExtensionProperty... properties) {
+		public Extension(String name, Object value, ExtensionProperty... properties) {
 			Set<ExtensionProperty> props = new HashSet<>(Arrays.asList(properties));
 
+			this.name = name;
 			this.value = value;
 
 			// Premature optimisation: Save some memory
@@ -65,6 +71,52 @@ public class Extensible implements IExtensible {
 		}
 	}
 
+	private Extension getSlot(int index) {
+		if (extensions == null || index < 0 || index >= extensions.length)
+			return null;
+		return extensions[index];
+	}
+
+	private void setSlot(int index, Extension ext) {
+		if (extensions == null)
+			extensions = new Extension[index + 1];
+		else if (index >= extensions.length)
+			extensions = Arrays.copyOf(extensions, index + 1);
+		extensions[index] = ext;
+	}
+
+	private Extension find(String key) {
+		Extension ext = getSlot(ExtensionKey.lookup(key));
+		if (ext == null && namedExtensions != null)
+			ext = namedExtensions.get(key);
+		return ext;
+	}
+
+	private Extension find(ExtensionKey<?> key) {
+		Extension ext = getSlot(key.getIndex());
+		// The extension could have been added by name before the key was created
+		if (ext == null && namedExtensions != null)
+			ext = namedExtensions.get(key.getName());
+		return ext;
+	}
+
+	private void put(String key, Extension ext) {
+		int index = ExtensionKey.lookup(key);
+		if (index >= 0) {
+			put(index, ext);
+		} else {
+			if (namedExtensions == null)
+				namedExtensions = new HashMap<>();
+			namedExtensions.put(key, ext);
+		}
+	}
+
+	private void put(int index, Extension ext) {
+		setSlot(index, ext);
+		if (namedExtensions != null)
+			namedExtensions.remove(ext.name);
+	}
+
 	/**
 	 * Returns if this extension contains the given key.
 	 *
@@ -72,12 +124,33 @@ public class Extensible implements IExtensible {
 	 * @return true if this extensible has an extension names 'key'
 	 */
 	public boolean hasExtension(String key) {
-		return this.extensions.containsKey(key);
+		return find(key) != null;
+	}
+
+	/**
+	 * Returns if this extension contains the given key.
+	 *
+	 * @param key - key to search for
+	 * @return true if this extensible has an extension for 'key'
+	 */
+	public boolean hasExtension(ExtensionKey<?> key) {
+		return find(key) != null;
 	}
 
 	@Override
 	public void putExtension(String key, Object value, ExtensionProperty... properties) {
-		this.extensions.put(key, new Extension(value, properties));
+		put(key, new Extension(key, value, properties));
+	}
+
+	/**
+	 * Saves the given value using the key as identifier.
+	 * @param key The key of the extension.
+	 * @param value The value.
+	 * @param properties Properties that this extension should have.
+	 * @param <T> The type of the value.
+	 */
+	public <T> void putExtension(ExtensionKey<T> key, T value, ExtensionProperty... properties) {
+		put(key.getIndex(), new Extension(key.getName(), value, properties));
 	}
 
 	/**
@@ -87,7 +160,18 @@ public class Extensible implements IExtensible {
 	 * @param value Any value.
 	 */
 	public void putExtension(String key, Object value) {
-		this.extensions.put(key, new Extension(value));
+		put(key, new Extension(key, value));
+	}
+
+	/**
+	 * Saves the given value using the key as identifier with the flag to copy
+	 * this object by coping the owner object.
+	 * @param key The key of the extension.
+	 * @param value The value.
+	 * @param <T> The type of the value.
+	 */
+	public <T> void putExtension(ExtensionKey<T> key, T value) {
+		put(key.getIndex(), new Extension(key.getName(), value));
 	}
 
 	/**
@@ -96,7 +180,22 @@ public class Extensible implements IExtensible {
 	 */
 	@Override
 	public void removeExtension(String key) {
-		this.extensions.remove(key);
+		removeExtension(ExtensionKey.lookup(key), key);
+	}
+
+	/**
+	 * Removes the value associated with the given key.
+	 * @param key The key of the extension.
+	 */
+	public void removeExtension(ExtensionKey<?> key) {
+		removeExtension(key.getIndex(), key.getName());
+	}
+
+	private void removeExtension(int index, String key) {
+		if (getSlot(index) != null)
+			extensions[index] = null;
+		if (namedExtensions != null)
+			namedExtensions.remove(key);
 	}
 
 	/**
@@ -107,22 +206,48 @@ public class Extensible implements IExtensible {
 	 */
 	@Override
 	public Object getExtension(String key) {
-		Extension ext = this.extensions.get(key);
+		Extension ext = find(key);
 		if (ext == null) {
 			throw new StructureException("Extension '" + key + "' not found.");
 		}
 		return ext.value;
 	}
 
+	/**
+	 * Retrieves the saved value using the key as identifier.
+	 * @param key The key of the extension.
+	 * @param <T> The type of the value.
+	 * @return The saved value.
+	 * @throws StructureException thrown if the key is not found.
+	 * @throws ClassCastException thrown if the saved value does not have the type of the key.
+	 */
+	public <T> T getExtension(ExtensionKey<T> key) {
+		Extension ext = find(key);
+		if (ext == null) {
+			throw new StructureException("Extension '" + key.getName() + "' not found.");
+		}
+		return key.getType().cast(ext.value);
+	}
+
+	private List<Extension> getAllExtensions() {
+		List<Extension> ret = new ArrayList<>();
+		if (extensions != null)
+			for (Extension ext : extensions)
+				if (ext != null)
+					ret.add(ext);
+		if (namedExtensions != null)
+			ret.addAll(namedExtensions.values());
+		return ret;
+	}
+
 	/**
 	 * Calculates a list of pairs key-value of all extensions. Attention it's a reference copy!
 	 * @return A list of key-value-pairs of all extensions.
 	 */
 	public List<Pair<String, Object>> getExtensions() {
 		List<Pair<String, Object>> ret = new ArrayList<>();
-		for (Map.Entry<String, Extension> entry : extensions.entrySet()) {
-			ret.add(new Pair<>(entry.getKey(), entry.getValue().value));
-		}
+		for (Extension ext : getAllExtensions())
+			ret.add(new Pair<>(ext.name, ext.value));
 		return ret;
 	}
 
@@ -133,13 +258,7 @@ public class Extensible implements IExtensible {
 	 * @return A list of key-value-pairs of all extensions.
 	 */
 	public List<Pair<String, Object>> getExtensionsWithProperty(ExtensionProperty property) {
-		List<Pair<String, Object>> ret = new ArrayList<>();
-		for (Map.Entry<String, Extension> entry : extensions.entrySet()) {
-			Extension ext = entry.getValue();
-			if (ext.properties.contains(property))
-				ret.add(new Pair<>(entry.getKey(), ext.value));
-		}
-		return ret;
+		return getExtensionsFiltered(property, true);
 	}
 
 	/**
@@ -149,12 +268,14 @@ public class Extensible implements IExtensible {
 	 * @return A list of key-value-pairs of all extensions.
 	 */
 	public List<Pair<String, Object>> getExtensionsWithoutProperty(ExtensionProperty property) {
+		return getExtensionsFiltered(property, false);
+	}
+
+	private List<Pair<String, Object>> getExtensionsFiltered(ExtensionProperty property, boolean with) {
 		List<Pair<String, Object>> ret = new ArrayList<>();
-		for (Map.Entry<String, Extension> entry : extensions.entrySet()) {
-			Extension ext = entry.getValue();
-			if (!ext.properties.contains(property))
-				ret.add(new Pair<>(entry.getKey(), ext.value));
-		}
+		for (Extension ext : getAllExtensions())
+			if (ext.properties.contains(property) == with)
+				ret.add(new Pair<>(ext.name, ext.value));
 		return ret;
 	}
 
@@ -180,9 +301,9 @@ public class Extensible implements IExtensible {
 	 * @param e The Extensible to copy from.
 	 */
 	public final void copyExtensions(Extensible e) {
-		for (Pair<String, Object> pair : e.getCopyExtensions()) {
-			putExtension(pair.getFirst(), pair.getSecond());
-		}
+		for (Extension ext : e.getAllExtensions())
+			if (!ext.properties.contains(ExtensionProperty.NOCOPY))
+				putExtension(ext.name, ext.value);
 	}
 }
 
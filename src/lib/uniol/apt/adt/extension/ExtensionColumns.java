@@ -0,0 +1,139 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.adt.extension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import uniol.apt.adt.exception.StructureException;
+import uniol.apt.util.Pair;
+
+/**
+ * Extension storage for a whole family of elements which are identified by consecutive integers. Instead of giving
+ * each element its own map of extensions, there is one column per extension key. A column is only allocated when
+ * the first value for its key is stored. Since null marks a missing entry, null values cannot be stored.
+ * @author Uli Schlachter
+ */
+public class ExtensionColumns {
+	static private final int INITIAL_CAPACITY = 16;
+
+	private final Map<String, Object[]> columns = new LinkedHashMap<>();
+
+	/**
+	 * Store a value for an element.
+	 * @param index The index of the element.
+	 * @param key The key of the extension.
+	 * @param value The value to store, or null to remove the current value.
+	 */
+	public void put(int index, String key, Object value) {
+		if (index < 0)
+			throw new IndexOutOfBoundsException("Invalid index " + index);
+		Object[] column = columns.get(key);
+		if (value == null) {
+			if (column != null && index < column.length)
+				column[index] = null;
+			return;
+		}
+		if (column == null) {
+			column = new Object[Math.max(INITIAL_CAPACITY, index + 1)];
+			columns.put(key, column);
+		} else if (index >= column.length) {
+			column = Arrays.copyOf(column, Math.max(2 * column.length, index + 1));
+			columns.put(key, column);
+		}
+		column[index] = value;
+	}
+
+	/**
+	 * Check if a value is stored for an element.
+	 * @param index The index of the element.
+	 * @param key The key of the extension.
+	 * @return true if a value is stored.
+	 */
+	public boolean has(int index, String key) {
+		return getOrNull(index, key) != null;
+	}
+
+	/**
+	 * Get the value that is stored for an element.
+	 * @param index The index of the element.
+	 * @param key The key of the extension.
+	 * @return The stored value.
+	 * @throws StructureException if no value is stored.
+	 */
+	public Object get(int index, String key) {
+		Object result = getOrNull(index, key);
+		if (result == null)
+			throw new StructureException("Extension '" + key + "' not found.");
+		return result;
+	}
+
+	/**
+	 * Get the value that is stored for an element.
+	 * @param index The index of the element.
+	 * @param key The key of the extension.
+	 * @return The stored value or null if no value is stored.
+	 */
+	public Object getOrNull(int index, String key) {
+		Object[] column = columns.get(key);
+		if (column == null || index < 0 || index >= column.length)
+			return null;
+		return column[index];
+	}
+
+	/**
+	 * Remove the value that is stored for an element.
+	 * @param index The index of the element.
+	 * @param key The key of the extension.
+	 */
+	public void remove(int index, String key) {
+		put(index, key, null);
+	}
+
+	/**
+	 * Get the keys for which a column was allocated.
+	 * @return An unmodifiable set of keys.
+	 */
+	public Set<String> getKeys() {
+		return Collections.unmodifiableSet(columns.keySet());
+	}
+
+	/**
+	 * Get all values that are stored for an element.
+	 * @param index The index of the element.
+	 * @return A list of key-value-pairs.
+	 */
+	public List<Pair<String, Object>> getAll(int index) {
+		List<Pair<String, Object>> result = new ArrayList<>();
+		for (Map.Entry<String, Object[]> entry : columns.entrySet()) {
+			Object[] column = entry.getValue();
+			if (index >= 0 && index < column.length && column[index] != null)
+				result.add(new Pair<>(entry.getKey(), column[index]));
+		}
+		return result;
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
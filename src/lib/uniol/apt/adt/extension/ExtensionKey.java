@@ -0,0 +1,126 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.adt.extension;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A typed key for extensions of {@link Extensible} objects. Every key gets a small integer index, so that looking up
+ * an extension via a key is a plain array access without hashing the name. Keys should be created once and kept in a
+ * constant, because the names of keys are remembered for the lifetime of the program. Extensions with names that
+ * do not belong to a key, for example names from a file, are stored by name and are not remembered here. A key and
+ * the string with its name refer to the same extension, so the string-based methods of {@link IExtensible} remain
+ * usable.
+ * @param <T> The type of the values stored under this key.
+ * @author Uli Schlachter
+ */
+public final class ExtensionKey<T> {
+	static private final ConcurrentMap<String, Integer> INDICES = new ConcurrentHashMap<>();
+
+	private final String name;
+	private final Class<T> type;
+	private final int index;
+
+	private ExtensionKey(String name, Class<T> type, int index) {
+		this.name = name;
+		this.type = type;
+		this.index = index;
+	}
+
+	/**
+	 * Create a key for the extension with the given name.
+	 * @param name The name of the extension.
+	 * @param type The type of the values stored under this key.
+	 * @param <T> The type of the values stored under this key.
+	 * @return The key.
+	 */
+	static public <T> ExtensionKey<T> create(String name, Class<T> type) {
+		if (name == null)
+			throw new IllegalArgumentException("name == null");
+		Integer index = INDICES.get(name);
+		if (index == null) {
+			synchronized (INDICES) {
+				index = INDICES.get(name);
+				if (index == null) {
+					index = INDICES.size();
+					INDICES.put(name, index);
+				}
+			}
+		}
+		return new ExtensionKey<>(name, type, index);
+	}
+
+	/**
+	 * Get the index of the key with the given name. This does not need any locking.
+	 * @param name The name of the extension.
+	 * @return The index or -1 if no key with this name was created.
+	 */
+	static int lookup(String name) {
+		if (name == null)
+			return -1;
+		Integer result = INDICES.get(name);
+		return result == null ? -1 : result;
+	}
+
+	/**
+	 * Get the name of the extension.
+	 * @return The name.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Get the type of the values stored under this key.
+	 * @return The type.
+	 */
+	public Class<T> getType() {
+		return type;
+	}
+
+	/**
+	 * Get the index of this key.
+	 * @return The index.
+	 */
+	int getIndex() {
+		return index;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof ExtensionKey))
+			return false;
+		ExtensionKey<?> other = (ExtensionKey<?>) o;
+		return index == other.index && type.equals(other.type);
+	}
+
+	@Override
+	public int hashCode() {
+		return index;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -22,11 +22,9 @@ package uniol.apt.adt.pn;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 import uniol.apt.adt.exception.NoSuchNodeException;
 import uniol.apt.adt.exception.StructureException;
 
@@ -467,29 +465,14 @@ public class Marking {
 		o.ensureConsistency();
 		assert this.placesList == o.placesList;
 
-		Set<Integer> covered = new HashSet<>();
-		for (int idx = 0; idx < placesList.size(); idx++) {
-			Token own = this.tokenList.get(idx);
-			Token other = o.tokenList.get(idx);
-
-			int comp = own.compareTo(other);
-			if (comp < 0) {
-				return null;
-			} else if (comp > 0 && !own.isOmega()) {
-				covered.add(idx);
-			}
-		}
-		if (covered.isEmpty()) {
-			// Both markings are equal and thus we don't cover anything
+		if (countCoveredPlaces(o) <= 0) {
+			// Either we do not cover the other marking or both are equal and we don't cover anything
 			return null;
 		}
 
 		// We are covering the other marking, add the suitable omegas
 		Marking result = new Marking(this);
-		for (int idx : covered) {
-			result.tokenList.set(idx, Token.OMEGA);
-		}
-
+		insertOmegas(result.tokenList, o);
 		return result;
 	}
 
@@ -507,29 +490,47 @@ public class Marking {
 		o.ensureConsistency();
 		assert this.placesList == o.placesList;
 
-		Set<Integer> covered = new HashSet<>();
-		for (int idx = 0; idx < placesList.size(); idx++) {
-			Token own = this.tokenList.get(idx);
-			Token other = o.tokenList.get(idx);
-
-			int comp = own.compareTo(other);
-			if (comp < 0) {
-				return false;
-			} else if (comp > 0 && !own.isOmega()) {
-				covered.add(idx);
-			}
-		}
-		if (covered.isEmpty()) {
-			// Both markings are equal and thus we don't cover anything
+		if (countCoveredPlaces(o) <= 0) {
+			// Either we do not cover the other marking or both are equal and we don't cover anything
 			return false;
 		}
 
 		// We are covering the other marking, add the suitable omegas
-		for (int index : covered) {
-			this.tokenList.set(index, Token.OMEGA);
+		insertOmegas(this.tokenList, o);
+		return true;
+	}
+
+	/**
+	 * Count the places on which this marking has strictly more tokens than the other marking, ignoring places
+	 * which already carry an omega. This does not allocate anything, because it is called for every ancestor of
+	 * every new node of a coverability graph.
+	 * @param o The other marking.
+	 * @return The number of such places, or -1 if the other marking has more tokens on some place.
+	 */
+	private int countCoveredPlaces(Marking o) {
+		int covered = 0;
+		for (int idx = 0; idx < placesList.size(); idx++) {
+			Token own = this.tokenList.get(idx);
+			int comp = own.compareTo(o.tokenList.get(idx));
+			if (comp < 0)
+				return -1;
+			if (comp > 0 && !own.isOmega())
+				covered++;
 		}
+		return covered;
+	}
 
-		return true;
+	/**
+	 * Set all places on which this marking has strictly more tokens than the other marking to omega.
+	 * @param target The token list which receives the omegas. It may be this marking's own token list.
+	 * @param o The other marking.
+	 */
+	private void insertOmegas(List<Token> target, Marking o) {
+		for (int idx = 0; idx < placesList.size(); idx++) {
+			Token own = this.tokenList.get(idx);
+			if (own.compareTo(o.tokenList.get(idx)) > 0 && !own.isOmega())
+				target.set(idx, Token.OMEGA);
+		}
 	}
 
 	/**
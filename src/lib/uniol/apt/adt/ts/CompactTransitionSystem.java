@@ -0,0 +1,407 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.adt.ts;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import uniol.apt.adt.exception.ArcExistsException;
+import uniol.apt.adt.extension.Extensible;
+import uniol.apt.adt.extension.ExtensionColumns;
+import uniol.apt.util.Pair;
+
+/**
+ * A memory-efficient labelled transition system for very large state spaces. States and arcs are not objects, but
+ * plain integers which index into parallel primitive arrays. The states are numbered 0, 1, ... in the order in
+ * which they are created and the same holds for arcs. Labels are interned into event indices.
+ *
+ * Arcs are kept in singly linked lists per state. The arcs leaving a state are iterated via
+ * {@link #getFirstPostsetArc} and {@link #getNextPostsetArc}, which return {@link #NONE} at the end, and similarly
+ * for the arcs entering a state. Extensions of states and arcs live in {@link ExtensionColumns}, so that no map is
+ * allocated per element.
+ *
+ * Arcs cannot be removed and adding an arc does not check for an existing arc with the same source, target and
+ * label. If a full {@link TransitionSystem} is needed, use {@link #toTransitionSystem()}.
+ * @author Uli Schlachter
+ */
+public class CompactTransitionSystem extends Extensible {
+	/**
+	 * The value that is used to signal a missing state or arc.
+	 */
+	public static final int NONE = -1;
+
+	static private final int INITIAL_CAPACITY = 16;
+
+	private final String name;
+	private int initialState = NONE;
+
+	// Per state: The first arc in the list of arcs leaving or entering the state
+	private int numStates = 0;
+	private int[] firstPostset;
+	private int[] firstPreset;
+
+	// Per arc: Its source, target and event and the next arc with the same source or target
+	private int numArcs = 0;
+	private int[] arcSource;
+	private int[] arcTarget;
+	private int[] arcEvent;
+	private int[] nextPostset;
+	private int[] nextPreset;
+
+	private final List<String> events = new ArrayList<>();
+	private final Map<String, Integer> eventIndices = new HashMap<>();
+
+	private final ExtensionColumns stateExtensions = new ExtensionColumns();
+	private final ExtensionColumns arcExtensions = new ExtensionColumns();
+
+	/**
+	 * Create a new, empty transition system.
+	 * @param name The name of the transition system.
+	 */
+	public CompactTransitionSystem(String name) {
+		this(name, INITIAL_CAPACITY, INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Create a new, empty transition system with room for the given number of states and arcs. More states and
+	 * arcs can be added, but this requires growing the underlying arrays.
+	 * @param name The name of the transition system.
+	 * @param expectedStates The expected number of states.
+	 * @param expectedArcs The expected number of arcs.
+	 */
+	public CompactTransitionSystem(String name, int expectedStates, int expectedArcs) {
+		this.name = name;
+		int stateCapacity = Math.max(1, expectedStates);
+		int arcCapacity = Math.max(1, expectedArcs);
+		firstPostset = new int[stateCapacity];
+		firstPreset = new int[stateCapacity];
+		arcSource = new int[arcCapacity];
+		arcTarget = new int[arcCapacity];
+		arcEvent = new int[arcCapacity];
+		nextPostset = new int[arcCapacity];
+		nextPreset = new int[arcCapacity];
+	}
+
+	/**
+	 * Get the name of this transition system.
+	 * @return The name.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Create a new state.
+	 * @return The index of the new state.
+	 */
+	public int createState() {
+		if (numStates == firstPostset.length) {
+			int capacity = 2 * firstPostset.length;
+			firstPostset = Arrays.copyOf(firstPostset, capacity);
+			firstPreset = Arrays.copyOf(firstPreset, capacity);
+		}
+		firstPostset[numStates] = NONE;
+		firstPreset[numStates] = NONE;
+		return numStates++;
+	}
+
+	/**
+	 * Get the number of states.
+	 * @return The number of states.
+	 */
+	public int getNumberOfStates() {
+		return numStates;
+	}
+
+	/**
+	 * Get the id of a state. This is the id that the state gets in {@link #toTransitionSystem()}.
+	 * @param state The index of the state.
+	 * @return The id.
+	 */
+	public String getStateId(int state) {
+		checkState(state);
+		return "s" + state;
+	}
+
+	/**
+	 * Set the initial state.
+	 * @param state The index of the new initial state.
+	 */
+	public void setInitialState(int state) {
+		checkState(state);
+		initialState = state;
+	}
+
+	/**
+	 * Get the initial state.
+	 * @return The index of the initial state or {@link #NONE} if no initial state was set.
+	 */
+	public int getInitialState() {
+		return initialState;
+	}
+
+	/**
+	 * Get the index of an event, adding the event if it is not yet known.
+	 * @param label The label of the event.
+	 * @return The index of the event.
+	 */
+	public int addEvent(String label) {
+		Integer index = eventIndices.get(label);
+		if (index == null) {
+			index = events.size();
+			events.add(label);
+			eventIndices.put(label, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Get the index of an event.
+	 * @param label The label of the event.
+	 * @return The index of the event or {@link #NONE} if no such event exists.
+	 */
+	public int getEventIndex(String label) {
+		Integer index = eventIndices.get(label);
+		return index == null ? NONE : index;
+	}
+
+	/**
+	 * Get the label of an event.
+	 * @param event The index of the event.
+	 * @return The label.
+	 */
+	public String getEventLabel(int event) {
+		return events.get(event);
+	}
+
+	/**
+	 * Get the number of events.
+	 * @return The number of events.
+	 */
+	public int getNumberOfEvents() {
+		return events.size();
+	}
+
+	/**
+	 * Create a new arc. No check is done whether an arc with the same source, target and label already exists.
+	 * @param source The index of the source state.
+	 * @param target The index of the target state.
+	 * @param label The label of the arc.
+	 * @return The index of the new arc.
+	 */
+	public int createArc(int source, int target, String label) {
+		return createArcWithEvent(source, target, addEvent(label));
+	}
+
+	/**
+	 * Create a new arc. No check is done whether an arc with the same source, target and event already exists.
+	 * @param source The index of the source state.
+	 * @param target The index of the target state.
+	 * @param event The index of the event that labels the arc.
+	 * @return The index of the new arc.
+	 */
+	public int createArcWithEvent(int source, int target, int event) {
+		checkState(source);
+		checkState(target);
+		if (event < 0 || event >= events.size())
+			throw new IndexOutOfBoundsException("Invalid event " + event);
+		if (numArcs == arcSource.length) {
+			int capacity = 2 * arcSource.length;
+			arcSource = Arrays.copyOf(arcSource, capacity);
+			arcTarget = Arrays.copyOf(arcTarget, capacity);
+			arcEvent = Arrays.copyOf(arcEvent, capacity);
+			nextPostset = Arrays.copyOf(nextPostset, capacity);
+			nextPreset = Arrays.copyOf(nextPreset, capacity);
+		}
+		int arc = numArcs++;
+		arcSource[arc] = source;
+		arcTarget[arc] = target;
+		arcEvent[arc] = event;
+		nextPostset[arc] = firstPostset[source];
+		firstPostset[source] = arc;
+		nextPreset[arc] = firstPreset[target];
+		firstPreset[target] = arc;
+		return arc;
+	}
+
+	/**
+	 * Find an arc with the given source, target and event.
+	 * @param source The index of the source state.
+	 * @param target The index of the target state.
+	 * @param event The index of the event.
+	 * @return The index of the arc or {@link #NONE} if no such arc exists.
+	 */
+	public int findArc(int source, int target, int event) {
+		checkState(source);
+		for (int arc = firstPostset[source]; arc != NONE; arc = nextPostset[arc])
+			if (arcTarget[arc] == target && arcEvent[arc] == event)
+				return arc;
+		return NONE;
+	}
+
+	/**
+	 * Get the number of arcs.
+	 * @return The number of arcs.
+	 */
+	public int getNumberOfArcs() {
+		return numArcs;
+	}
+
+	/**
+	 * Get the source of an arc.
+	 * @param arc The index of the arc.
+	 * @return The index of the source state.
+	 */
+	public int getArcSource(int arc) {
+		checkArc(arc);
+		return arcSource[arc];
+	}
+
+	/**
+	 * Get the target of an arc.
+	 * @param arc The index of the arc.
+	 * @return The index of the target state.
+	 */
+	public int getArcTarget(int arc) {
+		checkArc(arc);
+		return arcTarget[arc];
+	}
+
+	/**
+	 * Get the event of an arc.
+	 * @param arc The index of the arc.
+	 * @return The index of the event.
+	 */
+	public int getArcEvent(int arc) {
+		checkArc(arc);
+		return arcEvent[arc];
+	}
+
+	/**
+	 * Get the label of an arc.
+	 * @param arc The index of the arc.
+	 * @return The label.
+	 */
+	public String getArcLabel(int arc) {
+		return events.get(getArcEvent(arc));
+	}
+
+	/**
+	 * Get the first arc that leaves a state.
+	 * @param state The index of the state.
+	 * @return The index of the arc or {@link #NONE} if no arc leaves the state.
+	 */
+	public int getFirstPostsetArc(int state) {
+		checkState(state);
+		return firstPostset[state];
+	}
+
+	/**
+	 * Get the next arc with the same source as the given arc.
+	 * @param arc The index of the arc.
+	 * @return The index of the next arc or {@link #NONE} if there is no further arc.
+	 */
+	public int getNextPostsetArc(int arc) {
+		checkArc(arc);
+		return nextPostset[arc];
+	}
+
+	/**
+	 * Get the first arc that enters a state.
+	 * @param state The index of the state.
+	 * @return The index of the arc or {@link #NONE} if no arc enters the state.
+	 */
+	public int getFirstPresetArc(int state) {
+		checkState(state);
+		return firstPreset[state];
+	}
+
+	/**
+	 * Get the next arc with the same target as the given arc.
+	 * @param arc The index of the arc.
+	 * @return The index of the next arc or {@link #NONE} if there is no further arc.
+	 */
+	public int getNextPresetArc(int arc) {
+		checkArc(arc);
+		return nextPreset[arc];
+	}
+
+	/**
+	 * Get the extensions of the states.
+	 * @return The extension columns of the states.
+	 */
+	public ExtensionColumns getStateExtensions() {
+		return stateExtensions;
+	}
+
+	/**
+	 * Get the extensions of the arcs.
+	 * @return The extension columns of the arcs.
+	 */
+	public ExtensionColumns getArcExtensions() {
+		return arcExtensions;
+	}
+
+	/**
+	 * Create a {@link TransitionSystem} with the same states, arcs and extensions as this transition system. If
+	 * there are multiple arcs with the same source, target and label, only the first of them is used.
+	 * @return The new transition system.
+	 */
+	public TransitionSystem toTransitionSystem() {
+		TransitionSystem ts = new TransitionSystem(name);
+		ts.copyExtensions(this);
+
+		State[] states = new State[numStates];
+		for (int state = 0; state < numStates; state++) {
+			states[state] = ts.createState(getStateId(state));
+			for (Pair<String, Object> extension : stateExtensions.getAll(state))
+				states[state].putExtension(extension.getFirst(), extension.getSecond());
+		}
+		for (int arc = 0; arc < numArcs; arc++) {
+			Arc a;
+			try {
+				a = ts.createArc(states[arcSource[arc]], states[arcTarget[arc]],
+						events.get(arcEvent[arc]));
+			} catch (ArcExistsException e) {
+				continue;
+			}
+			for (Pair<String, Object> extension : arcExtensions.getAll(arc))
+				a.putExtension(extension.getFirst(), extension.getSecond());
+		}
+		if (initialState != NONE)
+			ts.setInitialState(states[initialState]);
+		return ts;
+	}
+
+	private void checkState(int state) {
+		if (state < 0 || state >= numStates)
+			throw new IndexOutOfBoundsException("Invalid state " + state);
+	}
+
+	private void checkArc(int arc) {
+		if (arc < 0 || arc >= numArcs)
+			throw new IndexOutOfBoundsException("Invalid arc " + arc);
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -0,0 +1,353 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.adt.ts;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * A Parikh vector over a fixed alphabet which is represented as an array of counts. In contrast to {@link
+ * ParikhVector}, operations on this class only iterate over arrays and the hash code is computed once. All vectors
+ * that are combined with each other must belong to the same {@link Alphabet}.
+ * @author Uli Schlachter
+ */
+public final class DenseParikhVector {
+	private final Alphabet alphabet;
+	private final int[] counts;
+	private final int hashCode;
+
+	/**
+	 * The labels which can occur in some dense Parikh vectors. Each label is assigned an index. The indices are
+	 * assigned in the sorted order of the labels.
+	 */
+	static public final class Alphabet {
+		private final String[] labels;
+		private final Map<String, Integer> indices = new HashMap<>();
+
+		/**
+		 * Create a new alphabet.
+		 * @param labels The labels that are contained in the alphabet.
+		 */
+		public Alphabet(Collection<String> labels) {
+			SortedSet<String> sorted = new TreeSet<>(labels);
+			this.labels = sorted.toArray(new String[sorted.size()]);
+			for (int i = 0; i < this.labels.length; i++)
+				indices.put(this.labels[i], i);
+		}
+
+		/**
+		 * Get the number of labels in this alphabet.
+		 * @return The size of the alphabet.
+		 */
+		public int size() {
+			return labels.length;
+		}
+
+		/**
+		 * Get the index of a label.
+		 * @param label The label to look up.
+		 * @return The index of the label or -1 if it is not part of this alphabet.
+		 */
+		public int indexOf(String label) {
+			Integer result = indices.get(label);
+			return result == null ? -1 : result;
+		}
+
+		/**
+		 * Get the label with the given index.
+		 * @param index The index to look up.
+		 * @return The label.
+		 */
+		public String getLabel(int index) {
+			return labels[index];
+		}
+
+		private int checkedIndexOf(String label) {
+			int result = indexOf(label);
+			if (result < 0)
+				throw new IllegalArgumentException("Label '" + label + "' is not part of the alphabet "
+						+ Arrays.toString(labels));
+			return result;
+		}
+
+		/**
+		 * Get the Parikh vector which contains no label.
+		 * @return The empty Parikh vector.
+		 */
+		public DenseParikhVector zero() {
+			return new DenseParikhVector(this, new int[labels.length]);
+		}
+
+		/**
+		 * Create a Parikh vector from a given sequence.
+		 * @param sequence the sequence of labels.
+		 * @return The Parikh vector of the sequence.
+		 */
+		public DenseParikhVector fromSequence(List<String> sequence) {
+			int[] counts = new int[labels.length];
+			for (String label : sequence)
+				counts[checkedIndexOf(label)]++;
+			return new DenseParikhVector(this, counts);
+		}
+
+		/**
+		 * Convert a Parikh vector into a dense Parikh vector.
+		 * @param pv The Parikh vector to convert. Its labels must be part of this alphabet.
+		 * @return The dense Parikh vector with the same counts.
+		 */
+		public DenseParikhVector fromParikhVector(ParikhVector pv) {
+			int[] counts = new int[labels.length];
+			for (String label : pv.getLabels())
+				counts[checkedIndexOf(label)] = pv.get(label);
+			return new DenseParikhVector(this, counts);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Alphabet))
+				return false;
+			return Arrays.equals(labels, ((Alphabet) obj).labels);
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(labels);
+		}
+	}
+
+	// The given array is not copied, so it must not be modified afterwards
+	private DenseParikhVector(Alphabet alphabet, int[] counts) {
+		this.alphabet = alphabet;
+		this.counts = counts;
+		this.hashCode = Arrays.hashCode(counts);
+	}
+
+	private void checkAlphabet(DenseParikhVector other) {
+		if (alphabet != other.alphabet && !alphabet.equals(other.alphabet))
+			throw new IllegalArgumentException("The Parikh vectors " + this + " and " + other
+					+ " belong to different alphabets");
+	}
+
+	/**
+	 * Get the alphabet of this Parikh vector.
+	 * @return The alphabet.
+	 */
+	public Alphabet getAlphabet() {
+		return alphabet;
+	}
+
+	/**
+	 * Returns the occurrences of the label with the given index.
+	 * @param index the index of the label in the alphabet.
+	 * @return the number of occurrences of the label in this Parikh vector.
+	 */
+	public int get(int index) {
+		return counts[index];
+	}
+
+	/**
+	 * Returns the occurrences of the given label in this Parikh vector.
+	 * @param label the label to get the occurrences from.
+	 * @return the number of occurrences of the given label in this Parikh vector.
+	 */
+	public int get(String label) {
+		int index = alphabet.indexOf(label);
+		return index < 0 ? 0 : counts[index];
+	}
+
+	/**
+	 * Check if no label occurs in this Parikh vector.
+	 * @return true if this is the empty Parikh vector.
+	 */
+	public boolean isZero() {
+		for (int count : counts)
+			if (count != 0)
+				return false;
+		return true;
+	}
+
+	/**
+	 * Create a new Parikh vector where the label with the given index occurs once more.
+	 * @param index the index of the label in the alphabet.
+	 * @return the new Parikh vector.
+	 */
+	public DenseParikhVector add(int index) {
+		int[] result = counts.clone();
+		result[index]++;
+		return new DenseParikhVector(alphabet, result);
+	}
+
+	/**
+	 * Create a new Parikh vector where the given label occurs once more.
+	 * @param label the label to add.
+	 * @return the new Parikh vector.
+	 */
+	public DenseParikhVector add(String label) {
+		return add(alphabet.checkedIndexOf(label));
+	}
+
+	/**
+	 * Combines two Parikh vectors to one new.
+	 * @param other the second Parikh vector to add.
+	 * @return the combination of this and other.
+	 */
+	public DenseParikhVector add(DenseParikhVector other) {
+		checkAlphabet(other);
+		int[] result = new int[counts.length];
+		for (int i = 0; i < counts.length; i++)
+			result[i] = counts[i] + other.counts[i];
+		return new DenseParikhVector(alphabet, result);
+	}
+
+	/**
+	 * Create a new Parikh vector where the label with the given index occurs n times less often.
+	 * @param index the index of the label in the alphabet.
+	 * @param n How many times should it occur less?
+	 * @return The new Parikh vector or null, if the label doesn't occur often enough in this Parikh vector
+	 */
+	public DenseParikhVector tryRemove(int index, int n) {
+		if (counts[index] < n)
+			return null;
+		int[] result = counts.clone();
+		result[index] -= n;
+		return new DenseParikhVector(alphabet, result);
+	}
+
+	/**
+	 * Compute the residual of this Parikh vector with another Parikh vector. See {@link
+	 * ParikhVector#residual(ParikhVector)}.
+	 * @param other The Parikh vector to subtract.
+	 * @return The residual.
+	 */
+	public DenseParikhVector residual(DenseParikhVector other) {
+		checkAlphabet(other);
+		int[] result = new int[counts.length];
+		for (int i = 0; i < counts.length; i++)
+			result[i] = Math.max(0, counts[i] - other.counts[i]);
+		return new DenseParikhVector(alphabet, result);
+	}
+
+	/**
+	 * Compare this Parikh vector with the given Parikh vector.
+	 * @param other The Parikh vector to compare to.
+	 * @return The result of the comparison.
+	 */
+	public ParikhVector.Comparison compare(DenseParikhVector other) {
+		checkAlphabet(other);
+		boolean lessThan = false;
+		boolean greaterThan = false;
+		for (int i = 0; i < counts.length; i++) {
+			lessThan |= counts[i] < other.counts[i];
+			greaterThan |= counts[i] > other.counts[i];
+		}
+		if (lessThan && greaterThan)
+			return ParikhVector.Comparison.INCOMPARABLE;
+		if (lessThan)
+			return ParikhVector.Comparison.LESS_THAN;
+		if (greaterThan)
+			return ParikhVector.Comparison.GREATER_THAN;
+		return ParikhVector.Comparison.EQUAL;
+	}
+
+	/**
+	 * Test if this Parikh vector is incomparable with the given Parikh vector.
+	 * @param other The Parikh vector to compare to.
+	 * @return true if the two Parikh vectors are uncomparable.
+	 */
+	public boolean isUncomparableTo(DenseParikhVector other) {
+		return compare(other) == ParikhVector.Comparison.INCOMPARABLE;
+	}
+
+	/**
+	 * Check if two Parikh vectors are mutually disjoint. Mutually disjoint means that there is no label for which
+	 * both Parikh vectors have a non-zero count.
+	 * @param other the Parikh vector to compare with.
+	 * @return true if the Parikh vectors are mutually disjoint.
+	 */
+	public boolean mutuallyDisjoint(DenseParikhVector other) {
+		checkAlphabet(other);
+		for (int i = 0; i < counts.length; i++)
+			if (counts[i] != 0 && other.counts[i] != 0)
+				return false;
+		return true;
+	}
+
+	/**
+	 * Checks two Parikh vectors if they are equal or mutually disjoint.
+	 * @param other the Parikh vector to compare with.
+	 * @return true if the Parikh vectors are equal or mutually disjoint.
+	 */
+	public boolean sameOrMutuallyDisjoint(DenseParikhVector other) {
+		return this.equals(other) || this.mutuallyDisjoint(other);
+	}
+
+	/**
+	 * Convert this Parikh vector into a {@link ParikhVector}.
+	 * @return A Parikh vector with the same counts.
+	 */
+	public ParikhVector toParikhVector() {
+		Map<String, Integer> result = new HashMap<>();
+		for (int i = 0; i < counts.length; i++)
+			if (counts[i] != 0)
+				result.put(alphabet.getLabel(i), counts[i]);
+		return new ParikhVector(result);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this)
+			return true;
+		if (!(obj instanceof DenseParikhVector))
+			return false;
+		DenseParikhVector other = (DenseParikhVector) obj;
+		if (hashCode != other.hashCode || !Arrays.equals(counts, other.counts))
+			return false;
+		return alphabet == other.alphabet || alphabet.equals(other.alphabet);
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	@Override
+	public String toString() {
+		// The alphabet is sorted, so this produces the same output as ParikhVector
+		StringBuilder builder = new StringBuilder("{");
+		boolean first = true;
+		for (int i = 0; i < counts.length; i++) {
+			if (counts[i] == 0)
+				continue;
+			if (!first)
+				builder.append(", ");
+			builder.append(alphabet.getLabel(i)).append('=').append(counts[i]);
+			first = false;
+		}
+		builder.append("}");
+		return builder.toString();
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
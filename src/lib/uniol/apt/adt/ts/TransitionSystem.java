@@ -22,11 +22,14 @@ package uniol.apt.adt.ts;
 import static org.apache.commons.collections4.iterators.EmptyIterator.emptyIterator;
 
 import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
@@ -1081,6 +1084,133 @@ public class TransitionSystem extends AbstractGraph<TransitionSystem, Arc, State
 		return states.containsKey(sourceId);
 	}
 
+	/**
+	 * A builder for quickly creating large transition systems. States and events are identified by their index in
+	 * the order in which they were added. Compared to {@link TransitionSystem#createState()} and {@link
+	 * TransitionSystem#createArc(State, State, String)}, no ids are looked up and no exceptions are used for
+	 * reporting duplicate arcs. The builder works directly on the transition system that it returns, so
+	 * listeners are not notified about the changes.
+	 */
+	static public class Builder {
+		private final TransitionSystem ts;
+		private State[] states;
+		private int numStates = 0;
+		private final List<String> labels = new ArrayList<>();
+		private final List<InternalEvent> events = new ArrayList<>();
+		private final Map<String, Integer> eventIndices = new HashMap<>();
+
+		/**
+		 * Create a builder for a new transition system.
+		 * @param name The name of the new transition system.
+		 * @param expectedStates The expected number of states.
+		 */
+		public Builder(String name, int expectedStates) {
+			this.ts = new TransitionSystem(name);
+			this.states = new State[Math.max(1, expectedStates)];
+		}
+
+		/**
+		 * Add a new state. The state gets the id "s" followed by its index.
+		 * @return The index of the new state.
+		 */
+		public int addState() {
+			if (numStates == states.length)
+				states = Arrays.copyOf(states, 2 * states.length);
+			String id = "s" + numStates;
+			State state = new State(ts, id);
+			// The caches for preset and postset nodes are filled lazily by calcPresetNodes/calcPostsetNodes
+			ts.states.put(id, state);
+			ts.nextStateId = numStates + 1;
+			states[numStates] = state;
+			return numStates++;
+		}
+
+		/**
+		 * Get the state with the given index.
+		 * @param index The index of the state.
+		 * @return The state.
+		 */
+		public State getState(int index) {
+			if (index < 0 || index >= numStates)
+				throw new IndexOutOfBoundsException("Invalid state " + index);
+			return states[index];
+		}
+
+		/**
+		 * Get the index of the event with the given label, adding the event if it is not yet known. Events only
+		 * become part of the alphabet once an arc uses them.
+		 * @param label The label of the event.
+		 * @return The index of the event.
+		 */
+		public int addEvent(String label) {
+			if (label == null)
+				throw new IllegalArgumentException("label == null");
+			Integer index = eventIndices.get(label);
+			if (index == null) {
+				index = labels.size();
+				labels.add(label);
+				events.add(null);
+				eventIndices.put(label, index);
+			}
+			return index;
+		}
+
+		/**
+		 * Add an arc unless an arc with the same source, target and event already exists.
+		 * @param source The index of the source state.
+		 * @param target The index of the target state.
+		 * @param event The index of the event.
+		 * @return The new arc or null if such an arc already existed.
+		 */
+		public Arc addArc(int source, int target, int event) {
+			State sourceState = getState(source);
+			State targetState = getState(target);
+			String label = labels.get(event);
+			ArcKey key = new ArcKey(sourceState.getId(), targetState.getId(), label);
+			if (sourceState.postsetEdges.containsKey(key))
+				return null;
+
+			InternalEvent internal = events.get(event);
+			if (internal == null) {
+				ts.addEvent(label);
+				internal = ts.alphabet.get(label);
+				events.set(event, internal);
+			} else {
+				internal.increaseReferences();
+			}
+
+			Arc arc = new Arc(ts, sourceState, targetState, internal.getEvent());
+			sourceState.postsetEdges.put(key, arc);
+			targetState.presetEdges.put(key, arc);
+			ts.numArcs++;
+			// Keep the caches up to date in case someone already looked at the transition system
+			Bag<State> preNodes = ts.presetNodes.get(targetState.getId());
+			if (preNodes != null)
+				preNodes.add(sourceState);
+			Bag<State> postNodes = ts.postsetNodes.get(sourceState.getId());
+			if (postNodes != null)
+				postNodes.add(targetState);
+			ts.onArcAddedUpdateByLabelCache(arc);
+			return arc;
+		}
+
+		/**
+		 * Set the initial state.
+		 * @param index The index of the initial state.
+		 */
+		public void setInitialState(int index) {
+			ts.initialState = getState(index);
+		}
+
+		/**
+		 * Get the transition system that this builder creates.
+		 * @return The transition system.
+		 */
+		public TransitionSystem getTransitionSystem() {
+			return ts;
+		}
+	}
+
 	static private class InternalEvent {
 		private int references = 0;
 		private final Event event;
@@ -142,9 +142,13 @@ public abstract class AbstractEquivalenceRelation<E> extends AbstractCollection<
 			next = elementToParent.get(parent);
 		}
 
-		// Remember this result to speed up following lookups
-		if (e != parent)
-			elementToParent.put(e, parent);
+		// Remember this result for all elements on the path to speed up following lookups
+		while (e != parent) {
+			E oldParent = elementToParent.put(e, parent);
+			if (oldParent == null || oldParent == parent)
+				break;
+			e = oldParent;
+		}
 
 		return parent;
 	}
@@ -0,0 +1,91 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.util;
+
+/**
+ * A union-find data structure with path compression and union by rank. This class is not thread-safe, see {@link
+ * ConcurrentUnionFind} for a variant that can be used by several threads at once.
+ * @author Uli Schlachter
+ */
+public class ArrayUnionFind extends UnionFind {
+	private final int[] parent;
+	private final byte[] rank;
+	private int classCount;
+
+	/**
+	 * Create a new relation in which every element is only equivalent to itself.
+	 * @param size The number of elements.
+	 */
+	public ArrayUnionFind(int size) {
+		super(size);
+		this.parent = new int[size];
+		this.rank = new byte[size];
+		this.classCount = size;
+		for (int e = 0; e < size; e++)
+			parent[e] = e;
+	}
+
+	@Override
+	public int getLeader(int e) {
+		checkValidElement(e);
+		int leader = e;
+		while (parent[leader] != leader)
+			leader = parent[leader];
+
+		// Path compression: Make all elements on the path refer to the leader directly
+		while (parent[e] != leader) {
+			int next = parent[e];
+			parent[e] = leader;
+			e = next;
+		}
+		return leader;
+	}
+
+	@Override
+	public boolean joinClasses(int e1, int e2) {
+		int leader1 = getLeader(e1);
+		int leader2 = getLeader(e2);
+		if (leader1 == leader2)
+			return false;
+
+		// Attach the tree of lower rank below the other one
+		if (rank[leader1] < rank[leader2]) {
+			parent[leader1] = leader2;
+		} else {
+			parent[leader2] = leader1;
+			if (rank[leader1] == rank[leader2])
+				rank[leader1]++;
+		}
+		classCount--;
+		return true;
+	}
+
+	@Override
+	public boolean isEquivalent(int e1, int e2) {
+		return getLeader(e1) == getLeader(e2);
+	}
+
+	@Override
+	public int getClassCount() {
+		return classCount;
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -0,0 +1,134 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free union-find data structure which can be used by several threads at once without external locking. The
+ * parent and the rank of each element are stored together in a single long and only changed via compare-and-set.
+ * Leaders are found with path halving and classes are joined by rank. Ties are broken by the index of the leader, so
+ * that concurrent joins cannot create cycles: Following the parents always increases the pair of rank and index.
+ * @author Uli Schlachter
+ */
+public class ConcurrentUnionFind extends UnionFind {
+	// The rank of an element is in the upper 32 bits, its parent in the lower 32 bits
+	private final AtomicLongArray entries;
+	private final AtomicInteger classCount;
+
+	/**
+	 * Create a new relation in which every element is only equivalent to itself.
+	 * @param size The number of elements.
+	 */
+	public ConcurrentUnionFind(int size) {
+		super(size);
+		this.entries = new AtomicLongArray(size);
+		this.classCount = new AtomicInteger(size);
+		for (int e = 0; e < size; e++)
+			entries.set(e, encode(0, e));
+	}
+
+	static private long encode(int rank, int parent) {
+		return ((long) rank << 32) | parent;
+	}
+
+	static private int getRank(long entry) {
+		return (int) (entry >>> 32);
+	}
+
+	static private int getParent(long entry) {
+		return (int) entry;
+	}
+
+	@Override
+	public int getLeader(int e) {
+		checkValidElement(e);
+		while (true) {
+			long entry = entries.get(e);
+			int parent = getParent(entry);
+			if (parent == e)
+				return e;
+			int grandparent = getParent(entries.get(parent));
+			// Path halving: Let e refer to its grandparent. Failure only means that someone else changed e.
+			if (grandparent != parent)
+				entries.compareAndSet(e, entry, encode(getRank(entry), grandparent));
+			e = grandparent;
+		}
+	}
+
+	@Override
+	public boolean joinClasses(int e1, int e2) {
+		while (true) {
+			int leader1 = getLeader(e1);
+			int leader2 = getLeader(e2);
+			if (leader1 == leader2)
+				return false;
+
+			long entry1 = entries.get(leader1);
+			long entry2 = entries.get(leader2);
+			if (getParent(entry1) != leader1 || getParent(entry2) != leader2)
+				// Some other thread joined one of the classes in the meantime
+				continue;
+
+			// Attach leader1 below leader2, so leader1 must have the smaller rank and index
+			int rank1 = getRank(entry1);
+			int rank2 = getRank(entry2);
+			if (rank1 > rank2 || (rank1 == rank2 && leader1 > leader2)) {
+				int leaderTmp = leader1;
+				leader1 = leader2;
+				leader2 = leaderTmp;
+				long entryTmp = entry1;
+				entry1 = entry2;
+				entry2 = entryTmp;
+				int rankTmp = rank1;
+				rank1 = rank2;
+				rank2 = rankTmp;
+			}
+			if (!entries.compareAndSet(leader1, entry1, encode(rank1, leader2)))
+				continue;
+			// This only fails if leader2 was changed concurrently, in which case its rank does not matter
+			if (rank1 == rank2)
+				entries.compareAndSet(leader2, entry2, encode(rank2 + 1, leader2));
+			classCount.decrementAndGet();
+			return true;
+		}
+	}
+
+	@Override
+	public boolean isEquivalent(int e1, int e2) {
+		while (true) {
+			int leader1 = getLeader(e1);
+			int leader2 = getLeader(e2);
+			if (leader1 == leader2)
+				return true;
+			// If leader1 is still a leader, the classes were different after leader2 was found
+			if (getParent(entries.get(leader1)) == leader1)
+				return false;
+		}
+	}
+
+	@Override
+	public int getClassCount() {
+		return classCount.get();
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
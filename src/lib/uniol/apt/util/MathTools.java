@@ -83,6 +83,69 @@ public class MathTools {
 		return b;
 	}
 
+	/**
+	 * Calculates the gcd of two longs.
+	 * @param a - first long for calculating the gcd.
+	 * @param b - second long for calculating the gcd.
+	 * @return the gcd of the two given longs.
+	 */
+	public static long gcd(long a, long b) {
+		a = Math.abs(a);
+		b = Math.abs(b);
+		while (a != 0) {
+			long tmp = a;
+			a = b % a;
+			b = tmp;
+		}
+		return b;
+	}
+
+	/**
+	 * Adds two longs and throws an exception if the result overflows.
+	 * @param a - first summand.
+	 * @param b - second summand.
+	 * @return the sum.
+	 * @throws ArithmeticException if the sum cannot be represented as long.
+	 */
+	public static long addExact(long a, long b) {
+		long result = a + b;
+		// Overflow iff both arguments have the same sign and the result has a different one
+		if (((a ^ result) & (b ^ result)) < 0)
+			throw new ArithmeticException("long overflow in " + a + " + " + b);
+		return result;
+	}
+
+	/**
+	 * Multiplies two longs and throws an exception if the result overflows.
+	 * @param a - first factor.
+	 * @param b - second factor.
+	 * @return the product.
+	 * @throws ArithmeticException if the product cannot be represented as long.
+	 */
+	public static long multiplyExact(long a, long b) {
+		long result = a * b;
+		long absA = Math.abs(a);
+		long absB = Math.abs(b);
+		// Only check with a division when one of the factors needs more than 31 bits
+		if ((absA | absB) >>> 31 != 0) {
+			if ((b != 0 && result / b != a) || (a == Long.MIN_VALUE && b == -1))
+				throw new ArithmeticException("long overflow in " + a + " * " + b);
+		}
+		return result;
+	}
+
+	/**
+	 * Converts a long into an int and throws an exception if this is not possible.
+	 * @param value - the value to convert.
+	 * @return the value as int.
+	 * @throws ArithmeticException if the value cannot be represented as int.
+	 */
+	public static int toIntExact(long value) {
+		if ((int) value != value)
+			throw new ArithmeticException("Cannot represent value as int: " + value);
+		return (int) value;
+	}
+
 	/**
 	 * Calculates the lcm of two numbers.
 	 * @param a - first number for calculating the lcm.
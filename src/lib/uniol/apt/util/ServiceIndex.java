@@ -0,0 +1,242 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Lazily instantiated services which are listed in the resource lists that the annotation processors generate. Each
+ * line of such a list contains the name of a class, optionally followed by a space and the key under which an
+ * instance of this class is found (for example the name of a module or the format of a parser). Classes with a known
+ * key are only loaded when this key is looked up. Classes without a key have to be instantiated to find their key,
+ * which only happens once a key is looked up that is not in the index. Additionally, the provider-configuration
+ * files of {@link java.util.ServiceLoader} can be read. Classes that are only listed there are treated like classes
+ * without a key, so services are still found when no index was generated for them. This class is thread-safe.
+ * @param <S> The type of the services.
+ * @author Uli Schlachter
+ */
+public abstract class ServiceIndex<S> {
+	private final Class<S> serviceClass;
+	private final ClassLoader classLoader;
+	private final String serviceKind;
+	private final String keyKind;
+	private final Map<String, String> indexedClasses = new HashMap<>();
+	private final Set<String> unindexedClasses = new LinkedHashSet<>();
+	private final Map<String, S> services = new HashMap<>();
+
+	/**
+	 * Constructor
+	 * @param serviceClass Class object of the services
+	 * @param classLoader The class loader which is used for finding the resource lists and loading the services.
+	 * @param resourceName The name of the resource lists.
+	 * @param serviceKind Human-readable name of the services for error messages, e.g. "parser".
+	 * @param keyKind Human-readable name of the keys for error messages, e.g. "format".
+	 */
+	protected ServiceIndex(Class<S> serviceClass, ClassLoader classLoader, String resourceName,
+			String serviceKind, String keyKind) {
+		this(serviceClass, classLoader, resourceName, false, serviceKind, keyKind);
+	}
+
+	/**
+	 * Constructor
+	 * @param serviceClass Class object of the services
+	 * @param classLoader The class loader which is used for finding the resource lists and loading the services.
+	 * @param resourceName The name of the resource lists.
+	 * @param useServiceLoader Should the provider-configuration files of {@link java.util.ServiceLoader} for the
+	 * service class be read as well?
+	 * @param serviceKind Human-readable name of the services for error messages, e.g. "parser".
+	 * @param keyKind Human-readable name of the keys for error messages, e.g. "format".
+	 */
+	protected ServiceIndex(Class<S> serviceClass, ClassLoader classLoader, String resourceName,
+			boolean useServiceLoader, String serviceKind, String keyKind) {
+		this.serviceClass = serviceClass;
+		this.classLoader = classLoader;
+		this.serviceKind = serviceKind;
+		this.keyKind = keyKind;
+
+		try {
+			readLists(resourceName);
+			if (useServiceLoader)
+				readLists("META-INF/services/" + serviceClass.getName());
+		} catch (IOException ex) {
+			throw new RuntimeException(String.format("Failed to discover %ss", serviceKind), ex);
+		}
+		unindexedClasses.removeAll(indexedClasses.values());
+	}
+
+	/**
+	 * Get the key of a service.
+	 * @param service The service.
+	 * @return The key under which the service should be found.
+	 */
+	abstract protected String getKey(S service);
+
+	private void readLists(String resourceName) throws IOException {
+		Enumeration<URL> lists = classLoader.getResources(resourceName);
+		while (lists.hasMoreElements())
+			readList(lists.nextElement());
+	}
+
+	private void readList(URL url) throws IOException {
+		try (InputStream is = url.openStream()) {
+			BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+			String line;
+			while ((line = reader.readLine()) != null) {
+				// Provider-configuration files may contain comments
+				int comment = line.indexOf('#');
+				if (comment >= 0)
+					line = line.substring(0, comment);
+				String[] entry = line.trim().split(" ");
+				if (entry[0].isEmpty())
+					continue;
+				if (entry.length == 1) {
+					unindexedClasses.add(entry[0]);
+					continue;
+				}
+				checkKey(entry[0], entry[1]);
+				String oldClass = indexedClasses.put(entry[1], entry[0]);
+				if (oldClass != null && !oldClass.equals(entry[0]))
+					throw conflict(entry[1], oldClass, entry[0]);
+			}
+		}
+	}
+
+	private void checkKey(String className, String key) {
+		if (key == null || key.equals("") || !key.equals(key.toLowerCase()))
+			throw new RuntimeException(String.format("%s %s reports an invalid %s: %s",
+						capitalize(serviceKind), className, keyKind, key));
+	}
+
+	private RuntimeException conflict(String key, String className1, String className2) {
+		return new RuntimeException(String.format("Different %ss claim, to have %s %s: %s and %s",
+					serviceKind, keyKind, key, className1, className2));
+	}
+
+	static private String capitalize(String str) {
+		return Character.toUpperCase(str.charAt(0)) + str.substring(1);
+	}
+
+	private S instantiate(String className) {
+		Class<? extends S> klass;
+		try {
+			klass = classLoader.loadClass(className).asSubclass(serviceClass);
+		} catch (ClassNotFoundException | ClassCastException ex) {
+			throw new RuntimeException(String.format("Could not load class %s", className), ex);
+		}
+		try {
+			return klass.getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException ex) {
+			throw new RuntimeException(String.format("Could not instantiate %s", className), ex);
+		}
+	}
+
+	private void register(String className, S service) {
+		String key = getKey(service);
+		checkKey(className, key);
+		S oldService = services.get(key);
+		if (oldService != null && !oldService.getClass().equals(service.getClass()))
+			throw conflict(key, oldService.getClass().getName(), className);
+		String indexedClass = indexedClasses.get(key);
+		if (indexedClass != null && !indexedClass.equals(className))
+			throw conflict(key, indexedClass, className);
+		services.put(key, service);
+	}
+
+	private void loadIndexed(String key) {
+		String className = indexedClasses.remove(key);
+		if (className == null)
+			return;
+		S service = instantiate(className);
+		if (!key.equals(getKey(service)))
+			throw new RuntimeException(String.format("%s %s is indexed with %s %s, but reports %s",
+						capitalize(serviceKind), className, keyKind, key, getKey(service)));
+		register(className, service);
+	}
+
+	private void loadUnindexed() {
+		for (String className : unindexedClasses)
+			register(className, instantiate(className));
+		unindexedClasses.clear();
+	}
+
+	/**
+	 * Get the service with the given key.
+	 * @param key The key to look up.
+	 * @return The service or null if there is no service with this key.
+	 */
+	synchronized public S get(String key) {
+		S service = services.get(key);
+		if (service != null)
+			return service;
+		if (indexedClasses.containsKey(key))
+			loadIndexed(key);
+		else
+			loadUnindexed();
+		return services.get(key);
+	}
+
+	/**
+	 * Get the keys of all services. This only instantiates the services that are not indexed.
+	 * @return An unmodifiable sorted set of keys.
+	 */
+	synchronized public SortedSet<String> getKeys() {
+		loadUnindexed();
+		SortedSet<String> result = new TreeSet<>(services.keySet());
+		result.addAll(indexedClasses.keySet());
+		return Collections.unmodifiableSortedSet(result);
+	}
+
+	/**
+	 * Get all services. This instantiates every service.
+	 * @return An unmodifiable map from keys to services which is sorted by the keys.
+	 */
+	synchronized public SortedMap<String, S> getAll() {
+		for (String key : new ArrayList<>(indexedClasses.keySet()))
+			loadIndexed(key);
+		loadUnindexed();
+		return Collections.unmodifiableSortedMap(new TreeMap<>(services));
+	}
+
+	/**
+	 * Get the keys of all services whose key is in the index, but which were not instantiated yet.
+	 * @return A set of keys.
+	 */
+	synchronized public Set<String> getPendingKeys() {
+		return Collections.unmodifiableSet(new TreeSet<>(indexedClasses.keySet()));
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -0,0 +1,110 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.util;
+
+/**
+ * An equivalence relation over the integers from zero to some bound, implemented as a disjoint-set forest. Every
+ * equivalence class has a leader that all its elements refer to. Initially, all elements are only equivalent to
+ * themselves. In contrast to {@link EquivalenceRelation}, the classes are not available as sets, but joining
+ * classes and finding leaders is much faster.
+ * @author Uli Schlachter
+ */
+public abstract class UnionFind {
+	private final int size;
+
+	/**
+	 * Constructor
+	 * @param size The number of elements.
+	 */
+	protected UnionFind(int size) {
+		if (size < 0)
+			throw new IllegalArgumentException("The size must not be negative: " + size);
+		this.size = size;
+	}
+
+	/**
+	 * Check that an element is in the range of this relation.
+	 * @param e The element.
+	 */
+	protected void checkValidElement(int e) {
+		if (e < 0 || e >= size)
+			throw new IndexOutOfBoundsException(e + " is not in the domain of this relation of size "
+					+ size);
+	}
+
+	/**
+	 * Get the number of elements.
+	 * @return The number of elements.
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Get the leader of the element's equivalence class. The leader uniquely identifies the class until the class
+	 * is joined with another class.
+	 * @param e The element whose leader should be returned.
+	 * @return The leader.
+	 */
+	abstract public int getLeader(int e);
+
+	/**
+	 * Join the equivalence classes of two elements.
+	 * @param e1 The first element to join classes with.
+	 * @param e2 The other element to join classes with.
+	 * @return true if the classes were different before.
+	 */
+	abstract public boolean joinClasses(int e1, int e2);
+
+	/**
+	 * Check if the given elements are in the same equivalence class.
+	 * @param e1 The first element to check.
+	 * @param e2 The other element to check.
+	 * @return true if both elements are equivalent.
+	 */
+	abstract public boolean isEquivalent(int e1, int e2);
+
+	/**
+	 * Get the number of equivalence classes.
+	 * @return The number of classes.
+	 */
+	abstract public int getClassCount();
+
+	/**
+	 * Number the equivalence classes. The classes are numbered consecutively from zero in the order of their
+	 * smallest element. If classes are joined concurrently, the result may or may not reflect this.
+	 * @return The number of the class of each element.
+	 */
+	public int[] getClassNumbers() {
+		int[] leaderClass = new int[size];
+		int[] result = new int[size];
+		int count = 0;
+		for (int e = 0; e < size; e++) {
+			int leader = getLeader(e);
+			// The leader's entry is set when the class is first seen, which is at its smallest element
+			if (leaderClass[leader] == 0)
+				leaderClass[leader] = ++count;
+			result[e] = leaderClass[leader] - 1;
+		}
+		return result;
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -0,0 +1,104 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.util.interrupt;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Interrupter that is triggered explicitly via {@link #cancel()}. Checking it only reads a volatile flag, so it is
+ * cheap enough to be polled in tight loops. Tokens can also be cancelled by a shared timer thread after some time.
+ * @author Uli Schlachter
+ */
+public class CancellationToken implements Interrupter {
+	static private final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(
+			new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "apt-cancellation-timer");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+
+	private volatile boolean cancelled = false;
+
+	/**
+	 * Create a new token which will only be cancelled when {@link #cancel()} is called.
+	 */
+	public CancellationToken() {
+	}
+
+	/**
+	 * Create a new token which is automatically cancelled after the given time.
+	 * @param timeoutNanoSeconds Number of nano seconds into the future when this token is cancelled.
+	 */
+	public CancellationToken(long timeoutNanoSeconds) {
+		if (timeoutNanoSeconds <= 0) {
+			cancelled = true;
+			return;
+		}
+
+		// The timer only keeps a weak reference so that unused tokens do not stay around until they expire
+		final WeakReference<CancellationToken> reference = new WeakReference<>(this);
+		TIMER.schedule(new Runnable() {
+			@Override
+			public void run() {
+				CancellationToken token = reference.get();
+				if (token != null)
+					token.cancel();
+			}
+		}, timeoutNanoSeconds, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Request that everything which checks this token is aborted.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * Check if this token was cancelled.
+	 * @return true if this token was cancelled.
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	@Override
+	public boolean isInterruptRequested() {
+		return cancelled;
+	}
+
+	/**
+	 * Throw an exception if this token was cancelled.
+	 * @throws UncheckedInterruptedException on cancellation
+	 */
+	public void throwIfCancelled() {
+		if (cancelled)
+			throw new UncheckedInterruptedException();
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
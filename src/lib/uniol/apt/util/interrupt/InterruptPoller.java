@@ -0,0 +1,83 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.util.interrupt;
+
+/**
+ * Helper for checking an {@link Interrupter} in tight loops. The interrupter is looked up once when the poller is
+ * created instead of on every check, and it is only asked every few calls to {@link #poll()}. The very first call
+ * always checks the interrupter, so short loops notice an interruption that was already requested.
+ *
+ * A poller belongs to the thread that created it and must not be shared between threads.
+ * @author Uli Schlachter
+ */
+public class InterruptPoller {
+	/**
+	 * The number of calls to {@link #poll()} after which the interrupter is checked by default.
+	 */
+	static public final int DEFAULT_INTERVAL = 32;
+
+	private final Interrupter interrupter;
+	private final int interval;
+	private int countdown = 1;
+
+	/**
+	 * Create a poller for the interrupter of the current thread which checks it every {@link #DEFAULT_INTERVAL}
+	 * calls.
+	 */
+	public InterruptPoller() {
+		this(InterrupterRegistry.getCurrentThreadInterrupter(), DEFAULT_INTERVAL);
+	}
+
+	/**
+	 * Create a poller for the given interrupter.
+	 * @param interrupter The interrupter to check.
+	 * @param interval The number of calls to {@link #poll()} after which the interrupter is checked.
+	 */
+	public InterruptPoller(Interrupter interrupter, int interval) {
+		if (interval <= 0)
+			throw new IllegalArgumentException("interval must be positive, but is " + interval);
+		this.interrupter = interrupter;
+		this.interval = interval;
+	}
+
+	/**
+	 * Throw an exception if the interrupter requests an interruption. The interrupter is only actually checked on
+	 * every interval'th call.
+	 * @throws UncheckedInterruptedException on interruption
+	 */
+	public void poll() {
+		if (--countdown > 0)
+			return;
+		countdown = interval;
+		check();
+	}
+
+	/**
+	 * Throw an exception if the interrupter requests an interruption. Unlike {@link #poll()}, this always checks
+	 * the interrupter.
+	 * @throws UncheckedInterruptedException on interruption
+	 */
+	public void check() {
+		if (interrupter.isInterruptRequested())
+			throw new UncheckedInterruptedException();
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
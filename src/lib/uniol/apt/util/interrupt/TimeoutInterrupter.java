@@ -20,23 +20,24 @@
 package uniol.apt.util.interrupt;
 
 /**
- * Interrupter that takes a timestamp when created and uses that to implement a timeout.
+ * Interrupter that triggers after a timeout. The timeout is tracked by a {@link CancellationToken}, so checking this
+ * interrupter does not need to query the clock.
  * @author Uli Schlachter
  */
 public class TimeoutInterrupter implements Interrupter {
-	private final long timeout;
+	private final CancellationToken token;
 
 	/**
 	 * Create a new instance of this class applying the given timeout.
 	 * @param timeoutNanoSeconds Number of nano seconds into the future when this interrupter is triggered.
 	 */
 	public TimeoutInterrupter(long timeoutNanoSeconds) {
-		this.timeout = System.nanoTime() + timeoutNanoSeconds;
+		this.token = new CancellationToken(timeoutNanoSeconds);
 	}
 
 	@Override
 	public boolean isInterruptRequested() {
-		return this.timeout <= System.nanoTime();
+		return token.isCancelled();
 	}
 
 }
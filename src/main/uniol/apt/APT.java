@@ -24,19 +24,28 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.collections4.Trie;
 import org.apache.commons.collections4.trie.PatriciaTrie;
 import org.apache.commons.io.FileUtils;
 
+import uniol.apt.adt.pn.PetriNet;
+import uniol.apt.adt.ts.TransitionSystem;
 import uniol.apt.module.AptModuleRegistry;
 import uniol.apt.module.Category;
 import uniol.apt.module.Module;
@@ -54,13 +63,16 @@ import uniol.apt.module.impl.ReturnValue;
 import uniol.apt.module.impl.SimpleModulePreconditionsChecker;
 import uniol.apt.ui.AptParameterTransformation;
 import uniol.apt.ui.ParameterTransformation;
-import uniol.apt.ui.ParametersParser;
 import uniol.apt.ui.ParametersTransformer;
 import uniol.apt.ui.ReturnValuesTransformer;
 import uniol.apt.ui.impl.AptParametersTransformer;
 import uniol.apt.ui.impl.AptReturnValuesTransformer;
-import uniol.apt.ui.impl.SimpleParametersParser;
+import uniol.apt.ui.impl.CachingParametersTransformer;
+import uniol.apt.ui.impl.ObjectSnapshots;
+import uniol.apt.ui.impl.ParsedObjectCache;
+import uniol.apt.ui.impl.PipelineParametersParser;
 import uniol.apt.ui.impl.UIUtils;
+import uniol.apt.util.Pair;
 
 /**
  * @author Renke Grunwald
@@ -100,8 +112,14 @@ public class APT {
 		VERSION_STRING = "APT version " + GIT_VERSION + " built on " + TIMESTAMP;
 	}
 
-	private static final ParametersParser PARAMETERS_PARSER = new SimpleParametersParser();
-	private static final ParametersTransformer PARAMETERS_TRANSFORMER = AptParametersTransformer.INSTANCE;
+	private static final PipelineParametersParser PARAMETERS_PARSER = new PipelineParametersParser();
+	/**
+	 * Name of the system property which names a directory in which parsed inputs are cached.
+	 */
+	public static final String CACHE_DIR_PROPERTY = "apt.cache.dir";
+
+	private static final int CACHE_SIZE = 16;
+	private static final ParametersTransformer PARAMETERS_TRANSFORMER = createParametersTransformer();
 	private static final ReturnValuesTransformer RETURN_VALUES_TRANSFORMER = AptReturnValuesTransformer.INSTANCE;
 	private static final ModuleRegistry REGISTRY = AptModuleRegistry.INSTANCE;
 	private static final Trie<String, String> REMOVED_MODULES = new PatriciaTrie<>();
@@ -115,6 +133,42 @@ public class APT {
 	private APT() {
 	}
 
+	/**
+	 * A module together with the arguments that it should be invoked with.
+	 */
+	private static final class ModuleCall {
+		private final Module module;
+		private final Object[] args;
+		private final String[] fileArgs;
+
+		private ModuleCall(Module module, Object[] args, String[] fileArgs) {
+			this.module = module;
+			this.args = args;
+			this.fileArgs = fileArgs;
+		}
+
+		private List<Object> invoke() throws ModuleException {
+			return new ModuleInvoker().invoke(module, args);
+		}
+
+		private ExitStatus printOutput(List<Object> values, boolean withHeader) throws ModuleException {
+			if (withHeader)
+				OUT_PRINTER.println("== " + module.getName() + " ==");
+			printModuleOutput(fileArgs, ModuleUtils.getReturnValues(module), values);
+			OUT_PRINTER.flush();
+			ModuleExitStatusChecker statusChecker = new PropertyModuleExitStatusChecker();
+			return statusChecker.check(module, values);
+		}
+	}
+
+	private static ParametersTransformer createParametersTransformer() {
+		String cacheDir = System.getProperty(CACHE_DIR_PROPERTY);
+		if (cacheDir == null || cacheDir.isEmpty())
+			return AptParametersTransformer.INSTANCE;
+		return new CachingParametersTransformer(AptParametersTransformer.INSTANCE,
+				new ParsedObjectCache(CACHE_SIZE, new File(cacheDir)));
+	}
+
 	private static void addRemovedModules() {
 		REMOVED_MODULES.put("apt2baggins", "Use pn_convert / lts_convert apt baggins instead.");
 		REMOVED_MODULES.put("apt2lola",    "Use pn_convert / lts_convert apt lola instead.");
@@ -145,7 +199,33 @@ public class APT {
 			printUsageAndExit();
 		}
 
-		String moduleName = moduleNames[0]; // Only use a single module for now
+		// Arguments which are given in the same way to several modules are only transformed once
+		Map<Pair<String, Class<?>>, Object> transformedArgsCache = new HashMap<>();
+		List<ModuleCall> calls = new ArrayList<>();
+		for (int i = 0; i < moduleNames.length; i++) {
+			Module module = findModuleOrExit(moduleNames[i]);
+			try {
+				calls.add(prepareModuleCall(module, PARAMETERS_PARSER.getModuleArguments(i),
+							transformedArgsCache));
+			} catch (ModuleException e) {
+				printModuleErrorAndExit(module, e);
+			}
+		}
+
+		ExitStatus status;
+		if (PARAMETERS_PARSER.isParallel() && calls.size() > 1)
+			status = invokeParallel(calls);
+		else
+			status = invokeSequential(calls);
+
+		for (Object arg : transformedArgsCache.values())
+			updateCache(arg);
+
+		OUT_PRINTER.flush();
+		System.exit(status.getValue());
+	}
+
+	private static Module findModuleOrExit(String moduleName) {
 		Collection<Module> foundModules = REGISTRY.findModulesByPrefix(moduleName);
 
 		Module module = null;
@@ -164,66 +244,164 @@ public class APT {
 			}
 		}
 
+		return module;
+	}
+
+	private static ModuleCall prepareModuleCall(Module module, String[] moduleArgs,
+			Map<Pair<String, Class<?>>, Object> transformedArgsCache) throws ModuleException {
 		List<Parameter> parameters = ModuleUtils.getParameters(module);
 		List<Parameter> allParameters = ModuleUtils.getAllParameters(module);
 
-		List<ReturnValue> returnValues = ModuleUtils.getReturnValues(module);
 		List<ReturnValue> fileReturnValues = ModuleUtils.getFileReturnValues(module);
 
-		String[] moduleArgs = PARAMETERS_PARSER.getModuleArguments(moduleName);
+		if (moduleArgs.length < parameters.size()) {
+			printTooFewArgumentsAndExit(module);
+		}
 
-		try {
-			if (moduleArgs.length < parameters.size()) {
-				printTooFewArgumentsAndExit(module);
-			}
+		if (moduleArgs.length > allParameters.size() + fileReturnValues.size()) {
+			printTooManyArgumentsAndExit(module);
+		}
 
-			if (moduleArgs.length > allParameters.size() + fileReturnValues.size()) {
-				printTooManyArgumentsAndExit(module);
-			}
+		// Number of parameters for which values are provided
+		int numberOfUsedParameters;
+
+		if (moduleArgs.length > allParameters.size()) {
+			numberOfUsedParameters = allParameters.size();
+		} else {
+			numberOfUsedParameters = moduleArgs.length;
+		}
 
-			// Number of parameters for which values are provided
-			int numberOfUsedParameters;
+		// First check if multiple parameters are signaled to be read from the standard input
+		checkNoTwoStdinParameters(moduleArgs, numberOfUsedParameters, allParameters);
 
-			if (moduleArgs.length > allParameters.size()) {
-				numberOfUsedParameters = allParameters.size();
-			} else {
-				numberOfUsedParameters = moduleArgs.length;
+		Object[] transformedArgs = new Object[numberOfUsedParameters];
+		for (int i = 0; i < numberOfUsedParameters; i++) {
+			Class<?> klass = allParameters.get(i).getKlass();
+			Pair<String, Class<?>> key = new Pair<String, Class<?>>(moduleArgs[i], klass);
+			Object arg = transformedArgsCache.get(key);
+			if (arg == null) {
+				arg = PARAMETERS_TRANSFORMER.transform(moduleArgs[i], klass);
+				transformedArgsCache.put(key, arg);
 			}
+			transformedArgs[i] = arg;
+		}
 
-			// First check if multiple parameters are signaled to be read from the standard input
-			checkNoTwoStdinParameters(moduleArgs, numberOfUsedParameters, allParameters);
+		ModulePreconditionsChecker checker = new SimpleModulePreconditionsChecker();
 
-			Object[] transformedArgs = new Object[numberOfUsedParameters];
-			for (int i = 0; i < numberOfUsedParameters; i++) {
-				transformedArgs[i] = PARAMETERS_TRANSFORMER.transform(moduleArgs[i],
-						allParameters.get(i).getKlass());
-			}
+		List<Parameter> unmetParameters = checker.check(REGISTRY, module, transformedArgs);
 
-			ModulePreconditionsChecker checker = new SimpleModulePreconditionsChecker();
+		if (!unmetParameters.isEmpty()) {
+			printPreconditionsUnmetAndExit(unmetParameters);
+		}
 
-			List<Parameter> unmetParameters = checker.check(REGISTRY, module, transformedArgs);
+		String[] fileArgs = Arrays.copyOfRange(moduleArgs, numberOfUsedParameters, moduleArgs.length);
+		return new ModuleCall(module, transformedArgs, fileArgs);
+	}
 
-			if (!unmetParameters.isEmpty()) {
-				printPreconditionsUnmetAndExit(unmetParameters);
+	private static ExitStatus invokeSequential(List<ModuleCall> calls) {
+		ExitStatus status = ExitStatus.SUCCESS;
+		for (ModuleCall call : calls) {
+			try {
+				status = worse(status, call.printOutput(call.invoke(), calls.size() > 1));
+			} catch (ModuleException e) {
+				if (calls.size() == 1)
+					printModuleErrorAndExit(call.module, e);
+				printModuleError(call.module, e);
+				status = ExitStatus.ERROR;
 			}
+		}
+		return status;
+	}
 
-			ModuleInvoker invoker = new ModuleInvoker();
-			List<Object> values = invoker.invoke(module, transformedArgs);
+	private static ExitStatus invokeParallel(List<ModuleCall> calls) {
+		ExecutorService executor = Executors.newFixedThreadPool(
+				Math.min(calls.size(), Runtime.getRuntime().availableProcessors()));
+		try {
+			List<Future<List<Object>>> results = new ArrayList<>();
+			for (final ModuleCall call : calls) {
+				// Modules running at the same time must not share mutable objects
+				final Object[] args = copyForParallelUse(call.args);
+				results.add(executor.submit(new Callable<List<Object>>() {
+					@Override
+					public List<Object> call() throws ModuleException {
+						return new ModuleCall(call.module, args, call.fileArgs).invoke();
+					}
+				}));
+			}
 
-			String[] fileArgs = Arrays.copyOfRange(moduleArgs, numberOfUsedParameters, moduleArgs.length);
-			printModuleOutput(fileArgs, returnValues, values);
+			ExitStatus status = ExitStatus.SUCCESS;
+			for (int i = 0; i < calls.size(); i++) {
+				ModuleCall call = calls.get(i);
+				try {
+					status = worse(status, call.printOutput(getResult(results.get(i)), true));
+				} catch (ModuleException e) {
+					printModuleError(call.module, e);
+					status = ExitStatus.ERROR;
+				}
+			}
+			return status;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
 
-			ModuleExitStatusChecker statusChecker = new PropertyModuleExitStatusChecker();
-			ExitStatus status = statusChecker.check(module, values);
+	private static List<Object> getResult(Future<List<Object>> future) throws ModuleException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ModuleException("Interrupted while waiting for module", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof ModuleException)
+				throw (ModuleException) cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new ModuleException(cause.getMessage(), cause);
+		}
+	}
 
-			OUT_PRINTER.flush();
-			System.exit(status.getValue());
-		} catch (ModuleException e) {
-			ERR_PRINTER.println(String.format("Error while invoking module '%s':%n  %s",
-						module.getName(), e.getMessage()));
-			ERR_PRINTER.flush();
-			System.exit(ExitStatus.ERROR.getValue());
+	private static Object[] copyForParallelUse(Object[] args) {
+		Object[] result = new Object[args.length];
+		for (int i = 0; i < args.length; i++) {
+			Object arg = args[i];
+			if (arg instanceof PetriNet || arg instanceof TransitionSystem) {
+				// A snapshot also contains the analysis results that are already known
+				try {
+					arg = ObjectSnapshots.read(ObjectSnapshots.write(arg, true));
+				} catch (IOException e) {
+					if (arg instanceof PetriNet)
+						arg = new PetriNet((PetriNet) arg);
+					else
+						arg = new TransitionSystem((TransitionSystem) arg);
+				}
+			}
+			result[i] = arg;
 		}
+		return result;
+	}
+
+	private static ExitStatus worse(ExitStatus a, ExitStatus b) {
+		return a.compareTo(b) >= 0 ? a : b;
+	}
+
+	private static void printModuleError(Module module, ModuleException e) {
+		ERR_PRINTER.println(String.format("Error while invoking module '%s':%n  %s",
+					module.getName(), e.getMessage()));
+		ERR_PRINTER.flush();
+	}
+
+	private static void printModuleErrorAndExit(Module module, ModuleException e) {
+		printModuleError(module, e);
+		System.exit(ExitStatus.ERROR.getValue());
+	}
+
+	private static void updateCache(Object arg) {
+		if (!(PARAMETERS_TRANSFORMER instanceof CachingParametersTransformer))
+			return;
+		((CachingParametersTransformer) PARAMETERS_TRANSFORMER).updateCache(arg);
 	}
 
 	private static void checkNoTwoStdinParameters(String[] moduleArgs, int numberOfUsedParameters,
@@ -415,6 +593,8 @@ public class APT {
 	private static void printUsageAndExit() {
 		printVersion();
 		OUT_PRINTER.println("Usage: apt <module> <arguments>");
+		OUT_PRINTER.println("       apt [" + PipelineParametersParser.PARALLEL_OPTION + "] <module> <arguments> "
+				+ PipelineParametersParser.SEPARATOR + " <module> <arguments> ...");
 		OUT_PRINTER.println();
 
 		OUT_PRINTER.println("Available modules:");
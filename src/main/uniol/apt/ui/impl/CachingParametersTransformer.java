@@ -0,0 +1,147 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.ui.impl;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.apache.commons.io.IOUtils;
+
+import uniol.apt.module.exception.ModuleException;
+import uniol.apt.module.exception.NoSuchTransformationException;
+import uniol.apt.ui.AptParameterTransformation;
+import uniol.apt.ui.ParameterTransformation;
+import uniol.apt.ui.ParametersTransformer;
+
+/**
+ * A ParametersTransformer which remembers the objects that another ParametersTransformer produced. When the same
+ * input text is transformed again, a copy of the earlier result is returned instead of parsing the text again.
+ * Analysis results which are attached to the objects later can be saved in the cache with {@link #updateCache}.
+ * @author Uli Schlachter
+ */
+public class CachingParametersTransformer implements ParametersTransformer {
+	private final ParametersTransformer transformer;
+	private final ParsedObjectCache cache;
+	// Remember from which input the objects that were handed out were created
+	private final Map<Object, String> origins = Collections.synchronizedMap(new WeakHashMap<Object, String>());
+
+	/**
+	 * Create a new caching parameters transformer.
+	 * @param transformer The transformer that is used when the cache does not contain a result.
+	 * @param cache The cache to use.
+	 */
+	public CachingParametersTransformer(ParametersTransformer transformer, ParsedObjectCache cache) {
+		this.transformer = transformer;
+		this.cache = cache;
+	}
+
+	/**
+	 * Get the cache that this transformer uses.
+	 * @return The cache.
+	 */
+	public ParsedObjectCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * Save analysis results that were attached to an object which this transformer produced, so that later uses of
+	 * the same input can reuse them. Nothing happens if the object did not come from this transformer or was
+	 * modified since then.
+	 * @param obj The object whose analysis results should be saved.
+	 * @return true if the cache was updated.
+	 */
+	public boolean updateCache(Object obj) {
+		String hash = origins.get(obj);
+		if (hash == null)
+			return false;
+		return updateUnchecked(obj.getClass(), hash, obj);
+	}
+
+	private <T> boolean updateUnchecked(Class<T> klass, String hash, Object obj) {
+		return cache.update(klass, hash, klass.cast(obj));
+	}
+
+	@Override
+	public <T> ParameterTransformation<T> getTransformation(Class<T> klass) {
+		return transformer.getTransformation(klass);
+	}
+
+	@Override
+	public String getTransformationDescription(Class<?> klass) throws NoSuchTransformationException {
+		return transformer.getTransformationDescription(klass);
+	}
+
+	@Override
+	public Object transform(String arg, Class<?> klass) throws ModuleException {
+		if (!ParsedObjectCache.isCacheable(klass))
+			return transformer.transform(arg, klass);
+
+		ParameterTransformation<?> transformation = getTransformation(klass);
+		if (transformation == null)
+			throw new NoSuchTransformationException(klass);
+		AptParameterTransformation annotation = transformation.getClass()
+				.getAnnotation(AptParameterTransformation.class);
+		if (annotation == null || !annotation.fileSource())
+			return transformString(arg, klass);
+		if (ParametersTransformerImpl.STANDARD_INPUT_SYMBOL.equals(arg))
+			return transformStream(System.in, klass);
+		try (InputStream stream = new BufferedInputStream(new FileInputStream(arg))) {
+			return transformStream(stream, klass);
+		} catch (IOException e) {
+			throw new ModuleException("Can't read " + arg + ": " + e.getMessage());
+		}
+	}
+
+	@Override
+	public Object transformString(String arg, Class<?> klass) throws ModuleException {
+		if (!ParsedObjectCache.isCacheable(klass))
+			return transformer.transformString(arg, klass);
+		return transformCached(arg, klass);
+	}
+
+	@Override
+	public Object transformStream(InputStream istr, Class<?> klass) throws ModuleException {
+		if (!ParsedObjectCache.isCacheable(klass))
+			return transformer.transformStream(istr, klass);
+		try {
+			return transformCached(IOUtils.toString(istr, "UTF-8"), klass);
+		} catch (IOException e) {
+			throw new ModuleException("Can't read stream: " + e.getMessage());
+		}
+	}
+
+	private <T> T transformCached(String arg, Class<T> klass) throws ModuleException {
+		String hash = ParsedObjectCache.hash(arg);
+		T result = cache.get(klass, hash);
+		if (result == null) {
+			result = klass.cast(transformer.transformString(arg, klass));
+			cache.put(klass, hash, result);
+		}
+		origins.put(result, hash);
+		return result;
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -44,9 +44,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class DrawModule extends AbstractModule implements Module {
 
+	private final static String NAME = "draw";
+
 	@Override
 	public String getName() {
-		return "draw";
+		return NAME;
 	}
 
 	@Override
@@ -39,9 +39,11 @@ import uniol.apt.module.exception.ModuleException;
  */
 @AptModule
 public class HelpModule extends AbstractModule implements Module {
+	private final static String NAME = "help";
+
 	@Override
 	public String getName() {
-		return "help";
+		return NAME;
 	}
 
 	@Override
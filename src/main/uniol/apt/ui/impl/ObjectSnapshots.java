@@ -0,0 +1,388 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.ui.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import uniol.apt.adt.exception.DatastructureException;
+import uniol.apt.adt.extension.Extensible;
+import uniol.apt.adt.extension.ExtensionProperty;
+import uniol.apt.adt.pn.Flow;
+import uniol.apt.adt.pn.Marking;
+import uniol.apt.adt.pn.PetriNet;
+import uniol.apt.adt.pn.Place;
+import uniol.apt.adt.pn.Token;
+import uniol.apt.adt.pn.Transition;
+import uniol.apt.adt.ts.Arc;
+import uniol.apt.adt.ts.Event;
+import uniol.apt.adt.ts.State;
+import uniol.apt.adt.ts.TransitionSystem;
+import uniol.apt.analysis.coverability.CoverabilityGraphSnapshot;
+import uniol.apt.util.Pair;
+
+/**
+ * Compact binary snapshots of Petri nets and transition systems. A snapshot contains everything that a copy of the
+ * object would contain. For Petri nets, the coverability and reachability graphs which were computed so far are
+ * included as well. Reading a snapshot is a lot cheaper than parsing the text that the object came from.
+ * @author Uli Schlachter
+ */
+public class ObjectSnapshots {
+	static private final int MAGIC = 0x41505401;
+	static private final byte TYPE_PETRI_NET = 1;
+	static private final byte TYPE_TRANSITION_SYSTEM = 2;
+
+	static private final byte VALUE_STRING = 1;
+	static private final byte VALUE_INTEGER = 2;
+	static private final byte VALUE_LONG = 3;
+	static private final byte VALUE_DOUBLE = 4;
+	static private final byte VALUE_BOOLEAN = 5;
+
+	private ObjectSnapshots() {
+	}
+
+	/**
+	 * Create a snapshot of the given object. Snapshots are canonical: Two objects which are equal up to the order in
+	 * which their elements were created produce the same snapshot. A snapshot without analysis results is a prefix of
+	 * the snapshot with analysis results of the same object.
+	 * @param obj The object, which must be a {@link PetriNet} or a {@link TransitionSystem}.
+	 * @param withAnalysisResults Should analysis results that were attached to the object be included?
+	 * @return The snapshot.
+	 * @throws NotSerializableException If the object or one of its extensions cannot be represented.
+	 */
+	static public byte[] write(Object obj, boolean withAnalysisResults) throws NotSerializableException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(MAGIC);
+			if (obj instanceof PetriNet) {
+				out.writeByte(TYPE_PETRI_NET);
+				writePetriNet((PetriNet) obj, out);
+				if (withAnalysisResults)
+					CoverabilityGraphSnapshot.write((PetriNet) obj, out);
+			} else if (obj instanceof TransitionSystem) {
+				out.writeByte(TYPE_TRANSITION_SYSTEM);
+				writeTransitionSystem((TransitionSystem) obj, out);
+			} else {
+				throw new NotSerializableException(obj.getClass().getName());
+			}
+		} catch (NotSerializableException e) {
+			throw e;
+		} catch (IOException e) {
+			throw new AssertionError("A ByteArrayOutputStream should not throw IOException", e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Restore an object from a snapshot.
+	 * @param snapshot The snapshot that was created by {@link #write} with analysis results.
+	 * @return The restored object.
+	 * @throws IOException If the snapshot is malformed.
+	 */
+	static public Object read(byte[] snapshot) throws IOException {
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(snapshot))) {
+			if (in.readInt() != MAGIC)
+				throw new IOException("Not a snapshot");
+			byte type = in.readByte();
+			Object result;
+			switch (type) {
+				case TYPE_PETRI_NET:
+					result = readPetriNet(in);
+					break;
+				case TYPE_TRANSITION_SYSTEM:
+					result = readTransitionSystem(in);
+					break;
+				default:
+					throw new IOException("Unknown snapshot type " + type);
+			}
+			if (in.read() != -1)
+				throw new IOException("Trailing data after snapshot");
+			return result;
+		} catch (DatastructureException e) {
+			throw new IOException("Snapshot describes an invalid object: " + e.getMessage(), e);
+		}
+	}
+
+	static private void writePetriNet(PetriNet pn, DataOutputStream out) throws IOException {
+		writeString(pn.getName(), out);
+		writeExtensions(pn, out);
+
+		Set<Place> places = pn.getPlaces();
+		out.writeInt(places.size());
+		for (Place place : places) {
+			writeString(place.getId(), out);
+			writeExtensions(place, out);
+		}
+
+		Set<Transition> transitions = pn.getTransitions();
+		out.writeInt(transitions.size());
+		for (Transition transition : transitions) {
+			writeString(transition.getId(), out);
+			writeString(transition.getLabel(), out);
+			writeExtensions(transition, out);
+		}
+
+		List<Flow> flows = new ArrayList<>(pn.getEdges());
+		Collections.sort(flows, new Comparator<Flow>() {
+			@Override
+			public int compare(Flow f1, Flow f2) {
+				int result = f1.getSource().getId().compareTo(f2.getSource().getId());
+				if (result == 0)
+					result = f1.getTarget().getId().compareTo(f2.getTarget().getId());
+				return result;
+			}
+		});
+		out.writeInt(flows.size());
+		for (Flow flow : flows) {
+			writeString(flow.getSource().getId(), out);
+			writeString(flow.getTarget().getId(), out);
+			out.writeInt(flow.getWeight());
+			writeExtensions(flow, out);
+		}
+
+		writeMarking(pn.getInitialMarking(), places, out);
+		List<Marking> finalMarkings = new ArrayList<>(pn.getFinalMarkings());
+		Collections.sort(finalMarkings, new Comparator<Marking>() {
+			@Override
+			public int compare(Marking m1, Marking m2) {
+				return m1.toString().compareTo(m2.toString());
+			}
+		});
+		out.writeInt(finalMarkings.size());
+		for (Marking marking : finalMarkings)
+			writeMarking(marking, places, out);
+	}
+
+	static private PetriNet readPetriNet(DataInputStream in) throws IOException {
+		PetriNet pn = new PetriNet(readString(in));
+		readExtensions(pn, in);
+
+		int numPlaces = in.readInt();
+		for (int i = 0; i < numPlaces; i++)
+			readExtensions(pn.createPlace(readString(in)), in);
+
+		int numTransitions = in.readInt();
+		for (int i = 0; i < numTransitions; i++) {
+			String id = readString(in);
+			readExtensions(pn.createTransition(id, readString(in)), in);
+		}
+
+		int numFlows = in.readInt();
+		for (int i = 0; i < numFlows; i++) {
+			String source = readString(in);
+			String target = readString(in);
+			readExtensions(pn.createFlow(source, target, in.readInt()), in);
+		}
+
+		pn.setInitialMarking(readMarking(pn, in));
+		int numFinalMarkings = in.readInt();
+		for (int i = 0; i < numFinalMarkings; i++)
+			pn.addFinalMarking(readMarking(pn, in));
+
+		CoverabilityGraphSnapshot.read(pn, in);
+		return pn;
+	}
+
+	static private void writeMarking(Marking marking, Set<Place> places, DataOutputStream out)
+			throws IOException {
+		for (Place place : places) {
+			Token token = marking.getToken(place);
+			out.writeLong(token.isOmega() ? -1 : token.getValue());
+		}
+	}
+
+	static private Marking readMarking(PetriNet pn, DataInputStream in) throws IOException {
+		Marking marking = new Marking(pn);
+		for (Place place : pn.getPlaces()) {
+			long value = in.readLong();
+			marking = marking.setTokenCount(place, value < 0 ? Token.OMEGA : Token.valueOf(value));
+		}
+		return marking;
+	}
+
+	static private void writeTransitionSystem(TransitionSystem ts, DataOutputStream out) throws IOException {
+		writeString(ts.getName(), out);
+		writeExtensions(ts, out);
+
+		Set<State> states = ts.getNodes();
+		out.writeInt(states.size());
+		for (State state : states) {
+			writeString(state.getId(), out);
+			writeExtensions(state, out);
+		}
+		State initial = ts.getInitialState();
+		out.writeBoolean(initial != null);
+		if (initial != null)
+			writeString(initial.getId(), out);
+
+		List<Arc> arcs = new ArrayList<>(ts.getEdges());
+		Collections.sort(arcs, new Comparator<Arc>() {
+			@Override
+			public int compare(Arc a1, Arc a2) {
+				int result = a1.getSourceId().compareTo(a2.getSourceId());
+				if (result == 0)
+					result = a1.getTargetId().compareTo(a2.getTargetId());
+				if (result == 0)
+					result = a1.getLabel().compareTo(a2.getLabel());
+				return result;
+			}
+		});
+		out.writeInt(arcs.size());
+		for (Arc arc : arcs) {
+			writeString(arc.getSourceId(), out);
+			writeString(arc.getTargetId(), out);
+			writeString(arc.getLabel(), out);
+			writeExtensions(arc, out);
+		}
+
+		// Events only exist because of arcs, so they have to come afterwards
+		Set<Event> events = ts.getAlphabetEvents();
+		out.writeInt(events.size());
+		for (Event event : events) {
+			writeString(event.getLabel(), out);
+			writeExtensions(event, out);
+		}
+	}
+
+	static private TransitionSystem readTransitionSystem(DataInputStream in) throws IOException {
+		TransitionSystem ts = new TransitionSystem(readString(in));
+		readExtensions(ts, in);
+
+		int numStates = in.readInt();
+		for (int i = 0; i < numStates; i++)
+			readExtensions(ts.createState(readString(in)), in);
+		if (in.readBoolean())
+			ts.setInitialState(readString(in));
+
+		int numArcs = in.readInt();
+		for (int i = 0; i < numArcs; i++) {
+			String source = readString(in);
+			String target = readString(in);
+			readExtensions(ts.createArc(source, target, readString(in)), in);
+		}
+
+		int numEvents = in.readInt();
+		for (int i = 0; i < numEvents; i++)
+			readExtensions(ts.getEvent(readString(in)), in);
+		return ts;
+	}
+
+	static private void writeExtensions(Extensible extensible, DataOutputStream out) throws IOException {
+		List<Pair<String, Object>> extensions = extensible.getCopyExtensions();
+		Collections.sort(extensions, new Comparator<Pair<String, Object>>() {
+			@Override
+			public int compare(Pair<String, Object> p1, Pair<String, Object> p2) {
+				return p1.getFirst().compareTo(p2.getFirst());
+			}
+		});
+		Set<String> writeToFile = new HashSet<>();
+		for (Pair<String, Object> pair : extensible.getWriteToFileExtensions())
+			writeToFile.add(pair.getFirst());
+
+		out.writeInt(extensions.size());
+		for (Pair<String, Object> pair : extensions) {
+			writeString(pair.getFirst(), out);
+			out.writeBoolean(writeToFile.contains(pair.getFirst()));
+			writeValue(pair.getFirst(), pair.getSecond(), out);
+		}
+	}
+
+	static private void readExtensions(Extensible extensible, DataInputStream in) throws IOException {
+		int count = in.readInt();
+		for (int i = 0; i < count; i++) {
+			String key = readString(in);
+			boolean writeToFile = in.readBoolean();
+			Object value = readValue(in);
+			if (writeToFile)
+				extensible.putExtension(key, value, ExtensionProperty.WRITE_TO_FILE);
+			else
+				extensible.putExtension(key, value);
+		}
+	}
+
+	static private void writeValue(String key, Object value, DataOutputStream out) throws IOException {
+		if (value instanceof String) {
+			out.writeByte(VALUE_STRING);
+			writeString((String) value, out);
+		} else if (value instanceof Integer) {
+			out.writeByte(VALUE_INTEGER);
+			out.writeInt((Integer) value);
+		} else if (value instanceof Long) {
+			out.writeByte(VALUE_LONG);
+			out.writeLong((Long) value);
+		} else if (value instanceof Double) {
+			out.writeByte(VALUE_DOUBLE);
+			out.writeDouble((Double) value);
+		} else if (value instanceof Boolean) {
+			out.writeByte(VALUE_BOOLEAN);
+			out.writeBoolean((Boolean) value);
+		} else {
+			throw new NotSerializableException("Extension " + key + " has unsupported type "
+					+ (value == null ? "null" : value.getClass().getName()));
+		}
+	}
+
+	static private Object readValue(DataInputStream in) throws IOException {
+		byte type = in.readByte();
+		switch (type) {
+			case VALUE_STRING:
+				return readString(in);
+			case VALUE_INTEGER:
+				return in.readInt();
+			case VALUE_LONG:
+				return in.readLong();
+			case VALUE_DOUBLE:
+				return in.readDouble();
+			case VALUE_BOOLEAN:
+				return in.readBoolean();
+			default:
+				throw new IOException("Unknown value type " + type);
+		}
+	}
+
+	// DataOutput.writeUTF() is limited to 64 KiB, which is not enough for e.g. long descriptions
+	static private void writeString(String str, DataOutputStream out) throws IOException {
+		byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	static private String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0 || length > in.available())
+			throw new IOException("Invalid string length " + length);
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
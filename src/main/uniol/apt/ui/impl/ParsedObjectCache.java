@@ -0,0 +1,253 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.ui.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import uniol.apt.adt.pn.PetriNet;
+import uniol.apt.adt.ts.TransitionSystem;
+
+/**
+ * A cache of parsed objects which is keyed by the hash of the text that the object was parsed from. Objects are
+ * never handed out directly, because modules are allowed to modify their arguments. Instead, the cache keeps a
+ * {@link ObjectSnapshots snapshot} of each object and every lookup restores a fresh object from it. Optionally,
+ * snapshots are also kept in a directory so that they survive the current process. This class is thread-safe.
+ * @author Uli Schlachter
+ */
+public class ParsedObjectCache {
+	static private final String FILE_SUFFIX = ".snapshot";
+
+	private final Map<String, byte[]> entries;
+	private final File directory;
+
+	/**
+	 * Create a new cache which only keeps objects in memory.
+	 * @param maxEntries The maximum number of objects that are kept. When more objects are added, the least recently
+	 * used ones are forgotten.
+	 */
+	public ParsedObjectCache(int maxEntries) {
+		this(maxEntries, null);
+	}
+
+	/**
+	 * Create a new cache which keeps objects in memory and in the given directory.
+	 * @param maxEntries The maximum number of objects that are kept in memory. When more objects are added, the least
+	 * recently used ones are forgotten.
+	 * @param directory The directory in which snapshots are kept or null if nothing should be persisted.
+	 */
+	public ParsedObjectCache(final int maxEntries, File directory) {
+		if (maxEntries <= 0)
+			throw new IllegalArgumentException("maxEntries must be positive, but is " + maxEntries);
+		this.directory = directory;
+		this.entries = new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+			private static final long serialVersionUID = 0;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Check if objects of the given class can be stored in this cache.
+	 * @param klass The class to check.
+	 * @return true if instances of the class can be cached.
+	 */
+	static public boolean isCacheable(Class<?> klass) {
+		return PetriNet.class.equals(klass) || TransitionSystem.class.equals(klass);
+	}
+
+	/**
+	 * Calculate the hash of some input that is used as key in this cache.
+	 * @param content The content to hash.
+	 * @return A hexadecimal representation of the SHA-256 hash of the content.
+	 */
+	static public String hash(String content) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new AssertionError("Every Java implementation must support SHA-256", e);
+		}
+		byte[] hash = digest.digest(content.getBytes(StandardCharsets.UTF_8));
+		StringBuilder result = new StringBuilder(2 * hash.length);
+		for (byte b : hash)
+			result.append(String.format("%02x", b & 0xff));
+		return result.toString();
+	}
+
+	static private String getKey(Class<?> klass, String hash) {
+		return hash + "-" + klass.getName();
+	}
+
+	/**
+	 * Look up an object in the cache.
+	 * @param klass The class of the object that is looked up.
+	 * @param hash The hash of the input from which the object was parsed.
+	 * @param <T> The type of the object.
+	 * @return A new copy of the cached object or null if nothing was found.
+	 */
+	public <T> T get(Class<T> klass, String hash) {
+		String key = getKey(klass, hash);
+		byte[] snapshot = getSnapshot(key);
+		if (snapshot == null)
+			return null;
+		try {
+			Object result = ObjectSnapshots.read(snapshot);
+			if (klass.isInstance(result))
+				return klass.cast(result);
+		} catch (IOException e) {
+			// The snapshot is broken, just forget about it
+		}
+		remove(key);
+		return null;
+	}
+
+	/**
+	 * Add an object to the cache. Objects that cannot be represented as a snapshot are silently ignored.
+	 * @param klass The class of the object that is added.
+	 * @param hash The hash of the input from which the object was parsed.
+	 * @param obj The object to add.
+	 * @param <T> The type of the object.
+	 */
+	public <T> void put(Class<T> klass, String hash, T obj) {
+		if (!isCacheable(klass))
+			throw new IllegalArgumentException("Objects of class " + klass + " cannot be cached");
+		try {
+			putSnapshot(getKey(klass, hash), ObjectSnapshots.write(obj, true));
+		} catch (NotSerializableException e) {
+			// Some extension cannot be saved, so this object is not cached
+		}
+	}
+
+	/**
+	 * Replace a cached object with a new version that contains additional analysis results. The update is only done
+	 * if the object itself is still the same as the cached version, i.e. only analysis results differ.
+	 * @param klass The class of the object that is updated.
+	 * @param hash The hash of the input from which the object was parsed.
+	 * @param obj The object which was handed out by this cache and possibly had analysis results attached.
+	 * @param <T> The type of the object.
+	 * @return true if the cache was updated.
+	 */
+	public <T> boolean update(Class<T> klass, String hash, T obj) {
+		String key = getKey(klass, hash);
+		byte[] old = getSnapshot(key);
+		if (old == null)
+			return false;
+		try {
+			byte[] withoutResults = ObjectSnapshots.write(obj, false);
+			if (old.length < withoutResults.length || !Arrays.equals(withoutResults,
+						Arrays.copyOf(old, withoutResults.length)))
+				return false;
+			byte[] withResults = ObjectSnapshots.write(obj, true);
+			if (Arrays.equals(old, withResults))
+				return false;
+			putSnapshot(key, withResults);
+			return true;
+		} catch (NotSerializableException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Get the number of objects in the memory part of this cache.
+	 * @return The number of objects.
+	 */
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	private byte[] getSnapshot(String key) {
+		synchronized (entries) {
+			byte[] result = entries.get(key);
+			if (result != null)
+				return result;
+		}
+		if (directory == null)
+			return null;
+
+		byte[] result;
+		try {
+			result = Files.readAllBytes(getFile(key));
+		} catch (IOException e) {
+			return null;
+		}
+		synchronized (entries) {
+			entries.put(key, result);
+		}
+		return result;
+	}
+
+	private void putSnapshot(String key, byte[] snapshot) {
+		synchronized (entries) {
+			entries.put(key, snapshot);
+		}
+		if (directory == null)
+			return;
+
+		// Write to a temporary file first so that concurrent readers never see a partial snapshot
+		try {
+			Files.createDirectories(directory.toPath());
+			Path tmp = Files.createTempFile(directory.toPath(), key, ".tmp");
+			try {
+				Files.write(tmp, snapshot);
+				Files.move(tmp, getFile(key), StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(tmp);
+			}
+		} catch (IOException e) {
+			// The persistent cache is only an optimisation; failing to write it is not an error
+		}
+	}
+
+	private void remove(String key) {
+		synchronized (entries) {
+			entries.remove(key);
+		}
+		if (directory == null)
+			return;
+		try {
+			Files.deleteIfExists(getFile(key));
+		} catch (IOException e) {
+			// Ignore, the next lookup will just fail again
+		}
+	}
+
+	private Path getFile(String key) {
+		return new File(directory, key + FILE_SUFFIX).toPath();
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
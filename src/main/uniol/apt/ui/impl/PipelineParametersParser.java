@@ -0,0 +1,116 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.ui.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import uniol.apt.ui.ParametersParser;
+
+/**
+ * A parser for command-line strings that describe a pipeline of module invocations.
+ *
+ * It parses command-line strings like "[--parallel] mod_1 arg_1 ... arg_n :: mod_2 arg_1 ... arg_m" such that
+ * {@link #getModuleNames()} returns ["mod_1", "mod_2"] and {@link #getModuleArguments(int)} returns the arguments
+ * of the module at the given position. A command line without {@link #SEPARATOR} is parsed like
+ * {@link SimpleParametersParser} does.
+ *
+ * @author Uli Schlachter
+ */
+public class PipelineParametersParser implements ParametersParser {
+	/**
+	 * The argument that separates two module invocations.
+	 */
+	public static final String SEPARATOR = "::";
+
+	/**
+	 * The option which requests that the modules are run in parallel.
+	 */
+	public static final String PARALLEL_OPTION = "--parallel";
+
+	private final List<String> moduleNames = new ArrayList<>();
+	private final List<String[]> moduleArguments = new ArrayList<>();
+	private boolean parallel;
+
+	@Override
+	public void parse(String[] args) {
+		moduleNames.clear();
+		moduleArguments.clear();
+		parallel = false;
+
+		int start = 0;
+		if (args.length > 0 && args[0].equals(PARALLEL_OPTION)) {
+			parallel = true;
+			start = 1;
+		}
+		for (int i = start; i <= args.length; i++) {
+			if (i < args.length && !args[i].equals(SEPARATOR))
+				continue;
+			// Ignore empty pipeline elements like in "mod :: :: mod" or a trailing separator
+			if (i > start) {
+				moduleNames.add(args[start]);
+				moduleArguments.add(Arrays.copyOfRange(args, start + 1, i));
+			}
+			start = i + 1;
+		}
+	}
+
+	/**
+	 * Check if the modules of the pipeline should be run in parallel.
+	 * @return true if {@link #PARALLEL_OPTION} was given.
+	 */
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	@Override
+	public String[] getModuleNames() {
+		return moduleNames.toArray(new String[moduleNames.size()]);
+	}
+
+	/**
+	 * Gets the arguments of the first invocation of the given module. Use {@link #getModuleArguments(int)} if a
+	 * module appears more than once in the pipeline.
+	 *
+	 * @param moduleName The name of the module whose arguments should be returned
+	 * @return the arguments
+	 */
+	@Override
+	public String[] getModuleArguments(String moduleName) {
+		int index = moduleNames.indexOf(moduleName);
+		if (index == -1)
+			return new String[0];
+		return getModuleArguments(index);
+	}
+
+	/**
+	 * Gets the arguments of the module at the given position of the pipeline.
+	 *
+	 * @param index The position of the module as in {@link #getModuleNames()}
+	 * @return the arguments
+	 */
+	public String[] getModuleArguments(int index) {
+		String[] result = moduleArguments.get(index);
+		return Arrays.copyOf(result, result.length);
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -49,6 +49,8 @@ import uniol.apt.util.Pair;
 @AptModule
 public class ExamineLTSModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "examine_lts";
+
 	@Override
 	public String getShortDescription() {
 		return "Perform various tests on a transition system at once";
@@ -56,7 +58,7 @@ public class ExamineLTSModule extends AbstractModule implements InterruptibleMod
 
 	@Override
 	public String getName() {
-		return "examine_lts";
+		return NAME;
 	}
 
 	@Override
@@ -63,6 +63,8 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class ExaminePNModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "examine_pn";
+
 	@Override
 	public String getShortDescription() {
 		return "Perform various tests on a Petri net at once";
@@ -70,7 +72,7 @@ public class ExaminePNModule extends AbstractModule implements InterruptibleModu
 
 	@Override
 	public String getName() {
-		return "examine_pn";
+		return NAME;
 	}
 
 	@Override
@@ -45,6 +45,8 @@ import uniol.apt.util.interrupt.InterrupterRegistry;
 @AptModule
 public class FireSequenceModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "fire_sequence";
+
 	@Override
 	public String getShortDescription() {
 		return "Try to fire a given firing sequence on a Petri net.";
@@ -59,7 +61,7 @@ public class FireSequenceModule extends AbstractModule implements InterruptibleM
 
 	@Override
 	public String getName() {
-		return "fire_sequence";
+		return NAME;
 	}
 
 	@Override
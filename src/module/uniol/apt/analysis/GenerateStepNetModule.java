@@ -37,6 +37,8 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class GenerateStepNetModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "concurrent_coverability_graph";
+
 	@Override
 	public String getShortDescription() {
 		return "Calculate the concurrent coverability graph of a Petri net in the step semantics";
@@ -54,7 +56,7 @@ public class GenerateStepNetModule extends AbstractModule implements Interruptib
 
 	@Override
 	public String getName() {
-		return "concurrent_coverability_graph";
+		return NAME;
 	}
 
 	@Override
@@ -71,10 +73,19 @@ public class GenerateStepNetModule extends AbstractModule implements Interruptib
 	@Override
 	public void run(ModuleInput input, ModuleOutput output) throws ModuleException {
 		PetriNet pn = input.getParameter("pn", PetriNet.class);
-		String dot = new GenerateStepNet(pn).renderCoverabilityGraphAsDot();
+		String dot = getGraph(pn).renderAsDot();
 		output.setReturnValue("dot", String.class, dot);
 	}
 
+	/**
+	 * Calculate the graph that this module renders.
+	 * @param pn The Petri net that should be examined.
+	 * @return The coverability graph in the step semantics.
+	 */
+	protected StepCoverabilityGraph getGraph(PetriNet pn) {
+		return StepCoverabilityGraph.compute(pn);
+	}
+
 	@Override
 	public Category[] getCategories() {
 		return new Category[] { Category.PN };
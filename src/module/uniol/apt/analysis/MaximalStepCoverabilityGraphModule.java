@@ -0,0 +1,58 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.analysis;
+
+import uniol.apt.adt.pn.PetriNet;
+import uniol.apt.module.AptModule;
+import uniol.apt.module.InterruptibleModule;
+
+/**
+ * Calculate the coverability graph of a Petri net in the step semantics where only maximal steps fire.
+ * @author Uli Schlachter
+ */
+@AptModule
+public class MaximalStepCoverabilityGraphModule extends GenerateStepNetModule implements InterruptibleModule {
+
+	private final static String NAME = "maximal_concurrent_coverability_graph";
+
+	@Override
+	public String getShortDescription() {
+		return "Calculate the concurrent coverability graph of a Petri net in the maximal step semantics";
+	}
+
+	@Override
+	public String getLongDescription() {
+		return super.getLongDescription()
+			+ " In the maximal step semantics, only steps to which no further transition can be added"
+			+ " may fire.";
+	}
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	protected StepCoverabilityGraph getGraph(PetriNet pn) {
+		return StepCoverabilityGraph.compute(pn, true);
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
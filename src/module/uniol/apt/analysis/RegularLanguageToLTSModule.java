@@ -39,6 +39,8 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class RegularLanguageToLTSModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "regular_language_to_lts";
+
 	@Override
 	public String getShortDescription() {
 		return "Represent a regular language as a transition system";
@@ -46,7 +48,7 @@ public class RegularLanguageToLTSModule extends AbstractModule implements Interr
 
 	@Override
 	public String getName() {
-		return "regular_language_to_lts";
+		return NAME;
 	}
 
 	@Override
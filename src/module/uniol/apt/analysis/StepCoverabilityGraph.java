@@ -0,0 +1,466 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Formatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import uniol.apt.adt.pn.Flow;
+import uniol.apt.adt.pn.Marking;
+import uniol.apt.adt.pn.PetriNet;
+import uniol.apt.adt.pn.Place;
+import uniol.apt.adt.pn.Token;
+import uniol.apt.adt.pn.Transition;
+import uniol.apt.adt.ts.State;
+import uniol.apt.adt.ts.TransitionSystem;
+import uniol.apt.analysis.coverability.CoverabilityGraph;
+import uniol.apt.util.interrupt.InterruptPoller;
+import uniol.apt.util.interrupt.Interrupter;
+import uniol.apt.util.interrupt.InterrupterRegistry;
+import uniol.apt.util.interrupt.UncheckedInterruptedException;
+
+/**
+ * The coverability graph of a Petri net in the step semantics. In contrast to {@link GenerateStepNet}, no step net is
+ * materialized. Instead, the steps that are enabled in a marking are enumerated directly from the Petri net.
+ *
+ * Transitions are numbered and a step is built by adding transitions in increasing order, so that every step is
+ * generated exactly once. Since the supersets of a disabled step are disabled as well, the enumeration does not
+ * descend below a disabled step. Optionally, only maximal steps are considered, i.e. steps to which no further
+ * transition can be added.
+ *
+ * The graph is explored in breadth-first order and omegas are inserted like in {@link CoverabilityGraph}. All markings
+ * of the current level of the search are expanded in parallel and the results are merged in order, so the result does
+ * not depend on the scheduling of threads.
+ * @author Uli Schlachter
+ */
+public class StepCoverabilityGraph {
+	static private final long OMEGA = Long.MAX_VALUE;
+	// Levels with fewer markings than this are expanded in the calling thread
+	static private final int PARALLEL_THRESHOLD = 64;
+
+	private final PetriNet pn;
+	private final boolean maximalSteps;
+	private final Place[] places;
+	private final Transition[] transitions;
+	// For transition t, consumePlaces[t][i] is a place in the preset and consumeWeights[t][i] the arc weight
+	private final int[][] consumePlaces;
+	private final int[][] consumeWeights;
+	private final int[][] producePlaces;
+	private final int[][] produceWeights;
+
+	private final List<Node> nodes = new ArrayList<>();
+	private final Map<Node, Node> nodeMap = new HashMap<>();
+	private int numberOfArcs;
+
+	static private class Node {
+		private final long[] marking;
+		private final int hashCode;
+		private final Node parent;
+		private final int index;
+		private final List<int[]> steps = new ArrayList<>();
+		private final List<Node> targets = new ArrayList<>();
+
+		private Node(long[] marking, Node parent, int index) {
+			this.marking = marking;
+			this.hashCode = Arrays.hashCode(marking);
+			this.parent = parent;
+			this.index = index;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Node && Arrays.equals(marking, ((Node) o).marking);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+
+	/// The steps enabled in a marking together with the markings that they reach
+	static private class Successors {
+		private final List<int[]> steps = new ArrayList<>();
+		private final List<long[]> markings = new ArrayList<>();
+	}
+
+	private StepCoverabilityGraph(PetriNet pn, boolean maximalSteps) {
+		this.pn = pn;
+		this.maximalSteps = maximalSteps;
+		this.places = pn.getPlaces().toArray(new Place[0]);
+		this.transitions = pn.getTransitions().toArray(new Transition[0]);
+
+		Map<Place, Integer> placeIndex = new HashMap<>();
+		for (int i = 0; i < places.length; i++)
+			placeIndex.put(places[i], i);
+
+		consumePlaces = new int[transitions.length][];
+		consumeWeights = new int[transitions.length][];
+		producePlaces = new int[transitions.length][];
+		produceWeights = new int[transitions.length][];
+		for (int t = 0; t < transitions.length; t++) {
+			List<Flow> preset = new ArrayList<>(pn.getPresetEdges(transitions[t]));
+			consumePlaces[t] = new int[preset.size()];
+			consumeWeights[t] = new int[preset.size()];
+			for (int i = 0; i < preset.size(); i++) {
+				consumePlaces[t][i] = placeIndex.get(preset.get(i).getPlace());
+				consumeWeights[t][i] = preset.get(i).getWeight();
+			}
+
+			List<Flow> postset = new ArrayList<>(pn.getPostsetEdges(transitions[t]));
+			producePlaces[t] = new int[postset.size()];
+			produceWeights[t] = new int[postset.size()];
+			for (int i = 0; i < postset.size(); i++) {
+				producePlaces[t][i] = placeIndex.get(postset.get(i).getPlace());
+				produceWeights[t][i] = postset.get(i).getWeight();
+			}
+		}
+	}
+
+	/**
+	 * Calculate the coverability graph of a Petri net in the step semantics where all non-empty steps may fire.
+	 * @param pn The Petri net to examine.
+	 * @return The coverability graph.
+	 */
+	static public StepCoverabilityGraph compute(PetriNet pn) {
+		return compute(pn, false);
+	}
+
+	/**
+	 * Calculate the coverability graph of a Petri net in the step semantics.
+	 * @param pn The Petri net to examine.
+	 * @param maximalSteps If true, only maximal steps may fire, else all non-empty steps.
+	 * @return The coverability graph.
+	 */
+	static public StepCoverabilityGraph compute(PetriNet pn, boolean maximalSteps) {
+		StepCoverabilityGraph result = new StepCoverabilityGraph(pn, maximalSteps);
+		result.explore();
+		return result;
+	}
+
+	private void explore() {
+		long[] initial = new long[places.length];
+		Marking initialMarking = pn.getInitialMarking();
+		for (int p = 0; p < places.length; p++) {
+			Token token = initialMarking.getToken(places[p]);
+			initial[p] = token.isOmega() ? OMEGA : token.getValue();
+		}
+		List<Node> level = Collections.singletonList(getNode(initial, null));
+
+		ForkJoinPool executor = null;
+		try {
+			while (!level.isEmpty()) {
+				List<Successors> successors;
+				if (level.size() < PARALLEL_THRESHOLD) {
+					successors = expand(level, new InterruptPoller());
+				} else {
+					// Java 8 provides ForkJoinPool.commonPool(). Java 7 does not, so we need to
+					// create our own pool.
+					if (executor == null)
+						executor = new ForkJoinPool();
+					successors = expandInParallel(executor, level);
+				}
+
+				// Merge the results in order so that node numbers do not depend on thread scheduling
+				List<Node> nextLevel = new ArrayList<>();
+				for (int i = 0; i < level.size(); i++) {
+					Node node = level.get(i);
+					Successors succ = successors.get(i);
+					for (int j = 0; j < succ.steps.size(); j++) {
+						int oldSize = nodes.size();
+						Node target = getNode(succ.markings.get(j), node);
+						if (nodes.size() != oldSize)
+							nextLevel.add(target);
+						node.steps.add(succ.steps.get(j));
+						node.targets.add(target);
+						numberOfArcs++;
+					}
+				}
+				level = nextLevel;
+			}
+		} finally {
+			if (executor != null)
+				executor.shutdownNow();
+		}
+	}
+
+	private List<Successors> expandInParallel(ForkJoinPool executor, final List<Node> level) {
+		final Interrupter interrupter = InterrupterRegistry.getCurrentThreadInterrupter();
+		int numTasks = Math.min(level.size(), 4 * executor.getParallelism());
+		List<Callable<List<Successors>>> tasks = new ArrayList<>(numTasks);
+		for (int task = 0; task < numTasks; task++) {
+			final int from = (int) ((long) level.size() * task / numTasks);
+			final int to = (int) ((long) level.size() * (task + 1) / numTasks);
+			tasks.add(new Callable<List<Successors>>() {
+				@Override
+				public List<Successors> call() {
+					InterruptPoller poller = new InterruptPoller(interrupter,
+							InterruptPoller.DEFAULT_INTERVAL);
+					return expand(level.subList(from, to), poller);
+				}
+			});
+		}
+
+		List<Successors> result = new ArrayList<>(level.size());
+		try {
+			for (Future<List<Successors>> future : executor.invokeAll(tasks))
+				result.addAll(future.get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new UncheckedInterruptedException();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new RuntimeException(cause);
+		}
+		return result;
+	}
+
+	/// Calculate the successors of the given nodes. This only reads the graph and thus may run concurrently.
+	private List<Successors> expand(List<Node> level, InterruptPoller poller) {
+		List<Successors> result = new ArrayList<>(level.size());
+		for (Node node : level) {
+			Successors successors = new Successors();
+			enumerateSteps(node, new int[transitions.length], 0, 0, new long[places.length], successors,
+					poller);
+			result.add(successors);
+		}
+		return result;
+	}
+
+	/**
+	 * Enumerate all steps that extend the given step by transitions with an index of at least the given one.
+	 * @param node The node whose marking is examined.
+	 * @param step The transitions of the current step in its first stepSize entries.
+	 * @param stepSize The size of the current step.
+	 * @param first The smallest index of a transition that may be added to the step.
+	 * @param consumed The number of token that the current step consumes from each place.
+	 * @param successors Where the found steps are recorded.
+	 * @param poller Used for checking for interruptions.
+	 */
+	private void enumerateSteps(Node node, int[] step, int stepSize, int first, long[] consumed,
+			Successors successors, InterruptPoller poller) {
+		for (int t = first; t < transitions.length; t++) {
+			poller.poll();
+			if (!tryConsume(node.marking, consumed, t))
+				// Every step containing the current step and t is disabled, skip them all
+				continue;
+			step[stepSize] = t;
+			if (!maximalSteps || isMaximal(node.marking, consumed, step, stepSize + 1))
+				addSuccessor(node, Arrays.copyOf(step, stepSize + 1), consumed, successors);
+			enumerateSteps(node, step, stepSize + 1, t + 1, consumed, successors, poller);
+			unconsume(consumed, t);
+		}
+	}
+
+	/// Add the consumption of transition t if that still fits into the marking
+	private boolean tryConsume(long[] marking, long[] consumed, int t) {
+		int i;
+		for (i = 0; i < consumePlaces[t].length; i++) {
+			int p = consumePlaces[t][i];
+			consumed[p] += consumeWeights[t][i];
+			if (marking[p] != OMEGA && consumed[p] > marking[p])
+				break;
+		}
+		if (i == consumePlaces[t].length)
+			return true;
+		// Undo what was already added
+		for (; i >= 0; i--)
+			consumed[consumePlaces[t][i]] -= consumeWeights[t][i];
+		return false;
+	}
+
+	private void unconsume(long[] consumed, int t) {
+		for (int i = 0; i < consumePlaces[t].length; i++)
+			consumed[consumePlaces[t][i]] -= consumeWeights[t][i];
+	}
+
+	/// Check if no transition outside of the step can be added to it
+	private boolean isMaximal(long[] marking, long[] consumed, int[] step, int stepSize) {
+		int position = 0;
+		for (int t = 0; t < transitions.length; t++) {
+			if (position < stepSize && step[position] == t) {
+				position++;
+				continue;
+			}
+			if (tryConsume(marking, consumed, t)) {
+				unconsume(consumed, t);
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void addSuccessor(Node node, int[] step, long[] consumed, Successors successors) {
+		long[] marking = node.marking.clone();
+		for (int p = 0; p < marking.length; p++)
+			if (marking[p] != OMEGA)
+				marking[p] -= consumed[p];
+		for (int t : step) {
+			for (int i = 0; i < producePlaces[t].length; i++) {
+				int p = producePlaces[t][i];
+				if (marking[p] != OMEGA)
+					marking[p] += produceWeights[t][i];
+			}
+		}
+		accelerate(marking, node);
+		successors.steps.add(step);
+		successors.markings.add(marking);
+	}
+
+	/// Insert omegas for the first ancestor that the marking strictly covers, like CoverabilityGraph does
+	static private void accelerate(long[] marking, Node parent) {
+		for (Node ancestor = parent; ancestor != null; ancestor = ancestor.parent) {
+			boolean covers = true;
+			boolean strictly = false;
+			for (int p = 0; p < marking.length && covers; p++) {
+				covers = ancestor.marking[p] <= marking[p];
+				strictly |= ancestor.marking[p] < marking[p];
+			}
+			if (!covers || !strictly)
+				continue;
+			for (int p = 0; p < marking.length; p++)
+				if (ancestor.marking[p] < marking[p])
+					marking[p] = OMEGA;
+			return;
+		}
+	}
+
+	private Node getNode(long[] marking, Node parent) {
+		Node node = new Node(marking, parent, nodes.size());
+		Node existing = nodeMap.get(node);
+		if (existing != null)
+			return existing;
+		nodeMap.put(node, node);
+		nodes.add(node);
+		return node;
+	}
+
+	private Marking toMarking(long[] marking) {
+		Marking result = new Marking(pn);
+		for (int p = 0; p < places.length; p++) {
+			Token token = marking[p] == OMEGA ? Token.OMEGA : Token.valueOf(marking[p]);
+			result = result.setTokenCount(places[p], token);
+		}
+		return result;
+	}
+
+	private String getStepLabel(int[] step) {
+		List<Transition> result = new ArrayList<>(step.length);
+		for (int t : step)
+			result.add(transitions[t]);
+		return GenerateStepNet.getStepLabel(result);
+	}
+
+	/**
+	 * Get the Petri net that this graph belongs to.
+	 * @return The Petri net.
+	 */
+	public PetriNet getPetriNet() {
+		return pn;
+	}
+
+	/**
+	 * Get the number of nodes of this graph.
+	 * @return The number of nodes.
+	 */
+	public int getNumberOfNodes() {
+		return nodes.size();
+	}
+
+	/**
+	 * Get the number of arcs of this graph.
+	 * @return The number of arcs.
+	 */
+	public int getNumberOfArcs() {
+		return numberOfArcs;
+	}
+
+	/**
+	 * Get this graph as a transition system. The label of an arc is the label of its step as produced by {@link
+	 * GenerateStepNet#getStepLabel}. States carry their marking as an extension, like with {@link
+	 * CoverabilityGraph#toCoverabilityLTS}.
+	 * @return The transition system.
+	 */
+	public TransitionSystem toLTS() {
+		TransitionSystem.Builder builder = new TransitionSystem.Builder(
+				"Step coverability graph of " + pn.getName(), nodes.size());
+		for (Node node : nodes) {
+			State state = builder.getState(builder.addState());
+			state.putExtension(CoverabilityGraph.MARKING_KEY, toMarking(node.marking));
+		}
+		for (Node node : nodes)
+			for (int i = 0; i < node.steps.size(); i++)
+				builder.addArc(node.index, node.targets.get(i).index,
+						builder.addEvent(getStepLabel(node.steps.get(i))));
+		builder.setInitialState(0);
+		TransitionSystem result = builder.getTransitionSystem();
+		result.putExtension(PetriNet.class.getName(), pn);
+		return result;
+	}
+
+	/**
+	 * Render this graph in the DOT file format. The output has the same format as {@link
+	 * GenerateStepNet#renderCoverabilityGraphAsDot}.
+	 * @return string containing the graph in the dot file format
+	 */
+	public String renderAsDot() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("digraph G {\n");
+		sb.append("node [shape = point, color=white, fontcolor=white]; start;");
+		sb.append("edge [fontsize=20]\n");
+		sb.append("node [fontsize=20,shape=circle,color=black,fontcolor=black,"
+				+ "height=0.5,width=0.5,fixedsize=true];\n");
+
+		Formatter format = new Formatter(sb);
+		for (Node node : nodes) {
+			String name = "s" + node.index;
+			String template = node.index == 0 ? GenerateStepNet.TS_INIT_TEMPLATE
+				: GenerateStepNet.TS_NODE_TEMPLATE;
+			format.format(template, name, name, toMarking(node.marking).toString());
+		}
+
+		format.format(GenerateStepNet.TS_EDGE_TEMPLATE, "start", "s0", "");
+
+		for (Node node : nodes)
+			for (int i = 0; i < node.steps.size(); i++)
+				format.format(GenerateStepNet.TS_EDGE_TEMPLATE, "s" + node.index,
+						"s" + node.targets.get(i).index, getStepLabel(node.steps.get(i)));
+
+		format.close();
+		sb.append("}\n");
+
+		return sb.toString();
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -38,9 +38,11 @@ import uniol.apt.util.Pair;
  */
 @AptModule
 public class AsymmetricChoiceModule extends AbstractModule implements InterruptibleModule {
+	private final static String NAME = "ac";
+
 	@Override
 	public String getName() {
-		return "ac";
+		return NAME;
 	}
 
 	@Override
@@ -36,9 +36,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class MatrixModule extends AbstractModule implements Module {
 
+	private final static String NAME = "matrices";
+
 	@Override
 	public String getName() {
-		return "matrices";
+		return NAME;
 	}
 
 	@Override
@@ -40,6 +40,8 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class BCFModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "bcf";
+
 	@Override
 	public String getShortDescription() {
 		return "Check if a Petri net is behaviourally conflict free (BCF)";
@@ -54,7 +56,7 @@ public class BCFModule extends AbstractModule implements InterruptibleModule {
 
 	@Override
 	public String getName() {
-		return "bcf";
+		return NAME;
 	}
 
 	@Override
@@ -40,6 +40,8 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class BiCFModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "bicf";
+
 	@Override
 	public String getShortDescription() {
 		return "Check if a Petri net is binary conflict free (BiCF)";
@@ -55,7 +57,7 @@ public class BiCFModule extends AbstractModule implements InterruptibleModule {
 
 	@Override
 	public String getName() {
-		return "bicf";
+		return NAME;
 	}
 
 	@Override
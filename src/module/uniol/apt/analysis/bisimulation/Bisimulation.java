@@ -27,11 +27,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import uniol.apt.adt.extension.ExtensionKey;
 import uniol.apt.adt.ts.Arc;
 import uniol.apt.adt.ts.State;
 import uniol.apt.adt.ts.TransitionSystem;
 import uniol.apt.analysis.deterministic.Deterministic;
-import uniol.apt.util.interrupt.InterrupterRegistry;
+import uniol.apt.util.interrupt.InterruptPoller;
 import uniol.apt.util.Pair;
 
 /**
@@ -39,6 +40,8 @@ import uniol.apt.util.Pair;
  * @author Raffaela Ferrari
  */
 public class Bisimulation {
+	// Extension which marks the fail states that this algorithm adds to the transition systems
+	static private final ExtensionKey<String> LABEL_KEY = ExtensionKey.create("label", String.class);
 
 	private enum Result {
 
@@ -65,10 +68,10 @@ public class Bisimulation {
 		Deterministic lts2Deterministic = new Deterministic(this.lts2);
 		// initialise extensions for the ability to put label on states
 		for (State s : ltsOne.getNodes()) {
-			s.putExtension("label", "");
+			s.putExtension(LABEL_KEY, "");
 		}
 		for (State s : ltsTwo.getNodes()) {
-			s.putExtension("label", "");
+			s.putExtension(LABEL_KEY, "");
 		}
 		// choose algorithm
 		if (lts1Deterministic.isDeterministic() || lts2Deterministic.isDeterministic()) {
@@ -94,6 +97,7 @@ public class Bisimulation {
 	 * @return A value of a Boolean. true, if the two lts are bisimilar. Otherwise false.
 	 */
 	private Boolean checkDeterministicCase() {
+		InterruptPoller poller = new InterruptPoller();
 		errorPath = null;
 		//Step 1 : define Variables
 		// Contains all the already visited nodes.
@@ -108,7 +112,7 @@ public class Bisimulation {
 
 		//Step 3 : execute algorithm
 		while (!stack1.isEmpty()) {
-			InterrupterRegistry.throwIfInterruptRequestedForCurrentThread();
+			poller.poll();
 
 			List<Pair<Arc, Pair<State, State>>> l = stack1.peek().getSecond();
 			if (!l.isEmpty()) {
@@ -118,10 +122,10 @@ public class Bisimulation {
 					new Pair<>(tuple2, getSuccessors(tuple2));
 				boolean hasFailSuccessor = false;
 				for (Pair<Arc, Pair<State, State>> pair : newElement.getSecond()) {
-					InterrupterRegistry.throwIfInterruptRequestedForCurrentThread();
+					poller.poll();
 
 					if (pair.getFirst().getLabel().equals("phi")
-						&& pair.getSecond().getFirst().getExtension("label").equals("fail")
+						&& pair.getSecond().getFirst().getExtension(LABEL_KEY).equals("fail")
 						&& pair.getSecond().getSecond() == null) {
 						hasFailSuccessor = true;
 						break;
@@ -136,7 +140,7 @@ public class Bisimulation {
 					errorPath = new LinkedList<>();
 					constructErrorPathPairs(stack1);
 					if (!(firstOfL.getFirst().getLabel().equals("phi")
-						&& tuple2.getFirst().getExtension("label").equals("fail")
+						&& tuple2.getFirst().getExtension(LABEL_KEY).equals("fail")
 						&& tuple2.getSecond() == null)) {
 						errorPath.add(tuple2);
 					}
@@ -169,6 +173,7 @@ public class Bisimulation {
 	 * @return Result of the partial DFS
 	 */
 	private Result getResultOfPartialDFS() {
+		InterruptPoller poller = new InterruptPoller();
 		errorPath = null;
 		//Step 1: define variables
 		//contains all analyzed and visited nodes
@@ -198,7 +203,7 @@ public class Bisimulation {
 
 		//Step 3: execute algorithm
 		while (!stack1.isEmpty()) {
-			InterrupterRegistry.throwIfInterruptRequestedForCurrentThread();
+			poller.poll();
 
 			stable = true;
 			Pair<Pair<State, State>, List<Pair<Arc, Pair<State, State>>>> topStack1 = stack1.peek();
@@ -213,7 +218,7 @@ public class Bisimulation {
 						new Pair<>(tuple2, getSuccessors(tuple2));
 					boolean isInStack1 = false;
 					for (Pair<Pair<State, State>, List<Pair<Arc, Pair<State, State>>>> t : stack1) {
-						InterrupterRegistry.throwIfInterruptRequestedForCurrentThread();
+						poller.poll();
 
 						if (t.getFirst().equals(tuple2)) {
 							isInStack1 = true;
@@ -222,10 +227,10 @@ public class Bisimulation {
 					if (!isInStack1) {
 						boolean hasFailSuccessor = false;
 						for (Pair<Arc, Pair<State, State>> pair : newElement.getSecond()) {
-							InterrupterRegistry.throwIfInterruptRequestedForCurrentThread();
+							poller.poll();
 
 							if (pair.getFirst().getLabel().equals("phi")
-								&& pair.getSecond().getFirst().getExtension("label").
+								&& pair.getSecond().getFirst().getExtension(LABEL_KEY).
 								equals("fail")
 								&& pair.getSecond().getSecond() == null) {
 								hasFailSuccessor = true;
@@ -271,10 +276,10 @@ public class Bisimulation {
 						List<Pair<Arc, Pair<State, State>>> nonBisimilarElements =
 							getSuccessors(testPair);
 						for (Pair<Arc, Pair<State, State>> pair : nonBisimilarElements) {
-							InterrupterRegistry.throwIfInterruptRequestedForCurrentThread();
+							poller.poll();
 
 							if (!(pair.getFirst().getLabel().equals("phi")
-									&& pair.getSecond().getFirst().getExtension("label").equals("fail")
+									&& pair.getSecond().getFirst().getExtension(LABEL_KEY).equals("fail")
 									&& pair.getSecond().getSecond() == null) &&
 									(m.get(pair.getSecond().getFirst()) == 0
 									 || m.get(pair.getSecond().getSecond()) == 0)) {
@@ -282,10 +287,10 @@ public class Bisimulation {
 								List<Pair<Arc, Pair<State, State>>> testElements =
 									getSuccessors(pair.getSecond());
 								for (Pair<Arc, Pair<State, State>> nodePair : testElements) {
-									InterrupterRegistry.throwIfInterruptRequestedForCurrentThread();
+									poller.poll();
 
 									if (nodePair.getFirst().getLabel().equals("phi")
-										&& nodePair.getSecond().getFirst().getExtension("label").equals("fail")
+										&& nodePair.getSecond().getFirst().getExtension(LABEL_KEY).equals("fail")
 										&& nodePair.getSecond().getSecond() == null) {
 										hasNonBisimilarPairFind = true;
 										break;
@@ -325,7 +330,7 @@ public class Bisimulation {
 	private List<Pair<Arc, Pair<State, State>>> getSuccessors(Pair<State, State> pair) {
 		List<Pair<Arc, Pair<State, State>>> successors = new LinkedList<>();
 		// the fail node of this algorithm has a transition to itself
-		if (pair.getFirst().getExtension("label").equals("fail")) {
+		if (pair.getFirst().getExtension(LABEL_KEY).equals("fail")) {
 			Arc phi = pair.getFirst().getGraph().createArc(pair.getFirst().getId(),
 				pair.getFirst().getId(), "phi");
 			successors.add(new Pair<>(phi, pair));
@@ -342,8 +347,8 @@ public class Bisimulation {
 		 */
 		State fail1 = lts1.createState();
 		State fail2 = lts2.createState();
-		fail1.putExtension("label", "fail");
-		fail2.putExtension("label", "fail");
+		fail1.putExtension(LABEL_KEY, "fail");
+		fail2.putExtension(LABEL_KEY, "fail");
 
 		// One need only one edge to node "fail" from the Pair
 		boolean isConcatenatedWithFail = false;
@@ -364,7 +369,7 @@ public class Bisimulation {
 			}
 			if (!isConcatenated && !isConcatenatedWithFail) {
 				State copyOfEdge1PostNode = edge1.getTarget().getGraph().createState();
-				copyOfEdge1PostNode.putExtension("label", edge1.getTarget().getExtension("label"));
+				copyOfEdge1PostNode.putExtension(LABEL_KEY, edge1.getTarget().getExtension(LABEL_KEY));
 				Arc phi = lts1.createArc(copyOfEdge1PostNode, fail1, "");
 				phi.setLabel("phi");
 				successors.add(new Pair<>(phi, new Pair<State, State>(fail1, null)));
@@ -383,7 +388,7 @@ public class Bisimulation {
 			}
 			if (!isConcatenated && !isConcatenatedWithFail) {
 				State copyOfEdge2PostNode = edge2.getTarget().getGraph().createState();
-				copyOfEdge2PostNode.putExtension("label", edge2.getTarget().getExtension("label"));
+				copyOfEdge2PostNode.putExtension(LABEL_KEY, edge2.getTarget().getExtension(LABEL_KEY));
 				Arc phi = lts2.createArc(copyOfEdge2PostNode, fail2, "");
 				phi.setLabel("phi");
 				successors.add(new Pair<>(phi, new Pair<State, State>(fail2, null)));
@@ -37,9 +37,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class BisimulationModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "bisimulation";
+
 	@Override
 	public String getName() {
-		return "bisimulation";
+		return NAME;
 	}
 
 	@Override
@@ -0,0 +1,490 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.analysis.bmc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.TimeoutException;
+
+import uniol.apt.adt.pn.Flow;
+import uniol.apt.adt.pn.Marking;
+import uniol.apt.adt.pn.PetriNet;
+import uniol.apt.adt.pn.Place;
+import uniol.apt.adt.pn.Token;
+import uniol.apt.adt.pn.Transition;
+import uniol.apt.util.interrupt.InterrupterRegistry;
+
+/**
+ * Bounded model checking of reachability properties of Petri nets via SAT4J. Only markings in which no place has more
+ * than a given bound of tokens are considered. The step from depth d to depth d + 1 is unrolled into CNF. In a step,
+ * a set of enabled transitions fires which pairwise share no places, so that these transitions can fire in any order.
+ * This avoids that a search has to consider all interleavings of independent transitions. Thus, the firing sequences
+ * that are found can be longer than the number of steps. The number of tokens on a place at a depth is encoded in
+ * unary: For every 1 &lt;= j &lt;= bound, a variable says whether the place has at least j tokens.
+ *
+ * Searches increase the depth step by step. Every instance keeps a single solver which stores the unrolled steps and
+ * the learned clauses. If a step is not required via an assumption, no transition has to fire in it. Likewise, the
+ * property that is searched for at some depth is only enabled via an assumption. Thus, the unrolled steps and the
+ * learned clauses are reused by deeper searches and by searches for other properties.
+ *
+ * A search which does not find anything within the maximal depth returns null. In this case, {@link #isComplete()}
+ * tells if there are no sequences of this many steps at all, so that the whole state space up to the bound was
+ * searched. This happens for example for acyclic nets.
+ * @author Uli Schlachter
+ */
+public class BoundedModelChecker {
+	// Constant literals. The negation of TRUE is FALSE.
+	static private final int TRUE = Integer.MAX_VALUE;
+	static private final int FALSE = -TRUE;
+
+	private final PetriNet pn;
+	private final int bound;
+	private final List<Place> places;
+	private final List<Transition> transitions;
+	// For every transition: The index of each place in its preset and the weight of the arc
+	private final int[][] prePlaces;
+	private final int[][] preWeights;
+	// For every transition: The index of each place whose token count it changes and the change
+	private final int[][] changedPlaces;
+	private final int[][] changes;
+	// For every place: The index of each transition that changes its token count
+	private final int[][] changingTransitions;
+	// For every place: The index of each transition that is connected to it by an arc
+	private final int[][] adjacentTransitions;
+	private final int[] initialTokens;
+	private final boolean initialExceedsBound;
+
+	private final ISolver solver = SolverFactory.newDefault();
+	private int nextVariable = 1;
+	// tokenVariables.get(d)[p * bound + j - 1] is the variable saying that place p has at least j tokens at depth d
+	private final List<int[]> tokenVariables = new ArrayList<>();
+	// fireVariables.get(d)[t] is the variable saying that transition t fires in the step from depth d
+	private final List<int[]> fireVariables = new ArrayList<>();
+	// stepVariables.get(d) is the variable which requires that some transition fires in the step from depth d
+	private final List<Integer> stepVariables = new ArrayList<>();
+	// The smallest length for which there are no firing sequences that stay within the bound, or -1 if unknown
+	private int exhaustedDepth = -1;
+	private boolean complete;
+
+	/**
+	 * Constructor.
+	 * @param pn The Petri net to examine.
+	 * @param bound The maximal number of tokens on a place in the markings that are examined.
+	 * @throws IllegalArgumentException If the bound is not positive or the initial marking contains omega.
+	 */
+	public BoundedModelChecker(PetriNet pn, int bound) {
+		if (bound < 1)
+			throw new IllegalArgumentException("The bound must be positive, but is " + bound);
+		this.pn = pn;
+		this.bound = bound;
+		this.places = new ArrayList<>(pn.getPlaces());
+		this.transitions = new ArrayList<>(pn.getTransitions());
+
+		Marking initial = pn.getInitialMarking();
+		boolean exceeds = false;
+		initialTokens = new int[places.size()];
+		for (int place = 0; place < places.size(); place++) {
+			Token token = initial.getToken(places.get(place));
+			if (token.isOmega())
+				throw new IllegalArgumentException("The initial marking must not contain omega");
+			exceeds |= token.getValue() > bound;
+			initialTokens[place] = (int) Math.min(token.getValue(), bound);
+		}
+		initialExceedsBound = exceeds;
+
+		int numTransitions = transitions.size();
+		prePlaces = new int[numTransitions][];
+		preWeights = new int[numTransitions][];
+		changedPlaces = new int[numTransitions][];
+		changes = new int[numTransitions][];
+		int[] numChangers = new int[places.size()];
+		for (int transition = 0; transition < numTransitions; transition++) {
+			int[] delta = new int[places.size()];
+			List<Flow> preset = new ArrayList<>(pn.getPresetEdges(transitions.get(transition)));
+			prePlaces[transition] = new int[preset.size()];
+			preWeights[transition] = new int[preset.size()];
+			for (int arc = 0; arc < preset.size(); arc++) {
+				int place = places.indexOf(preset.get(arc).getPlace());
+				prePlaces[transition][arc] = place;
+				preWeights[transition][arc] = preset.get(arc).getWeight();
+				delta[place] -= preset.get(arc).getWeight();
+			}
+			for (Flow arc : pn.getPostsetEdges(transitions.get(transition)))
+				delta[places.indexOf(arc.getPlace())] += arc.getWeight();
+
+			int count = 0;
+			for (int place = 0; place < places.size(); place++)
+				if (delta[place] != 0)
+					count++;
+			changedPlaces[transition] = new int[count];
+			changes[transition] = new int[count];
+			count = 0;
+			for (int place = 0; place < places.size(); place++) {
+				if (delta[place] != 0) {
+					changedPlaces[transition][count] = place;
+					changes[transition][count++] = delta[place];
+					numChangers[place]++;
+				}
+			}
+		}
+		changingTransitions = new int[places.size()][];
+		for (int place = 0; place < places.size(); place++)
+			changingTransitions[place] = new int[numChangers[place]];
+		Arrays.fill(numChangers, 0);
+		for (int transition = 0; transition < numTransitions; transition++)
+			for (int place : changedPlaces[transition])
+				changingTransitions[place][numChangers[place]++] = transition;
+		adjacentTransitions = new int[places.size()][];
+		for (int place = 0; place < places.size(); place++) {
+			Set<Transition> adjacent = new HashSet<>(places.get(place).getPreset());
+			adjacent.addAll(places.get(place).getPostset());
+			adjacentTransitions[place] = new int[adjacent.size()];
+			int index = 0;
+			for (Transition transition : adjacent)
+				adjacentTransitions[place][index++] = transitions.indexOf(transition);
+			Arrays.sort(adjacentTransitions[place]);
+		}
+
+		// The markings at depth 0 are given by constants
+		tokenVariables.add(null);
+	}
+
+	/**
+	 * Get the bound of the token counts.
+	 * @return The bound.
+	 */
+	public int getBound() {
+		return bound;
+	}
+
+	/**
+	 * Check if the last search that did not find anything examined all markings that are reachable within the
+	 * bound. This is the case if no sequence of steps of the maximal number stays within the bound.
+	 * @return true if the last search was complete.
+	 */
+	public boolean isComplete() {
+		return complete;
+	}
+
+	/**
+	 * Find a firing sequence that reaches a dead marking.
+	 * @param maxDepth The maximal number of steps.
+	 * @return A firing sequence that only visits markings within the bound and ends in a marking in which no
+	 * transition is enabled, or null.
+	 */
+	public List<Transition> findDeadlock(int maxDepth) {
+		for (int transition = 0; transition < transitions.size(); transition++) {
+			if (prePlaces[transition].length == 0) {
+				// This transition is always enabled
+				complete = true;
+				return null;
+			}
+		}
+		return search(new Property() {
+			@Override
+			public void add(int depth, int activation) throws ContradictionException {
+				// No transition is enabled
+				for (int transition = 0; transition < transitions.size(); transition++) {
+					int[] clause = new int[prePlaces[transition].length + 1];
+					clause[0] = -activation;
+					for (int arc = 0; arc < prePlaces[transition].length; arc++)
+						clause[arc + 1] = -atLeast(depth, prePlaces[transition][arc],
+								preWeights[transition][arc]);
+					addClause(clause);
+				}
+			}
+		}, maxDepth);
+	}
+
+	/**
+	 * Find a firing sequence that reaches the given marking.
+	 * @param target The marking that should be reached.
+	 * @param maxDepth The maximal number of steps.
+	 * @return A firing sequence that only visits markings within the bound and reaches the target, or null.
+	 */
+	public List<Transition> findMarking(Marking target, int maxDepth) {
+		final int[] targetTokens = new int[places.size()];
+		for (int place = 0; place < places.size(); place++) {
+			Token token = target.getToken(places.get(place));
+			if (token.isOmega() || token.getValue() > bound) {
+				// The target is not within the bound
+				complete = true;
+				return null;
+			}
+			targetTokens[place] = (int) token.getValue();
+		}
+		return search(new Property() {
+			@Override
+			public void add(int depth, int activation) throws ContradictionException {
+				for (int place = 0; place < places.size(); place++) {
+					addClause(-activation, atLeast(depth, place, targetTokens[place]));
+					addClause(-activation, -atLeast(depth, place, targetTokens[place] + 1));
+				}
+			}
+		}, maxDepth);
+	}
+
+	/**
+	 * Find a firing sequence that puts more tokens than the bound onto some place. For a bound of one, this is a
+	 * witness that the Petri net is not safe.
+	 * @param maxDepth The maximal number of steps, including the last one which only fires a single transition.
+	 * @return A firing sequence whose last marking exceeds the bound while all markings before it are within the
+	 * bound, or null.
+	 */
+	public List<Transition> findBoundViolation(int maxDepth) {
+		if (initialExceedsBound) {
+			complete = false;
+			return new ArrayList<>();
+		}
+		final List<int[]> exceedingVariables = new ArrayList<>();
+		List<Transition> result = search(new Property() {
+			@Override
+			public void add(int depth, int activation) throws ContradictionException {
+				// Some transition is enabled and its firing exceeds the bound
+				int[] exceeding = new int[transitions.size()];
+				int[] some = new int[transitions.size() + 1];
+				some[0] = -activation;
+				for (int transition = 0; transition < transitions.size(); transition++) {
+					exceeding[transition] = nextVariable++;
+					some[transition + 1] = exceeding[transition];
+					addEnabled(depth, transition, exceeding[transition]);
+
+					int[] clause = new int[changedPlaces[transition].length + 1];
+					clause[0] = -exceeding[transition];
+					for (int arc = 0; arc < changedPlaces[transition].length; arc++) {
+						int change = changes[transition][arc];
+						clause[arc + 1] = change < 0 ? FALSE : atLeast(depth,
+								changedPlaces[transition][arc], bound - change + 1);
+					}
+					addClause(clause);
+				}
+				addClause(some);
+				exceedingVariables.add(exceeding);
+			}
+		}, maxDepth - 1);
+		if (result != null)
+			result.add(getExceedingTransition(exceedingVariables.get(exceedingVariables.size() - 1)));
+		return result;
+	}
+
+	/** Find a transition whose variable is true in the solver's model. */
+	private Transition getExceedingTransition(int[] variables) {
+		for (int transition = 0; transition < transitions.size(); transition++)
+			if (solver.model(variables[transition]))
+				return transitions.get(transition);
+		throw new AssertionError("No transition exceeds the bound");
+	}
+
+	/** A property of a marking that is searched for. */
+	private interface Property {
+		/**
+		 * Add clauses which express that the marking at the given depth has this property if the given
+		 * activation variable is true.
+		 * @param depth The depth of the marking.
+		 * @param activation The activation variable.
+		 * @throws ContradictionException If the solver notices that the clauses are unsatisfiable.
+		 */
+		void add(int depth, int activation) throws ContradictionException;
+	}
+
+	private List<Transition> search(Property property, int maxDepth) {
+		if (initialExceedsBound) {
+			// No marking is within the bound
+			complete = true;
+			return null;
+		}
+		complete = false;
+		try {
+			VecInt assumptions = new VecInt();
+			for (int depth = 0; depth <= maxDepth; depth++) {
+				InterrupterRegistry.throwIfInterruptRequestedForCurrentThread();
+				if (depth > 0) {
+					if (stepVariables.size() < depth)
+						addStep();
+					assumptions.push(stepVariables.get(depth - 1));
+				}
+				if (exhaustedDepth == -1 && !isSatisfiable(assumptions))
+					exhaustedDepth = depth;
+				if (exhaustedDepth != -1 && depth >= exhaustedDepth) {
+					// All markings within the bound can be reached with shorter firing sequences
+					complete = true;
+					return null;
+				}
+
+				int activation = nextVariable++;
+				property.add(depth, activation);
+				assumptions.push(activation);
+				boolean satisfiable = isSatisfiable(assumptions);
+				assumptions.pop();
+				if (satisfiable) {
+					List<Transition> result = new ArrayList<>();
+					for (int step = 0; step < depth; step++) {
+						int[] fire = fireVariables.get(step);
+						for (int transition = 0; transition < transitions.size(); transition++)
+							if (solver.model(fire[transition]))
+								result.add(transitions.get(transition));
+					}
+					return result;
+				}
+				// The property does not hold at this depth, so it is no longer needed
+				addClause(-activation);
+			}
+			return null;
+		} catch (ContradictionException e) {
+			throw new AssertionError("The formula is satisfiable when no step is required", e);
+		} catch (TimeoutException e) {
+			throw new AssertionError("We set no timeout and thus timeouts cannot occur", e);
+		}
+	}
+
+	/** Add the step from the deepest marking to a new marking. */
+	private void addStep() throws ContradictionException {
+		int depth = fireVariables.size();
+		int numTransitions = transitions.size();
+		int[] fire = new int[numTransitions];
+		for (int transition = 0; transition < numTransitions; transition++)
+			fire[transition] = nextVariable++;
+		int[] tokens = new int[places.size() * bound];
+		for (int variable = 0; variable < tokens.length; variable++)
+			tokens[variable] = nextVariable++;
+		int step = nextVariable++;
+		fireVariables.add(fire);
+		tokenVariables.add(tokens);
+		stepVariables.add(step);
+
+		// If the step is required, at least one transition fires
+		int[] some = Arrays.copyOf(fire, numTransitions + 1);
+		some[numTransitions] = -step;
+		addClause(some);
+
+		// Transitions that fire in the same step share no places; the sequential counter encoding is used
+		for (int place = 0; place < places.size(); place++) {
+			int[] adjacent = adjacentTransitions[place];
+			if (adjacent.length < 2)
+				continue;
+			int previous = nextVariable++;
+			addClause(-fire[adjacent[0]], previous);
+			for (int index = 1; index < adjacent.length - 1; index++) {
+				int counter = nextVariable++;
+				addClause(-fire[adjacent[index]], counter);
+				addClause(-previous, counter);
+				addClause(-fire[adjacent[index]], -previous);
+				previous = counter;
+			}
+			addClause(-fire[adjacent[adjacent.length - 1]], -previous);
+		}
+
+		for (int transition = 0; transition < numTransitions; transition++) {
+			InterrupterRegistry.throwIfInterruptRequestedForCurrentThread();
+			addEnabled(depth, transition, fire[transition]);
+			for (int arc = 0; arc < changedPlaces[transition].length; arc++) {
+				int place = changedPlaces[transition][arc];
+				int change = changes[transition][arc];
+				// Stay within the bound
+				if (change > 0)
+					addClause(-fire[transition], -atLeast(depth, place, bound - change + 1));
+				// The new token count is the old one plus the change
+				for (int j = 1; j <= bound; j++) {
+					int next = atLeast(depth + 1, place, j);
+					int previous = atLeast(depth, place, j - change);
+					addClause(-fire[transition], -next, previous);
+					addClause(-fire[transition], next, -previous);
+				}
+			}
+		}
+
+		// Places keep their token count unless a transition fires that changes it
+		for (int place = 0; place < places.size(); place++) {
+			int[] changers = changingTransitions[place];
+			for (int j = 1; j <= bound; j++) {
+				int[] clause1 = new int[changers.length + 2];
+				int[] clause2 = new int[changers.length + 2];
+				clause1[0] = -atLeast(depth + 1, place, j);
+				clause1[1] = atLeast(depth, place, j);
+				clause2[0] = -clause1[0];
+				clause2[1] = -clause1[1];
+				for (int index = 0; index < changers.length; index++)
+					clause1[index + 2] = clause2[index + 2] = fire[changers[index]];
+				addClause(clause1);
+				addClause(clause2);
+			}
+		}
+	}
+
+	/** Add clauses which say that the transition is enabled at the given depth if the given variable is true. */
+	private void addEnabled(int depth, int transition, int variable) throws ContradictionException {
+		for (int arc = 0; arc < prePlaces[transition].length; arc++)
+			addClause(-variable, atLeast(depth, prePlaces[transition][arc], preWeights[transition][arc]));
+	}
+
+	/**
+	 * Get the literal which says that a place has at least the given number of tokens at the given depth.
+	 * @return A variable or one of the constants TRUE and FALSE.
+	 */
+	private int atLeast(int depth, int place, int tokens) {
+		if (tokens <= 0)
+			return TRUE;
+		if (tokens > bound)
+			return FALSE;
+		if (depth == 0)
+			return initialTokens[place] >= tokens ? TRUE : FALSE;
+		return tokenVariables.get(depth)[place * bound + tokens - 1];
+	}
+
+	/**
+	 * Check if the clauses are satisfiable under the given assumptions. Variables that only appear in assumptions
+	 * or in clauses that were dropped by {@link #addClause} are unknown to the solver, so all allocated variables
+	 * are declared first.
+	 */
+	private boolean isSatisfiable(VecInt assumptions) throws TimeoutException {
+		solver.newVar(nextVariable - 1);
+		return solver.isSatisfiable(assumptions);
+	}
+
+	/** Add a clause to the solver after removing constant literals. */
+	private void addClause(int... literals) throws ContradictionException {
+		VecInt clause = new VecInt(literals.length);
+		for (int literal : literals) {
+			if (literal == TRUE)
+				return;
+			if (literal != FALSE)
+				clause.push(literal);
+		}
+		solver.addClause(clause);
+	}
+
+	/**
+	 * Get the Petri net that is examined.
+	 * @return The Petri net.
+	 */
+	public PetriNet getPetriNet() {
+		return pn;
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
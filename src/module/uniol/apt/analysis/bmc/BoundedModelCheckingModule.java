@@ -0,0 +1,121 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.analysis.bmc;
+
+import java.util.List;
+
+import uniol.apt.adt.pn.PetriNet;
+import uniol.apt.adt.pn.Transition;
+import uniol.apt.analysis.language.FiringSequence;
+import uniol.apt.module.AbstractModule;
+import uniol.apt.module.AptModule;
+import uniol.apt.module.Category;
+import uniol.apt.module.InterruptibleModule;
+import uniol.apt.module.ModuleInput;
+import uniol.apt.module.ModuleInputSpec;
+import uniol.apt.module.ModuleOutput;
+import uniol.apt.module.ModuleOutputSpec;
+import uniol.apt.module.exception.ModuleException;
+
+/**
+ * Provide bounded model checking as a module.
+ * @author Uli Schlachter
+ */
+@AptModule
+public class BoundedModelCheckingModule extends AbstractModule implements InterruptibleModule {
+
+	private final static String NAME = "bmc";
+
+	@Override
+	public String getShortDescription() {
+		return "Search for a deadlock or for a marking exceeding a bound with a SAT solver";
+	}
+
+	@Override
+	public String getLongDescription() {
+		return getShortDescription()
+			+ ". Firing sequences up to the given depth are searched, but only markings where each place has "
+			+ "at most k tokens are examined. The property 'deadlock' searches for a dead marking and the "
+			+ "property 'bound' searches for a marking with more than k tokens on some place. Unlike the "
+			+ "other modules, this does not need to calculate the whole reachability graph and thus can "
+			+ "find long firing sequences in nets with huge state spaces.";
+	}
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public void require(ModuleInputSpec inputSpec) {
+		inputSpec.addParameter("pn", PetriNet.class, "The Petri net that should be examined");
+		inputSpec.addParameter("property", String.class, "The property to search for: deadlock or bound");
+		inputSpec.addParameter("depth", Integer.class, "The maximal length of the firing sequence");
+		inputSpec.addOptionalParameterWithDefault("k", Integer.class, 1, "1",
+				"The maximal number of tokens on a place");
+	}
+
+	@Override
+	public void provide(ModuleOutputSpec outputSpec) {
+		outputSpec.addReturnValue("found", Boolean.class);
+		outputSpec.addReturnValue("complete", Boolean.class);
+		outputSpec.addReturnValue("witness_firing_sequence", FiringSequence.class);
+	}
+
+	@Override
+	public void run(ModuleInput input, ModuleOutput output) throws ModuleException {
+		PetriNet pn = input.getParameter("pn", PetriNet.class);
+		String property = input.getParameter("property", String.class);
+		int depth = input.getParameter("depth", Integer.class);
+		int k = input.getParameter("k", Integer.class);
+		if (depth < 0)
+			throw new ModuleException("The depth must not be negative");
+		if (k < 1)
+			throw new ModuleException("k must be positive");
+
+		BoundedModelChecker checker = new BoundedModelChecker(pn, k);
+		List<Transition> witness;
+		switch (property) {
+			case "deadlock":
+				witness = checker.findDeadlock(depth);
+				break;
+			case "bound":
+				witness = checker.findBoundViolation(depth);
+				break;
+			default:
+				throw new ModuleException("Unknown property '" + property
+						+ "', expected 'deadlock' or 'bound'");
+		}
+
+		output.setReturnValue("found", Boolean.class, witness != null);
+		if (witness != null)
+			output.setReturnValue("witness_firing_sequence", FiringSequence.class,
+					new FiringSequence(witness));
+		else
+			output.setReturnValue("complete", Boolean.class, checker.isComplete());
+	}
+
+	@Override
+	public Category[] getCategories() {
+		return new Category[]{Category.PN};
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -30,6 +30,7 @@ import uniol.apt.adt.pn.Token;
 import uniol.apt.adt.pn.Transition;
 import uniol.apt.analysis.coverability.CoverabilityGraph;
 import uniol.apt.analysis.coverability.CoverabilityGraphNode;
+import uniol.apt.analysis.coverability.MinimalCoverabilitySet;
 import uniol.apt.analysis.language.FiringSequence;
 import uniol.apt.util.interrupt.InterrupterRegistry;
 
@@ -47,7 +48,8 @@ public class Bounded {
 	 * @return true if all places in the Petri net are bounded.
 	 */
 	static public boolean isBounded(PetriNet pn) {
-		return checkBounded(pn).isBounded();
+		// No witness is needed, so stop at the first acceleration instead of building the whole coverability graph
+		return MinimalCoverabilitySet.isBounded(pn);
 	}
 
 	/**
@@ -39,6 +39,8 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class BoundedModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "bounded";
+
 	@Override
 	public String getShortDescription() {
 		return "Check if a Petri net is bounded or k-bounded";
@@ -53,7 +55,7 @@ public class BoundedModule extends AbstractModule implements InterruptibleModule
 
 	@Override
 	public String getName() {
-		return "bounded";
+		return NAME;
 	}
 
 	@Override
@@ -39,6 +39,8 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class KBoundedModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "k_bounded";
+
 	@Override
 	public String getShortDescription() {
 		return "Find the smallest k for which a Petri net is k-bounded";
@@ -53,7 +55,7 @@ public class KBoundedModule extends AbstractModule implements InterruptibleModul
 
 	@Override
 	public String getName() {
-		return "k_bounded";
+		return NAME;
 	}
 
 	@Override
@@ -39,6 +39,8 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class SafeModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "safe";
+
 	@Override
 	public String getShortDescription() {
 		return "Check if a Petri net is safe";
@@ -52,7 +54,7 @@ public class SafeModule extends AbstractModule implements InterruptibleModule {
 
 	@Override
 	public String getName() {
-		return "safe";
+		return NAME;
 	}
 
 	@Override
@@ -20,16 +20,17 @@
 package uniol.apt.analysis.connectivity;
 
 import java.util.ArrayDeque;
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.Deque;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
 
 import uniol.apt.adt.IGraph;
 import uniol.apt.adt.INode;
+import uniol.apt.util.ArrayUnionFind;
+import uniol.apt.util.UnionFind;
+import uniol.apt.util.interrupt.InterruptPoller;
 import uniol.apt.util.interrupt.InterrupterRegistry;
 
 /**
@@ -67,7 +68,11 @@ public class Connectivity {
 	 * @return true if the graph is weakly connected.
 	 */
 	public static <G extends IGraph<G, ?, N>, N extends INode<G, ?, N>> boolean isWeaklyConnected(G graph) {
-		return getWeaklyConnectedComponents(graph).size() <= 1;
+		// Component 0 is the component of the first node, so all nodes are in it if the graph is connected
+		for (int component : getWeaklyConnectedComponents(new GraphSnapshot<>(graph)))
+			if (component != 0)
+				return false;
+		return true;
 	}
 
 	/**
@@ -81,22 +86,47 @@ public class Connectivity {
 	 */
 	public static <G extends IGraph<G, ?, N>, N extends INode<G, ?, N>>
 			Set<? extends Set<N>> getWeaklyConnectedComponents(G graph) {
-		Collection<N> unhandled = new HashSet<>();
-		Set<Set<N>> result = new HashSet<>();
-
-		// As long as not all of the graph's nodes were visited...
-		unhandled.addAll(graph.getNodes());
-		while (!unhandled.isEmpty()) {
-			// ...get a random node and handle its component
-			Iterator<N> it = unhandled.iterator();
-			N node = it.next();
-			it.remove();
+		GraphSnapshot<N> snapshot = new GraphSnapshot<>(graph);
+		int[] components = getWeaklyConnectedComponents(snapshot);
+		int count = 0;
+		for (int component : components)
+			count = Math.max(count, component + 1);
+		return group(snapshot, components, count);
+	}
 
-			Set<N> component = getWeaklyConnectedComponent(node);
-			unhandled.removeAll(component);
-			result.add(component);
+	/**
+	 * Compute the weakly connected components of an indexed graph with a union-find data structure.
+	 * @param graph The graph that should be examined.
+	 * @return The number of the component of each node. The components are numbered consecutively from zero in
+	 * the order of their first node.
+	 */
+	public static int[] getWeaklyConnectedComponents(IndexedGraph graph) {
+		InterruptPoller poller = new InterruptPoller();
+		UnionFind components = new ArrayUnionFind(graph.getNodeCount());
+		for (int node = 0; node < graph.getNodeCount(); node++) {
+			poller.poll();
+			for (int arc = graph.getStart(node); arc < graph.getEnd(node); arc++)
+				components.joinClasses(node, graph.getTarget(arc));
 		}
-		return result;
+		return components.getClassNumbers();
+	}
+
+	/**
+	 * Convert the component numbers of the nodes of a snapshot into a set of components.
+	 * @param snapshot The snapshot of the graph.
+	 * @param components The number of the component of each node.
+	 * @param count The number of components.
+	 * @param <N> The type of the graph's nodes.
+	 * @return A partition of the graph's nodes into components.
+	 */
+	static private <N extends INode<?, ?, N>> Set<Set<N>> group(GraphSnapshot<N> snapshot, int[] components,
+			int count) {
+		List<Set<N>> result = new ArrayList<>(count);
+		for (int component = 0; component < count; component++)
+			result.add(new HashSet<N>());
+		for (int node = 0; node < components.length; node++)
+			result.get(components[node]).add(snapshot.getNode(node));
+		return new HashSet<>(result);
 	}
 
 	/**
@@ -142,7 +172,7 @@ public class Connectivity {
 	 * @return true if the graph is strongly connected.
 	 */
 	public static <G extends IGraph<G, ?, N>, N extends INode<G, ?, N>> boolean isStronglyConnected(G graph) {
-		return getStronglyConnectedComponents(graph).size() <= 1;
+		return StronglyConnectedComponents.calculate(new GraphSnapshot<>(graph)).getComponentCount() <= 1;
 	}
 
 	/**
@@ -157,112 +187,9 @@ public class Connectivity {
 	 */
 	public static <G extends IGraph<G, ?, N>, N extends INode<G, ?, N>>
 			Set<? extends Set<N>> getStronglyConnectedComponents(G graph) {
-		Set<Set<N>> result = new HashSet<>();
-		Map<N, Integer> dfsNumbers = new HashMap<>();
-		Map<N, Integer> minNumbers = new HashMap<>();
-		int counter = 0;
-
-		// Implemented per 'Algorithmische Datenstrukturen' Sommersemester 2012, algorithm 13.
-		// This algorithm does a depth-first-search (DFS) through the graph. Each visited node gets assigned a
-		// dfsNumber. In other words, nodes are numbered by the order in which they are visited.
-		//
-		// Additionally, a minNr is maintained for each node which is initialized to the node's dfsNumber. This
-		// number will be the smallest dfsNumber that is reachable from this node via the DFS. When a node's
-		// dfsNumber is equal to its minNumber, it is the root of a strongly connected component.
-		// While doing this search, we manage a list of visited nodes. When we find a root of a component, all
-		// of the nodes on this list up to the root form a strongly connected component.
-
-		// Handle all of the graph's nodes.
-		for (N node : graph.getNodes()) {
-			if (!dfsNumbers.containsKey(node)) {
-				counter = handleStronglyConnectedComponents(node, result, dfsNumbers, minNumbers,
-						counter);
-			}
-		}
-
-		return result;
-	}
-
-	/*
-	 * Compute the strongly connected components reachable from node.
-	 * No, I will not explain the parameters.
-	 */
-	private static <N extends INode<?, ?, N>> int handleStronglyConnectedComponents(N node, Set<Set<N>> result,
-			Map<N, Integer> dfsNumbers, Map<N, Integer> minNumbers, int counter) {
-		Deque<N> callers = new ArrayDeque<>();
-		Deque<N> stack = new ArrayDeque<>();
-		Set<N> stackAsSet = new HashSet<>();
-
-		counter = visitNode(node, dfsNumbers, minNumbers, counter, stack, stackAsSet);
-		do {
-			InterrupterRegistry.throwIfInterruptRequestedForCurrentThread();
-
-			boolean done = true;
-			for (N current : node.getPostsetNodes()) {
-				if (!dfsNumbers.containsKey(current)) {
-					// 'current' was not visited yet
-					callers.addLast(node);
-					node = current;
-
-					counter = visitNode(node, dfsNumbers, minNumbers, counter, stack, stackAsSet);
-					done = false;
-					break;
-				} else if (stackAsSet.contains(current)
-						&& minNumbers.get(node) > minNumbers.get(current)) {
-					// Set our own minNumbers to current's depth search number if it is smaller
-					minNumbers.put(node, Math.min(minNumbers.get(node), dfsNumbers.get(current)));
-				}
-			}
-
-			if (done) {
-				if (dfsNumbers.get(node).equals(minNumbers.get(node))) {
-					// We are the root of the current component, let's get it from the stack. All of
-					// the nodes on the stack up to the current node form a strongly connected
-					// component.
-					Set<N> component = new HashSet<>();
-					N cur = null;
-
-					while (cur != node) {
-						cur = stack.removeLast();
-						boolean removed = stackAsSet.remove(cur);
-						assert removed;
-						component.add(cur);
-					}
-					result.add(component);
-				}
-
-				N next = callers.pollLast();
-				if (next != null)
-					// Set our own minNumber to current's number if that one is smaller
-					minNumbers.put(next, Math.min(minNumbers.get(next), minNumbers.get(node)));
-				node = next;
-			}
-		} while (node != null);
-
-		assert callers.isEmpty();
-		assert stack.isEmpty();
-		assert stackAsSet.isEmpty();
-		return counter;
-	}
-
-	/*
-	 * Update the data structures for the visit of a new node.
-	 * Nope, the parameters aren't explained here either.
-	 */
-	private static <N extends INode<?, ?, ?>> int visitNode(N node, Map<N, Integer> dfsNumbers,
-			Map<N, Integer> minNumbers, int counter, Deque<N> stack, Set<N> stackAsSet) {
-		// Node should not have been visited before.
-		assert !dfsNumbers.containsKey(node);
-		assert !minNumbers.containsKey(node);
-
-		counter++;
-		dfsNumbers.put(node, counter);
-		minNumbers.put(node, counter);
-		stack.add(node);
-		boolean added = stackAsSet.add(node);
-		assert added;
-
-		return counter;
+		GraphSnapshot<N> snapshot = new GraphSnapshot<>(graph);
+		StronglyConnectedComponents components = StronglyConnectedComponents.calculate(snapshot);
+		return group(snapshot, components.getComponents(), components.getComponentCount());
 	}
 }
 
@@ -0,0 +1,124 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.analysis.connectivity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import uniol.apt.adt.IEdge;
+import uniol.apt.adt.IGraph;
+import uniol.apt.adt.INode;
+import uniol.apt.util.interrupt.InterruptPoller;
+
+/**
+ * A snapshot of an {@link IGraph} in compressed sparse row form. The nodes are numbered in the iteration order of
+ * {@link IGraph#getNodes()}. Later modifications of the graph are not reflected in the snapshot.
+ * @param <N> The type of the graph's nodes.
+ * @author Uli Schlachter
+ */
+public class GraphSnapshot<N extends INode<?, ?, N>> implements IndexedGraph {
+	private final List<N> nodes;
+	private final Map<N, Integer> indices;
+	private final int[] start;
+	private final int[] targets;
+
+	/**
+	 * Take a snapshot of a graph.
+	 * @param graph The graph.
+	 */
+	public GraphSnapshot(IGraph<?, ?, N> graph) {
+		InterruptPoller poller = new InterruptPoller();
+		List<N> nodeList = new ArrayList<>(graph.getNodes());
+		Map<N, Integer> indexMap = new HashMap<>();
+		for (N node : nodeList)
+			indexMap.put(node, indexMap.size());
+
+		// Count the arcs of each node, then place them with a second pass over the edges
+		int[] sources = new int[graph.getEdges().size()];
+		int[] arcTargets = new int[sources.length];
+		int[] startArray = new int[nodeList.size() + 1];
+		int arc = 0;
+		for (IEdge<?, ?, N> edge : graph.getEdges()) {
+			poller.poll();
+			sources[arc] = indexMap.get(edge.getSource());
+			arcTargets[arc] = indexMap.get(edge.getTarget());
+			startArray[sources[arc] + 1]++;
+			arc++;
+		}
+		for (int node = 0; node < nodeList.size(); node++)
+			startArray[node + 1] += startArray[node];
+		int[] fill = Arrays.copyOf(startArray, nodeList.size());
+		this.targets = new int[sources.length];
+		for (arc = 0; arc < sources.length; arc++)
+			this.targets[fill[sources[arc]]++] = arcTargets[arc];
+
+		this.nodes = Collections.unmodifiableList(nodeList);
+		this.indices = indexMap;
+		this.start = startArray;
+	}
+
+	@Override
+	public int getNodeCount() {
+		return nodes.size();
+	}
+
+	@Override
+	public int getStart(int node) {
+		return start[node];
+	}
+
+	@Override
+	public int getEnd(int node) {
+		return start[node + 1];
+	}
+
+	@Override
+	public int getTarget(int arc) {
+		return targets[arc];
+	}
+
+	/**
+	 * Get the node of the graph with the given index.
+	 * @param node The index of the node.
+	 * @return The node.
+	 */
+	public N getNode(int node) {
+		return nodes.get(node);
+	}
+
+	/**
+	 * Get the index of a node of the graph.
+	 * @param node The node.
+	 * @return The index of the node.
+	 * @throws IllegalArgumentException If the node was not part of the graph when the snapshot was taken.
+	 */
+	public int getIndex(N node) {
+		Integer result = indices.get(node);
+		if (result == null)
+			throw new IllegalArgumentException("Node " + node + " is not part of this graph");
+		return result;
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
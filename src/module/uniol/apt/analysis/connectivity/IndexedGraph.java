@@ -0,0 +1,57 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.analysis.connectivity;
+
+/**
+ * A directed graph whose nodes are the integers from 0 to {@link #getNodeCount()} - 1 and whose arcs are stored in
+ * compressed sparse row form. The arcs of node n have the indices from {@link #getStart(int) getStart(n)}
+ * (inclusive) to {@link #getEnd(int) getEnd(n)} (exclusive).
+ * @author Uli Schlachter
+ */
+public interface IndexedGraph {
+	/**
+	 * Get the number of nodes.
+	 * @return The number of nodes.
+	 */
+	public int getNodeCount();
+
+	/**
+	 * Get the index of the first arc of a node.
+	 * @param node The node.
+	 * @return The index of the first arc.
+	 */
+	public int getStart(int node);
+
+	/**
+	 * Get the index after the last arc of a node.
+	 * @param node The node.
+	 * @return The index after the last arc.
+	 */
+	public int getEnd(int node);
+
+	/**
+	 * Get the target of an arc.
+	 * @param arc The index of the arc.
+	 * @return The target node.
+	 */
+	public int getTarget(int arc);
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
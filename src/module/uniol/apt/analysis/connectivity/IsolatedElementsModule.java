@@ -40,6 +40,8 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class IsolatedElementsModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "isolated_elements";
+
 	@Override
 	public String getShortDescription() {
 		return "Find isolated elements in a graph";
@@ -47,7 +49,7 @@ public class IsolatedElementsModule extends AbstractModule implements Interrupti
 
 	@Override
 	public String getName() {
-		return "isolated_elements";
+		return NAME;
 	}
 
 	@Override
@@ -40,6 +40,8 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class StrongComponentsModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "strong_components";
+
 	@Override
 	public String getShortDescription() {
 		return "Find the strongly connected components of a Petri net or LTS";
@@ -47,7 +49,7 @@ public class StrongComponentsModule extends AbstractModule implements Interrupti
 
 	@Override
 	public String getName() {
-		return "strong_components";
+		return NAME;
 	}
 
 	@Override
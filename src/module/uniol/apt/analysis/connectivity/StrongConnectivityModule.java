@@ -41,6 +41,8 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class StrongConnectivityModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "strongly_connected";
+
 	@Override
 	public String getShortDescription() {
 		return "Check if a Petri net or LTS is strongly connected";
@@ -48,7 +50,7 @@ public class StrongConnectivityModule extends AbstractModule implements Interrup
 
 	@Override
 	public String getName() {
-		return "strongly_connected";
+		return NAME;
 	}
 
 	@Override
@@ -0,0 +1,656 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.analysis.connectivity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import uniol.apt.util.interrupt.InterruptPoller;
+import uniol.apt.util.interrupt.Interrupter;
+import uniol.apt.util.interrupt.InterrupterRegistry;
+
+/**
+ * The strongly connected components of an {@link IndexedGraph}. Every node gets the number of its component and the
+ * components are numbered in reverse topological order: If an arc leads from component c to another component d,
+ * then d is smaller than c. Thus, component 0 is a bottom component, i.e. no arcs leave it. Instances of this class
+ * are immutable and can be used by several threads at once.
+ *
+ * The sequential calculation uses an iterative version of Tarjan's algorithm. For huge graphs, a parallel
+ * forward-backward algorithm is available: After trimming nodes that cannot be on a cycle, the strongly connected
+ * component of some pivot node is the intersection of its forward and its backward reachable sets. All other
+ * components lie completely inside of one of the three remaining parts, which are handled in parallel. Breadth-first
+ * searches with a big frontier are parallelized, too. Parts that are small or that were not split usefully are
+ * handled with Tarjan's algorithm.
+ * @author Uli Schlachter
+ */
+public class StronglyConnectedComponents {
+	static private final int PARALLEL_THRESHOLD = 1 << 20;
+	static private final int SEQUENTIAL_THRESHOLD = 1 << 14;
+	static private final int PARALLEL_FRONTIER = 1 << 10;
+	static private final int TASKS_PER_THREAD = 4;
+	static private final int DONE = -1;
+	static private final int NONE = -2;
+
+	private final IndexedGraph graph;
+	private final int[] components;
+	private final int componentCount;
+	private IndexedGraph condensation;
+
+	private StronglyConnectedComponents(IndexedGraph graph, int[] components, int componentCount) {
+		this.graph = graph;
+		this.components = components;
+		this.componentCount = componentCount;
+	}
+
+	/**
+	 * Calculate the strongly connected components of a graph. Graphs with more than a million nodes are handled
+	 * in parallel if several processors are available.
+	 * @param graph The graph.
+	 * @return The strongly connected components.
+	 */
+	static public StronglyConnectedComponents calculate(IndexedGraph graph) {
+		if (graph.getNodeCount() < PARALLEL_THRESHOLD || Runtime.getRuntime().availableProcessors() < 2)
+			return calculateSequential(graph);
+		return calculateParallel(graph);
+	}
+
+	/**
+	 * Calculate the strongly connected components of a graph with Tarjan's algorithm.
+	 * @param graph The graph.
+	 * @return The strongly connected components.
+	 */
+	static public StronglyConnectedComponents calculateSequential(IndexedGraph graph) {
+		int nodes = graph.getNodeCount();
+		Calculation calculation = new Calculation(graph, InterrupterRegistry.getCurrentThreadInterrupter());
+		int[] members = new int[nodes];
+		for (int node = 0; node < nodes; node++)
+			members[node] = node;
+		calculation.tarjan(members, 0, new InterruptPoller());
+		return new StronglyConnectedComponents(graph, calculation.components,
+				calculation.nextComponent.get());
+	}
+
+	/**
+	 * Calculate the strongly connected components of a graph with a parallel forward-backward algorithm. This
+	 * only pays off for huge graphs.
+	 * @param graph The graph.
+	 * @return The strongly connected components.
+	 */
+	static public StronglyConnectedComponents calculateParallel(IndexedGraph graph) {
+		Calculation calculation = new Calculation(graph, InterrupterRegistry.getCurrentThreadInterrupter());
+		int[] members = calculation.trim();
+		if (members.length > 0) {
+			ForkJoinPool pool = new ForkJoinPool();
+			try {
+				pool.invoke(calculation.new ForwardBackward(members, 0));
+			} finally {
+				pool.shutdownNow();
+			}
+		}
+
+		// The components were numbered in the order in which they were found by the different tasks
+		int count = calculation.nextComponent.get();
+		int[] components = calculation.components;
+		int[] order = reverseTopologicalOrder(condense(graph, components, count));
+		for (int node = 0; node < components.length; node++)
+			components[node] = order[components[node]];
+		return new StronglyConnectedComponents(graph, components, count);
+	}
+
+	/**
+	 * Get the number of strongly connected components.
+	 * @return The number of components.
+	 */
+	public int getComponentCount() {
+		return componentCount;
+	}
+
+	/**
+	 * Get the strongly connected component of a node.
+	 * @param node The node.
+	 * @return The number of the node's component.
+	 */
+	public int getComponent(int node) {
+		return components[node];
+	}
+
+	/**
+	 * Get the strongly connected components of all nodes.
+	 * @return A new array containing the number of the component of each node.
+	 */
+	public int[] getComponents() {
+		return Arrays.copyOf(components, components.length);
+	}
+
+	/**
+	 * Get the condensation of the graph. Its nodes are the strongly connected components and it contains an arc
+	 * from component c to component d if the graph has an arc from a node of c to a node of d and c and d differ.
+	 * There is at most one arc between two components and the arcs of a component are sorted by their target. The
+	 * condensation is a directed acyclic graph in which all arcs lead to smaller components.
+	 * @return The condensation.
+	 */
+	synchronized public IndexedGraph getCondensation() {
+		if (condensation == null)
+			condensation = condense(graph, components, componentCount);
+		return condensation;
+	}
+
+	static private IndexedGraph condense(IndexedGraph graph, int[] components, int count) {
+		InterruptPoller poller = new InterruptPoller();
+		int nodes = graph.getNodeCount();
+
+		// Group the nodes by their component
+		int[] memberStart = new int[count + 1];
+		for (int node = 0; node < nodes; node++)
+			memberStart[components[node] + 1]++;
+		for (int component = 0; component < count; component++)
+			memberStart[component + 1] += memberStart[component];
+		int[] fill = Arrays.copyOf(memberStart, count);
+		int[] members = new int[nodes];
+		for (int node = 0; node < nodes; node++)
+			members[fill[components[node]]++] = node;
+
+		// stamp[d] == c means that the arc from c to d was already added
+		int[] stamp = new int[count];
+		Arrays.fill(stamp, -1);
+		int[] start = new int[count + 1];
+		int[] targets = new int[16];
+		int arcs = 0;
+		for (int component = 0; component < count; component++) {
+			for (int member = memberStart[component]; member < memberStart[component + 1]; member++) {
+				poller.poll();
+				int node = members[member];
+				for (int arc = graph.getStart(node); arc < graph.getEnd(node); arc++) {
+					int target = components[graph.getTarget(arc)];
+					if (target == component || stamp[target] == component)
+						continue;
+					stamp[target] = component;
+					if (arcs == targets.length)
+						targets = Arrays.copyOf(targets, 2 * arcs);
+					targets[arcs++] = target;
+				}
+			}
+			Arrays.sort(targets, start[component], arcs);
+			start[component + 1] = arcs;
+		}
+		return new Csr(start, Arrays.copyOf(targets, arcs));
+	}
+
+	/**
+	 * Number the nodes of a directed acyclic graph in the order in which a depth-first search finishes them, so
+	 * that all arcs lead to smaller numbers.
+	 * @param dag The graph.
+	 * @return The number of each node.
+	 */
+	static private int[] reverseTopologicalOrder(IndexedGraph dag) {
+		InterruptPoller poller = new InterruptPoller();
+		int nodes = dag.getNodeCount();
+		int[] result = new int[nodes];
+		// nextArc[n] == -1 means that node n was not visited yet
+		int[] nextArc = new int[nodes];
+		Arrays.fill(nextArc, -1);
+		int[] callStack = new int[nodes];
+		int finished = 0;
+		for (int root = 0; root < nodes; root++) {
+			if (nextArc[root] != -1)
+				continue;
+			int depth = 0;
+			callStack[depth++] = root;
+			nextArc[root] = dag.getStart(root);
+			while (depth > 0) {
+				poller.poll();
+				int node = callStack[depth - 1];
+				if (nextArc[node] < dag.getEnd(node)) {
+					int target = dag.getTarget(nextArc[node]++);
+					if (nextArc[target] == -1) {
+						nextArc[target] = dag.getStart(target);
+						callStack[depth++] = target;
+					}
+				} else {
+					depth--;
+					result[node] = finished++;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Transpose a graph, i.e. reverse all of its arcs.
+	 * @param graph The graph.
+	 * @return The transposed graph.
+	 */
+	static private Csr transpose(IndexedGraph graph) {
+		int nodes = graph.getNodeCount();
+		int[] start = new int[nodes + 1];
+		int arcs = 0;
+		for (int node = 0; node < nodes; node++) {
+			arcs += graph.getEnd(node) - graph.getStart(node);
+			for (int arc = graph.getStart(node); arc < graph.getEnd(node); arc++)
+				start[graph.getTarget(arc) + 1]++;
+		}
+		for (int node = 0; node < nodes; node++)
+			start[node + 1] += start[node];
+		int[] fill = Arrays.copyOf(start, nodes);
+		int[] sources = new int[arcs];
+		for (int node = 0; node < nodes; node++)
+			for (int arc = graph.getStart(node); arc < graph.getEnd(node); arc++)
+				sources[fill[graph.getTarget(arc)]++] = node;
+		return new Csr(start, sources);
+	}
+
+	/** A graph in compressed sparse row form whose arcs are stored contiguously. */
+	static private class Csr implements IndexedGraph {
+		private final int[] start;
+		private final int[] targets;
+
+		private Csr(int[] start, int[] targets) {
+			this.start = start;
+			this.targets = targets;
+		}
+
+		@Override
+		public int getNodeCount() {
+			return start.length - 1;
+		}
+
+		@Override
+		public int getStart(int node) {
+			return start[node];
+		}
+
+		@Override
+		public int getEnd(int node) {
+			return start[node + 1];
+		}
+
+		@Override
+		public int getTarget(int arc) {
+			return targets[arc];
+		}
+	}
+
+	/**
+	 * The state of a calculation. Every node has a color. The nodes which still have to be handled are
+	 * partitioned into parts with the same color so that every strongly connected component lies inside of one
+	 * part. Handled nodes have the color {@link #DONE}.
+	 */
+	static private class Calculation {
+		private final IndexedGraph graph;
+		private final Interrupter interrupter;
+		private final AtomicIntegerArray colors;
+		private final int[] components;
+		// The index of each node inside of its part; only used by tarjan()
+		private final int[] localIndex;
+		private final AtomicInteger nextComponent = new AtomicInteger();
+		private final AtomicInteger nextColor = new AtomicInteger(1);
+		private IndexedGraph transposed;
+
+		private Calculation(IndexedGraph graph, Interrupter interrupter) {
+			this.graph = graph;
+			this.interrupter = interrupter;
+			this.colors = new AtomicIntegerArray(graph.getNodeCount());
+			this.components = new int[graph.getNodeCount()];
+			this.localIndex = new int[graph.getNodeCount()];
+		}
+
+		/**
+		 * Calculate the strongly connected components inside of a part with Tarjan's algorithm.
+		 * @param members The nodes of the part.
+		 * @param color The color of the part.
+		 * @param poller The interrupt poller to use.
+		 */
+		private void tarjan(int[] members, int color, InterruptPoller poller) {
+			int size = members.length;
+			for (int member = 0; member < size; member++)
+				localIndex[members[member]] = member;
+			int[] dfsNumber = new int[size];
+			int[] lowLink = new int[size];
+			int[] nextArc = new int[size];
+			boolean[] onStack = new boolean[size];
+			int[] stack = new int[size];
+			int[] callStack = new int[size];
+			int stackSize = 0;
+			int nextDfsNumber = 1;
+
+			for (int root = 0; root < size; root++) {
+				if (dfsNumber[root] != 0)
+					continue;
+				int depth = 0;
+				callStack[depth++] = root;
+				dfsNumber[root] = lowLink[root] = nextDfsNumber++;
+				nextArc[root] = graph.getStart(members[root]);
+				stack[stackSize++] = root;
+				onStack[root] = true;
+
+				while (depth > 0) {
+					poller.poll();
+					int member = callStack[depth - 1];
+					if (nextArc[member] < graph.getEnd(members[member])) {
+						int target = graph.getTarget(nextArc[member]++);
+						if (colors.get(target) != color)
+							continue;
+						int next = localIndex[target];
+						if (dfsNumber[next] == 0) {
+							dfsNumber[next] = lowLink[next] = nextDfsNumber++;
+							nextArc[next] = graph.getStart(target);
+							stack[stackSize++] = next;
+							onStack[next] = true;
+							callStack[depth++] = next;
+						} else if (onStack[next]) {
+							lowLink[member] = Math.min(lowLink[member], dfsNumber[next]);
+						}
+						continue;
+					}
+
+					depth--;
+					if (depth > 0) {
+						int parent = callStack[depth - 1];
+						lowLink[parent] = Math.min(lowLink[parent], lowLink[member]);
+					}
+					if (lowLink[member] == dfsNumber[member]) {
+						// The member is the root of a component which consists of the stack up
+						// to it
+						int component = nextComponent.getAndIncrement();
+						int other;
+						do {
+							other = stack[--stackSize];
+							onStack[other] = false;
+							components[members[other]] = component;
+						} while (other != member);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Repeatedly remove nodes without predecessors or without successors, because each of them forms a
+		 * component of its own. This also calculates the transposed graph.
+		 * @return The remaining nodes, which all have color 0.
+		 */
+		private int[] trim() {
+			InterruptPoller poller = new InterruptPoller();
+			int nodes = graph.getNodeCount();
+			transposed = transpose(graph);
+			int[] inDegree = new int[nodes];
+			int[] outDegree = new int[nodes];
+			for (int node = 0; node < nodes; node++) {
+				for (int arc = graph.getStart(node); arc < graph.getEnd(node); arc++) {
+					int target = graph.getTarget(arc);
+					if (target != node) {
+						outDegree[node]++;
+						inDegree[target]++;
+					}
+				}
+			}
+
+			int[] queue = new int[nodes];
+			int queueEnd = 0;
+			for (int node = 0; node < nodes; node++) {
+				if (inDegree[node] == 0 || outDegree[node] == 0) {
+					colors.set(node, DONE);
+					queue[queueEnd++] = node;
+				}
+			}
+			for (int queueStart = 0; queueStart < queueEnd; queueStart++) {
+				poller.poll();
+				int node = queue[queueStart];
+				components[node] = nextComponent.getAndIncrement();
+				for (int arc = graph.getStart(node); arc < graph.getEnd(node); arc++) {
+					int target = graph.getTarget(arc);
+					if (target != node && colors.get(target) != DONE && --inDegree[target] == 0) {
+						colors.set(target, DONE);
+						queue[queueEnd++] = target;
+					}
+				}
+				for (int arc = transposed.getStart(node); arc < transposed.getEnd(node); arc++) {
+					int source = transposed.getTarget(arc);
+					if (source != node && colors.get(source) != DONE && --outDegree[source] == 0) {
+						colors.set(source, DONE);
+						queue[queueEnd++] = source;
+					}
+				}
+			}
+
+			int[] result = new int[nodes - queueEnd];
+			int remaining = 0;
+			for (int node = 0; node < nodes; node++)
+				if (colors.get(node) != DONE)
+					result[remaining++] = node;
+			return result;
+		}
+
+		/**
+		 * Change the color of a node.
+		 * @param node The node.
+		 * @param search The search that reached the node.
+		 * @return true if the node was recolored by this call.
+		 */
+		private boolean claim(int node, Search search) {
+			int color = colors.get(node);
+			if (color == search.fromFirst && colors.compareAndSet(node, color, search.toFirst)) {
+				if (search.toFirst == DONE)
+					components[node] = search.component;
+				return true;
+			}
+			return color == search.fromSecond && colors.compareAndSet(node, color, search.toSecond);
+		}
+
+		/**
+		 * Do a breadth-first search which recolors all reached nodes.
+		 * @param search The search to do.
+		 * @param poller The interrupt poller to use.
+		 */
+		private void search(Search search, InterruptPoller poller) {
+			int[] frontier = { search.start };
+			while (frontier.length > 0) {
+				if (frontier.length < PARALLEL_FRONTIER) {
+					frontier = expand(search, frontier, 0, frontier.length, poller);
+					continue;
+				}
+				int tasks = Math.min(frontier.length / (PARALLEL_FRONTIER / TASKS_PER_THREAD),
+						ForkJoinTask.getPool().getParallelism() * TASKS_PER_THREAD);
+				List<Expansion> expansions = new ArrayList<>(tasks);
+				for (int task = 0; task < tasks; task++) {
+					int from = (int) ((long) frontier.length * task / tasks);
+					int to = (int) ((long) frontier.length * (task + 1) / tasks);
+					expansions.add(new Expansion(search, frontier, from, to));
+				}
+				ForkJoinTask.invokeAll(expansions);
+				int size = 0;
+				for (Expansion expansion : expansions)
+					size += expansion.getRawResult().length;
+				int[] next = new int[size];
+				size = 0;
+				for (Expansion expansion : expansions) {
+					int[] part = expansion.getRawResult();
+					System.arraycopy(part, 0, next, size, part.length);
+					size += part.length;
+				}
+				frontier = next;
+			}
+		}
+
+		/**
+		 * Follow the arcs of some nodes of a frontier of a breadth-first search.
+		 * @param search The search that is done.
+		 * @param frontier The current frontier.
+		 * @param from The first node of the frontier to handle.
+		 * @param to The node after the last node of the frontier to handle.
+		 * @param poller The interrupt poller to use.
+		 * @return The nodes that were reached and recolored.
+		 */
+		private int[] expand(Search search, int[] frontier, int from, int to, InterruptPoller poller) {
+			IndexedGraph arcs = search.backwards ? transposed : graph;
+			int[] result = new int[Math.max(16, to - from)];
+			int size = 0;
+			for (int index = from; index < to; index++) {
+				poller.poll();
+				int node = frontier[index];
+				for (int arc = arcs.getStart(node); arc < arcs.getEnd(node); arc++) {
+					int target = arcs.getTarget(arc);
+					if (!claim(target, search))
+						continue;
+					if (size == result.length)
+						result = Arrays.copyOf(result, 2 * size);
+					result[size++] = target;
+				}
+			}
+			return Arrays.copyOf(result, size);
+		}
+
+		/**
+		 * A breadth-first search that recolors nodes of color fromFirst to toFirst and nodes of color
+		 * fromSecond to toSecond and that only follows recolored nodes.
+		 */
+		static private class Search {
+			private final boolean backwards;
+			private final int start;
+			private final int fromFirst;
+			private final int toFirst;
+			private final int fromSecond;
+			private final int toSecond;
+			private final int component;
+
+			private Search(boolean backwards, int start, int fromFirst, int toFirst, int fromSecond,
+					int toSecond, int component) {
+				this.backwards = backwards;
+				this.start = start;
+				this.fromFirst = fromFirst;
+				this.toFirst = toFirst;
+				this.fromSecond = fromSecond;
+				this.toSecond = toSecond;
+				this.component = component;
+			}
+		}
+
+		/** Task for expanding a part of a frontier. */
+		private class Expansion extends RecursiveTask<int[]> {
+			static private final long serialVersionUID = 1L;
+			private final Search search;
+			private final int[] frontier;
+			private final int from;
+			private final int to;
+
+			private Expansion(Search search, int[] frontier, int from, int to) {
+				this.search = search;
+				this.frontier = frontier;
+				this.from = from;
+				this.to = to;
+			}
+
+			@Override
+			protected int[] compute() {
+				InterruptPoller poller = new InterruptPoller(interrupter,
+						InterruptPoller.DEFAULT_INTERVAL);
+				return expand(search, frontier, from, to, poller);
+			}
+		}
+
+		/** Task for calculating the strongly connected components inside of a part. */
+		private class ForwardBackward extends RecursiveAction {
+			static private final long serialVersionUID = 1L;
+			private final int[] members;
+			private final int color;
+
+			private ForwardBackward(int[] members, int color) {
+				this.members = members;
+				this.color = color;
+			}
+
+			@Override
+			protected void compute() {
+				InterruptPoller poller = new InterruptPoller(interrupter,
+						InterruptPoller.DEFAULT_INTERVAL);
+				List<ForwardBackward> forked = new ArrayList<>();
+				int[] part = members;
+				int partColor = color;
+				while (part.length > SEQUENTIAL_THRESHOLD) {
+					int pivot = part[0];
+					int forward = nextColor.getAndIncrement();
+					int backward = nextColor.getAndIncrement();
+					int component = nextComponent.getAndIncrement();
+
+					// The pivot's component consists of the nodes reached in both directions
+					colors.set(pivot, forward);
+					search(new Search(false, pivot, partColor, forward, NONE, NONE, -1), poller);
+					colors.set(pivot, DONE);
+					components[pivot] = component;
+					search(new Search(true, pivot, forward, DONE, partColor, backward, component),
+							poller);
+
+					// Split the rest into the nodes only reached forwards, only reached
+					// backwards and not reached at all
+					int[] partColors = { forward, backward, partColor };
+					int[] sizes = new int[3];
+					for (int node : part) {
+						int nodeColor = colors.get(node);
+						for (int index = 0; index < 3; index++)
+							if (nodeColor == partColors[index])
+								sizes[index]++;
+					}
+					int[][] parts = { new int[sizes[0]], new int[sizes[1]], new int[sizes[2]] };
+					Arrays.fill(sizes, 0);
+					for (int node : part) {
+						int nodeColor = colors.get(node);
+						for (int index = 0; index < 3; index++)
+							if (nodeColor == partColors[index])
+								parts[index][sizes[index]++] = node;
+					}
+
+					// Continue with the biggest part and hand the others to other threads
+					int biggest = 0;
+					for (int index = 1; index < 3; index++)
+						if (parts[index].length > parts[biggest].length)
+							biggest = index;
+					for (int index = 0; index < 3; index++) {
+						if (index != biggest && parts[index].length > 0) {
+							ForwardBackward task = new ForwardBackward(parts[index],
+									partColors[index]);
+							task.fork();
+							forked.add(task);
+						}
+					}
+
+					// If the part was not split evenly, continuing would take quadratic time on
+					// long chains of components; avoid this.
+					boolean useful = 4L * parts[biggest].length <= 3L * part.length;
+					part = parts[biggest];
+					partColor = partColors[biggest];
+					if (!useful)
+						break;
+				}
+				if (part.length > 0)
+					tarjan(part, partColor, poller);
+				for (ForwardBackward task : forked)
+					task.join();
+			}
+		}
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
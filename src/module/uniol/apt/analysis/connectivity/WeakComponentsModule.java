@@ -40,6 +40,8 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class WeakComponentsModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "weak_components";
+
 	@Override
 	public String getShortDescription() {
 		return "Find the weakly connected components of a Petri net or LTS";
@@ -47,7 +49,7 @@ public class WeakComponentsModule extends AbstractModule implements Interruptibl
 
 	@Override
 	public String getName() {
-		return "weak_components";
+		return NAME;
 	}
 
 	@Override
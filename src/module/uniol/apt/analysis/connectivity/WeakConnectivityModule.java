@@ -41,6 +41,8 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class WeakConnectivityModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "weakly_connected";
+
 	@Override
 	public String getShortDescription() {
 		return "Check if a Petri net or LTS is weakly connected";
@@ -48,7 +50,7 @@ public class WeakConnectivityModule extends AbstractModule implements Interrupti
 
 	@Override
 	public String getName() {
-		return "weakly_connected";
+		return NAME;
 	}
 
 	@Override
@@ -28,6 +28,8 @@ import java.util.Map;
 import java.util.Set;
 
 import uniol.apt.adt.StructuralExtensionRemover;
+import uniol.apt.adt.extension.ExtensionColumns;
+import uniol.apt.adt.extension.ExtensionKey;
 import uniol.apt.adt.extension.ExtensionProperty;
 import uniol.apt.adt.pn.Flow;
 import uniol.apt.adt.pn.Marking;
@@ -35,14 +37,14 @@ import uniol.apt.adt.pn.Node;
 import uniol.apt.adt.pn.PetriNet;
 import uniol.apt.adt.pn.Transition;
 import uniol.apt.adt.ts.Arc;
+import uniol.apt.adt.ts.CompactTransitionSystem;
 import uniol.apt.adt.ts.State;
 import uniol.apt.adt.ts.TransitionSystem;
 import uniol.apt.util.Pair;
 
-import uniol.apt.adt.exception.ArcExistsException;
 import uniol.apt.adt.exception.StructureException;
 import uniol.apt.analysis.exception.UnboundedException;
-import uniol.apt.util.interrupt.InterrupterRegistry;
+import uniol.apt.util.interrupt.InterruptPoller;
 
 /**
  * This class represents a coverability graph of a Petri net. Let's first define the reachability graph: The reachable
@@ -57,6 +59,34 @@ public class CoverabilityGraph {
 
 	// The Petri net that we are handling
 	private final PetriNet pn;
+	/**
+	 * Key of the extension which the labeled transition systems created by this class attach to their states to
+	 * remember the corresponding marking.
+	 */
+	static public final ExtensionKey<Marking> MARKING_KEY = ExtensionKey.create(Marking.class.getName(),
+			Marking.class);
+
+	/**
+	 * Key of the extension which the labeled transition systems created by this class attach to their states to
+	 * remember the corresponding node of the coverability graph.
+	 */
+	static public final ExtensionKey<CoverabilityGraphNode> NODE_KEY = ExtensionKey.create(
+			CoverabilityGraphNode.class.getName(), CoverabilityGraphNode.class);
+
+	/**
+	 * Key of the extension which the labeled transition systems created by this class attach to their arcs to
+	 * remember the corresponding transition.
+	 */
+	static public final ExtensionKey<Transition> TRANSITION_KEY = ExtensionKey.create(Transition.class.getName(),
+			Transition.class);
+
+	/**
+	 * Key of the extension which the labeled transition systems created by this class attach to their arcs to
+	 * remember the corresponding edge of the coverability graph.
+	 */
+	static public final ExtensionKey<CoverabilityGraphEdge> EDGE_KEY = ExtensionKey.create(
+			CoverabilityGraphEdge.class.getName(), CoverabilityGraphEdge.class);
+
 	// Map from visited markings to the corresponding nodes
 	private final Map<Marking, CoverabilityGraphNode> states = new HashMap<>();
 	// Index into nodes; all entries before this index already generated their postset.
@@ -95,39 +125,105 @@ public class CoverabilityGraph {
 	 * @return A coverability graph.
 	 */
 	static private CoverabilityGraph get(PetriNet pn, boolean reachabilityGraph) {
-		String key = CoverabilityGraph.class.getName();
-		if (reachabilityGraph)
-			key = key + "-reachability";
+		CoverabilityGraph result = getIfPresent(pn, reachabilityGraph);
+		if (result != null)
+			return result;
+
+		result = new CoverabilityGraph(pn, reachabilityGraph);
+		result.getNode(null, pn.getInitialMarking(), null, null);
+		install(result);
+		return result;
+	}
 
+	/**
+	 * Get the coverability graph that was already constructed for the given Petri net.
+	 * @param pn The Petri net whose coverability graph is wanted.
+	 * @param reachabilityGraph Should the reachability graph be returned instead of the coverability graph?
+	 * @return The existing graph or null if no graph was constructed yet.
+	 */
+	static CoverabilityGraph getIfPresent(PetriNet pn, boolean reachabilityGraph) {
 		Object extension = null;
 		try {
-			extension = pn.getExtension(key);
+			extension = pn.getExtension(getExtensionKey(reachabilityGraph));
 		} catch (StructureException e) {
 			// No such extension. Returning "null" would be too easy...
 		}
 
 		if (extension != null && extension instanceof CoverabilityGraph)
 			return (CoverabilityGraph) extension;
+		return null;
+	}
 
-		CoverabilityGraph result = new CoverabilityGraph(pn, reachabilityGraph);
+	/**
+	 * Save the given graph as an extension of its Petri net so that later calls to {@link #get} find it.
+	 * @param graph The graph to save.
+	 */
+	static void install(CoverabilityGraph graph) {
+		String key = getExtensionKey(graph.reachabilityGraph);
 		// Save this coverability graph as an extension, but make sure that it is removed if the structure of
 		// the Petri net is changed in any way.
-		pn.putExtension(key, result, ExtensionProperty.NOCOPY);
-		pn.addListener(new StructuralExtensionRemover<PetriNet, Flow, Node>(key));
-		return result;
+		graph.pn.putExtension(key, graph, ExtensionProperty.NOCOPY);
+		graph.pn.addListener(new StructuralExtensionRemover<PetriNet, Flow, Node>(key));
+	}
+
+	static private String getExtensionKey(boolean reachabilityGraph) {
+		String key = CoverabilityGraph.class.getName();
+		if (reachabilityGraph)
+			key = key + "-reachability";
+		return key;
 	}
 
 	/**
-	 * Construct the coverability graph for a given Petri net. This constructor is actually cheap. The coverability
-	 * graph is constructed on-demand when needed. If you want to force full calculation of the graph, use the
-	 * {@link #calculateNodes() calculateNodes} method.
+	 * Construct the coverability graph for a given Petri net. This constructor is actually cheap. The graph
+	 * initially has no nodes at all. Callers must either add the initial node or restore the nodes of a saved graph.
+	 * Afterwards, the coverability graph is constructed on-demand when needed. If you want to force full calculation
+	 * of the graph, use the {@link #calculateNodes() calculateNodes} method.
 	 * @param pn The Petri net whose coverability graph is wanted.
 	 * @param reachabilityGraph Should just reachability be checked and coverability be ignored?
 	 */
-	private CoverabilityGraph(PetriNet pn, boolean reachabilityGraph) {
+	CoverabilityGraph(PetriNet pn, boolean reachabilityGraph) {
 		this.pn = pn;
 		this.reachabilityGraph = reachabilityGraph;
-		getNode(null, pn.getInitialMarking(), null, null);
+	}
+
+	/**
+	 * Get the Petri net that this graph belongs to.
+	 * @return The Petri net.
+	 */
+	PetriNet getPetriNet() {
+		return pn;
+	}
+
+	/**
+	 * Check if this is a reachability graph.
+	 * @return true for reachability graphs, false for coverability graphs.
+	 */
+	boolean isReachabilityGraph() {
+		return reachabilityGraph;
+	}
+
+	/**
+	 * Get the nodes that were generated so far, in the order in which they were generated.
+	 * @return The list of nodes.
+	 */
+	List<CoverabilityGraphNode> getGeneratedNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Add a node that was generated elsewhere, for example when restoring a saved graph. Nodes must be added in
+	 * the order in which they were originally generated.
+	 * @param node The node to add.
+	 */
+	void addGeneratedNode(CoverabilityGraphNode node) {
+		assert !states.containsKey(node.getMarking());
+		addNode(node);
+	}
+
+	private void addNode(CoverabilityGraphNode node) {
+		states.put(node.getMarking(), node);
+		node.setIndex(nodes.size());
+		nodes.add(node);
 	}
 
 	/**
@@ -135,8 +231,9 @@ public class CoverabilityGraph {
 	 * @return Number of nodes in the graph.
 	 */
 	public int calculateNodes() {
+		InterruptPoller poller = new InterruptPoller();
 		while (true) {
-			InterrupterRegistry.throwIfInterruptRequestedForCurrentThread();
+			poller.poll();
 			if (!visitNode())
 				return nodes.size();
 		}
@@ -215,8 +312,7 @@ public class CoverabilityGraph {
 		CoverabilityGraphNode state = states.get(cur);
 		if (state == null) {
 			state = new CoverabilityGraphNode(this, transition, cur, from, covered);
-			states.put(cur, state);
-			nodes.add(state);
+			addNode(state);
 		}
 		return state;
 	}
@@ -315,6 +411,103 @@ public class CoverabilityGraph {
 		}
 	}
 
+	/**
+	 * Turn this coverability graph into a compact labeled transition system. State i of the result corresponds to
+	 * the i-th node of this graph. States and arcs get the same extensions as with {@link #toReachabilityLTS()}.
+	 * @throws UnboundedException This exception is thrown when the Petri net is unbounded.
+	 * @return The new transition system.
+	 */
+	public CompactTransitionSystem toCompactReachabilityLTS() throws UnboundedException {
+		return toCompactLTS(true);
+	}
+
+	/**
+	 * Turn this coverability graph into a compact labeled transition system. State i of the result corresponds to
+	 * the i-th node of this graph. States and arcs get the same extensions as with {@link #toCoverabilityLTS()}.
+	 * @return The new transition system.
+	 */
+	public CompactTransitionSystem toCompactCoverabilityLTS() {
+		try {
+			return toCompactLTS(false);
+		} catch (UnboundedException e) {
+			// This should never happen, because we used "false" as the parameter!
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Turn this coverability graph into an int-indexed graph. Node i of the result is the i-th node of this graph.
+	 * @throws UnboundedException This exception is thrown when the Petri net is unbounded.
+	 * @return The indexed graph.
+	 */
+	public IndexedCoverabilityGraph toIndexedReachabilityGraph() throws UnboundedException {
+		return new IndexedCoverabilityGraph(this, true);
+	}
+
+	/**
+	 * Turn this coverability graph into an int-indexed graph. Node i of the result is the i-th node of this graph.
+	 * @return The indexed graph.
+	 */
+	public IndexedCoverabilityGraph toIndexedCoverabilityGraph() {
+		try {
+			return new IndexedCoverabilityGraph(this, false);
+		} catch (UnboundedException e) {
+			// This should never happen, because we used "false" as the parameter!
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Turn this coverability graph into a compact labeled transition system.
+	 * @param onlyReachability Should only a reachability graph be generated?
+	 * @return The new transition system.
+	 * @throws UnboundedException Thrown if the reachability graph of an unbounded Petri net should be generated.
+	 */
+	private CompactTransitionSystem toCompactLTS(boolean onlyReachability) throws UnboundedException {
+		calculateNodes();
+		String name = (onlyReachability || reachabilityGraph ? "Reachability" : "Coverability") + " graph of "
+			+ this.pn.getName();
+		CompactTransitionSystem lts = new CompactTransitionSystem(name, nodes.size(), nodes.size());
+		lts.putExtension(PetriNet.class.getName(), this.pn);
+		ExtensionColumns stateExtensions = lts.getStateExtensions();
+		ExtensionColumns arcExtensions = lts.getArcExtensions();
+		InterruptPoller poller = new InterruptPoller();
+
+		for (CoverabilityGraphNode node : nodes) {
+			poller.poll();
+
+			Marking mark = node.getMarking();
+			if (onlyReachability && mark.hasOmega()) {
+				throw new UnboundedException(this.pn);
+			}
+
+			int state = lts.createState();
+			assert state == node.getIndex();
+			stateExtensions.put(state, MARKING_KEY.getName(), mark);
+			stateExtensions.put(state, NODE_KEY.getName(), node);
+		}
+
+		for (CoverabilityGraphNode sourceNode : nodes) {
+			int source = sourceNode.getIndex();
+			for (CoverabilityGraphEdge edge : sourceNode.getPostsetEdges()) {
+				poller.poll();
+
+				int target = edge.getTarget().getIndex();
+				Transition transition = edge.getTransition();
+				int event = lts.addEvent(transition.getLabel());
+				// Like in toLTS(), there is at most one arc for a given source node, label and target node
+				if (lts.findArc(source, target, event) != CompactTransitionSystem.NONE)
+					continue;
+				int arc = lts.createArcWithEvent(source, target, event);
+				arcExtensions.put(arc, TRANSITION_KEY.getName(), transition);
+				arcExtensions.put(arc, EDGE_KEY.getName(), edge);
+			}
+		}
+
+		lts.setInitialState(getInitialNode().getIndex());
+		return lts;
+	}
+
 	/**
 	 * Turn this coverability graph into a labeled transition system.
 	 * @param onlyReachability Should only a reachability graph be generated?
@@ -322,41 +515,35 @@ public class CoverabilityGraph {
 	 * @throws UnboundedException Thrown if the reachability graph of an unbounded Petri net should be generated.
 	 */
 	private TransitionSystem toLTS(boolean onlyReachability) throws UnboundedException {
+		calculateNodes();
 		String name = (onlyReachability ? "Reachability" : "Coverability") + " graph of " + this.pn.getName();
-		Map<Marking, State> ltsStates = new HashMap<>();
-		TransitionSystem lts = new TransitionSystem(name);
+		// State i of the LTS belongs to the i-th node of this graph
+		TransitionSystem.Builder builder = new TransitionSystem.Builder(name, nodes.size());
+		TransitionSystem lts = builder.getTransitionSystem();
 		lts.putExtension(PetriNet.class.getName(), this.pn);
+		InterruptPoller poller = new InterruptPoller();
 
-		for (CoverabilityGraphNode node : this.getNodes()) {
-			InterrupterRegistry.throwIfInterruptRequestedForCurrentThread();
+		for (CoverabilityGraphNode node : nodes) {
+			poller.poll();
 
 			Marking mark = node.getMarking();
-			assert ltsStates.get(mark) == null;
-
-			State n = lts.createState();
-			ltsStates.put(mark, n);
-			n.putExtension(Marking.class.getName(), mark);
-			n.putExtension(CoverabilityGraphNode.class.getName(), node);
-
 			if (onlyReachability && mark.hasOmega()) {
 				throw new UnboundedException(this.pn);
 			}
+
+			State n = builder.getState(builder.addState());
+			n.putExtension(MARKING_KEY, mark);
+			n.putExtension(NODE_KEY, node);
 		}
 
-		for (CoverabilityGraphNode sourceNode : this.getNodes()) {
-			State source = ltsStates.get(sourceNode.getMarking());
+		for (CoverabilityGraphNode sourceNode : nodes) {
 			for (CoverabilityGraphEdge edge : sourceNode.getPostsetEdges()) {
-				InterrupterRegistry.throwIfInterruptRequestedForCurrentThread();
+				poller.poll();
 
-				State target = ltsStates.get(edge.getTarget().getMarking());
 				Transition transition = edge.getTransition();
-				try {
-					Arc e = lts.createArc(source.getId(), target.getId(), transition.getLabel());
-					e.putExtension(Transition.class.getName(), transition);
-					e.putExtension(CoverabilityGraphEdge.class.getName(), edge);
-				} catch (ArcExistsException e) {
-					// Ignore this. Continue your life. Go away. There is nothing to see here.
-					//
+				Arc e = builder.addArc(sourceNode.getIndex(), edge.getTarget().getIndex(),
+						builder.addEvent(transition.getLabel()));
+				if (e == null) {
 					// Per definition, a LTS doesn't have arc weights. For a given source node,
 					// label and target node, there can only be a single arc (or no arc at all).
 					// However, we just calculated something which says otherwise. Since the
@@ -367,16 +554,15 @@ public class CoverabilityGraph {
 					// For everyone out there who uses the extension that we put on Arcs: You get
 					// some random Transition/CoverabilityGraphEdge instance. It might be another
 					// Transition the next time you run this code.
+					continue;
 				}
+				e.putExtension(TRANSITION_KEY, transition);
+				e.putExtension(EDGE_KEY, edge);
 			}
 		}
 
 		// Set up the LTS' initial state
-		Marking initialMarking = pn.getInitialMarking();
-		State initialNode = ltsStates.get(initialMarking);
-		lts.setInitialState(initialNode);
-		assert initialNode != null;
-
+		builder.setInitialState(getInitialNode().getIndex());
 		return lts;
 	}
 }
@@ -44,6 +44,7 @@ public class CoverabilityGraphNode {
 	private final CoverabilityGraphNode parent;
 	private final CoverabilityGraphNode covered;
 	private Set<CoverabilityGraphEdge> postsetEdges;
+	private int index = -1;
 
 	/**
 	 * Construct a new coverability graph node.
@@ -62,6 +63,22 @@ public class CoverabilityGraphNode {
 		this.reachingTransition = transition;
 	}
 
+	/**
+	 * Get the position of this node in the list of nodes of its coverability graph.
+	 * @return the index
+	 */
+	int getIndex() {
+		return this.index;
+	}
+
+	/**
+	 * Set the position of this node in the list of nodes of its coverability graph.
+	 * @param index the index
+	 */
+	void setIndex(int index) {
+		this.index = index;
+	}
+
 	/**
 	 * Get the parent of this node on the path back to the root of the depth first search tree.
 	 * @return the parent or null
@@ -70,6 +87,14 @@ public class CoverabilityGraphNode {
 		return this.parent;
 	}
 
+	/**
+	 * Get the transition which is fired in this node's parent to reach this node.
+	 * @return the transition or null
+	 */
+	Transition getReachingTransition() {
+		return this.reachingTransition;
+	}
+
 	/**
 	 * Get the node in the coverability graph that is covered by this node, if such a node exists.
 	 * @return the covered node or null
@@ -142,6 +167,23 @@ public class CoverabilityGraphNode {
 			postsetEdges = unmodifiableSet(graph.getPostsetEdges(this));
 		return postsetEdges;
 	}
+
+	/**
+	 * Check if the postset of this node was already generated.
+	 * @return true if the postset is known.
+	 */
+	boolean hasPostsetEdges() {
+		return postsetEdges != null;
+	}
+
+	/**
+	 * Set the postset of this node, for example when restoring a saved graph.
+	 * @param edges The edges that begin in this node.
+	 */
+	void setPostsetEdges(Set<CoverabilityGraphEdge> edges) {
+		assert postsetEdges == null;
+		postsetEdges = unmodifiableSet(edges);
+	}
 }
 
 // vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -0,0 +1,196 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.analysis.coverability;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import uniol.apt.adt.exception.NoSuchNodeException;
+import uniol.apt.adt.pn.Marking;
+import uniol.apt.adt.pn.PetriNet;
+import uniol.apt.adt.pn.Place;
+import uniol.apt.adt.pn.Token;
+import uniol.apt.adt.pn.Transition;
+
+/**
+ * Save and restore the coverability and reachability graphs that were computed for a Petri net. Only the part of a
+ * graph that was already generated is saved. A restored graph continues to generate its remaining nodes on demand.
+ * @author Uli Schlachter
+ */
+public class CoverabilityGraphSnapshot {
+	private CoverabilityGraphSnapshot() {
+	}
+
+	/**
+	 * Write the graphs that were computed for the given Petri net.
+	 * @param pn The Petri net whose graphs should be saved.
+	 * @param out The output to write to.
+	 * @throws IOException When writing fails.
+	 */
+	static public void write(PetriNet pn, DataOutput out) throws IOException {
+		for (boolean reachabilityGraph : new boolean[] { false, true }) {
+			CoverabilityGraph graph = CoverabilityGraph.getIfPresent(pn, reachabilityGraph);
+			out.writeBoolean(graph != null);
+			if (graph != null)
+				writeGraph(graph, out);
+		}
+	}
+
+	/**
+	 * Read graphs that were saved with {@link #write} and attach them to the given Petri net. The Petri net must
+	 * have the same structure as the Petri net that the graphs were saved from.
+	 * @param pn The Petri net whose graphs should be restored.
+	 * @param in The input to read from.
+	 * @throws IOException When reading fails or the input is malformed.
+	 */
+	static public void read(PetriNet pn, DataInput in) throws IOException {
+		for (boolean reachabilityGraph : new boolean[] { false, true }) {
+			if (in.readBoolean())
+				CoverabilityGraph.install(readGraph(pn, reachabilityGraph, in));
+		}
+	}
+
+	static private void writeGraph(CoverabilityGraph graph, DataOutput out) throws IOException {
+		Set<Place> places = graph.getPetriNet().getPlaces();
+		List<CoverabilityGraphNode> nodes = graph.getGeneratedNodes();
+		int count = nodes.size();
+		final Map<CoverabilityGraphNode, Integer> indices = new IdentityHashMap<>();
+		for (int i = 0; i < count; i++)
+			indices.put(nodes.get(i), i);
+
+		// Nodes only refer to nodes that were generated before them, so they can be written in order
+		out.writeInt(count);
+		for (int i = 0; i < count; i++) {
+			CoverabilityGraphNode node = nodes.get(i);
+			Marking marking = node.getMarking();
+			for (Place place : places) {
+				Token token = marking.getToken(place);
+				out.writeLong(token.isOmega() ? -1 : token.getValue());
+			}
+			out.writeInt(indexOf(indices, node.getParent()));
+			out.writeInt(indexOf(indices, node.getCoveredNode()));
+			Transition transition = node.getReachingTransition();
+			out.writeBoolean(transition != null);
+			if (transition != null)
+				out.writeUTF(transition.getId());
+		}
+
+		// Edges can point to any node, so they come afterwards
+		for (int i = 0; i < count; i++) {
+			CoverabilityGraphNode node = nodes.get(i);
+			out.writeBoolean(node.hasPostsetEdges());
+			if (!node.hasPostsetEdges())
+				continue;
+			// The edges are in a hash set, so sort them to get the same snapshot every time
+			List<CoverabilityGraphEdge> edges = new ArrayList<>(node.getPostsetEdges());
+			Collections.sort(edges, new Comparator<CoverabilityGraphEdge>() {
+				@Override
+				public int compare(CoverabilityGraphEdge edge1, CoverabilityGraphEdge edge2) {
+					int cmp = Integer.compare(indices.get(edge1.getTarget()),
+							indices.get(edge2.getTarget()));
+					if (cmp != 0)
+						return cmp;
+					return edge1.getTransition().getId().compareTo(edge2.getTransition().getId());
+				}
+			});
+			out.writeInt(edges.size());
+			for (CoverabilityGraphEdge edge : edges) {
+				out.writeUTF(edge.getTransition().getId());
+				out.writeInt(indexOf(indices, edge.getTarget()));
+			}
+		}
+	}
+
+	static private int indexOf(Map<CoverabilityGraphNode, Integer> indices, CoverabilityGraphNode node) {
+		if (node == null)
+			return -1;
+		return indices.get(node);
+	}
+
+	static private CoverabilityGraph readGraph(PetriNet pn, boolean reachabilityGraph, DataInput in)
+			throws IOException {
+		CoverabilityGraph graph = new CoverabilityGraph(pn, reachabilityGraph);
+		Set<Place> places = pn.getPlaces();
+		List<CoverabilityGraphNode> nodes = graph.getGeneratedNodes();
+
+		int count = in.readInt();
+		if (count <= 0)
+			throw new IOException("Invalid number of nodes in saved coverability graph: " + count);
+		for (int i = 0; i < count; i++) {
+			Marking marking = new Marking(pn);
+			for (Place place : places) {
+				long value = in.readLong();
+				marking = marking.setTokenCount(place, value < 0 ? Token.OMEGA : Token.valueOf(value));
+			}
+			CoverabilityGraphNode parent = getNode(nodes, in.readInt(), i);
+			CoverabilityGraphNode covered = getNode(nodes, in.readInt(), i);
+			Transition transition = null;
+			if (in.readBoolean())
+				transition = getTransition(pn, in.readUTF());
+			graph.addGeneratedNode(new CoverabilityGraphNode(graph, transition, marking, parent, covered));
+		}
+
+		for (int i = 0; i < count; i++) {
+			if (!in.readBoolean())
+				continue;
+			CoverabilityGraphNode node = nodes.get(i);
+			int numEdges = in.readInt();
+			Set<CoverabilityGraphEdge> edges = new HashSet<>();
+			for (int j = 0; j < numEdges; j++) {
+				Transition transition = getTransition(pn, in.readUTF());
+				CoverabilityGraphNode target = getNode(nodes, in.readInt(), count);
+				if (target == null)
+					throw new IOException("Edge without target in saved coverability graph");
+				edges.add(new CoverabilityGraphEdge(transition, node, target));
+			}
+			node.setPostsetEdges(edges);
+		}
+
+		return graph;
+	}
+
+	static private CoverabilityGraphNode getNode(List<CoverabilityGraphNode> nodes, int index, int limit)
+			throws IOException {
+		if (index == -1)
+			return null;
+		if (index < 0 || index >= limit)
+			throw new IOException("Invalid node reference in saved coverability graph: " + index);
+		return nodes.get(index);
+	}
+
+	static private Transition getTransition(PetriNet pn, String id) throws IOException {
+		try {
+			return pn.getTransition(id);
+		} catch (NoSuchNodeException e) {
+			throw new IOException("Unknown transition in saved coverability graph: " + id, e);
+		}
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
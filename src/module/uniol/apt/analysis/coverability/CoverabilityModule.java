@@ -20,6 +20,7 @@
 package uniol.apt.analysis.coverability;
 
 import uniol.apt.adt.extension.ExtensionProperty;
+import uniol.apt.adt.pn.Marking;
 import uniol.apt.adt.pn.PetriNet;
 import uniol.apt.adt.ts.State;
 import uniol.apt.adt.ts.TransitionSystem;
@@ -40,6 +41,8 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class CoverabilityModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "coverability_graph";
+
 	@Override
 	public String getShortDescription() {
 		return "Compute a Petri net's coverability graph";
@@ -47,7 +50,7 @@ public class CoverabilityModule extends AbstractModule implements InterruptibleM
 
 	@Override
 	public String getName() {
-		return "coverability_graph";
+		return NAME;
 	}
 
 	@Override
@@ -71,20 +74,28 @@ public class CoverabilityModule extends AbstractModule implements InterruptibleM
 		return CoverabilityGraph.get(pn);
 	}
 
+	/**
+	 * Get the transition system that this module returns for a given net. Its states must carry their marking in
+	 * the {@link CoverabilityGraph#MARKING_KEY} extension.
+	 * @param pn The Petri net to look at
+	 * @return The transition system.
+	 */
+	protected TransitionSystem getLTS(PetriNet pn) {
+		return getGraph(pn).toCoverabilityLTS();
+	}
+
 	@Override
 	public void run(ModuleInput input, ModuleOutput output) throws ModuleException {
 		PetriNet pn = input.getParameter("pn", PetriNet.class);
-		TransitionSystem result = getGraph(pn).toCoverabilityLTS();
+		TransitionSystem result = getLTS(pn);
 		boolean isReachability = true;
 		for (State node : result.getNodes()) {
-			CoverabilityGraphNode coverNode =
-				(CoverabilityGraphNode) node.getExtension(CoverabilityGraphNode.class.getName());
-			if (coverNode.getMarking().hasOmega()) {
+			Marking marking = node.getExtension(CoverabilityGraph.MARKING_KEY);
+			if (marking.hasOmega()) {
 				isReachability = false;
 			}
 			/* Put the node's marking as a comment into the file */
-			node.putExtension("marking", coverNode.getMarking().toString(),
-					ExtensionProperty.WRITE_TO_FILE);
+			node.putExtension("marking", marking.toString(), ExtensionProperty.WRITE_TO_FILE);
 		}
 		output.setReturnValue("lts", TransitionSystem.class, result);
 		output.setReturnValue("reachability_graph", Boolean.class, isReachability);
@@ -0,0 +1,276 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.analysis.coverability;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import uniol.apt.adt.pn.Marking;
+import uniol.apt.analysis.exception.UnboundedException;
+import uniol.apt.util.interrupt.InterruptPoller;
+
+/**
+ * A fully calculated coverability graph whose nodes and labels are identified by integers, for analyses that do not
+ * need a {@link uniol.apt.adt.ts.TransitionSystem}. Node i is the i-th node of the coverability graph, so node 0 is
+ * the initial node. The arcs are available in both directions in compressed sparse row form. Like in {@link
+ * CoverabilityGraph#toReachabilityLTS()}, there is at most one arc for a given pair of nodes and label. Instances of
+ * this class are immutable and can be used by several threads at once.
+ * @author Uli Schlachter
+ */
+public class IndexedCoverabilityGraph {
+	private final List<CoverabilityGraphNode> nodes;
+	private final List<String> labels;
+	private final Adjacency postsets;
+	private final Adjacency presets;
+
+	/**
+	 * The arcs of all nodes in one direction. The arcs of node n have the indices from {@link #getStart(int)
+	 * getStart(n)} (inclusive) to {@link #getEnd(int) getEnd(n)} (exclusive) and are sorted by their label and then
+	 * by the node on their other end.
+	 */
+	static public class Adjacency {
+		private final int[] start;
+		private final int[] arcLabels;
+		private final int[] arcNodes;
+
+		private Adjacency(int[] start, long[] arcs) {
+			this.start = start;
+			this.arcLabels = new int[arcs.length];
+			this.arcNodes = new int[arcs.length];
+			for (int arc = 0; arc < arcs.length; arc++) {
+				arcLabels[arc] = (int) (arcs[arc] >>> 32);
+				arcNodes[arc] = (int) arcs[arc];
+			}
+		}
+
+		/**
+		 * Get the index of the first arc of a node.
+		 * @param node The node.
+		 * @return The index of the first arc.
+		 */
+		public int getStart(int node) {
+			return start[node];
+		}
+
+		/**
+		 * Get the index after the last arc of a node.
+		 * @param node The node.
+		 * @return The index after the last arc.
+		 */
+		public int getEnd(int node) {
+			return start[node + 1];
+		}
+
+		/**
+		 * Get the label of an arc.
+		 * @param arc The index of the arc.
+		 * @return The label's index.
+		 */
+		public int getLabel(int arc) {
+			return arcLabels[arc];
+		}
+
+		/**
+		 * Get the node on the other end of an arc, i.e. the target of a postset arc or the source of a preset
+		 * arc.
+		 * @param arc The index of the arc.
+		 * @return The node.
+		 */
+		public int getNode(int arc) {
+			return arcNodes[arc];
+		}
+
+		/**
+		 * Find the first arc of a node with the given label. The following arcs up to {@link #getEnd(int)}
+		 * which have the same label are the other arcs of the node with this label.
+		 * @param node The node.
+		 * @param label The label's index.
+		 * @return The index of the arc or -1 if the node has no arc with this label.
+		 */
+		public int findLabel(int node, int label) {
+			int low = start[node];
+			int high = start[node + 1];
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (arcLabels[mid] < label)
+					low = mid + 1;
+				else
+					high = mid;
+			}
+			if (low < start[node + 1] && arcLabels[low] == label)
+				return low;
+			return -1;
+		}
+	}
+
+	/**
+	 * Construct the indexed version of a coverability graph. This calculates all nodes of the graph.
+	 * @param graph The coverability graph.
+	 * @param onlyReachability Should the construction fail for unbounded Petri nets?
+	 * @throws UnboundedException If onlyReachability is true and the Petri net is unbounded.
+	 */
+	IndexedCoverabilityGraph(CoverabilityGraph graph, boolean onlyReachability) throws UnboundedException {
+		graph.calculateNodes();
+		this.nodes = Collections.unmodifiableList(new ArrayList<>(graph.getGeneratedNodes()));
+		InterruptPoller poller = new InterruptPoller();
+
+		Map<String, Integer> labelIndices = new HashMap<>();
+		List<String> labelList = new ArrayList<>();
+		int[] postStart = new int[nodes.size() + 1];
+		int[] inDegree = new int[nodes.size()];
+		long[] postArcs = new long[0];
+		int numArcs = 0;
+		for (CoverabilityGraphNode node : nodes) {
+			poller.poll();
+			if (onlyReachability && node.getMarking().hasOmega())
+				throw new UnboundedException(graph.getPetriNet());
+
+			int first = numArcs;
+			for (CoverabilityGraphEdge edge : node.getPostsetEdges()) {
+				String label = edge.getTransition().getLabel();
+				Integer labelIndex = labelIndices.get(label);
+				if (labelIndex == null) {
+					labelIndex = labelList.size();
+					labelIndices.put(label, labelIndex);
+					labelList.add(label);
+				}
+				if (numArcs == postArcs.length)
+					postArcs = Arrays.copyOf(postArcs, Math.max(16, 2 * numArcs));
+				postArcs[numArcs++] = encode(labelIndex, edge.getTarget().getIndex());
+			}
+
+			// Sort the arcs of this node and remove duplicates that stem from equally labeled transitions
+			Arrays.sort(postArcs, first, numArcs);
+			int kept = first;
+			for (int arc = first; arc < numArcs; arc++) {
+				if (kept == first || postArcs[kept - 1] != postArcs[arc]) {
+					postArcs[kept++] = postArcs[arc];
+					inDegree[(int) postArcs[arc]]++;
+				}
+			}
+			numArcs = kept;
+			postStart[node.getIndex() + 1] = numArcs;
+		}
+		postArcs = Arrays.copyOf(postArcs, numArcs);
+
+		// The preset arcs are the postset arcs grouped by their target
+		int[] preStart = new int[nodes.size() + 1];
+		for (int node = 0; node < nodes.size(); node++)
+			preStart[node + 1] = preStart[node] + inDegree[node];
+		int[] fill = Arrays.copyOf(preStart, nodes.size());
+		long[] preArcs = new long[numArcs];
+		for (int source = 0; source < nodes.size(); source++) {
+			for (int arc = postStart[source]; arc < postStart[source + 1]; arc++) {
+				int target = (int) postArcs[arc];
+				preArcs[fill[target]++] = encode((int) (postArcs[arc] >>> 32), source);
+			}
+		}
+		for (int node = 0; node < nodes.size(); node++) {
+			poller.poll();
+			Arrays.sort(preArcs, preStart[node], preStart[node + 1]);
+		}
+
+		this.labels = Collections.unmodifiableList(labelList);
+		this.postsets = new Adjacency(postStart, postArcs);
+		this.presets = new Adjacency(preStart, preArcs);
+	}
+
+	static private long encode(int label, int node) {
+		return ((long) label << 32) | node;
+	}
+
+	/**
+	 * Get the number of nodes.
+	 * @return The number of nodes.
+	 */
+	public int getNodeCount() {
+		return nodes.size();
+	}
+
+	/**
+	 * Get the node of the coverability graph with the given index.
+	 * @param node The index of the node.
+	 * @return The node.
+	 */
+	public CoverabilityGraphNode getNode(int node) {
+		return nodes.get(node);
+	}
+
+	/**
+	 * Get the index of a node of the coverability graph.
+	 * @param node The node.
+	 * @return The index of the node.
+	 * @throws IllegalArgumentException If the node does not belong to this graph.
+	 */
+	public int getIndex(CoverabilityGraphNode node) {
+		int index = node.getIndex();
+		if (index >= nodes.size() || nodes.get(index) != node)
+			throw new IllegalArgumentException("Node " + node + " does not belong to this graph");
+		return index;
+	}
+
+	/**
+	 * Get the marking of a node.
+	 * @param node The index of the node.
+	 * @return The marking.
+	 */
+	public Marking getMarking(int node) {
+		return nodes.get(node).getMarking();
+	}
+
+	/**
+	 * Get the number of different labels of the arcs.
+	 * @return The number of labels.
+	 */
+	public int getLabelCount() {
+		return labels.size();
+	}
+
+	/**
+	 * Get a label.
+	 * @param label The index of the label.
+	 * @return The label as used by the transitions of the Petri net.
+	 */
+	public String getLabel(int label) {
+		return labels.get(label);
+	}
+
+	/**
+	 * Get the arcs that leave the nodes.
+	 * @return The postset arcs.
+	 */
+	public Adjacency getPostsets() {
+		return postsets;
+	}
+
+	/**
+	 * Get the arcs that reach the nodes.
+	 * @return The preset arcs.
+	 */
+	public Adjacency getPresets() {
+		return presets;
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -0,0 +1,355 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.analysis.coverability;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import uniol.apt.adt.pn.Flow;
+import uniol.apt.adt.pn.Marking;
+import uniol.apt.adt.pn.PetriNet;
+import uniol.apt.adt.pn.Place;
+import uniol.apt.adt.pn.Token;
+import uniol.apt.adt.pn.Transition;
+import uniol.apt.adt.ts.Arc;
+import uniol.apt.adt.ts.State;
+import uniol.apt.adt.ts.TransitionSystem;
+import uniol.apt.util.interrupt.InterruptPoller;
+
+/**
+ * The minimal coverability set of a Petri net. This is the set of maximal omega-markings of the coverability set,
+ * i.e. the smallest set of omega-markings so that every reachable marking is covered by one of them.
+ *
+ * The set is computed by a Karp-Miller search which prunes subsumed parts of the tree: The markings of all nodes
+ * which still matter form an antichain. A new node that is covered by a node of the antichain is discarded, and
+ * nodes of the antichain that are covered by a new node are removed from it and are not expanded any more.
+ * Accelerations still consider all ancestors of a node, including removed ones, so every omega-marking that is
+ * found is a limit of reachable markings. In contrast to {@link CoverabilityGraph}, markings are stored as plain
+ * arrays and comparing two markings does not allocate anything.
+ * @author Uli Schlachter
+ */
+public class MinimalCoverabilitySet {
+	static private final long OMEGA = Long.MAX_VALUE;
+
+	private final PetriNet pn;
+	private final Place[] places;
+	private final Transition[] transitions;
+	// For transition t, consumePlaces[t][i] is a place in the preset and consumeWeights[t][i] the arc weight
+	private final int[][] consumePlaces;
+	private final int[][] consumeWeights;
+	private final int[][] producePlaces;
+	private final int[][] produceWeights;
+
+	private final List<Node> antichain = new ArrayList<>();
+	private final Deque<Node> unexplored = new ArrayDeque<>();
+	private int numberOfNodes;
+
+	static private class Node {
+		private final long[] marking;
+		private final Node parent;
+		private boolean active = true;
+
+		private Node(long[] marking, Node parent) {
+			this.marking = marking;
+			this.parent = parent;
+		}
+	}
+
+	private MinimalCoverabilitySet(PetriNet pn) {
+		this.pn = pn;
+		Set<Place> placeSet = pn.getPlaces();
+		this.places = placeSet.toArray(new Place[placeSet.size()]);
+		Set<Transition> transitionSet = pn.getTransitions();
+		this.transitions = transitionSet.toArray(new Transition[transitionSet.size()]);
+
+		Map<Place, Integer> placeIndex = new HashMap<>();
+		for (int i = 0; i < places.length; i++)
+			placeIndex.put(places[i], i);
+
+		consumePlaces = new int[transitions.length][];
+		consumeWeights = new int[transitions.length][];
+		producePlaces = new int[transitions.length][];
+		produceWeights = new int[transitions.length][];
+		for (int t = 0; t < transitions.length; t++) {
+			Set<Flow> preset = pn.getPresetEdges(transitions[t]);
+			consumePlaces[t] = new int[preset.size()];
+			consumeWeights[t] = new int[preset.size()];
+			int i = 0;
+			for (Flow flow : preset) {
+				consumePlaces[t][i] = placeIndex.get(flow.getPlace());
+				consumeWeights[t][i] = flow.getWeight();
+				i++;
+			}
+
+			Set<Flow> postset = pn.getPostsetEdges(transitions[t]);
+			producePlaces[t] = new int[postset.size()];
+			produceWeights[t] = new int[postset.size()];
+			i = 0;
+			for (Flow flow : postset) {
+				producePlaces[t][i] = placeIndex.get(flow.getPlace());
+				produceWeights[t][i] = flow.getWeight();
+				i++;
+			}
+		}
+	}
+
+	/**
+	 * Calculate the minimal coverability set of a Petri net.
+	 * @param pn The Petri net to examine.
+	 * @return The minimal coverability set.
+	 */
+	static public MinimalCoverabilitySet compute(PetriNet pn) {
+		MinimalCoverabilitySet result = new MinimalCoverabilitySet(pn);
+		result.explore(false);
+		return result;
+	}
+
+	/**
+	 * Check if a Petri net is bounded. The search stops at the first acceleration, so for unbounded nets usually
+	 * only a small part of the Karp-Miller tree has to be built.
+	 * @param pn The Petri net to examine.
+	 * @return true if the net is bounded.
+	 */
+	static public boolean isBounded(PetriNet pn) {
+		return !new MinimalCoverabilitySet(pn).explore(true);
+	}
+
+	/**
+	 * Run the pruned Karp-Miller search.
+	 * @param stopAtOmega If true, the search is aborted as soon as an omega is introduced.
+	 * @return true if the search was aborted because of an omega.
+	 */
+	private boolean explore(boolean stopAtOmega) {
+		InterruptPoller poller = new InterruptPoller();
+		long[] initial = new long[places.length];
+		Marking initialMarking = pn.getInitialMarking();
+		for (int i = 0; i < places.length; i++)
+			initial[i] = toLong(initialMarking.getToken(places[i]));
+		if (stopAtOmega && hasOmega(initial))
+			return true;
+		addNode(new Node(initial, null));
+
+		while (!unexplored.isEmpty()) {
+			Node node = unexplored.poll();
+			for (int t = 0; t < transitions.length && node.active; t++) {
+				poller.poll();
+				if (!isEnabled(node.marking, t))
+					continue;
+
+				long[] marking = fire(node.marking, t);
+				if (accelerate(marking, node) && stopAtOmega)
+					return true;
+				if (!isCovered(marking))
+					addNode(new Node(marking, node));
+			}
+		}
+		return false;
+	}
+
+	private void addNode(Node node) {
+		// Remove everything from the antichain that the new node covers. The new node takes over their role.
+		int kept = 0;
+		for (int i = 0; i < antichain.size(); i++) {
+			Node other = antichain.get(i);
+			if (lessOrEqual(other.marking, node.marking))
+				other.active = false;
+			else
+				antichain.set(kept++, other);
+		}
+		antichain.subList(kept, antichain.size()).clear();
+		antichain.add(node);
+		unexplored.add(node);
+		numberOfNodes++;
+	}
+
+	private boolean isCovered(long[] marking) {
+		for (Node node : antichain)
+			if (lessOrEqual(marking, node.marking))
+				return true;
+		return false;
+	}
+
+	/**
+	 * Insert omegas into a marking for every ancestor that it strictly covers.
+	 * @param marking The marking that is modified.
+	 * @param parent The node from which the marking was reached.
+	 * @return true if at least one omega was inserted.
+	 */
+	private boolean accelerate(long[] marking, Node parent) {
+		boolean result = false;
+		for (Node ancestor = parent; ancestor != null; ancestor = ancestor.parent) {
+			if (!lessOrEqual(ancestor.marking, marking) || Arrays.equals(ancestor.marking, marking))
+				continue;
+			for (int p = 0; p < marking.length; p++) {
+				if (ancestor.marking[p] < marking[p] && marking[p] != OMEGA) {
+					marking[p] = OMEGA;
+					result = true;
+				}
+			}
+		}
+		return result;
+	}
+
+	private boolean isEnabled(long[] marking, int t) {
+		for (int i = 0; i < consumePlaces[t].length; i++)
+			if (marking[consumePlaces[t][i]] < consumeWeights[t][i])
+				return false;
+		return true;
+	}
+
+	private long[] fire(long[] marking, int t) {
+		long[] result = marking.clone();
+		for (int i = 0; i < consumePlaces[t].length; i++) {
+			int p = consumePlaces[t][i];
+			if (result[p] != OMEGA)
+				result[p] -= consumeWeights[t][i];
+		}
+		for (int i = 0; i < producePlaces[t].length; i++) {
+			int p = producePlaces[t][i];
+			if (result[p] != OMEGA)
+				result[p] += produceWeights[t][i];
+		}
+		return result;
+	}
+
+	static private boolean lessOrEqual(long[] smaller, long[] larger) {
+		for (int p = 0; p < smaller.length; p++)
+			if (smaller[p] > larger[p])
+				return false;
+		return true;
+	}
+
+	static private boolean hasOmega(long[] marking) {
+		for (long value : marking)
+			if (value == OMEGA)
+				return true;
+		return false;
+	}
+
+	static private long toLong(Token token) {
+		return token.isOmega() ? OMEGA : token.getValue();
+	}
+
+	private Marking toMarking(long[] marking) {
+		Marking result = new Marking(pn);
+		for (int p = 0; p < places.length; p++) {
+			Token token = marking[p] == OMEGA ? Token.OMEGA : Token.valueOf(marking[p]);
+			result = result.setTokenCount(places[p], token);
+		}
+		return result;
+	}
+
+	/**
+	 * Get the Petri net that this set belongs to.
+	 * @return The Petri net.
+	 */
+	public PetriNet getPetriNet() {
+		return pn;
+	}
+
+	/**
+	 * Get the markings of the minimal coverability set.
+	 * @return The markings, possibly containing omegas.
+	 */
+	public List<Marking> getMarkings() {
+		List<Marking> result = new ArrayList<>(antichain.size());
+		for (Node node : antichain)
+			result.add(toMarking(node.marking));
+		return Collections.unmodifiableList(result);
+	}
+
+	/**
+	 * Get the number of nodes of the pruned Karp-Miller tree that were created while computing this set.
+	 * @return The number of nodes.
+	 */
+	public int getNumberOfNodes() {
+		return numberOfNodes;
+	}
+
+	/**
+	 * Check if the Petri net is bounded, i.e. if no marking of this set contains an omega.
+	 * @return true if the net is bounded.
+	 */
+	public boolean isBounded() {
+		for (Node node : antichain)
+			if (hasOmega(node.marking))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Get a transition system which has the markings of this set as states. For every state and every transition
+	 * that is enabled in its marking, there is an arc to the first state whose marking covers the resulting
+	 * marking. State i of the result belongs to the i-th marking of {@link #getMarkings()}. As with {@link
+	 * CoverabilityGraph#toCoverabilityLTS}, states carry their marking and arcs their transition as extensions.
+	 * @return The transition system.
+	 */
+	public TransitionSystem toLTS() {
+		TransitionSystem.Builder builder = new TransitionSystem.Builder(
+				"Minimal coverability set of " + pn.getName(), antichain.size());
+		TransitionSystem lts = builder.getTransitionSystem();
+		lts.putExtension(PetriNet.class.getName(), pn);
+		InterruptPoller poller = new InterruptPoller();
+
+		List<Marking> markings = getMarkings();
+		for (Marking marking : markings) {
+			State state = builder.getState(builder.addState());
+			state.putExtension(CoverabilityGraph.MARKING_KEY, marking);
+		}
+
+		for (int source = 0; source < antichain.size(); source++) {
+			long[] marking = antichain.get(source).marking;
+			for (int t = 0; t < transitions.length; t++) {
+				poller.poll();
+				if (!isEnabled(marking, t))
+					continue;
+				int target = findCovering(fire(marking, t));
+				Arc arc = builder.addArc(source, target, builder.addEvent(transitions[t].getLabel()));
+				if (arc != null)
+					arc.putExtension(CoverabilityGraph.TRANSITION_KEY, transitions[t]);
+			}
+		}
+
+		long[] initial = new long[places.length];
+		Marking initialMarking = pn.getInitialMarking();
+		for (int i = 0; i < places.length; i++)
+			initial[i] = toLong(initialMarking.getToken(places[i]));
+		builder.setInitialState(findCovering(initial));
+		return lts;
+	}
+
+	private int findCovering(long[] marking) {
+		for (int i = 0; i < antichain.size(); i++)
+			if (lessOrEqual(marking, antichain.get(i).marking))
+				return i;
+		// The downward closure of the minimal coverability set contains all reachable markings and is closed
+		// under firing transitions, so something always covers the marking
+		throw new AssertionError("No element of the minimal coverability set covers " + toMarking(marking));
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
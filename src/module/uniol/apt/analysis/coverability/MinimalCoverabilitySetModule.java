@@ -0,0 +1,60 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.analysis.coverability;
+
+import uniol.apt.adt.pn.PetriNet;
+import uniol.apt.adt.ts.TransitionSystem;
+import uniol.apt.module.AptModule;
+import uniol.apt.module.InterruptibleModule;
+
+/**
+ * Provide the minimal coverability set as a module. This is the coverability graph module, but it returns only the
+ * maximal markings of the coverability set, which is usually much faster for unbounded nets.
+ * @author Uli Schlachter
+ */
+@AptModule
+public class MinimalCoverabilitySetModule extends CoverabilityModule implements InterruptibleModule {
+
+	private final static String NAME = "minimal_coverability_set";
+
+	@Override
+	public String getShortDescription() {
+		return "Compute a Petri net's minimal coverability set";
+	}
+
+	@Override
+	public String getLongDescription() {
+		return getShortDescription() + ". The result has one state for every maximal omega-marking of the "
+			+ "coverability set. For each state and each enabled transition, there is an arc to the first "
+			+ "state whose marking covers the marking that is reached.";
+	}
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	protected TransitionSystem getLTS(PetriNet pn) {
+		return MinimalCoverabilitySet.compute(pn).toLTS();
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -30,6 +30,8 @@ import uniol.apt.module.InterruptibleModule;
 @AptModule
 public class ReachabilityModule extends CoverabilityModule implements InterruptibleModule {
 
+	private final static String NAME = "reachability_graph";
+
 	@Override
 	public String getShortDescription() {
 		return "Compute a Petri net's reachability graph";
@@ -37,7 +39,7 @@ public class ReachabilityModule extends CoverabilityModule implements Interrupti
 
 	@Override
 	public String getName() {
-		return "reachability_graph";
+		return NAME;
 	}
 
 	@Override
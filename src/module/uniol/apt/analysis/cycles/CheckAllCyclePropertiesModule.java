@@ -48,9 +48,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class CheckAllCyclePropertiesModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "check_all_cycle_prop";
+
 	@Override
 	public String getName() {
-		return "check_all_cycle_prop";
+		return NAME;
 	}
 
 	@Override
@@ -21,129 +21,276 @@ package uniol.apt.analysis.cycles;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Deque;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import uniol.apt.adt.IEdge;
 import uniol.apt.adt.IGraph;
 import uniol.apt.adt.INode;
-import uniol.apt.adt.subgraph.SubEdge;
-import uniol.apt.adt.subgraph.SubGraph;
-import uniol.apt.adt.subgraph.SubNode;
-import uniol.apt.analysis.connectivity.Connectivity;
-import uniol.apt.util.interrupt.InterrupterRegistry;
+import uniol.apt.util.interrupt.InterruptPoller;
 
 /**
  * Compute elementary cycles via Johnson's algorithm.
  * This implementation is based on "Finding All the Elementary Circuits of a Directed Graph" from Donald B. Johnson in
  * SIAM J. Comput., 4(1), 77–84. (8 pages) (DOI: 10.1137/0204007).
  *
+ * Internally, nodes are numbered and the graph is represented as adjacency arrays, so that the search itself does not
+ * need to allocate anything except for the cycles that are reported.
+ *
  * @author vsp
  */
 public class CycleSearch {
 	public <G extends IGraph<G, E, N>, E extends IEdge<G, E, N>, N extends INode<G, E, N>> void
 			searchCycles(G graph, CycleCallback<G, E, N> cycleCb) {
-		Deque<SubGraph<G, E, N>> componentSubgraphs = new ArrayDeque<>();
-		for (Set<N> component : Connectivity.getStronglyConnectedComponents(graph)) {
-			componentSubgraphs.add(SubGraph.getSubGraphByNodes(graph, component));
-		}
-		while (!componentSubgraphs.isEmpty()) {
-			SubGraph<G, E, N> subgraph = componentSubgraphs.removeLast();
-			Set<SubNode<G, E, N>> nodes = subgraph.getNodes();
-			// misuse an iterator to get and remove a random node
-			Iterator<SubNode<G, E, N>> it = nodes.iterator();
-			SubNode<G, E, N> start = it.next();
-			new DoDfs<G, E, N>(start, subgraph, cycleCb);
-			it.remove();
-			subgraph = subgraph.getFlatSubGraphByNodes(nodes);
-			for (Set<SubNode<G, E, N>> component : Connectivity.getStronglyConnectedComponents(subgraph)) {
-				componentSubgraphs.add(subgraph.getFlatSubGraphByNodes(component));
-			}
-		}
+		new Search<G, E, N>(graph, cycleCb).run();
 	}
 
-	// Do a DFS for circles going through 'start'. We are currently in 'cur'. This is called CIRCUIT() in the
-	// paper.
-	static private class DoDfs<G extends IGraph<G, E, N>, E extends IEdge<G, E, N>, N extends INode<G, E, N>> {
-		private final SubNode<G, E, N> start;
+	static private class Search<G extends IGraph<G, E, N>, E extends IEdge<G, E, N>, N extends INode<G, E, N>> {
 		private final CycleCallback<G, E, N> cycleCb;
+		private final InterruptPoller poller = new InterruptPoller();
+
+		// The graph: For node i, successors[i][j] is the target of edges.get(i).get(j)
+		private final List<N> nodes;
+		private final List<List<E>> edges;
+		private final int[][] successors;
 
-		private final Deque<SubNode<G, E, N>> sStack;
-		private final Deque<SubEdge<G, E, N>> lStack;
-		private final Set<SubNode<G, E, N>> blocked;
-		private final Map<SubNode<G, E, N>, Set<SubNode<G, E, N>>> b;
+		// Only nodes v with component[v] == currentComponent are considered
+		private final int[] component;
+		private int currentComponent = 0;
 
-		public DoDfs(SubNode<G, E, N> start, SubGraph<G, E, N> graph, CycleCallback<G, E, N> cycleCb) {
-			this.start   = start;
+		// Johnson's blocked set and the lists B(v) of nodes that get unblocked together with v
+		private final BitSet blocked;
+		private final int[][] blockedBy;
+		private final int[] blockedBySize;
+		private final int[] unblockStack;
+
+		// Stacks for the iterative DFS. edgeStack[i] is the index of the next edge to follow from nodeStack[i].
+		private final int[] nodeStack;
+		private final int[] edgeStack;
+		private final boolean[] foundStack;
+
+		// Data for Tarjan's algorithm
+		private final int[] index;
+		private final int[] lowlink;
+		private final BitSet onStack;
+		private final int[] tarjanStack;
+
+		public Search(G graph, CycleCallback<G, E, N> cycleCb) {
 			this.cycleCb = cycleCb;
+			this.nodes = new ArrayList<>(graph.getNodes());
 
-			this.sStack  = new ArrayDeque<>();
-			this.lStack  = new ArrayDeque<>();
-			this.blocked = new HashSet<>();
-			this.b       = new HashMap<SubNode<G, E, N>, Set<SubNode<G, E, N>>>();
+			int numNodes = nodes.size();
+			Map<N, Integer> nodeIndex = new HashMap<>();
+			for (int i = 0; i < numNodes; i++)
+				nodeIndex.put(nodes.get(i), i);
 
-			for (SubNode<G, E, N> node : graph.getNodes()) {
-				this.b.put(node, new HashSet<SubNode<G, E, N>>());
+			this.edges = new ArrayList<>(numNodes);
+			this.successors = new int[numNodes][];
+			for (int i = 0; i < numNodes; i++) {
+				List<E> postset = new ArrayList<>(nodes.get(i).getPostsetEdges());
+				int[] targets = new int[postset.size()];
+				for (int j = 0; j < targets.length; j++)
+					targets[j] = nodeIndex.get(postset.get(j).getTarget());
+				this.edges.add(postset);
+				this.successors[i] = targets;
 			}
 
-			doDfs(start);
+			this.component = new int[numNodes];
+			this.blocked = new BitSet(numNodes);
+			this.blockedBy = new int[numNodes][];
+			this.blockedBySize = new int[numNodes];
+			this.unblockStack = new int[numNodes];
+			this.nodeStack = new int[numNodes];
+			this.edgeStack = new int[numNodes];
+			this.foundStack = new boolean[numNodes];
+			this.index = new int[numNodes];
+			this.lowlink = new int[numNodes];
+			this.onStack = new BitSet(numNodes);
+			this.tarjanStack = new int[numNodes];
+		}
+
+		public void run() {
+			int[] all = new int[nodes.size()];
+			for (int i = 0; i < all.length; i++)
+				all[i] = i;
+
+			Deque<int[]> components = new ArrayDeque<>();
+			addStronglyConnectedComponents(all, components);
+			while (!components.isEmpty()) {
+				int[] nodesOfComponent = components.removeLast();
+				selectComponent(nodesOfComponent);
+				int start = nodesOfComponent[0];
+				for (int node : nodesOfComponent) {
+					blocked.clear(node);
+					blockedBySize[node] = 0;
+				}
+				searchCyclesThrough(start);
 
-			assert sStack.isEmpty();
-			assert lStack.isEmpty();
+				// Continue with the rest of the component without the start node
+				if (nodesOfComponent.length > 1) {
+					int[] rest = new int[nodesOfComponent.length - 1];
+					System.arraycopy(nodesOfComponent, 1, rest, 0, rest.length);
+					addStronglyConnectedComponents(rest, components);
+				}
+			}
 		}
 
-		private boolean doDfs(SubNode<G, E, N> cur) {
-			boolean foundCycle = false;
-
-
-			blocked.add(cur);
-			sStack.addLast(cur);
-			for (SubEdge<G, E, N> arc : cur.getPostsetEdges()) {
-				InterrupterRegistry.throwIfInterruptRequestedForCurrentThread();
-				lStack.addLast(arc);
-				SubNode<G, E, N> next = arc.getTarget();
-				if (next.equals(start)) {
-					// cycle found
-					List<N> sCycle = new ArrayList<>();
-					for (SubNode<G, E, N> node : sStack) {
-						sCycle.add(node.getOriginalNode());
-					}
-					List<E> lCycle = new ArrayList<>();
-					for (SubEdge<G, E, N> edge : lStack) {
-						lCycle.add(edge.getOriginalEdge());
+		private void selectComponent(int[] nodesOfComponent) {
+			currentComponent++;
+			for (int node : nodesOfComponent)
+				component[node] = currentComponent;
+		}
+
+		// Find all cycles through 'start' in the current component. This is called CIRCUIT() in the paper.
+		private void searchCyclesThrough(int start) {
+			int top = 0;
+			nodeStack[0] = start;
+			edgeStack[0] = 0;
+			foundStack[0] = false;
+			blocked.set(start);
+
+			while (top >= 0) {
+				int cur = nodeStack[top];
+				int[] succ = successors[cur];
+				if (edgeStack[top] < succ.length) {
+					int next = succ[edgeStack[top]++];
+					if (component[next] != currentComponent)
+						continue;
+					poller.poll();
+					if (next == start) {
+						reportCycle(top);
+						foundStack[top] = true;
+					} else if (!blocked.get(next)) {
+						top++;
+						nodeStack[top] = next;
+						edgeStack[top] = 0;
+						foundStack[top] = false;
+						blocked.set(next);
 					}
-					cycleCb.cycleFound(sCycle, lCycle);
-					foundCycle = true;
-				} else if (!blocked.contains(next)) {
-					foundCycle |= doDfs(next);
+					continue;
 				}
-				lStack.removeLast();
-			}
-			sStack.removeLast();
 
-			if (foundCycle) {
-				unblock(cur);
-			} else {
-				for (SubNode<G, E, N> next : cur.getPostsetNodes()) {
-					b.get(cur).add(next);
+				// All edges of 'cur' were handled
+				if (foundStack[top]) {
+					unblock(cur);
+				} else {
+					for (int next : succ)
+						if (component[next] == currentComponent)
+							addToBlockedBy(next, cur);
 				}
+				top--;
+				if (top >= 0 && foundStack[top + 1])
+					foundStack[top] = true;
 			}
+		}
+
+		private void reportCycle(int top) {
+			List<N> sCycle = new ArrayList<>(top + 1);
+			List<E> lCycle = new ArrayList<>(top + 1);
+			for (int i = 0; i <= top; i++) {
+				sCycle.add(nodes.get(nodeStack[i]));
+				lCycle.add(edges.get(nodeStack[i]).get(edgeStack[i] - 1));
+			}
+			cycleCb.cycleFound(sCycle, lCycle);
+		}
 
-			return foundCycle;
+		private void addToBlockedBy(int node, int blockedNode) {
+			int[] list = blockedBy[node];
+			int size = blockedBySize[node];
+			for (int i = 0; i < size; i++)
+				if (list[i] == blockedNode)
+					return;
+			if (list == null) {
+				list = new int[4];
+				blockedBy[node] = list;
+			} else if (size == list.length) {
+				list = Arrays.copyOf(list, 2 * size);
+				blockedBy[node] = list;
+			}
+			list[size] = blockedNode;
+			blockedBySize[node] = size + 1;
+		}
+
+		private void unblock(int node) {
+			// Every node is pushed at most once, because it is unblocked before being pushed
+			int top = 0;
+			unblockStack[0] = node;
+			blocked.clear(node);
+			while (top >= 0) {
+				int cur = unblockStack[top--];
+				int[] list = blockedBy[cur];
+				for (int i = 0; i < blockedBySize[cur]; i++) {
+					int other = list[i];
+					if (blocked.get(other)) {
+						blocked.clear(other);
+						unblockStack[++top] = other;
+					}
+				}
+				blockedBySize[cur] = 0;
+			}
 		}
 
-		private void unblock(SubNode<G, E, N> node) {
-			blocked.remove(node);
-			for (SubNode<G, E, N> prev : b.get(node)) {
-				if (blocked.contains(prev))
-					unblock(prev);
+		// Tarjan's algorithm restricted to the given nodes
+		private void addStronglyConnectedComponents(int[] subset, Deque<int[]> result) {
+			selectComponent(subset);
+			for (int node : subset)
+				index[node] = -1;
+
+			int counter = 0;
+			int tarjanTop = -1;
+			for (int root : subset) {
+				if (index[root] != -1)
+					continue;
+
+				int top = 0;
+				nodeStack[0] = root;
+				edgeStack[0] = 0;
+				index[root] = lowlink[root] = counter++;
+				tarjanStack[++tarjanTop] = root;
+				onStack.set(root);
+
+				while (top >= 0) {
+					int cur = nodeStack[top];
+					int[] succ = successors[cur];
+					if (edgeStack[top] < succ.length) {
+						int next = succ[edgeStack[top]++];
+						if (component[next] != currentComponent)
+							continue;
+						if (index[next] == -1) {
+							index[next] = lowlink[next] = counter++;
+							tarjanStack[++tarjanTop] = next;
+							onStack.set(next);
+							top++;
+							nodeStack[top] = next;
+							edgeStack[top] = 0;
+						} else if (onStack.get(next)) {
+							lowlink[cur] = Math.min(lowlink[cur], index[next]);
+						}
+						continue;
+					}
+
+					if (lowlink[cur] == index[cur]) {
+						int size = 0;
+						while (tarjanStack[tarjanTop - size] != cur)
+							size++;
+						size++;
+						int[] scc = new int[size];
+						for (int i = 0; i < size; i++) {
+							int node = tarjanStack[tarjanTop--];
+							onStack.clear(node);
+							scc[i] = node;
+						}
+						result.addLast(scc);
+					}
+					top--;
+					if (top >= 0)
+						lowlink[nodeStack[top]] = Math.min(lowlink[nodeStack[top]], lowlink[cur]);
+				}
 			}
-			b.put(node, new HashSet<SubNode<G, E, N>>());
 		}
 	}
 }
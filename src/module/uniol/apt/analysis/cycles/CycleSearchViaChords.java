@@ -20,13 +20,16 @@
 package uniol.apt.analysis.cycles;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import uniol.apt.adt.ts.Arc;
+import uniol.apt.adt.ts.DenseParikhVector;
 import uniol.apt.adt.ts.ParikhVector;
 import uniol.apt.adt.ts.State;
 import uniol.apt.adt.ts.TransitionSystem;
@@ -123,30 +126,34 @@ public class CycleSearchViaChords {
 	}
 
 	private Set<ParikhVector> findCyclesAround(State homeState) throws PreconditionFailedException {
-		SpanningTree<TransitionSystem, Arc, State> tree = SpanningTree.get(homeState.getGraph(), homeState);
+		TransitionSystem ts = homeState.getGraph();
+		SpanningTree<TransitionSystem, Arc, State> tree = SpanningTree.get(ts, homeState);
+		DenseParikhVector.Alphabet alphabet = new DenseParikhVector.Alphabet(ts.getAlphabet());
 
-		Set<ParikhVector> cyclesSeen = new HashSet<>();
+		Set<DenseParikhVector> cyclesSeen = new HashSet<>();
 
 		for (Arc chord : tree.getChords()) {
 			InterrupterRegistry.throwIfInterruptRequestedForCurrentThread();
 
-			ParikhVector pv = getPV(tree, chord);
-			cyclesSeen.add(pv);
+			DenseParikhVector pv = getPV(alphabet, tree, chord);
+			// Skip the empty Parikh vector, in case it was found
+			if (!pv.isZero())
+				cyclesSeen.add(pv);
 		}
 
-		// Remove the empty Parikh vector, in case it was found
-		cyclesSeen.remove(new ParikhVector());
-
-		return cyclesSeen;
+		Set<ParikhVector> result = new HashSet<>();
+		for (DenseParikhVector pv : cyclesSeen)
+			result.add(pv.toParikhVector());
+		return result;
 	}
 
 	// Calculate PV(chord.getSource()) + PV(chord.getLabel()) - PV(chord.getTarget()) where the Parikh vector of a
 	// state is the Parikh vector of its reaching path according to the spanning tree.
-	private ParikhVector getPV(SpanningTree<TransitionSystem, Arc, State> tree, Arc chord)
-			throws PreconditionFailedException {
+	private DenseParikhVector getPV(DenseParikhVector.Alphabet alphabet,
+			SpanningTree<TransitionSystem, Arc, State> tree, Arc chord) throws PreconditionFailedException {
 		State commonAncestor = findCommonAncestor(tree, chord.getSource(), chord.getTarget());
-		ParikhVector pv1 = getPV(tree, chord.getSource(), commonAncestor).add(chord.getLabel());
-		ParikhVector pv2 = getPV(tree, chord.getTarget(), commonAncestor);
+		DenseParikhVector pv1 = getPV(alphabet, tree, chord.getSource(), commonAncestor).add(chord.getLabel());
+		DenseParikhVector pv2 = getPV(alphabet, tree, chord.getTarget(), commonAncestor);
 		// Check that pv1 >= pv2, i.e. no negative entries would occur in pv1 - pv2
 		ParikhVector.Comparison comp = pv1.compare(pv2);
 		if (!comp.equals(ParikhVector.Comparison.GREATER_THAN) &&
@@ -162,13 +169,13 @@ public class CycleSearchViaChords {
 			// complete this into a cycle by finding any path back to chord.getTarget().
 			// TODO: Is such a cycle necessarily small? I don't know, but some hint at the correct
 			// counter-example is better than no counter-example at all.
-			ParikhVector residual1 = pv1.residual(pv2);
-			ParikhVector residual2 = pv2.residual(pv1);
+			DenseParikhVector residual1 = pv1.residual(pv2);
+			DenseParikhVector residual2 = pv2.residual(pv1);
 			State residualsTarget = followPV(chord.getTarget(), residual1);
-			ParikhVector restOfCycle = findPath(residualsTarget, chord.getTarget());
+			DenseParikhVector restOfCycle = findPath(alphabet, residualsTarget, chord.getTarget());
 			throw new NonDisjointCyclesException(chord.getGraph(),
-					residual1.add(restOfCycle),
-					residual2.add(restOfCycle));
+					residual1.add(restOfCycle).toParikhVector(),
+					residual2.add(restOfCycle).toParikhVector());
 		}
 		return pv1.residual(pv2);
 	}
@@ -198,47 +205,47 @@ public class CycleSearchViaChords {
 	}
 
 	// Get the Parikh vector that reaches the given state in the given tree.
-	private ParikhVector getPV(SpanningTree<TransitionSystem, Arc, State> tree, State state) {
-		return getPV(tree, state, null);
+	private DenseParikhVector getPV(DenseParikhVector.Alphabet alphabet,
+			SpanningTree<TransitionSystem, Arc, State> tree, State state) {
+		return getPV(alphabet, tree, state, null);
 	}
 
 	// Get the Parikh vector that goes from upTo to state in the given tree.
 	// This function assumes that such a path exists!
-	private ParikhVector getPV(SpanningTree<TransitionSystem, Arc, State> tree, State state, State upTo) {
-		Map<String, Integer> result = new HashMap<>();
+	private DenseParikhVector getPV(DenseParikhVector.Alphabet alphabet,
+			SpanningTree<TransitionSystem, Arc, State> tree, State state, State upTo) {
+		List<String> result = new ArrayList<>();
 		Arc arc = tree.getPredecessorEdge(state);
 		// Since we already checked total reachability: arc == null means we reached the initial state
 		while (arc != null && !state.equals(upTo)) {
-			String label = arc.getLabel();
-			Integer value = result.get(label);
-			if (value == null)
-				result.put(label, 1);
-			else
-				result.put(label, value + 1);
+			result.add(arc.getLabel());
 			state = arc.getSource();
 			arc = tree.getPredecessorEdge(state);
 		}
-		return new ParikhVector(result);
+		return alphabet.fromSequence(result);
 	}
 
 	// Find the state reached by 'firing' the given Parikh vector. This assumes that such a state exists!
-	private State followPV(State state, ParikhVector pv) {
+	private State followPV(State state, DenseParikhVector pv) {
 		// By determinism and persistency, we can follow things in an arbitrary order and are still guaranteed
 		// to find the state we are looking for
-		for (String t : pv.getLabels()) {
-			Set<State> targets = state.getPostsetNodesByLabel(t);
+		DenseParikhVector.Alphabet alphabet = pv.getAlphabet();
+		for (int index = 0; index < alphabet.size(); index++) {
+			if (pv.get(index) == 0)
+				continue;
+			Set<State> targets = state.getPostsetNodesByLabel(alphabet.getLabel(index));
 			for (State target : targets)
-				return followPV(target, pv.tryRemove(t, 1));
+				return followPV(target, pv.tryRemove(index, 1));
 		}
 		// We are assuming that the path is possible. Thus, we can only get here when we are done.
-		assert new ParikhVector().equals(pv) : pv;
+		assert pv.isZero() : pv;
 		return state;
 	}
 
-	private ParikhVector findPath(State from, State to) {
+	private DenseParikhVector findPath(DenseParikhVector.Alphabet alphabet, State from, State to) {
 		SpanningTree<TransitionSystem, Arc, State> tree = SpanningTree.get(from.getGraph(), from);
 		assert tree.isReachable(to);
-		return getPV(tree, to);
+		return getPV(alphabet, tree, to);
 	}
 }
 
@@ -20,10 +20,13 @@
 package uniol.apt.analysis.cycles.lts;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import uniol.apt.adt.ts.Arc;
@@ -100,33 +103,77 @@ public class ComputeSmallestCycles {
 	 */
 	public Set<Cycle> computePVsOfSmallestCyclesViaCycleSearch(TransitionSystem ts,
 			final boolean smallest) {
-		final Set<Cycle> cycles = new HashSet<>();
+		if (!smallest) {
+			final Set<Cycle> cycles = new HashSet<>();
+			new CycleSearch().searchCycles(ts, new CycleCallback<TransitionSystem, Arc, State>() {
+				@Override
+				public void cycleFound(List<State> nodes, List<Arc> edges) {
+					cycles.add(new Cycle(nodes, edges));
+				}
+			});
+			return cycles;
+		}
+
+		final Map<String, Integer> labelIndex = new HashMap<>();
+		for (String label : ts.getAlphabet())
+			labelIndex.put(label, labelIndex.size());
+		final List<AntichainEntry> antichain = new ArrayList<>();
 		new CycleSearch().searchCycles(ts, new CycleCallback<TransitionSystem, Arc, State>() {
 			@Override
 			public void cycleFound(List<State> nodes, List<Arc> edges) {
-				Cycle newCycle = new Cycle(nodes, edges);
-				if (smallest) {
-					ParikhVector pv = newCycle.getParikhVector();
-					Iterator<Cycle> iter = cycles.iterator();
-					while (iter.hasNext()) {
-						Cycle cycle = iter.next();
-						int comp = cycle.getParikhVector().compare(pv).asInt();
-						if (comp < 0) {
-							// cycle has a smaller Parikh vector
+				int[] pv = new int[labelIndex.size()];
+				for (Arc arc : edges)
+					pv[labelIndex.get(arc.getLabel())]++;
+				int length = edges.size();
+
+				// The antichain contains the Parikh vectors of the smallest cycles found so far. If the new
+				// vector is smaller than or equal to some entry, it cannot be bigger than any other entry.
+				Iterator<AntichainEntry> iter = antichain.iterator();
+				while (iter.hasNext()) {
+					AntichainEntry entry = iter.next();
+					if (entry.length < length) {
+						if (lessOrEqual(entry.pv, pv))
 							return;
-						}
-						if (comp > 0) {
-							// This vector is smaller than cycle.
+					} else if (entry.length > length) {
+						if (lessOrEqual(pv, entry.pv))
 							iter.remove();
-						}
+					} else if (Arrays.equals(entry.pv, pv)) {
+						entry.cycles.add(new Cycle(nodes, edges));
+						return;
 					}
 				}
-				cycles.add(newCycle);
+				antichain.add(new AntichainEntry(pv, length, new Cycle(nodes, edges)));
 			}
 		});
+
+		Set<Cycle> cycles = new HashSet<>();
+		for (AntichainEntry entry : antichain)
+			cycles.addAll(entry.cycles);
 		return cycles;
 	}
 
+	static private boolean lessOrEqual(int[] pv1, int[] pv2) {
+		for (int i = 0; i < pv1.length; i++)
+			if (pv1[i] > pv2[i])
+				return false;
+		return true;
+	}
+
+	/**
+	 * Cycles sharing the same Parikh vector. The Parikh vector is represented as an array indexed by label.
+	 */
+	static private class AntichainEntry {
+		private final int[] pv;
+		private final int length;
+		private final List<Cycle> cycles = new ArrayList<>();
+
+		private AntichainEntry(int[] pv, int length, Cycle cycle) {
+			this.pv = pv;
+			this.length = length;
+			this.cycles.add(cycle);
+		}
+	}
+
 	/**
 	 * Computes the parikh vectors of all smallest cycles of a finite, totally reachable, deterministic and
 	 * persistent transition system.
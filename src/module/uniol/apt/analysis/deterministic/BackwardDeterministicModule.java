@@ -38,9 +38,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class BackwardDeterministicModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "backwards_deterministic";
+
 	@Override
 	public String getName() {
-		return "backwards_deterministic";
+		return NAME;
 	}
 
 	@Override
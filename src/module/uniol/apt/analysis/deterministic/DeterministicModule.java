@@ -38,9 +38,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class DeterministicModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "deterministic";
+
 	@Override
 	public String getName() {
-		return "deterministic";
+		return NAME;
 	}
 
 	@Override
@@ -21,19 +21,22 @@
 package uniol.apt.analysis.factorization;
 
 import java.util.ArrayDeque;
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import uniol.apt.adt.ts.Arc;
 import uniol.apt.adt.ts.State;
 import uniol.apt.adt.ts.TransitionSystem;
-import uniol.apt.analysis.connectivity.Connectivity;
+import uniol.apt.util.DifferentPairsIterable;
+import uniol.apt.util.DomainEquivalenceRelation;
 import uniol.apt.util.Pair;
-import uniol.apt.util.PowerSet;
 import uniol.apt.util.interrupt.InterrupterRegistry;
 
 /**
@@ -50,6 +53,7 @@ public class Factorization {
 	private boolean hasFactors;
 	private TransitionSystem factor1;
 	private TransitionSystem factor2;
+	private final List<Set<String>> primeLabelSets = new ArrayList<>();
 
 	/**
 	 * Creates a new Factorization instance that examines the given TS. The
@@ -64,7 +68,8 @@ public class Factorization {
 	}
 
 	/**
-	 * Returns the first factor, if any.
+	 * Returns the first factor, if any. This is the prime factor whose
+	 * label set is the first entry of {@link #getPrimeLabelSets()}.
 	 *
 	 * @return the first factor or null
 	 */
@@ -73,7 +78,8 @@ public class Factorization {
 	}
 
 	/**
-	 * Returns the second factor, if any.
+	 * Returns the second factor, if any. This is the product of all other
+	 * prime factors.
 	 *
 	 * @return the second factor or null
 	 */
@@ -90,42 +96,159 @@ public class Factorization {
 		return hasFactors;
 	}
 
+	/**
+	 * Returns the label sets of the prime factors of the LTS. Each of these
+	 * label sets T' is a T'-separation of the TS and the TS is a T'-gdiam.
+	 * If the LTS is not a product, the only label set is the alphabet.
+	 *
+	 * @return the label sets of the prime factors
+	 */
+	public List<Set<String>> getPrimeLabelSets() {
+		return Collections.unmodifiableList(primeLabelSets);
+	}
+
+	/**
+	 * Creates and returns the prime factors of the LTS. If the LTS is not a
+	 * product, the only prime factor is equal to the LTS.
+	 *
+	 * @return the prime factors in the order of {@link #getPrimeLabelSets()}
+	 */
+	public List<TransitionSystem> getPrimeFactors() {
+		List<TransitionSystem> result = new ArrayList<>();
+		for (Set<String> labels : primeLabelSets) {
+			result.add(createFactor(ts, labels));
+		}
+		return result;
+	}
+
 	/**
 	 * Tries to factorize the TS and returns if it was possible.
 	 *
+	 * Every label set T' for which the TS is a T'-gdiam is a union of
+	 * classes of the dependence relation. Two labels are dependent if
+	 * they do not form general diamonds. Thus, instead of checking every
+	 * subset of the alphabet, only unions of these classes are
+	 * considered. Starting from a single class, labels are added until
+	 * the TS is T'-separated. The separation witnesses show which labels
+	 * have to be added, so that prime factors are found with a polynomial
+	 * number of checks.
+	 *
 	 * @return true, if a factorization was found
 	 */
 	private boolean factorize() {
-		for (Collection<String> tPrimeCandidate : PowerSet.powerSet(ts.getAlphabet())) {
+		List<String> alphabet = new ArrayList<>(ts.getAlphabet());
+		DomainEquivalenceRelation<String> dependent = new DomainEquivalenceRelation<>(alphabet);
+		for (Pair<String, String> pair : new DifferentPairsIterable<>(alphabet)) {
 			InterrupterRegistry.throwIfInterruptRequestedForCurrentThread();
-			// Skip trivial solutions.
-			if (tPrimeCandidate.isEmpty() || tPrimeCandidate.size() == ts.getAlphabet().size()) {
+			if (dependent.isEquivalent(pair.getFirst(), pair.getSecond()))
+				continue;
+			if (!GeneralDiamond.isGdiam(ts, pair.getFirst(), pair.getSecond()))
+				dependent.joinClasses(pair.getFirst(), pair.getSecond());
+		}
+
+		Set<String> handled = new HashSet<>();
+		for (String label : alphabet) {
+			if (handled.contains(label))
 				continue;
+			Set<String> labels = new HashSet<>(dependent.getClass(label));
+			// A factor of a product never overlaps another factor. For other TS, just join the overlapping
+			// candidates.
+			boolean overlaps = true;
+			while (overlaps) {
+				growUntilSeparated(labels, dependent);
+				overlaps = false;
+				Iterator<Set<String>> iter = primeLabelSets.iterator();
+				while (iter.hasNext()) {
+					Set<String> other = iter.next();
+					if (!Collections.disjoint(labels, other)) {
+						labels.addAll(other);
+						iter.remove();
+						overlaps = true;
+					}
+				}
 			}
-			if (isGdiamAndSeparated(tPrimeCandidate)) {
-				createFactors(tPrimeCandidate);
-				return true;
+			primeLabelSets.add(labels);
+			handled.addAll(labels);
+		}
+
+		if (primeLabelSets.size() <= 1)
+			return false;
+
+		Set<String> t1 = primeLabelSets.get(0);
+		Set<String> t2 = new HashSet<>(ts.getAlphabet());
+		t2.removeAll(t1);
+		factor1 = createFactor(ts, t1);
+		factor2 = createFactor(ts, t2);
+		return true;
+	}
+
+	/**
+	 * Adds labels to the given union of classes of the dependence relation
+	 * until the TS is T'-separated. If the TS is not T'-separated, there
+	 * are two states which are connected via labels from T' and via
+	 * labels outside of T'. If the TS is a product, a shortest path
+	 * between these states outside of T' only uses labels of the same
+	 * prime factor, so these labels are added.
+	 *
+	 * @param labels
+	 *                the label set that is modified
+	 * @param dependent
+	 *                the dependence relation between labels
+	 */
+	private void growUntilSeparated(Set<String> labels, DomainEquivalenceRelation<String> dependent) {
+		while (true) {
+			InterrupterRegistry.throwIfInterruptRequestedForCurrentThread();
+			LabelSeparationResult result = LabelSeparation.checkSeparated(ts, labels);
+			if (result.isSeparated())
+				return;
+			for (String label : getLabelsOnShortestPathAvoiding(result.getWitnessState1(),
+						result.getWitnessState2(), labels)) {
+				labels.addAll(dependent.getClass(label));
 			}
 		}
-		return false;
 	}
 
 	/**
-	 * Creates factors with the given set of labels. It is assumed that the
-	 * set of labels (T') is a T'-separation of the TS and the TS is a
-	 * T'-gdiam.
+	 * Finds a shortest path between two states which ignores arc
+	 * directions and does not use the given labels.
 	 *
-	 * @param tPrime
-	 *                a set of labels
+	 * @param source
+	 *                the start of the path
+	 * @param target
+	 *                the end of the path
+	 * @param avoid
+	 *                the labels that may not be used
+	 * @return the labels on the path
 	 */
-	private void createFactors(Collection<String> tPrime) {
-		// t1 ∪ t2 = Σ
-		Set<String> t1 = new HashSet<>(tPrime);
-		Set<String> t2 = new HashSet<>(ts.getAlphabet());
-		t2.removeAll(tPrime);
+	private static Set<String> getLabelsOnShortestPathAvoiding(State source, State target, Set<String> avoid) {
+		Map<State, Arc> reachedVia = new HashMap<>();
+		Deque<State> queue = new ArrayDeque<>();
+		reachedVia.put(source, null);
+		queue.add(source);
+		while (!queue.isEmpty() && !reachedVia.containsKey(target)) {
+			State state = queue.poll();
+			List<Arc> arcs = new ArrayList<>(state.getPostsetEdges());
+			arcs.addAll(state.getPresetEdges());
+			for (Arc arc : arcs) {
+				if (avoid.contains(arc.getLabel()))
+					continue;
+				State next = arc.getSource().equals(state) ? arc.getTarget() : arc.getSource();
+				if (!reachedVia.containsKey(next)) {
+					reachedVia.put(next, arc);
+					queue.add(next);
+				}
+			}
+		}
 
-		factor1 = createFactor(ts, t1);
-		factor2 = createFactor(ts, t2);
+		Set<String> result = new HashSet<>();
+		State state = target;
+		for (Arc arc = reachedVia.get(state); arc != null; arc = reachedVia.get(state)) {
+			result.add(arc.getLabel());
+			state = arc.getSource().equals(state) ? arc.getTarget() : arc.getSource();
+		}
+		if (!state.equals(source))
+			throw new AssertionError("States " + source + " and " + target + " are not connected");
+		return result;
 	}
 
 	/**
@@ -179,12 +302,6 @@ public class Factorization {
 			return newState;
 		}
 	}
-
-	private boolean isGdiamAndSeparated(Collection<String> tPrime) {
-		Set<String> set = new HashSet<>(tPrime);
-		return GeneralDiamond.isGdiam(ts, set) && LabelSeparation.isSeparated(ts, set);
-	}
-
 }
 
 // vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -39,9 +39,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class FactorizationModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "factorize";
+
 	@Override
 	public String getName() {
-		return "factorize";
+		return NAME;
 	}
 
 	@Override
@@ -44,9 +44,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class GeneralDiamondModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "gdiam";
+
 	@Override
 	public String getName() {
-		return "gdiam";
+		return NAME;
 	}
 
 	@Override
@@ -19,13 +19,16 @@
 
 package uniol.apt.analysis.factorization;
 
-import java.util.HashSet;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import uniol.apt.adt.ts.Arc;
 import uniol.apt.adt.ts.State;
 import uniol.apt.adt.ts.TransitionSystem;
-import uniol.apt.analysis.connectivity.Connectivity;
 import uniol.apt.util.interrupt.InterrupterRegistry;
 
 /**
@@ -70,46 +73,41 @@ public class LabelSeparation {
 	 */
 	public static LabelSeparationResult checkSeparated(TransitionSystem ts, Set<String> tPrime) {
 		/*
-		 * Idea: Build two new LTS with (1) all arcs with labels from T'
-		 * removed and (2) all arcs with labels not from T' removed.
+		 * Idea: Compute the weakly connected components of (1) the LTS
+		 * with all arcs with labels from T' removed and (2) the LTS with
+		 * all arcs with labels not from T' removed.
 		 *
 		 * Then if s1 and s2 are in the same weakly connected component,
-		 * there is a path (ignoring arc direction) from s1 to s2.
+		 * there is a path (ignoring arc direction) from s1 to s2. The LTS
+		 * is T'-separated iff no two states are in the same components in
+		 * both cases.
 		 */
-		TransitionSystem ts1 = TransitionSystemFilter.removeArcsByLabel(new TransitionSystem(ts), tPrime);
-		TransitionSystem ts2 = TransitionSystemFilter.retainArcsByLabel(new TransitionSystem(ts), tPrime);
-
-		Set<? extends Set<State>> wcc1 = Connectivity.getWeaklyConnectedComponents(ts1);
-		Set<? extends Set<State>> wcc2 = Connectivity.getWeaklyConnectedComponents(ts2);
-
-		Set<Set<String>> wcc1Ids = componentStateSetToIdSet(wcc1);
-		Set<Set<String>> wcc2Ids = componentStateSetToIdSet(wcc2);
+		List<State> states = new ArrayList<>(ts.getNodes());
+		Map<State, Integer> indices = new HashMap<>();
+		for (int i = 0; i < states.size(); i++) {
+			indices.put(states.get(i), i);
+		}
+		int[] wcc1 = getWeaklyConnectedComponents(states, indices, tPrime, false);
+		int[] wcc2 = getWeaklyConnectedComponents(states, indices, tPrime, true);
 
-		// Iterate over pairs of component ids
-		for (Set<String> ids1 : wcc1Ids) {
-			for (Set<String> ids2 : wcc2Ids) {
-				InterrupterRegistry.throwIfInterruptRequestedForCurrentThread();
-				// Compute intersection of two components' ids.
-				Set<String> intersection = new HashSet<>(ids1);
-				intersection.retainAll(ids2);
-				/*
-				 * If this intersection contains two (or more)
-				 * states s1 and s2 the TS is not T'-separated:
-				 *
-				 * (1) It exists an undirected path between s1
-				 * and s2 using only labels from T' because both
-				 * states are in ids2.
-				 *
-				 * (2) It exists an undirected path between s1
-				 * and s2 using only labels from T\T' because
-				 * both states are in ids1.
-				 */
-				if (intersection.size() > 1) {
-					Iterator<String> iter = intersection.iterator();
-					State s1 = ts.getNode(iter.next());
-					State s2 = ts.getNode(iter.next());
-					return new LabelSeparationResult(s1, s2);
-				}
+		Map<Long, State> statesByComponents = new HashMap<>();
+		for (int i = 0; i < states.size(); i++) {
+			/*
+			 * If two states s1 and s2 are in the same component in both
+			 * cases, the TS is not T'-separated:
+			 *
+			 * (1) It exists an undirected path between s1 and s2 using
+			 * only labels from T' because both states are in the same
+			 * component of wcc2.
+			 *
+			 * (2) It exists an undirected path between s1 and s2 using
+			 * only labels from T\T' because both states are in the same
+			 * component of wcc1.
+			 */
+			long key = ((long) wcc1[i] << 32) | wcc2[i];
+			State other = statesByComponents.put(key, states.get(i));
+			if (other != null) {
+				return new LabelSeparationResult(other, states.get(i));
 			}
 		}
 
@@ -117,26 +115,64 @@ public class LabelSeparation {
 	}
 
 	/**
-	 * Transforms a set of set of states (as is the result of a
-	 * {@link Connectivity#getWeaklyConnectedComponents} call) to a set of
-	 * set of ids. This allows for easier contains-checks.
+	 * Computes the weakly connected components of the LTS when only arcs
+	 * with labels inside or outside of the given label set are used.
 	 *
-	 * @param components
-	 *                the component results
-	 * @return set of set of state ids
+	 * @param states
+	 *                the states of the LTS
+	 * @param indices
+	 *                the index of each state in the list of states
+	 * @param labels
+	 *                a set of labels
+	 * @param inside
+	 *                true, if only arcs with labels from the set should be
+	 *                used. false, if only arcs with other labels should be
+	 *                used
+	 * @return the number of the component of each state
 	 */
-	private static Set<Set<String>> componentStateSetToIdSet(Set<? extends Set<State>> components) {
-		Set<Set<String>> result = new HashSet<>();
-		for (Set<State> component : components) {
-			Set<String> componentIds = new HashSet<>();
-			for (State state : component) {
-				componentIds.add(state.getId());
+	private static int[] getWeaklyConnectedComponents(List<State> states, Map<State, Integer> indices,
+			Set<String> labels, boolean inside) {
+		int[] result = new int[states.size()];
+		Arrays.fill(result, -1);
+		int[] queue = new int[states.size()];
+		int numComponents = 0;
+		for (int root = 0; root < states.size(); root++) {
+			if (result[root] != -1) {
+				continue;
+			}
+			InterrupterRegistry.throwIfInterruptRequestedForCurrentThread();
+			int queueEnd = 0;
+			queue[queueEnd++] = root;
+			result[root] = numComponents;
+			for (int queueStart = 0; queueStart < queueEnd; queueStart++) {
+				State state = states.get(queue[queueStart]);
+				for (Arc arc : state.getPostsetEdges()) {
+					if (labels.contains(arc.getLabel()) == inside) {
+						queueEnd = visit(indices.get(arc.getTarget()), numComponents, result,
+								queue, queueEnd);
+					}
+				}
+				for (Arc arc : state.getPresetEdges()) {
+					if (labels.contains(arc.getLabel()) == inside) {
+						queueEnd = visit(indices.get(arc.getSource()), numComponents, result,
+								queue, queueEnd);
+					}
+				}
 			}
-			result.add(componentIds);
+			numComponents++;
 		}
 		return result;
 	}
 
+	private static int visit(int state, int component, int[] components, int[] queue, int queueEnd) {
+		if (components[state] != -1) {
+			return queueEnd;
+		}
+		components[state] = component;
+		queue[queueEnd] = state;
+		return queueEnd + 1;
+	}
+
 }
 
 // vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
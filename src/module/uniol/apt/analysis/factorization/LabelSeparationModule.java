@@ -44,9 +44,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class LabelSeparationModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "label_separation";
+
 	@Override
 	public String getName() {
-		return "label_separation";
+		return NAME;
 	}
 
 	@Override
@@ -20,28 +20,29 @@
 package uniol.apt.analysis.fairness;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 
 import uniol.apt.adt.ts.Arc;
 import uniol.apt.adt.ts.Event;
 import uniol.apt.adt.ts.State;
 import uniol.apt.adt.ts.TransitionSystem;
-import uniol.apt.analysis.cycles.lts.ComputeSmallestCycles;
-import uniol.apt.analysis.cycles.lts.Cycle;
-import uniol.apt.util.interrupt.InterrupterRegistry;
-import uniol.apt.util.Pair;
 import uniol.apt.util.SpanningTree;
+import uniol.apt.util.interrupt.InterruptPoller;
+import uniol.apt.util.interrupt.InterrupterRegistry;
 
 /**
  * Check if a transition system is fair;
  * A transition system is fair if for every infinite firing sequence every infintely often k-activated event is fired
  * infinitely often.
  *
+ * An event is unfair if some reachable state lies on a cycle without the event and the event can be enabled from this
+ * state. Such states are found via the strongly connected components of the transition system without the event, so
+ * that no cycles have to be enumerated.
+ *
  * @author vsp
  */
 public class Fairness {
@@ -93,7 +94,18 @@ public class Fairness {
 	}
 
 	private final TransitionSystem ts;
-	private final Set<Cycle> cycles;
+	// The states reachable from the initial state. All other states are identified by their index in this list.
+	private final List<State> states = new ArrayList<>();
+	private final Map<Event, Integer> eventIds = new HashMap<>();
+	// The arcs leaving state i have the indices postStart[i] to postStart[i + 1] - 1 in the following arrays
+	private final int[] postStart;
+	private final Arc[] postArcs;
+	private final int[] postTargets;
+	private final int[] postEvents;
+	// The arcs reaching state i have the indices preStart[i] to preStart[i + 1] - 1 in the following arrays
+	private final int[] preStart;
+	private final Arc[] preArcs;
+	private final int[] preSources;
 
 	/**
 	 * Construct an instance to check fairness on a given {@link TransitionSystem}
@@ -103,96 +115,243 @@ public class Fairness {
 	public Fairness(TransitionSystem ts) {
 		this.ts = ts;
 
-		// calculate the elementary cycles which are reachable from the initial state
-		Set<State> unreachable = SpanningTree.get(ts, ts.getInitialState()).getUnreachableNodes();
-		this.cycles = new HashSet<>();
-		for (Cycle c : new ComputeSmallestCycles().computePVsOfSmallestCyclesViaCycleSearch(ts, false)) {
-			if (!unreachable.contains(c.getNodes().iterator().next())) {
-				// All states of a cycle are reachable iff any state on it is reachable
-				this.cycles.add(c);
+		// Number the states which are reachable from the initial state; only they are relevant for fairness
+		Map<State, Integer> indices = new HashMap<>();
+		List<Arc> arcs = new ArrayList<>();
+		List<Integer> starts = new ArrayList<>();
+		states.add(ts.getInitialState());
+		indices.put(ts.getInitialState(), 0);
+		for (int i = 0; i < states.size(); i++) {
+			InterrupterRegistry.throwIfInterruptRequestedForCurrentThread();
+			starts.add(arcs.size());
+			for (Arc arc : states.get(i).getPostsetEdges()) {
+				arcs.add(arc);
+				if (!indices.containsKey(arc.getTarget())) {
+					indices.put(arc.getTarget(), states.size());
+					states.add(arc.getTarget());
+				}
+				if (!eventIds.containsKey(arc.getEvent()))
+					eventIds.put(arc.getEvent(), eventIds.size());
+			}
+		}
+
+		int numStates = states.size();
+		int numArcs = arcs.size();
+		postStart = new int[numStates + 1];
+		postArcs = arcs.toArray(new Arc[numArcs]);
+		postTargets = new int[numArcs];
+		postEvents = new int[numArcs];
+		preStart = new int[numStates + 1];
+		preArcs = new Arc[numArcs];
+		preSources = new int[numArcs];
+		for (int i = 0; i < numStates; i++)
+			postStart[i] = starts.get(i);
+		postStart[numStates] = numArcs;
+		for (int a = 0; a < numArcs; a++) {
+			postTargets[a] = indices.get(postArcs[a].getTarget());
+			postEvents[a] = eventIds.get(postArcs[a].getEvent());
+			preStart[postTargets[a] + 1]++;
+		}
+		for (int i = 0; i < numStates; i++)
+			preStart[i + 1] += preStart[i];
+		int[] fill = Arrays.copyOf(preStart, numStates);
+		for (int source = 0; source < numStates; source++) {
+			for (int a = postStart[source]; a < postStart[source + 1]; a++) {
+				int pos = fill[postTargets[a]]++;
+				preArcs[pos] = postArcs[a];
+				preSources[pos] = source;
 			}
 		}
 	}
 
 	/**
-	 * Check if a given event is k-unfair
+	 * Check if a given event is k-unfair. The returned witness is a state which lies on a cycle without the event
+	 * and from which the event can be enabled by firing as few events as possible. Thus, the witness does not
+	 * depend on k.
 	 *
 	 * @param e The event to check
 	 * @param k The value for k in k-unfairness
 	 * @return An instance of FairnessResult describing the result. This function never returns null.
 	 */
 	public FairnessResult checkEvent(Event e, int k) {
-		// Step 1: Calculate for each state how many events must at least get fired to enable the given event
-		// how many events do we need to fire?
-		Map<State, Integer> unfairness = new HashMap<>();
+		Integer eventId = eventIds.get(e);
+		if (eventId == null)
+			// The event is not enabled in any reachable state
+			return new FairnessResult(this.ts);
+		int event = eventId;
+		int numStates = states.size();
+		InterruptPoller poller = new InterruptPoller();
+
+		// Step 1: Find the states which lie on a cycle that does not contain the given event. These are the
+		// states in non-trivial strongly connected components of the transition system without the event.
+		int[] component = new int[numStates];
+		boolean[] onCycle = findStatesOnCyclesWithout(event, component);
+
+		// Step 2: Calculate for each state how many events must at least get fired to enable the given event by
+		// a backwards breadth-first search. The first state on a cycle that is found needs the fewest events.
+		int[] distance = new int[numStates];
+		Arrays.fill(distance, -1);
 		// which arc do we need to fire next to finally enable the event?
-		Map<State, Arc> successors = new HashMap<>();
-		int d = 0;
-		Set<State> prevDepthStates = new HashSet<>();
-		for (Arc a : this.ts.getEdges()) {
-			InterrupterRegistry.throwIfInterruptRequestedForCurrentThread();
-			if (e.equals(a.getEvent())) {
-				State src = a.getSource();
-				unfairness.put(src, 0);
-				prevDepthStates.add(src);
-			}
-		}
-		while (!prevDepthStates.isEmpty()) {
-			InterrupterRegistry.throwIfInterruptRequestedForCurrentThread();
-			d++;
-			Set<State> curDepthStates = new HashSet<>();
-			for (State s : prevDepthStates) {
-				for (Arc a : s.getPresetEdges()) {
-					State src = a.getSource();
-					if (unfairness.containsKey(src))
-						continue;
-					unfairness.put(src, d);
-					successors.put(src, a);
-					curDepthStates.add(src);
+		Arc[] successorArcs = new Arc[numStates];
+		int[] successors = new int[numStates];
+		int[] queue = new int[numStates];
+		int queueEnd = 0;
+		for (int state = 0; state < numStates; state++) {
+			for (int a = postStart[state]; a < postStart[state + 1]; a++) {
+				if (postEvents[a] == event) {
+					distance[state] = 0;
+					queue[queueEnd++] = state;
+					break;
 				}
 			}
-			prevDepthStates = curDepthStates;
 		}
-
-		// Step 2: Search every cycle which doesn't contain the given event for the smallest distance to
-		// enabling the event
-		State witness = null;
-		int witnessDistance = Integer.MAX_VALUE;
-		List<Arc> witnessCycle = null;
-		int witnessPos = Integer.MAX_VALUE;
-		for (Cycle c : this.cycles) {
-			InterrupterRegistry.throwIfInterruptRequestedForCurrentThread();
-			if (c.getParikhVector().get(e.getLabel()) > 0)
-				continue;
-			int i = -1;
-			for (State s : c.getNodes()) {
-				i++;
-				Integer distance = unfairness.get(s);
-				if (distance == null)
+		int witness = -1;
+		for (int queueStart = 0; queueStart < queueEnd; queueStart++) {
+			poller.poll();
+			int state = queue[queueStart];
+			if (onCycle[state]) {
+				witness = state;
+				break;
+			}
+			for (int a = preStart[state]; a < preStart[state + 1]; a++) {
+				int source = preSources[a];
+				if (distance[source] != -1)
 					continue;
-				if (witness == null || distance < witnessDistance) {
-					witness         = s;
-					witnessCycle    = new ArrayList<>(c.getArcs());
-					witnessDistance = distance;
-					witnessPos      = i;
-				}
+				distance[source] = distance[state] + 1;
+				successorArcs[source] = preArcs[a];
+				successors[source] = state;
+				queue[queueEnd++] = source;
 			}
-			if (witnessDistance <= k)
-				break;
 		}
 
-		if (witness == null)
+		if (witness == -1)
 			return new FairnessResult(this.ts);
 
-		Collections.rotate(witnessCycle, -witnessPos);
-		List<Arc> sequence = SpanningTree.get(this.ts, this.ts.getInitialState()).getEdgePathFromStart(witness);
+		// Step 3: Construct the witness
+		State witnessState = states.get(witness);
+		List<Arc> cycle = findCycleWithout(witness, event, component);
+		List<Arc> sequence = SpanningTree.get(this.ts, this.ts.getInitialState())
+			.getEdgePathFromStart(witnessState);
 		List<Arc> enabling = new ArrayList<>();
+		for (int state = witness; distance[state] > 0; state = successors[state])
+			enabling.add(successorArcs[state]);
+
+		return new FairnessResult(this.ts, witnessState, e, distance[witness], sequence, cycle, enabling);
+	}
+
+	/**
+	 * Calculate the strongly connected components of the transition system without arcs with the given event via
+	 * an iterative version of Tarjan's algorithm.
+	 * @param event The event whose arcs are ignored.
+	 * @param component Array which is filled with the number of the component of each state.
+	 * @return An array describing which states lie on a cycle without the given event.
+	 */
+	private boolean[] findStatesOnCyclesWithout(int event, int[] component) {
+		int numStates = states.size();
+		boolean[] result = new boolean[numStates];
+		int[] dfsNumber = new int[numStates];
+		int[] lowLink = new int[numStates];
+		int[] nextArc = new int[numStates];
+		boolean[] onStack = new boolean[numStates];
+		int[] stack = new int[numStates];
+		int[] callStack = new int[numStates];
+		int stackSize = 0;
+		int nextDfsNumber = 1;
+		int numComponents = 0;
+		InterruptPoller poller = new InterruptPoller();
+
+		for (int root = 0; root < numStates; root++) {
+			if (dfsNumber[root] != 0)
+				continue;
+			int depth = 0;
+			callStack[depth++] = root;
+			dfsNumber[root] = lowLink[root] = nextDfsNumber++;
+			nextArc[root] = postStart[root];
+			stack[stackSize++] = root;
+			onStack[root] = true;
+
+			while (depth > 0) {
+				poller.poll();
+				int state = callStack[depth - 1];
+				if (nextArc[state] < postStart[state + 1]) {
+					int a = nextArc[state]++;
+					if (postEvents[a] == event)
+						continue;
+					int target = postTargets[a];
+					if (target == state) {
+						result[state] = true;
+					} else if (dfsNumber[target] == 0) {
+						callStack[depth++] = target;
+						dfsNumber[target] = lowLink[target] = nextDfsNumber++;
+						nextArc[target] = postStart[target];
+						stack[stackSize++] = target;
+						onStack[target] = true;
+					} else if (onStack[target]) {
+						lowLink[state] = Math.min(lowLink[state], dfsNumber[target]);
+					}
+					continue;
+				}
 
-		for (Arc a = successors.get(witness); a != null; a = successors.get(a.getTarget())) {
-			enabling.add(a);
+				// All successors were handled, so return from this state
+				depth--;
+				if (depth > 0) {
+					int parent = callStack[depth - 1];
+					lowLink[parent] = Math.min(lowLink[parent], lowLink[state]);
+				}
+				if (lowLink[state] != dfsNumber[state])
+					continue;
+				int oldStackSize = stackSize;
+				do {
+					stackSize--;
+					onStack[stack[stackSize]] = false;
+					component[stack[stackSize]] = numComponents;
+				} while (stack[stackSize] != state);
+				if (oldStackSize - stackSize > 1)
+					for (int i = stackSize; i < oldStackSize; i++)
+						result[stack[i]] = true;
+				numComponents++;
+			}
 		}
+		return result;
+	}
 
-		return new FairnessResult(this.ts, witness, e, witnessDistance, sequence, witnessCycle, enabling);
+	/**
+	 * Find a shortest cycle through the given state which does not contain the given event.
+	 * @param start The state which the cycle should start and end in.
+	 * @param event The event which may not appear on the cycle.
+	 * @param component The strongly connected components of the transition system without the event.
+	 * @return The arcs of the cycle.
+	 */
+	private List<Arc> findCycleWithout(int start, int event, int[] component) {
+		int numStates = states.size();
+		int[] parentArc = new int[numStates];
+		int[] parent = new int[numStates];
+		Arrays.fill(parentArc, -1);
+		int[] queue = new int[numStates];
+		int queueEnd = 0;
+		queue[queueEnd++] = start;
+		for (int queueStart = 0; queueStart < queueEnd; queueStart++) {
+			int state = queue[queueStart];
+			for (int a = postStart[state]; a < postStart[state + 1]; a++) {
+				int target = postTargets[a];
+				if (postEvents[a] == event || component[target] != component[start])
+					continue;
+				if (target == start) {
+					List<Arc> result = new ArrayList<>();
+					result.add(postArcs[a]);
+					for (int s = state; s != start; s = parent[s])
+						result.add(postArcs[parentArc[s]]);
+					Collections.reverse(result);
+					return result;
+				}
+				if (parentArc[target] != -1)
+					continue;
+				parentArc[target] = a;
+				parent[target] = state;
+				queue[queueEnd++] = target;
+			}
+		}
+		throw new AssertionError("State " + states.get(start) + " is not on a cycle without event " + event);
 	}
 }
 
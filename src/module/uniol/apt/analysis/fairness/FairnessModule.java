@@ -40,6 +40,8 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class FairnessModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "fairness";
+
 	@Override
 	public String getShortDescription() {
 		return "Check if a Petri net or transition system is fair";
@@ -54,7 +56,7 @@ public class FairnessModule extends AbstractModule implements InterruptibleModul
 
 	@Override
 	public String getName() {
-		return "fairness";
+		return NAME;
 	}
 
 	@Override
@@ -38,9 +38,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class FCModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "fc";
+
 	@Override
 	public String getName() {
-		return "fc";
+		return NAME;
 	}
 
 	@Override
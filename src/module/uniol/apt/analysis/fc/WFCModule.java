@@ -39,9 +39,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class WFCModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "wfc";
+
 	@Override
 	public String getName() {
-		return "wfc";
+		return NAME;
 	}
 
 	@Override
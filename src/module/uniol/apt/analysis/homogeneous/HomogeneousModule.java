@@ -38,9 +38,11 @@ import uniol.apt.util.Pair;
  */
 @AptModule
 public class HomogeneousModule extends AbstractModule implements InterruptibleModule {
+	private final static String NAME = "homogeneous";
+
 	@Override
 	public String getName() {
-		return "homogeneous";
+		return NAME;
 	}
 
 	@Override
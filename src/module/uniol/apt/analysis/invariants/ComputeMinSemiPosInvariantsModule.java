@@ -59,7 +59,9 @@ public class ComputeMinSemiPosInvariantsModule extends AbstractModule implements
 			+ "and 't' for t-invariants.");
 		inputSpec.addOptionalParameterWithDefault("algo", InvariantCalculator.InvariantAlgorithm.class,
 				InvariantCalculator.InvariantAlgorithm.PIPE, "p",
-				"Parameter 'f' for Farkas algorithm and 'p' for the adapted Farkas algorithm of PIPE.");
+				"Parameter 'f' for Farkas algorithm, 'p' for the adapted Farkas algorithm of PIPE and"
+				+ " 's' for the sparse Farkas algorithm which only computes minimal-support"
+				+ " invariants.");
 	}
 
 	@Override
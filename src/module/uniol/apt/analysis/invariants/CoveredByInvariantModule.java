@@ -57,7 +57,9 @@ public class CoveredByInvariantModule extends AbstractModule implements Interrup
 			+ "and 't' for t-invariants.");
 		inputSpec.addOptionalParameterWithDefault("algo", InvariantCalculator.InvariantAlgorithm.class,
 				InvariantCalculator.InvariantAlgorithm.PIPE, "p",
-				"Parameter 'f' for farkas algorithm and 'p' for the adapted farkas algorithm of pipe.");
+				"Parameter 'f' for Farkas algorithm, 'p' for the adapted Farkas algorithm of PIPE and"
+				+ " 's' for the sparse Farkas algorithm which only computes minimal-support"
+				+ " invariants.");
 	}
 
 	@Override
@@ -43,6 +43,8 @@ import uniol.apt.util.Pair;
  * based on the paper of D'Anna and Trigila "Concurrent system analysis using
  * Petri nets – an optimised algorithm for finding net invariants", Mario D'Anna
  * and Sebastiano Trigila, Computer Communications vol 11, no. 4 august 1988.
+ * Additionally, {@link SparseInvariantCalculator} implements the farkas
+ * algorithm on sparse rows and only computes the minimal-support invariants.
  * @author Dennis-Michael Borde, Manuel Gieseking
  */
 public class InvariantCalculator {
@@ -59,7 +61,8 @@ public class InvariantCalculator {
 	public enum InvariantAlgorithm {
 
 		FARKAS,
-		PIPE;
+		PIPE,
+		SPARSE;
 	}
 
 	/**
@@ -520,6 +523,8 @@ public class InvariantCalculator {
 				return InvariantCalculator.calcInvariantsFarkas(pn.getIncidenceMatrix());
 			case PIPE:
 				return InvariantCalculator.calcInvariantsPIPE(transposeMatrix(pn.getIncidenceMatrix()));
+			case SPARSE:
+				return SparseInvariantCalculator.calculate(pn.getIncidenceMatrix());
 			default:
 				return InvariantCalculator.calcInvariantsFarkas(pn.getIncidenceMatrix());
 		}
@@ -550,6 +555,8 @@ public class InvariantCalculator {
 						transposeMatrix(pn.getIncidenceMatrix()));
 			case PIPE:
 				return InvariantCalculator.calcInvariantsPIPE(pn.getIncidenceMatrix());
+			case SPARSE:
+				return SparseInvariantCalculator.calculate(transposeMatrix(pn.getIncidenceMatrix()));
 			default:
 				return InvariantCalculator.calcInvariantsFarkas(
 						transposeMatrix(pn.getIncidenceMatrix()));
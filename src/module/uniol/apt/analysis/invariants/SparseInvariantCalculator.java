@@ -0,0 +1,378 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.analysis.invariants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import uniol.apt.util.MathTools;
+import uniol.apt.util.interrupt.InterruptPoller;
+import uniol.apt.util.interrupt.Interrupter;
+import uniol.apt.util.interrupt.InterrupterRegistry;
+import uniol.apt.util.interrupt.UncheckedInterruptedException;
+
+/**
+ * Calculates the minimal-support semi-positive invariants of a matrix with the Farkas algorithm (also known as
+ * Fourier-Motzkin elimination) on sparse rows. For a matrix with one row per place and one column per transition,
+ * this calculates S-invariants.
+ *
+ * Every row consists of the not yet eliminated part of the matrix and the invariant that it belongs to. Columns are
+ * eliminated one at a time, starting with the column that creates the fewest new rows. Two rows with opposite signs
+ * in that column are only combined if no third row has a support which is contained in the union of their supports.
+ * Thus, all rows always describe minimal-support invariants of the columns eliminated so far and no redundant rows
+ * are ever created. Supports are kept as bit sets so that this check is cheap. Combinations for a column with many
+ * candidate pairs are computed in parallel. All arithmetic is done on longs and overflows are detected.
+ * @author Uli Schlachter
+ */
+final class SparseInvariantCalculator {
+	// Columns with fewer candidate pairs than this are eliminated in the calling thread
+	static private final long PARALLEL_THRESHOLD = 4096;
+	// Number of tasks per worker thread, so that threads which finish early can help the others
+	static private final int TASKS_PER_THREAD = 4;
+
+	private SparseInvariantCalculator() {
+	}
+
+	static private final class Row {
+		// Sorted indices of the non-zero entries in the not yet eliminated columns, and their values
+		private final int[] columns;
+		private final long[] values;
+		// Sorted indices of the non-zero entries of the invariant, and their (positive) values
+		private final int[] indices;
+		private final long[] coefficients;
+		// The indices as a bit set
+		private final long[] support;
+
+		private Row(int[] columns, long[] values, int[] indices, long[] coefficients, long[] support) {
+			this.columns = columns;
+			this.values = values;
+			this.indices = indices;
+			this.coefficients = coefficients;
+			this.support = support;
+		}
+
+		private long valueAt(int column) {
+			int pos = Arrays.binarySearch(columns, column);
+			return pos < 0 ? 0 : values[pos];
+		}
+	}
+
+	/**
+	 * Calculate the minimal-support semi-positive invariants of the given matrix, i.e. the minimal-support vectors
+	 * x &ge; 0 with x*mat = 0.
+	 * @param mat The matrix.
+	 * @return The invariants, which generate all semi-positive invariants.
+	 * @throws ArithmeticException If some number does not fit into a long or an entry of an invariant does not fit
+	 * into an int.
+	 */
+	static Set<List<Integer>> calculate(int[][] mat) {
+		if (mat.length == 0 || mat[0].length == 0) {
+			return new HashSet<>();
+		}
+		int rows = mat.length;
+		int cols = mat[0].length;
+		int words = (rows + 63) >>> 6;
+
+		List<Row> current = new ArrayList<>(rows);
+		for (int i = 0; i < rows; i++) {
+			int nonZero = 0;
+			for (int j = 0; j < cols; j++)
+				if (mat[i][j] != 0)
+					nonZero++;
+			int[] columns = new int[nonZero];
+			long[] values = new long[nonZero];
+			int pos = 0;
+			for (int j = 0; j < cols; j++) {
+				if (mat[i][j] != 0) {
+					columns[pos] = j;
+					values[pos] = mat[i][j];
+					pos++;
+				}
+			}
+			long[] support = new long[words];
+			support[i >>> 6] |= 1L << i;
+			current.add(new Row(columns, values, new int[] { i }, new long[] { 1 }, support));
+		}
+
+		Interrupter interrupter = InterrupterRegistry.getCurrentThreadInterrupter();
+		ForkJoinPool pool = null;
+		try {
+			while (true) {
+				InterrupterRegistry.throwIfInterruptRequestedForCurrentThread();
+				int column = chooseColumn(current, cols);
+				if (column < 0)
+					break;
+
+				List<Row> positive = new ArrayList<>();
+				List<Row> negative = new ArrayList<>();
+				List<Row> next = new ArrayList<>();
+				for (Row row : current) {
+					long value = row.valueAt(column);
+					if (value > 0)
+						positive.add(row);
+					else if (value < 0)
+						negative.add(row);
+					else
+						next.add(row);
+				}
+
+				if ((long) positive.size() * negative.size() < PARALLEL_THRESHOLD) {
+					next.addAll(combine(current, column, positive, 0, positive.size(), negative,
+								interrupter));
+				} else {
+					if (pool == null)
+						pool = new ForkJoinPool();
+					next.addAll(combineParallel(pool, current, column, positive, negative,
+								interrupter));
+				}
+				current = next;
+			}
+		} finally {
+			if (pool != null)
+				pool.shutdownNow();
+		}
+
+		Set<List<Integer>> result = new HashSet<>();
+		for (Row row : current) {
+			List<Integer> invariant = new ArrayList<>(rows);
+			for (int i = 0; i < rows; i++)
+				invariant.add(0);
+			for (int i = 0; i < row.indices.length; i++)
+				invariant.set(row.indices[i], MathTools.toIntExact(row.coefficients[i]));
+			result.add(invariant);
+		}
+		return result;
+	}
+
+	/**
+	 * Choose the next column to eliminate. This is the column for which the number of rows increases the least.
+	 * @param rows The current rows.
+	 * @param cols The number of columns of the matrix.
+	 * @return The column or -1 if all columns are zero.
+	 */
+	static private int chooseColumn(List<Row> rows, int cols) {
+		int[] positive = new int[cols];
+		int[] negative = new int[cols];
+		for (Row row : rows) {
+			for (int i = 0; i < row.columns.length; i++) {
+				if (row.values[i] > 0)
+					positive[row.columns[i]]++;
+				else
+					negative[row.columns[i]]++;
+			}
+		}
+
+		int result = -1;
+		long best = Long.MAX_VALUE;
+		for (int j = 0; j < cols; j++) {
+			if (positive[j] == 0 && negative[j] == 0)
+				continue;
+			long growth = (long) positive[j] * negative[j] - positive[j] - negative[j];
+			if (growth < best) {
+				best = growth;
+				result = j;
+			}
+		}
+		return result;
+	}
+
+	static private List<Row> combineParallel(ForkJoinPool pool, final List<Row> rows, final int column,
+			final List<Row> positive, final List<Row> negative, final Interrupter interrupter) {
+		int tasks = Math.min(positive.size(), pool.getParallelism() * TASKS_PER_THREAD);
+		List<Callable<List<Row>>> callables = new ArrayList<>(tasks);
+		for (int task = 0; task < tasks; task++) {
+			final int from = (int) ((long) positive.size() * task / tasks);
+			final int to = (int) ((long) positive.size() * (task + 1) / tasks);
+			callables.add(new Callable<List<Row>>() {
+				@Override
+				public List<Row> call() {
+					return combine(rows, column, positive, from, to, negative, interrupter);
+				}
+			});
+		}
+
+		List<Row> result = new ArrayList<>();
+		try {
+			for (Future<List<Row>> future : pool.invokeAll(callables))
+				result.addAll(future.get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new UncheckedInterruptedException();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new RuntimeException(cause);
+		}
+		return result;
+	}
+
+	/**
+	 * Combine some positive rows with all negative rows so that the given column becomes zero.
+	 * @param rows All current rows, used for the minimality check.
+	 * @param column The column that is eliminated.
+	 * @param positive The rows with a positive entry in the column.
+	 * @param from The index of the first positive row to handle.
+	 * @param to The index after the last positive row to handle.
+	 * @param negative The rows with a negative entry in the column.
+	 * @param interrupter The interrupter to poll.
+	 * @return The combined rows.
+	 */
+	static private List<Row> combine(List<Row> rows, int column, List<Row> positive, int from, int to,
+			List<Row> negative, Interrupter interrupter) {
+		InterruptPoller poller = new InterruptPoller(interrupter, InterruptPoller.DEFAULT_INTERVAL);
+		List<Row> result = new ArrayList<>();
+		long[] union = null;
+		for (int i = from; i < to; i++) {
+			Row first = positive.get(i);
+			for (Row second : negative) {
+				poller.poll();
+				if (union == null)
+					union = new long[first.support.length];
+				for (int w = 0; w < union.length; w++)
+					union[w] = first.support[w] | second.support[w];
+				if (!isMinimal(union, first, second, rows))
+					continue;
+				result.add(combine(first, second, column, union));
+				union = null;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Check if the combination of two rows would have a minimal support. This is the case if no other row has a
+	 * support that is contained in the union of their supports.
+	 * @param union The union of the supports of both rows.
+	 * @param first The first row.
+	 * @param second The second row.
+	 * @param rows All current rows.
+	 * @return true if the combination has a minimal support.
+	 */
+	static private boolean isMinimal(long[] union, Row first, Row second, List<Row> rows) {
+		for (Row row : rows) {
+			if (row == first || row == second)
+				continue;
+			boolean contained = true;
+			for (int w = 0; w < union.length; w++) {
+				if ((row.support[w] & ~union[w]) != 0) {
+					contained = false;
+					break;
+				}
+			}
+			if (contained)
+				return false;
+		}
+		return true;
+	}
+
+	static private Row combine(Row first, Row second, int column, long[] support) {
+		long a = first.valueAt(column);
+		long b = -second.valueAt(column);
+		long gcd = MathTools.gcd(a, b);
+		long factorFirst = b / gcd;
+		long factorSecond = a / gcd;
+
+		// Merge the remaining matrix parts, dropping the eliminated column and everything that cancels out
+		int[] columns = new int[first.columns.length + second.columns.length];
+		long[] values = new long[columns.length];
+		int size = 0;
+		int i = 0;
+		int j = 0;
+		while (i < first.columns.length || j < second.columns.length) {
+			int col;
+			long value;
+			if (j >= second.columns.length
+					|| (i < first.columns.length && first.columns[i] < second.columns[j])) {
+				col = first.columns[i];
+				value = MathTools.multiplyExact(factorFirst, first.values[i++]);
+			} else if (i >= first.columns.length || second.columns[j] < first.columns[i]) {
+				col = second.columns[j];
+				value = MathTools.multiplyExact(factorSecond, second.values[j++]);
+			} else {
+				col = first.columns[i];
+				value = MathTools.addExact(MathTools.multiplyExact(factorFirst, first.values[i++]),
+						MathTools.multiplyExact(factorSecond, second.values[j++]));
+			}
+			if (value != 0 && col != column) {
+				columns[size] = col;
+				values[size] = value;
+				size++;
+			}
+		}
+		columns = Arrays.copyOf(columns, size);
+		values = Arrays.copyOf(values, size);
+
+		// Merge the invariants. All coefficients are positive, so nothing cancels out.
+		int[] indices = new int[countBits(support)];
+		long[] coefficients = new long[indices.length];
+		size = 0;
+		i = 0;
+		j = 0;
+		while (i < first.indices.length || j < second.indices.length) {
+			if (j >= second.indices.length
+					|| (i < first.indices.length && first.indices[i] < second.indices[j])) {
+				indices[size] = first.indices[i];
+				coefficients[size] = MathTools.multiplyExact(factorFirst, first.coefficients[i++]);
+			} else if (i >= first.indices.length || second.indices[j] < first.indices[i]) {
+				indices[size] = second.indices[j];
+				coefficients[size] = MathTools.multiplyExact(factorSecond, second.coefficients[j++]);
+			} else {
+				indices[size] = first.indices[i];
+				coefficients[size] = MathTools.addExact(
+						MathTools.multiplyExact(factorFirst, first.coefficients[i++]),
+						MathTools.multiplyExact(factorSecond, second.coefficients[j++]));
+			}
+			size++;
+		}
+
+		// Normalize so that the numbers stay small
+		long divisor = 0;
+		for (long value : values)
+			divisor = MathTools.gcd(divisor, value);
+		for (long value : coefficients)
+			divisor = MathTools.gcd(divisor, value);
+		if (divisor > 1) {
+			for (int k = 0; k < values.length; k++)
+				values[k] /= divisor;
+			for (int k = 0; k < coefficients.length; k++)
+				coefficients[k] /= divisor;
+		}
+		return new Row(columns, values, indices, coefficients, support);
+	}
+
+	static private int countBits(long[] words) {
+		int result = 0;
+		for (int w = 0; w < words.length; w++)
+			result += Long.bitCount(words[w]);
+		return result;
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -38,9 +38,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class IsolatedModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "isolated";
+
 	@Override
 	public String getName() {
-		return "isolated";
+		return NAME;
 	}
 
 	@Override
@@ -20,6 +20,11 @@
 package uniol.apt.analysis.isomorphism;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 
@@ -53,15 +58,80 @@ public class IsomorphismLogic {
 	 *                    Otherwise labels are ignored.
 	 */
 	public IsomorphismLogic(TransitionSystem lts1, TransitionSystem lts2, boolean checkLabels) {
-		isomorphism = construct(lts1, lts2, checkLabels);
+		isomorphism = construct(lts1, lts2, checkLabels, null, null);
 	}
 
-	private static BidiMap<State, State> construct(TransitionSystem lts1, TransitionSystem lts2, boolean checkLabels) {
+	/**
+	 * Constructor for testing if two labelled transition systems are isomorphic when their fingerprints are
+	 * already known. If the fingerprints differ, the transition systems are not isomorphic and nothing else has
+	 * to be done.
+	 *
+	 * @param fingerprint1 The fingerprint of the first LTS to test.
+	 * @param fingerprint2 The fingerprint of the second LTS to test. It must have been computed with the same value
+	 *                     for checkLabels as the first fingerprint.
+	 */
+	public IsomorphismLogic(LTSFingerprint fingerprint1, LTSFingerprint fingerprint2) {
+		if (fingerprint1.isCheckingLabels() != fingerprint2.isCheckingLabels())
+			throw new IllegalArgumentException("The fingerprints must be computed with the same value for "
+					+ "checkLabels");
+		isomorphism = construct(fingerprint1.getTransitionSystem(), fingerprint2.getTransitionSystem(),
+				fingerprint1.isCheckingLabels(), fingerprint1, fingerprint2);
+	}
+
+	/**
+	 * Partition some labelled transition systems into classes of isomorphic transition systems. The fingerprint of
+	 * each transition system is only computed once. A full isomorphism check is only done for transition systems
+	 * with equal fingerprints.
+	 *
+	 * @param ltss The transition systems to partition.
+	 * @param checkLabels If true, "strong isomorphism" is tested and labels have to be identical between the LTS.
+	 *                    Otherwise labels are ignored.
+	 * @return The isomorphism classes. Classes and their members are in the order of the input.
+	 */
+	public static List<List<TransitionSystem>> getIsomorphismClasses(Collection<TransitionSystem> ltss,
+			boolean checkLabels) {
+		List<List<TransitionSystem>> result = new ArrayList<>();
+		// For each fingerprint, the fingerprints of the first member of each class and the class
+		Map<LTSFingerprint, List<Pair<LTSFingerprint, List<TransitionSystem>>>> candidates = new HashMap<>();
+		for (TransitionSystem lts : ltss) {
+			InterrupterRegistry.throwIfInterruptRequestedForCurrentThread();
+
+			LTSFingerprint fingerprint = new LTSFingerprint(lts, checkLabels);
+			List<Pair<LTSFingerprint, List<TransitionSystem>>> classes = candidates.get(fingerprint);
+			if (classes == null) {
+				classes = new ArrayList<>();
+				candidates.put(fingerprint, classes);
+			}
+
+			boolean found = false;
+			for (Pair<LTSFingerprint, List<TransitionSystem>> cls : classes) {
+				if (new IsomorphismLogic(cls.getFirst(), fingerprint).isIsomorphic()) {
+					cls.getSecond().add(lts);
+					found = true;
+					break;
+				}
+			}
+			if (!found) {
+				List<TransitionSystem> cls = new ArrayList<>();
+				cls.add(lts);
+				classes.add(new Pair<>(fingerprint, cls));
+				result.add(cls);
+			}
+		}
+		return result;
+	}
+
+	private static BidiMap<State, State> construct(TransitionSystem lts1, TransitionSystem lts2,
+			boolean checkLabels, LTSFingerprint fingerprint1, LTSFingerprint fingerprint2) {
 		// Check trivial case
 		if (lts1.getNodes().size() != lts2.getNodes().size()) {
 			return new DualHashBidiMap<>();
 		}
 
+		if (fingerprint1 != null && !fingerprint1.equals(fingerprint2)) {
+			return new DualHashBidiMap<>();
+		}
+
 		if (checkLabels) {
 			boolean precond1 = checkPreconditions(lts1);
 			boolean precond2 = checkPreconditions(lts2);
@@ -74,6 +144,8 @@ public class IsomorphismLogic {
 				return checkViaDepthSearch(lts1, lts2);
 		}
 
+		if (fingerprint1 != null)
+			return new IsomorphismLogicComplex(fingerprint1, fingerprint2).getIsomorphism();
 		return new IsomorphismLogicComplex(lts1, lts2, checkLabels).getIsomorphism();
 	}
 
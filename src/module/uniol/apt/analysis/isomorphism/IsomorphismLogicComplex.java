@@ -19,12 +19,13 @@
 
 package uniol.apt.analysis.isomorphism;
 
-import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.Set;
 
 import org.apache.commons.collections4.BidiMap;
 import org.apache.commons.collections4.bidimap.DualHashBidiMap;
@@ -33,8 +34,7 @@ import static org.apache.commons.collections4.bidimap.UnmodifiableBidiMap.unmodi
 import uniol.apt.adt.ts.Arc;
 import uniol.apt.adt.ts.State;
 import uniol.apt.adt.ts.TransitionSystem;
-import uniol.apt.util.interrupt.InterrupterRegistry;
-import uniol.apt.util.Pair;
+import uniol.apt.util.interrupt.InterruptPoller;
 
 /**
  * Check if two transition systems are isomorphic. Optionally, it is possible to ignore edge labels or require them to
@@ -42,26 +42,43 @@ import uniol.apt.util.Pair;
  * This code is a (more or less direct) port of the code of a diploma
  * thesis by Florian Hinz. The original code is written in C++.
  *
+ * States are numbered so that all tables of the search are plain arrays. Before the search starts, the {@link
+ * LTSFingerprint fingerprints} of both transition systems are compared. Only states of the same colour are paired.
+ *
  * @author Florian Hinz, Maike Schwammberger, Uli Schlachter
  */
 public class IsomorphismLogicComplex {
+	static private final int NONE = -1;
+
 	private Deque<ExtendedState> finalState = new LinkedList<>();
 	private final BidiMap<State, State> isomorphism = new DualHashBidiMap<>();
 
 	private final int numNodes;
-	private final TransitionSystem graph1;
-	private final TransitionSystem graph2;
-	private final List<State> nodes1List = new ArrayList<>();
-	private final List<State> nodes2List = new ArrayList<>();
-	private final Map<State, State> core1 = new HashMap<>();
-	private final Map<State, State> core2 = new HashMap<>();
-	private final Map<State, Integer> in1 = new HashMap<>();
-	private final Map<State, Integer> in2 = new HashMap<>();
-	private final Map<State, Integer> out1 = new HashMap<>();
-	private final Map<State, Integer> out2 = new HashMap<>();
 	private final boolean result;
 	private final boolean checkLabels;
 
+	// The states of both transition systems. The initial state has index 0.
+	private State[] nodes1;
+	private State[] nodes2;
+	private long[] colours1;
+	private long[] colours2;
+	// For state i, succ1[i][j] is a successor reached via an arc with label succLabels1[i][j]
+	private int[][] succ1;
+	private String[][] succLabels1;
+	private int[][] pred1;
+	private String[][] predLabels1;
+	private int[][] succ2;
+	private String[][] succLabels2;
+	private int[][] pred2;
+	private String[][] predLabels2;
+	// The partial mapping or NONE
+	private int[] core1;
+	private int[] core2;
+	// The depth at which a state was added to the terminal sets or NONE
+	private int[] in1;
+	private int[] in2;
+	private int[] out1;
+	private int[] out2;
 
 	/**
 	 * Constructor for testing if two labelled transition systems are isomorphic.
@@ -72,9 +89,23 @@ public class IsomorphismLogicComplex {
 	 *                    Otherwise labels are ignored.
 	 */
 	public IsomorphismLogicComplex(TransitionSystem lts1, TransitionSystem lts2, boolean checkLabels) {
+		this(lts1, lts2, checkLabels, null, null);
+	}
+
+	/**
+	 * Constructor for testing if two labelled transition systems are isomorphic with already computed fingerprints.
+	 *
+	 * @param fingerprint1 The fingerprint of the first LTS to test.
+	 * @param fingerprint2 The fingerprint of the second LTS to test.
+	 */
+	IsomorphismLogicComplex(LTSFingerprint fingerprint1, LTSFingerprint fingerprint2) {
+		this(fingerprint1.getTransitionSystem(), fingerprint2.getTransitionSystem(),
+				fingerprint1.isCheckingLabels(), fingerprint1, fingerprint2);
+	}
+
+	private IsomorphismLogicComplex(TransitionSystem lts1, TransitionSystem lts2, boolean checkLabels,
+			LTSFingerprint fingerprint1, LTSFingerprint fingerprint2) {
 		this.checkLabels = checkLabels;
-		this.graph1 = lts1;
-		this.graph2 = lts2;
 		numNodes = lts1.getNodes().size();
 
 		// Check trivial case
@@ -83,29 +114,102 @@ public class IsomorphismLogicComplex {
 			return;
 		}
 
-		// Add all nodes into the list so that the initial state gets index 0
-		nodes1List.add(lts1.getInitialState());
-		for (State n : lts1.getNodes()) {
-			if (!n.equals(lts1.getInitialState())) {
-				nodes1List.add(n);
-			}
+		if (fingerprint1 == null)
+			fingerprint1 = new LTSFingerprint(lts1, checkLabels);
+		if (fingerprint2 == null)
+			fingerprint2 = new LTSFingerprint(lts2, checkLabels);
+		if (fingerprint1.isCheckingLabels() != checkLabels || fingerprint2.isCheckingLabels() != checkLabels)
+			throw new IllegalArgumentException("The fingerprints must be computed with checkLabels="
+					+ checkLabels);
+		if (!fingerprint1.equals(fingerprint2)) {
+			result = false;
+			return;
 		}
-		nodes2List.add(lts2.getInitialState());
-		for (State n : lts2.getNodes()) {
-			if (!n.equals(lts2.getInitialState())) {
-				nodes2List.add(n);
-			}
+
+		nodes1 = getNodes(lts1);
+		nodes2 = getNodes(lts2);
+		colours1 = getColours(nodes1, fingerprint1);
+		colours2 = getColours(nodes2, fingerprint2);
+
+		Map<State, Integer> index1 = getIndices(nodes1);
+		succ1 = new int[numNodes][];
+		succLabels1 = new String[numNodes][];
+		pred1 = new int[numNodes][];
+		predLabels1 = new String[numNodes][];
+		for (int i = 0; i < numNodes; i++) {
+			fillArcs(nodes1[i].getPostsetEdges(), true, index1, succ1, succLabels1, i);
+			fillArcs(nodes1[i].getPresetEdges(), false, index1, pred1, predLabels1, i);
+		}
+
+		Map<State, Integer> index2 = getIndices(nodes2);
+		succ2 = new int[numNodes][];
+		succLabels2 = new String[numNodes][];
+		pred2 = new int[numNodes][];
+		predLabels2 = new String[numNodes][];
+		for (int i = 0; i < numNodes; i++) {
+			fillArcs(nodes2[i].getPostsetEdges(), true, index2, succ2, succLabels2, i);
+			fillArcs(nodes2[i].getPresetEdges(), false, index2, pred2, predLabels2, i);
 		}
 
+		core1 = newTable();
+		core2 = newTable();
+		in1 = newTable();
+		in2 = newTable();
+		out1 = newTable();
+		out2 = newTable();
+
 		/*
 		 * Create zeroth state
 		 * (this one doesn't yet include any pair of isomorphic nodes, of course).
 		 * Then start isomorphism-check for zeroth state.
 		 */
-		result = doMatch(new ExtendedState());
+		result = doMatch(new SearchState());
+	}
+
+	// Add all nodes into an array so that the initial state gets index 0
+	static private State[] getNodes(TransitionSystem lts) {
+		State[] result = new State[lts.getNodes().size()];
+		int index = 0;
+		result[index++] = lts.getInitialState();
+		for (State n : lts.getNodes()) {
+			if (!n.equals(lts.getInitialState())) {
+				result[index++] = n;
+			}
+		}
+		return result;
+	}
+
+	static private long[] getColours(State[] nodes, LTSFingerprint fingerprint) {
+		long[] result = new long[nodes.length];
+		for (int i = 0; i < nodes.length; i++)
+			result[i] = fingerprint.getColour(nodes[i]);
+		return result;
+	}
+
+	static private Map<State, Integer> getIndices(State[] nodes) {
+		Map<State, Integer> result = new HashMap<>();
+		for (int i = 0; i < nodes.length; i++)
+			result.put(nodes[i], i);
+		return result;
 	}
 
+	static private void fillArcs(Set<Arc> arcs, boolean forward, Map<State, Integer> indices, int[][] nodes,
+			String[][] labels, int index) {
+		nodes[index] = new int[arcs.size()];
+		labels[index] = new String[arcs.size()];
+		int i = 0;
+		for (Arc arc : arcs) {
+			nodes[index][i] = indices.get(forward ? arc.getTarget() : arc.getSource());
+			labels[index][i] = arc.getLabel();
+			i++;
+		}
+	}
 
+	private int[] newTable() {
+		int[] result = new int[numNodes];
+		Arrays.fill(result, NONE);
+		return result;
+	}
 
 	/**
 	 * Returns result of algorithm.
@@ -121,21 +225,23 @@ public class IsomorphismLogicComplex {
 	 * @param state current state
 	 * @return true if node-pair m, n in state s is isomorphic.
 	 */
-	private boolean doMatch(ExtendedState state) {
+	private boolean doMatch(SearchState state) {
+		InterruptPoller poller = new InterruptPoller();
+
 		// Statal-tree, that stores all states
-		Deque<ExtendedState> states = new LinkedList<>();
+		Deque<SearchState> states = new ArrayDeque<>();
 
 		// Add current state to list of states
 		states.addLast(state);
 		int depth = 0;
 
 		while (!states.isEmpty()) {
-			ExtendedState s = states.getLast();
+			SearchState s = states.getLast();
 			depth = s.depth;
 
 			if (depth > 0) {
-				core1.put(s.n, s.m);
-				core2.put(s.m, s.n);
+				core1[s.n] = s.m;
+				core2[s.m] = s.n;
 			}
 			if (depth == numNodes) {
 				break;
@@ -144,16 +250,14 @@ public class IsomorphismLogicComplex {
 				computeTerminalSets(depth, s);
 			}
 
-			Pair<State, State> node = computeP(depth, s);
+			int n = computeP(depth, s);
 
-			State n, m;
 			//boolean that is true, if (m, n) is an isomorphic pair
 			boolean goodState = false;
 			s.active = true;
-			for (; node != null; node = computeP(depth, s)) {
-				InterrupterRegistry.throwIfInterruptRequestedForCurrentThread();
-				n = node.getFirst();
-				m = node.getSecond();
+			for (; n != NONE; n = computeP(depth, s)) {
+				poller.poll();
+				int m = s.candidate;
 
 				//if (m,n) is an isomorphic pair
 				if (isFeasible(n, m)) {
@@ -161,22 +265,22 @@ public class IsomorphismLogicComplex {
 
 					//increment depth because of new isomorphic pair and
 					//set new pair (n,m) as current pair in new state
-					ExtendedState news = new ExtendedState(s, depth + 1, n, m);
+					SearchState news = new SearchState(s, depth + 1, n, m);
 
-					if (!in1.containsKey(n)) {
-						in1.put(n, depth + 1);
+					if (in1[n] == NONE) {
+						in1[n] = depth + 1;
 						news.numin1++;
 					}
-					if (!out1.containsKey(n)) {
-						out1.put(n, depth + 1);
+					if (out1[n] == NONE) {
+						out1[n] = depth + 1;
 						news.numout1++;
 					}
-					if (!in2.containsKey(m)) {
-						in2.put(m, depth + 1);
+					if (in2[m] == NONE) {
+						in2[m] = depth + 1;
 						news.numin2++;
 					}
-					if (!out2.containsKey(m)) {
-						out2.put(m, depth + 1);
+					if (out2[m] == NONE) {
+						out2[m] = depth + 1;
 						news.numout2++;
 					}
 
@@ -190,17 +294,20 @@ public class IsomorphismLogicComplex {
 			//Discard current state if no isomorphic pair has been found
 			if (!goodState) {
 				rollback(depth, s.n, s.m);
-				ExtendedState last = states.removeLast();
+				SearchState last = states.removeLast();
 				assert last == s;
 			}
 
 		}
 
 		//Set final state, to get pairs of isomorphic nodes.
-		this.finalState = states;
-		for (ExtendedState ext : states) {
-			if (ext.depth > 0)
-				isomorphism.put(ext.n, ext.m);
+		for (SearchState s : states) {
+			if (s.depth > 0) {
+				finalState.add(new ExtendedState(nodes1[s.n], nodes2[s.m]));
+				isomorphism.put(nodes1[s.n], nodes2[s.m]);
+			} else {
+				finalState.add(new ExtendedState(null, null));
+			}
 		}
 
 		return (depth == numNodes);
@@ -213,26 +320,26 @@ public class IsomorphismLogicComplex {
 	 * @param nodeN current node of lts1
 	 * @param nodeM current node of lts2
 	 */
-	private void rollback(int depth, State nodeN, State nodeM) {
-		State old;
-		old = core1.remove(nodeN);
-		assert depth == 0 || old != null;
-		old = core2.remove(nodeM);
-		assert depth == 0 || old != null;
-		for (State n : nodes1List) {
-			if (in1.containsKey(n) && in1.get(n) == depth) {
-				in1.remove(n);
+	private void rollback(int depth, int nodeN, int nodeM) {
+		if (depth > 0) {
+			assert core1[nodeN] != NONE && core2[nodeM] != NONE;
+			core1[nodeN] = NONE;
+			core2[nodeM] = NONE;
+		}
+		for (int n = 0; n < numNodes; n++) {
+			if (in1[n] == depth) {
+				in1[n] = NONE;
 			}
-			if (out1.containsKey(n) && out1.get(n) == depth) {
-				out1.remove(n);
+			if (out1[n] == depth) {
+				out1[n] = NONE;
 			}
 		}
-		for (State m : nodes2List) {
-			if (in2.containsKey(m) && in2.get(m) == depth) {
-				in2.remove(m);
+		for (int m = 0; m < numNodes; m++) {
+			if (in2[m] == depth) {
+				in2[m] = NONE;
 			}
-			if (out2.containsKey(m) && out2.get(m) == depth) {
-				out2.remove(m);
+			if (out2[m] == depth) {
+				out2[m] = NONE;
 			}
 		}
 	}
@@ -244,82 +351,104 @@ public class IsomorphismLogicComplex {
 	 * @param nodeM A node in lts2
 	 * @return true if pair (m, n) is part of isomorphism
 	 */
-	private boolean isFeasible(State nodeN, State nodeM) {
+	private boolean isFeasible(int nodeN, int nodeM) {
 		int tin1 = 0, tin2 = 0, tout1 = 0, tout2 = 0, new1 = 0, new2 = 0;
 
 		// Only an initial state can map to an initial state, so if just one of these is an initial state, the
-		// combination is not feasible. (Yes, this really wants to compare references and not equals())
-		if ((graph1.getInitialState() == nodeN) != (graph2.getInitialState() == nodeM)) {
+		// combination is not feasible.
+		if ((nodeN == 0) != (nodeM == 0)) {
+			return false;
+		}
+
+		// An isomorphism preserves the colours computed by colour refinement
+		if (colours1[nodeN] != colours2[nodeM]) {
 			return false;
 		}
 
-		for (Arc inN : nodeN.getPresetEdges()) {
-			if (core1.containsKey(inN.getSource())) {
-				if (!checkMatchingArc(core1.get(inN.getSource()), nodeM, inN.getLabel())) {
+		for (int i = 0; i < pred1[nodeN].length; i++) {
+			int source = pred1[nodeN][i];
+			if (core1[source] != NONE) {
+				if (!matchingArcs(succ1, source, nodeN, predLabels1[nodeN][i],
+						succ2, succLabels2, core1[source], nodeM)) {
 					return false;
 				}
 			} else {
-				if (in1.containsKey(inN.getSource())) {
+				if (in1[source] != NONE) {
 					tin1++;
 				}
-				if (out1.containsKey(inN.getSource())) {
+				if (out1[source] != NONE) {
 					tout1++;
 				}
-				if (!in1.containsKey(inN.getSource()) && !out1.containsKey(inN.getSource())) {
+				if (in1[source] == NONE && out1[source] == NONE) {
 					new1++;
 				}
 			}
 		}
 
-		for (Arc outN : nodeN.getPostsetEdges()) {
-			if (core1.containsKey(outN.getTarget())) {
-				if (!checkMatchingArc(nodeM, core1.get(outN.getTarget()), outN.getLabel())) {
+		for (int i = 0; i < succ1[nodeN].length; i++) {
+			int target = succ1[nodeN][i];
+			// Loops are not yet part of the mapping and thus must be checked separately
+			if (target == nodeN && !matchingArcs(succ1, nodeN, nodeN, succLabels1[nodeN][i],
+						succ2, succLabels2, nodeM, nodeM)) {
+				return false;
+			}
+			if (core1[target] != NONE) {
+				if (!matchingArcs(succ1, nodeN, target, succLabels1[nodeN][i],
+						succ2, succLabels2, nodeM, core1[target])) {
 					return false;
 				}
 			} else {
-				if (in1.containsKey(outN.getTarget())) {
+				if (in1[target] != NONE) {
 					tin1++;
 				}
-				if (out1.containsKey(outN.getTarget())) {
+				if (out1[target] != NONE) {
 					tout1++;
 				}
-				if (!in1.containsKey(outN.getTarget()) && !out1.containsKey(outN.getTarget())) {
+				if (in1[target] == NONE && out1[target] == NONE) {
 					new1++;
 				}
 			}
 		}
 
-		for (Arc inM : nodeM.getPresetEdges()) {
-			if (core2.containsKey(inM.getSource())) {
-				if (!checkMatchingArc(core2.get(inM.getSource()), nodeN, inM.getLabel())) {
+		for (int i = 0; i < pred2[nodeM].length; i++) {
+			int source = pred2[nodeM][i];
+			if (core2[source] != NONE) {
+				if (!matchingArcs(succ2, source, nodeM, predLabels2[nodeM][i],
+						succ1, succLabels1, core2[source], nodeN)) {
 					return false;
 				}
 			} else {
-				if (in2.containsKey(inM.getSource())) {
+				if (in2[source] != NONE) {
 					tin2++;
 				}
-				if (out2.containsKey(inM.getSource())) {
+				if (out2[source] != NONE) {
 					tout2++;
 				}
-				if (!in2.containsKey(inM.getSource()) && !out2.containsKey(inM.getSource())) {
+				if (in2[source] == NONE && out2[source] == NONE) {
 					new2++;
 				}
 			}
 		}
 
-		for (Arc outM : nodeM.getPostsetEdges()) {
-			if (core2.containsKey(outM.getTarget())) {
-				if (!checkMatchingArc(nodeN, core2.get(outM.getTarget()), outM.getLabel())) {
+		for (int i = 0; i < succ2[nodeM].length; i++) {
+			int target = succ2[nodeM][i];
+			if (target == nodeM && !matchingArcs(succ2, nodeM, nodeM, succLabels2[nodeM][i],
+						succ1, succLabels1, nodeN, nodeN)) {
+				return false;
+			}
+			if (core2[target] != NONE) {
+				if (!matchingArcs(succ2, nodeM, target, succLabels2[nodeM][i],
+						succ1, succLabels1, nodeN, core2[target])) {
 					return false;
 				}
 			} else {
-				if (in2.containsKey(outM.getTarget())) {
+				if (in2[target] != NONE) {
 					tin2++;
 				}
-				if (out2.containsKey(outM.getTarget())) {
+				if (out2[target] != NONE) {
 					tout2++;
 				}
-				if (!in2.containsKey(outM.getTarget()) && !out2.containsKey(outM.getTarget())) {
+				if (in2[target] == NONE && out2[target] == NONE) {
 					new2++;
 				}
 			}
@@ -329,112 +458,101 @@ public class IsomorphismLogicComplex {
 	}
 
 	/**
-	 * Compute all pairs of nodes, that might be isomorphic pairs in state s
+	 * Compute the next pair of nodes, that might be an isomorphic pair in state s
 	 * (Check if they really are isomorphic follows in feasible(m, n))
 	 *
 	 * @param depth depth of current state in state-tree
 	 * @param s current state
-	 * @return all pairs of potential isomorphic nodes
+	 * @return the node of lts1 of the next pair or NONE. The node of lts2 is saved in s.candidate.
 	 */
-	private Pair<State, State> computeP(int depth, ExtendedState s) {
-		State nodeId = null;
-
+	private int computeP(int depth, SearchState s) {
 		if (s.numout1 > depth && s.numout2 > depth) {
-			if (s.mint2out == null) {
-				for (State i : nodes2List) {
-					if (out2.containsKey(i) && !core2.containsKey(i)) {
-						nodeId = i;
-						break;
-					}
+			if (s.mint2out == NONE) {
+				s.mint2out = findFirst(out2, core2, true);
+				if (s.mint2out == NONE) {
+					return NONE;
 				}
-
-				if (nodeId == null) {
-					return null;
-				}
-				s.mint2out = nodeId;
 			}
+			s.candidate = s.mint2out;
 			while (s.curnode < numNodes) {
 				s.curnode++;
-				if (out1.containsKey(nodes1List.get(s.curnode - 1))
-						&& !core1.containsKey(nodes1List.get(s.curnode - 1))) {
-					return new Pair<>(nodes1List.get(s.curnode - 1), s.mint2out);
+				if (out1[s.curnode - 1] != NONE && core1[s.curnode - 1] == NONE) {
+					return s.curnode - 1;
 				}
 			}
 		} else if ((s.numout1 <= depth && s.numout2 <= depth) && (s.numin1 > depth && s.numin2 > depth)) {
-			if (s.mint2in == null) {
-				for (State i : nodes2List) {
-					if (!in2.containsKey(i) && !core2.containsKey(i)) {
-						nodeId = i;
-						break;
-					}
-				}
-
-				if (nodeId == null) {
-					return null;
+			if (s.mint2in == NONE) {
+				s.mint2in = findFirst(in2, core2, true);
+				if (s.mint2in == NONE) {
+					return NONE;
 				}
-				s.mint2in = nodeId;
 			}
-
+			s.candidate = s.mint2in;
 			while (s.curnode < numNodes) {
 				s.curnode++;
-				if (in1.containsKey(nodes1List.get(s.curnode - 1))
-						&& !core1.containsKey(nodes1List.get(s.curnode - 1))) {
-					return new Pair<>(nodes1List.get(s.curnode - 1), s.mint2in);
+				if (in1[s.curnode - 1] != NONE && core1[s.curnode - 1] == NONE) {
+					return s.curnode - 1;
 				}
 			}
 		} else if (s.numout1 == depth && s.numout2 == depth && s.numin1 == depth && s.numin2 == depth) {
-			if (s.minn2m2 == null) {
-				for (State n2 : nodes2List) {
-					if (!core2.containsKey(n2)) {
-						nodeId = n2;
-						break;
-					}
-				}
-				if (nodeId == null) {
-					return null;
+			if (s.minn2m2 == NONE) {
+				s.minn2m2 = findFirst(null, core2, false);
+				if (s.minn2m2 == NONE) {
+					return NONE;
 				}
-				s.minn2m2 = nodeId;
 			}
+			s.candidate = s.minn2m2;
 			while (s.curnode < numNodes) {
 				s.curnode++;
-				if (!core1.containsKey(nodes1List.get(s.curnode - 1))) {
-					return new Pair<>(nodes1List.get(s.curnode - 1), s.minn2m2);
+				if (core1[s.curnode - 1] == NONE) {
+					return s.curnode - 1;
 				}
 			}
 		}
 
-		return null;
+		return NONE;
+	}
+
+	// Find the first unmapped node which is (or is not) in the given terminal set
+	private int findFirst(int[] terminalSet, int[] core, boolean inTerminalSet) {
+		for (int i = 0; i < numNodes; i++) {
+			if (core[i] != NONE)
+				continue;
+			if (terminalSet == null || (terminalSet[i] != NONE) == inTerminalSet)
+				return i;
+		}
+		return NONE;
 	}
 
-	private void computeTerminalSets(int depth, ExtendedState s) {
-		for (State src : nodes1List) {
-			if (core1.containsKey(src)) {
-				for (State postNode : src.getPostsetNodes()) {
-					if (!out1.containsKey(postNode) && !core1.containsKey(postNode)) {
-						out1.put(postNode, depth);
+	private void computeTerminalSets(int depth, SearchState s) {
+		for (int src = 0; src < numNodes; src++) {
+			if (core1[src] != NONE) {
+				for (int postNode : succ1[src]) {
+					if (out1[postNode] == NONE && core1[postNode] == NONE) {
+						out1[postNode] = depth;
 						s.numout1++;
 					}
 				}
-				for (State preNode : src.getPresetNodes()) {
-					if (!in1.containsKey(preNode) && !core1.containsKey(preNode)) {
-						in1.put(preNode, depth);
+				for (int preNode : pred1[src]) {
+					if (in1[preNode] == NONE && core1[preNode] == NONE) {
+						in1[preNode] = depth;
 						s.numin1++;
 					}
 				}
 			}
 		}
 
-		for (State src : nodes2List) {
-			if (core2.containsKey(src)) {
-				for (State postNode : src.getPostsetNodes()) {
-					if (!out2.containsKey(postNode) && !core2.containsKey(postNode)) {
-						out2.put(postNode, depth);
+		for (int src = 0; src < numNodes; src++) {
+			if (core2[src] != NONE) {
+				for (int postNode : succ2[src]) {
+					if (out2[postNode] == NONE && core2[postNode] == NONE) {
+						out2[postNode] = depth;
 						s.numout2++;
 					}
 				}
-				for (State preNode : src.getPresetNodes()) {
-					if (!in2.containsKey(preNode) && !core2.containsKey(preNode)) {
-						in2.put(preNode, depth);
+				for (int preNode : pred2[src]) {
+					if (in2[preNode] == NONE && core2[preNode] == NONE) {
+						in2[preNode] = depth;
 						s.numin2++;
 					}
 				}
@@ -442,42 +560,53 @@ public class IsomorphismLogicComplex {
 		}
 	}
 
-	private boolean checkMatchingArc(State source, State target, String label) {
-		for (Arc arc : source.getPostsetEdges()) {
-			if (arc.getTarget() != target) {
-				continue;
+	/**
+	 * Check if an arc of one transition system has a counterpart in the other transition system. With labels, an
+	 * arc with the same label has to exist. Without labels, both transition systems must have the same number of
+	 * arcs between the two pairs of states.
+	 */
+	private boolean matchingArcs(int[][] succA, int sourceA, int targetA, String label,
+			int[][] succB, String[][] succLabelsB, int sourceB, int targetB) {
+		if (this.checkLabels) {
+			for (int i = 0; i < succB[sourceB].length; i++) {
+				if (succB[sourceB][i] == targetB && succLabelsB[sourceB][i].equals(label)) {
+					return true;
+				}
 			}
-			if (this.checkLabels && !arc.getLabel().equals(label)) {
-				continue;
+			return false;
+		}
+		return countArcs(succA, sourceA, targetA) == countArcs(succB, sourceB, targetB);
+	}
+
+	static private int countArcs(int[][] succ, int source, int target) {
+		int result = 0;
+		for (int node : succ[source]) {
+			if (node == target) {
+				result++;
 			}
-			return true;
 		}
-		return false;
+		return result;
 	}
 
 	/**
-	 * Store all pairs of yet found isomorphic nodes and some
-	 * additional information in states.
-	 * A list of these states represent a subset of the
-	 * potential found isomorphism.
-	 *
-	 * @author Florian Hinz, Maike Schwammberger, Uli Schlachter
+	 * A state of the search. It stores the current pair of isomorphic nodes and some additional information. The
+	 * list of these states represents a subset of the potential isomorphism.
 	 */
-	public static class ExtendedState {
-
+	static private class SearchState {
 		int numin1, numin2, numout1, numout2, curnode, depth;
-		private State n;
-		State m;
-		State mint2out;
-		State mint2in;
-		State minn2m2;
+		int n = NONE;
+		int m = NONE;
+		int mint2out = NONE;
+		int mint2in = NONE;
+		int minn2m2 = NONE;
+		int candidate = NONE;
 		boolean active;
 
-		ExtendedState() {
+		SearchState() {
 			active = false;
 		}
 
-		ExtendedState(ExtendedState s, int d, State newN, State newM) {
+		SearchState(SearchState s, int d, int newN, int newM) {
 			numin1 = s.numin1;
 			numin2 = s.numin2;
 			numout1 = s.numout1;
@@ -490,6 +619,21 @@ public class IsomorphismLogicComplex {
 			//Only current state is active.
 			active = false;
 		}
+	}
+
+	/**
+	 * A pair of isomorphic nodes.
+	 *
+	 * @author Florian Hinz, Maike Schwammberger, Uli Schlachter
+	 */
+	public static class ExtendedState {
+		private final State n;
+		private final State m;
+
+		ExtendedState(State n, State m) {
+			this.n = n;
+			this.m = m;
+		}
 
 		public State getN() {
 			return n;
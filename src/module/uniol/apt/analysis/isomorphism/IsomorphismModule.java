@@ -38,6 +38,8 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class IsomorphismModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "isomorphism";
+
 	@Override
 	public String getShortDescription() {
 		return "Check if two Petri nets have isomorphic reachability graphs";
@@ -45,7 +47,7 @@ public class IsomorphismModule extends AbstractModule implements InterruptibleMo
 
 	@Override
 	public String getName() {
-		return "isomorphism";
+		return NAME;
 	}
 
 	@Override
@@ -0,0 +1,200 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.analysis.isomorphism;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import uniol.apt.adt.ts.Arc;
+import uniol.apt.adt.ts.State;
+import uniol.apt.adt.ts.TransitionSystem;
+import uniol.apt.util.interrupt.InterruptPoller;
+
+/**
+ * An isomorphism invariant of a labelled transition system which is computed via colour refinement, also known as the
+ * one-dimensional Weisfeiler-Leman algorithm. Initially, the initial state has another colour than all other states.
+ * In each round, the colour of a state is replaced by a hash of its colour and the multisets of colours of its
+ * predecessors and successors together with the labels of the connecting arcs. This is repeated until the number of
+ * different colours does not increase any more.
+ *
+ * Isomorphic transition systems have equal fingerprints and an isomorphism maps every state to a state of the same
+ * colour. The converse does not hold, so equal fingerprints only mean that the transition systems may be isomorphic.
+ * Fingerprints can be used as keys in hash maps to find candidates for isomorphism among many transition systems.
+ * @author Uli Schlachter
+ */
+public final class LTSFingerprint {
+	private final TransitionSystem lts;
+	private final boolean checkLabels;
+	private final Map<State, Integer> stateIndices = new HashMap<>();
+	private final long[] colours;
+	private final long[] sortedColours;
+	private final int rounds;
+	private final int hashCode;
+
+	/**
+	 * Compute the fingerprint of a labelled transition system.
+	 * @param lts The transition system to examine.
+	 * @param checkLabels If true, labels are taken into account. Otherwise, only the number of arcs between
+	 * states matters.
+	 */
+	public LTSFingerprint(TransitionSystem lts, boolean checkLabels) {
+		this.lts = lts;
+		this.checkLabels = checkLabels;
+
+		List<State> states = new ArrayList<>(lts.getNodes());
+		int numStates = states.size();
+		for (int i = 0; i < numStates; i++)
+			stateIndices.put(states.get(i), i);
+
+		// For state i, successors[i][j] is a successor reached via an arc with label hash successorLabels[i][j]
+		int[][] successors = new int[numStates][];
+		long[][] successorLabels = new long[numStates][];
+		int[][] predecessors = new int[numStates][];
+		long[][] predecessorLabels = new long[numStates][];
+		for (int i = 0; i < numStates; i++) {
+			State state = states.get(i);
+			Set<Arc> postset = state.getPostsetEdges();
+			Set<Arc> preset = state.getPresetEdges();
+			successors[i] = new int[postset.size()];
+			successorLabels[i] = new long[postset.size()];
+			predecessors[i] = new int[preset.size()];
+			predecessorLabels[i] = new long[preset.size()];
+			fillNeighbours(postset, true, successors, successorLabels, i);
+			fillNeighbours(preset, false, predecessors, predecessorLabels, i);
+		}
+
+		InterruptPoller poller = new InterruptPoller();
+		long[] current = new long[numStates];
+		State initial = lts.getInitialState();
+		for (int i = 0; i < numStates; i++)
+			current[i] = states.get(i) == initial ? mix(1) : mix(0);
+
+		int numColours = countDistinct(current);
+		int round = 0;
+		while (true) {
+			long[] next = new long[numStates];
+			for (int i = 0; i < numStates; i++) {
+				poller.poll();
+				long out = 0;
+				for (int j = 0; j < successors[i].length; j++)
+					out += mix(current[successors[i][j]] ^ successorLabels[i][j]);
+				long in = 0;
+				for (int j = 0; j < predecessors[i].length; j++)
+					in += mix(current[predecessors[i][j]] ^ predecessorLabels[i][j]);
+				next[i] = mix(current[i] + 31 * mix(out + 1) + 17 * mix(in + 2));
+			}
+			// Keep the refined colours even if no class was split, since they still describe the neighbourhood
+			int nextNumColours = countDistinct(next);
+			current = next;
+			round++;
+			if (nextNumColours <= numColours)
+				break;
+			numColours = nextNumColours;
+		}
+
+		this.colours = current;
+		this.rounds = round;
+		this.sortedColours = current.clone();
+		Arrays.sort(this.sortedColours);
+		long hash = mix(numStates + 31L * round);
+		for (long colour : sortedColours)
+			hash = mix(hash + colour);
+		this.hashCode = (int) (hash ^ (hash >>> 32));
+	}
+
+	private void fillNeighbours(Set<Arc> arcs, boolean forward, int[][] neighbours, long[][] labels, int index) {
+		int count = 0;
+		for (Arc arc : arcs) {
+			neighbours[index][count] = stateIndices.get(forward ? arc.getTarget() : arc.getSource());
+			if (checkLabels)
+				labels[index][count] = mix(arc.getLabel().hashCode() + 3L);
+			count++;
+		}
+	}
+
+	static private int countDistinct(long[] values) {
+		long[] sorted = values.clone();
+		Arrays.sort(sorted);
+		int result = 0;
+		for (int i = 0; i < sorted.length; i++)
+			if (i == 0 || sorted[i] != sorted[i - 1])
+				result++;
+		return result;
+	}
+
+	// The finalizer of SplitMix64
+	static private long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Get the transition system that this fingerprint belongs to.
+	 * @return The transition system.
+	 */
+	public TransitionSystem getTransitionSystem() {
+		return lts;
+	}
+
+	/**
+	 * Check if labels were taken into account for this fingerprint.
+	 * @return true if labels matter.
+	 */
+	public boolean isCheckingLabels() {
+		return checkLabels;
+	}
+
+	/**
+	 * Get the colour of a state after colour refinement. States with different colours cannot be mapped onto each
+	 * other by an isomorphism. Colours of different transition systems can be compared if their fingerprints are
+	 * equal.
+	 * @param state A state of the transition system.
+	 * @return The colour of the state.
+	 */
+	public long getColour(State state) {
+		Integer index = stateIndices.get(state);
+		if (index == null)
+			throw new IllegalArgumentException("State " + state + " is not part of " + lts.getName());
+		return colours[index];
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this)
+			return true;
+		if (!(obj instanceof LTSFingerprint))
+			return false;
+		LTSFingerprint other = (LTSFingerprint) obj;
+		return hashCode == other.hashCode && checkLabels == other.checkLabels && rounds == other.rounds
+			&& Arrays.equals(sortedColours, other.sortedColours);
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -38,6 +38,8 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class LanguageEquivalenceModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "language_equivalence";
+
 	@Override
 	public String getShortDescription() {
 		return "Check if two Petri nets generate the same language";
@@ -45,7 +47,7 @@ public class LanguageEquivalenceModule extends AbstractModule implements Interru
 
 	@Override
 	public String getName() {
-		return "language_equivalence";
+		return NAME;
 	}
 
 	@Override
@@ -48,6 +48,8 @@ import uniol.apt.util.interrupt.InterrupterRegistry;
 @AptModule
 public class ToRegularExpressionModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "to_regular_expression";
+
 	@Override
 	public String getShortDescription() {
 		return "Create a language-equivalent (up to prefix creation) regular expression";
@@ -55,7 +57,7 @@ public class ToRegularExpressionModule extends AbstractModule implements Interru
 
 	@Override
 	public String getName() {
-		return "to_regular_expression";
+		return NAME;
 	}
 
 	@Override
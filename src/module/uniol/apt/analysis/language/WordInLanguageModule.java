@@ -37,6 +37,8 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class WordInLanguageModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "word";
+
 	@Override
 	public String getShortDescription() {
 		return "Check if a word is in a Petri net's prefix language";
@@ -44,7 +46,7 @@ public class WordInLanguageModule extends AbstractModule implements Interruptibl
 
 	@Override
 	public String getName() {
-		return "word";
+		return NAME;
 	}
 
 	@Override
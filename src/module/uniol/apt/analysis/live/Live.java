@@ -32,10 +32,13 @@ import uniol.apt.adt.pn.Transition;
 import uniol.apt.adt.ts.Arc;
 import uniol.apt.adt.ts.State;
 import uniol.apt.adt.ts.TransitionSystem;
-import uniol.apt.analysis.connectivity.Connectivity;
+import uniol.apt.analysis.connectivity.IndexedGraph;
+import uniol.apt.analysis.connectivity.StronglyConnectedComponents;
 import uniol.apt.analysis.coverability.CoverabilityGraph;
 import uniol.apt.analysis.coverability.CoverabilityGraphEdge;
 import uniol.apt.analysis.coverability.CoverabilityGraphNode;
+import uniol.apt.analysis.coverability.IndexedCoverabilityGraph;
+import uniol.apt.analysis.coverability.IndexedCoverabilityGraph.Adjacency;
 import uniol.apt.analysis.exception.UnboundedException;
 import uniol.apt.util.interrupt.InterrupterRegistry;
 
@@ -92,10 +95,9 @@ public class Live {
 	 * @throws UnboundedException If the reachability graph is unbounded.
 	 */
 	static public Transition findNonWeaklyLiveTransition(PetriNet pn) throws UnboundedException {
-		TransitionSystem lts = CoverabilityGraph.get(pn).toReachabilityLTS();
-		Set<? extends Set<State>> components = Connectivity.getStronglyConnectedComponents(lts);
+		Set<Transition> weaklyLive = findWeaklyLiveTransitions(pn);
 		for (Transition t : pn.getTransitions())
-			if (!checkWeaklyLive(lts, components, t))
+			if (!weaklyLive.contains(t))
 				return t;
 		return null;
 	}
@@ -109,20 +111,16 @@ public class Live {
 	 * @throws UnboundedException If the reachability graph is unbounded.
 	 */
 	static public boolean checkWeaklyLive(PetriNet pn, Transition transition) throws UnboundedException {
-		TransitionSystem lts = CoverabilityGraph.get(pn).toReachabilityLTS();
-		Set<? extends Set<State>> components = Connectivity.getStronglyConnectedComponents(lts);
-		return checkWeaklyLive(lts, components, transition);
+		return findWeaklyLiveTransitions(pn).contains(transition);
 	}
 
 	/**
-	 * Check if a transition is weakly live.
-	 * @param lts The reachability graph of a PetriNet, generated via {@link CoverabilityGraph#toReachabilityLTS}.
-	 * @param components The strongly connected components of the lts.
-	 * @param transition The transition that should be checked.
-	 * @return true If the transition is weakly live, else false.
+	 * Find all weakly live transitions.
+	 * @param pn The Petri net that should be examined.
+	 * @return The set of weakly live transitions.
+	 * @throws UnboundedException If the reachability graph is unbounded.
 	 */
-	static private boolean checkWeaklyLive(TransitionSystem lts, Set<? extends Set<State>> components,
-			Transition transition) {
+	static private Set<Transition> findWeaklyLiveTransitions(PetriNet pn) throws UnboundedException {
 		/* We are working with bounded Petri nets. Thus, an infinite fire sequence creates a circle in the
 		 * reachability graph. This means that there exists an edge for our transition in the graph which is
 		 * taken infinitely often. This means that both nodes of the transition belong to the same strongly
@@ -133,32 +131,39 @@ public class Live {
 		 * component, there obviously can't be an infinite fire sequence which contains the transition
 		 * infinitely often.
 		 */
-		for (Arc edge : lts.getEdges()) {
-			InterrupterRegistry.throwIfInterruptRequestedForCurrentThread();
+		final IndexedCoverabilityGraph graph = CoverabilityGraph.get(pn).toIndexedReachabilityGraph();
+		final Adjacency postsets = graph.getPostsets();
+		StronglyConnectedComponents components = StronglyConnectedComponents.calculate(new IndexedGraph() {
+			@Override
+			public int getNodeCount() {
+				return graph.getNodeCount();
+			}
 
-			// Look for edges labeled with our transition...
-			Transition trans = (Transition) edge.getExtension(Transition.class.getName());
-			if (!trans.equals(transition))
-				continue;
+			@Override
+			public int getStart(int node) {
+				return postsets.getStart(node);
+			}
 
-			// ...where both endpoints are in the same component
-			State source = edge.getSource();
-			State target = edge.getTarget();
-			for (Set<State> component : components) {
-				if (component.contains(source)) {
-					if (component.contains(target))
-						// Both nodes in the same component
-						return true;
-
-					// We now know for sure that they can't be in the same component, because source
-					// can only be in a single component
-					break;
-				}
+			@Override
+			public int getEnd(int node) {
+				return postsets.getEnd(node);
 			}
-		}
 
-		// We didn't find a suitable component
-		return false;
+			@Override
+			public int getTarget(int arc) {
+				return postsets.getNode(arc);
+			}
+		});
+
+		Set<Transition> result = new HashSet<>();
+		for (int node = 0; node < graph.getNodeCount(); node++) {
+			InterrupterRegistry.throwIfInterruptRequestedForCurrentThread();
+			int component = components.getComponent(node);
+			for (CoverabilityGraphEdge edge : graph.getNode(node).getPostsetEdges())
+				if (components.getComponent(graph.getIndex(edge.getTarget())) == component)
+					result.add(edge.getTransition());
+		}
+		return result;
 	}
 
 	/**
@@ -204,7 +209,7 @@ public class Live {
 		// Look for edges labeled with our transition...
 		for (Arc edge : lts.getEdges()) {
 			InterrupterRegistry.throwIfInterruptRequestedForCurrentThread();
-			Transition trans = (Transition) edge.getExtension(Transition.class.getName());
+			Transition trans = edge.getExtension(CoverabilityGraph.TRANSITION_KEY);
 			if (!trans.equals(transition))
 				continue;
 			// All of the nodes in this edge's preset can reach a state where the transition is activated
@@ -216,7 +221,7 @@ public class Live {
 		if (nodes.isEmpty())
 			return null;
 		State node = nodes.iterator().next();
-		return ((CoverabilityGraphNode) node.getExtension(CoverabilityGraphNode.class.getName()))
+		return node.getExtension(CoverabilityGraph.NODE_KEY)
 			.getFiringSequence();
 	}
 
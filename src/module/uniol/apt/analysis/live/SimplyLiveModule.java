@@ -37,6 +37,8 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class SimplyLiveModule extends AbstractLiveModule implements InterruptibleModule {
 
+	private final static String NAME = "simply_live";
+
 	@Override
 	public String getShortDescription() {
 		return "Check if a Petri net or a transition (if given) is simply live";
@@ -52,7 +54,7 @@ public class SimplyLiveModule extends AbstractLiveModule implements Interruptibl
 
 	@Override
 	public String getName() {
-		return "simply_live";
+		return NAME;
 	}
 
 	@Override
@@ -37,6 +37,8 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class StronglyLiveModule extends AbstractLiveModule implements InterruptibleModule {
 
+	private final static String NAME = "strongly_live";
+
 	@Override
 	public String getShortDescription() {
 		return "Check if a Petri net or a transition (if given) is strongly live";
@@ -53,7 +55,7 @@ public class StronglyLiveModule extends AbstractLiveModule implements Interrupti
 
 	@Override
 	public String getName() {
-		return "strongly_live";
+		return NAME;
 	}
 
 	@Override
@@ -34,6 +34,8 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class WeaklyLiveModule extends AbstractLiveModule implements InterruptibleModule {
 
+	private final static String NAME = "weakly_live";
+
 	@Override
 	public String getShortDescription() {
 		return "Check if a Petri net or a transition (if given) is weakly live";
@@ -48,7 +50,7 @@ public class WeaklyLiveModule extends AbstractLiveModule implements Interruptibl
 
 	@Override
 	public String getName() {
-		return "weakly_live";
+		return NAME;
 	}
 
 	@Override
@@ -39,9 +39,11 @@ import uniol.apt.module.exception.ModuleException;
  */
 @AptModule
 public class ExtendDeterministicPersistentModule extends AbstractModule implements InterruptibleModule {
+	private final static String NAME = "extend_deterministic_persistent";
+
 	@Override
 	public String getName() {
-		return "extend_deterministic_persistent";
+		return NAME;
 	}
 
 	@Override
@@ -38,9 +38,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class MergeFreeModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "mf";
+
 	@Override
 	public String getName() {
-		return "mf";
+		return NAME;
 	}
 
 	@Override
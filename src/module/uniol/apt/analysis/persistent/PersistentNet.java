@@ -19,18 +19,40 @@
 
 package uniol.apt.analysis.persistent;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import uniol.apt.adt.pn.Marking;
 import uniol.apt.adt.pn.PetriNet;
-import uniol.apt.adt.ts.TransitionSystem;
 import uniol.apt.analysis.coverability.CoverabilityGraph;
+import uniol.apt.analysis.coverability.IndexedCoverabilityGraph;
+import uniol.apt.analysis.coverability.IndexedCoverabilityGraph.Adjacency;
 import uniol.apt.analysis.exception.UnboundedException;
+import uniol.apt.util.interrupt.InterruptPoller;
+import uniol.apt.util.interrupt.Interrupter;
+import uniol.apt.util.interrupt.InterrupterRegistry;
+import uniol.apt.util.interrupt.UncheckedInterruptedException;
 
 /**
  * Check if a given Petri net is persistent.
  *
+ * The small diamond property from {@link PersistentTS} is checked locally at every reachable marking on the indexed
+ * reachability graph, so no transition system is constructed. Reachability graphs with many markings are checked in
+ * parallel.
+ *
  * @author Vincent Göbel
  */
 public class PersistentNet {
+	// Number of markings from which on the check is done in parallel
+	static private final int PARALLEL_THRESHOLD = 4096;
+	// Number of tasks per thread of the pool, so that threads which finish early can help the others
+	static private final int TASKS_PER_THREAD = 4;
 
 	private final PetriNet pn_;
 	private final boolean backwards_;
@@ -51,23 +73,150 @@ public class PersistentNet {
 
 	/*
 	 * This method
-	 * 1) generates the reachability LTS and
+	 * 1) generates the reachability graph and
 	 * 2) checks whether it is persistent.
 	 *
-	 * If the reachability LTS is persistent, so is the original PN.
+	 * If the reachability graph is persistent, so is the original PN. If it is not, the first marking in the order
+	 * of the reachability graph that violates persistence is used as counterexample.
 	 */
 	public void check() throws UnboundedException {
+		IndexedCoverabilityGraph graph = CoverabilityGraph.get(pn_).toIndexedReachabilityGraph();
+		Adjacency arcs = backwards_ ? graph.getPresets() : graph.getPostsets();
+		int nodes = graph.getNodeCount();
+		Interrupter interrupter = InterrupterRegistry.getCurrentThreadInterrupter();
+
+		int[] counterExample;
+		if (nodes < PARALLEL_THRESHOLD)
+			counterExample = check(arcs, nodes, 0, nodes, new AtomicInteger(nodes), interrupter);
+		else
+			counterExample = checkParallel(arcs, nodes, interrupter);
+
+		deterministic_ = counterExample == null;
+		marking_ = null;
+		label1 = null;
+		label2 = null;
+		if (counterExample != null) {
+			marking_ = graph.getMarking(counterExample[0]);
+			label1 = graph.getLabel(counterExample[1]);
+			label2 = graph.getLabel(counterExample[2]);
+		}
+	}
+
+	static private int[] checkParallel(final Adjacency arcs, final int nodes, final Interrupter interrupter) {
+		final AtomicInteger firstFailure = new AtomicInteger(nodes);
+		ForkJoinPool pool = new ForkJoinPool();
+		try {
+			int tasks = Math.min(nodes, pool.getParallelism() * TASKS_PER_THREAD);
+			List<Callable<int[]>> callables = new ArrayList<>(tasks);
+			for (int task = 0; task < tasks; task++) {
+				final int from = (int) ((long) nodes * task / tasks);
+				final int to = (int) ((long) nodes * (task + 1) / tasks);
+				callables.add(new Callable<int[]>() {
+					@Override
+					public int[] call() {
+						return check(arcs, nodes, from, to, firstFailure, interrupter);
+					}
+				});
+			}
+
+			// The tasks handle increasing ranges of markings, so the first counterexample is the smallest
+			for (Future<int[]> future : pool.invokeAll(callables)) {
+				int[] result = future.get();
+				if (result != null)
+					return result;
+			}
+			return null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new UncheckedInterruptedException();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new RuntimeException(cause);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Check the small diamond property for some nodes of a reachability graph.
+	 * @param arcs The arcs that are followed.
+	 * @param nodes The number of nodes of the graph.
+	 * @param from The first node to check.
+	 * @param to The node after the last node to check.
+	 * @param firstFailure The smallest node that is known to violate the property. Nodes after it are skipped. This
+	 * is updated when a smaller node is found.
+	 * @param interrupter The interrupter to poll.
+	 * @return null if the property holds for all checked nodes, else the first violating node and the indices of
+	 * the two labels whose diamond is missing.
+	 */
+	static private int[] check(Adjacency arcs, int nodes, int from, int to, AtomicInteger firstFailure,
+			Interrupter interrupter) {
+		InterruptPoller poller = new InterruptPoller(interrupter, InterruptPoller.DEFAULT_INTERVAL);
+		// seen[n] == stamp means that node n is reached by the first label followed by the second one
+		int[] seen = new int[nodes];
+		int stamp = 0;
+		for (int node = from; node < to && node < firstFailure.get(); node++) {
+			int end = arcs.getEnd(node);
+			for (int first = arcs.getStart(node); first < end; ) {
+				int firstEnd = nextLabel(arcs, first, end);
+				for (int second = firstEnd; second < end; ) {
+					poller.poll();
+					int secondEnd = nextLabel(arcs, second, end);
+					if (stamp == Integer.MAX_VALUE) {
+						Arrays.fill(seen, 0);
+						stamp = 0;
+					}
+					stamp++;
+
+					int label1 = arcs.getLabel(first);
+					int label2 = arcs.getLabel(second);
+					for (int arc = first; arc < firstEnd; arc++)
+						mark(arcs, arcs.getNode(arc), label2, seen, stamp);
+					if (!reachesMarked(arcs, second, secondEnd, label1, seen, stamp)) {
+						int current = firstFailure.get();
+						while (node < current && !firstFailure.compareAndSet(current, node))
+							current = firstFailure.get();
+						return new int[] { node, label1, label2 };
+					}
+					second = secondEnd;
+				}
+				first = firstEnd;
+			}
+		}
+		return null;
+	}
 
-		TransitionSystem ts;
-		ts = CoverabilityGraph.get(pn_).toReachabilityLTS();
+	static private int nextLabel(Adjacency arcs, int arc, int end) {
+		int label = arcs.getLabel(arc);
+		do {
+			arc++;
+		} while (arc < end && arcs.getLabel(arc) == label);
+		return arc;
+	}
+
+	static private void mark(Adjacency arcs, int node, int label, int[] seen, int stamp) {
+		int arc = arcs.findLabel(node, label);
+		if (arc < 0)
+			return;
+		for (int end = arcs.getEnd(node); arc < end && arcs.getLabel(arc) == label; arc++)
+			seen[arcs.getNode(arc)] = stamp;
+	}
 
-		PersistentTS ltsPersistent = new PersistentTS(ts, backwards_);
-		deterministic_ = ltsPersistent.isPersistent();
-		if (ltsPersistent.getNode() != null)
-			marking_ = (Marking) ltsPersistent.getNode().getExtension(Marking.class.getName());
-		label1 = ltsPersistent.getLabel1();
-		label2 = ltsPersistent.getLabel2();
-		return;
+	static private boolean reachesMarked(Adjacency arcs, int from, int to, int label, int[] seen, int stamp) {
+		for (int arc = from; arc < to; arc++) {
+			int node = arcs.getNode(arc);
+			int next = arcs.findLabel(node, label);
+			if (next < 0)
+				continue;
+			for (int end = arcs.getEnd(node); next < end && arcs.getLabel(next) == label; next++)
+				if (seen[arcs.getNode(next)] == stamp)
+					return true;
+		}
+		return false;
 	}
 
 	/**
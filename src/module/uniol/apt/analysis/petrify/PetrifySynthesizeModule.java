@@ -42,9 +42,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class PetrifySynthesizeModule extends AbstractModule implements Module {
 
+	private final static String NAME = "use_petrify";
+
 	@Override
 	public String getName() {
-		return "use_petrify";
+		return NAME;
 	}
 
 	@Override
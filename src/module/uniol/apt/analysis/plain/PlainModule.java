@@ -37,9 +37,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class PlainModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "plain";
+
 	@Override
 	public String getName() {
-		return "plain";
+		return NAME;
 	}
 
 	@Override
@@ -38,6 +38,8 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class PpsPresynthesisModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "ppspresynthesis";
+
 	@Override
 	public String getShortDescription() {
 		return "Performs pps-presynthesis checks on a transition system";
@@ -56,7 +58,7 @@ public class PpsPresynthesisModule extends AbstractModule implements Interruptib
 
 	@Override
 	public String getName() {
-		return "ppspresynthesis";
+		return NAME;
 	}
 
 	@Override
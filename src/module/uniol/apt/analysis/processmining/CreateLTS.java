@@ -19,30 +19,145 @@
 
 package uniol.apt.analysis.processmining;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.apache.commons.collections4.Transformer;
 import org.apache.commons.collections4.TransformerUtils;
 
 import uniol.apt.adt.ts.ParikhVector;
-import uniol.apt.adt.ts.State;
 import uniol.apt.adt.ts.TransitionSystem;
+import uniol.apt.util.interrupt.InterruptPoller;
+import uniol.apt.util.interrupt.Interrupter;
+import uniol.apt.util.interrupt.InterrupterRegistry;
+import uniol.apt.util.interrupt.UncheckedInterruptedException;
 
 /**
  * Create an LTS from individual words. Each word is enabled in a given TransitionSystem by adding new states and arcs
  * to it, as needed. To shrink the size of the result, additionally it is assumed that words with the same Parikh vector
  * should reach the same state. If wanted, a callback function can be provided that replaces the Parikh vector of a word
  * reaching some state with another Parikh vector to further identify states that should be identical.
+ *
+ * Events are numbered densely and the Parikh vector of the current prefix of a word is kept as an array of counts
+ * together with an incrementally updated hash, so adding an event to it does not copy anything. Without a callback,
+ * the state reached by an event only depends on the previous state, so arcs that were already seen are simply
+ * followed. Word lists can be read from streams without keeping them in memory. Several streams can be read in
+ * parallel into shards which are merged afterwards.
  * @author Uli Schlachter
  */
 public class CreateLTS {
-	private final TransitionSystem ts = new TransitionSystem();
-	private final Map<Object, State> stateMap = new HashMap<>();
+	private final static Transformer<ParikhVector, ?> NOP_TRANSFORMER = TransformerUtils.nopTransformer();
+
 	private final Transformer<ParikhVector, ? extends Object> transformer;
+	private final Events events;
 
-	private final static Transformer<ParikhVector, ?> NOP_TRANSFORMER = TransformerUtils.nopTransformer();
+	// The states are numbered densely. For each state, its key in stateMap and its outgoing arcs as pairs of event
+	// and target state are saved.
+	private final Map<Object, Integer> stateMap = new HashMap<>();
+	private final List<Object> stateKeys = new ArrayList<>();
+	private int[][] successors = new int[16][];
+	private int[] successorsLength = new int[16];
+
+	// The Parikh vector of the current prefix of the word that is being added
+	private int[] counts = new int[0];
+	private long hash;
+	private ParikhVector parikhVector;
+	private final ParikhKey probe = new ParikhKey(counts, 0);
+
+	// Cache for the ids of events which consist of a single ASCII character
+	private final int[] asciiEvents = new int[128];
+
+	/**
+	 * The events seen so far. An instance is shared between all shards of a {@link CreateLTS}.
+	 */
+	static private final class Events {
+		private final Map<String, Integer> ids = new HashMap<>();
+		private final List<String> labels = new ArrayList<>();
+
+		synchronized private int getId(String label) {
+			Integer id = ids.get(label);
+			if (id == null) {
+				id = labels.size();
+				labels.add(label);
+				ids.put(label, id);
+			}
+			return id;
+		}
+
+		synchronized private String getLabel(int id) {
+			return labels.get(id);
+		}
+	}
+
+	/**
+	 * A Parikh vector as array of counts indexed by event id. Trailing zeros are ignored, so that the Parikh vector
+	 * of a word does not depend on the number of events that were seen so far.
+	 */
+	static private final class ParikhKey {
+		private int[] counts;
+		private long hash;
+
+		private ParikhKey(int[] counts, long hash) {
+			this.counts = counts;
+			this.hash = hash;
+		}
+
+		private ParikhKey copy() {
+			int length = counts.length;
+			while (length > 0 && counts[length - 1] == 0)
+				length--;
+			return new ParikhKey(Arrays.copyOf(counts, length), hash);
+		}
+
+		@Override
+		public int hashCode() {
+			return (int) (hash ^ (hash >>> 32));
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof ParikhKey))
+				return false;
+			ParikhKey other = (ParikhKey) obj;
+			if (hash != other.hash)
+				return false;
+			int length = Math.max(counts.length, other.counts.length);
+			for (int i = 0; i < length; i++) {
+				int own = i < counts.length ? counts[i] : 0;
+				int theirs = i < other.counts.length ? other.counts[i] : 0;
+				if (own != theirs)
+					return false;
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Get the contribution of an event to the hash of a Parikh vector. The hash of a Parikh vector is the sum
+	 * of the contributions of the events of the word, so it can be updated in constant time.
+	 * @param event The id of the event.
+	 * @return The contribution.
+	 */
+	static private long weight(int event) {
+		// The finalizer of SplitMix64, which spreads consecutive ids over all bits
+		long z = (event + 1) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
 
 	/**
 	 * Create a new instance of this class without any additional transformations.
@@ -56,19 +171,109 @@ public class CreateLTS {
 	 * @param transformer The transformer to use to identify identical states.
 	 */
 	public CreateLTS(Transformer<ParikhVector, ? extends Object> transformer) {
+		this(transformer, new Events());
+	}
+
+	private CreateLTS(Transformer<ParikhVector, ? extends Object> transformer, Events events) {
 		this.transformer = transformer;
-		ts.setInitialState(findOrCreateState(new ParikhVector()));
+		this.events = events;
+		Arrays.fill(asciiEvents, -1);
+		startWord();
+		findOrCreateState(currentKey());
+	}
+
+	private boolean usesParikhVectors() {
+		return transformer != NOP_TRANSFORMER;
 	}
 
-	/// Find state reached by the given event (or null)
-	private State findOrCreateState(ParikhVector pv) {
-		Object transformedValue = transformer.transform(pv);
-		State result = stateMap.get(transformedValue);
-		if (result == null) {
-			result = ts.createState();
-			stateMap.put(transformedValue, result);
+	private void startWord() {
+		Arrays.fill(counts, 0);
+		hash = 0;
+		if (usesParikhVectors())
+			parikhVector = new ParikhVector();
+	}
+
+	/// Get the key of the state reached by the current prefix. The result may only be used for lookups.
+	private Object currentKey() {
+		if (usesParikhVectors())
+			return transformer.transform(parikhVector);
+		probe.counts = counts;
+		probe.hash = hash;
+		return probe;
+	}
+
+	/// Find the state with the given key, creating it if needed
+	private int findOrCreateState(Object key) {
+		Integer result = stateMap.get(key);
+		if (result != null)
+			return result;
+
+		if (key == probe)
+			key = probe.copy();
+		int state = stateKeys.size();
+		stateKeys.add(key);
+		stateMap.put(key, state);
+		if (state == successors.length) {
+			successors = Arrays.copyOf(successors, 2 * state);
+			successorsLength = Arrays.copyOf(successorsLength, 2 * state);
 		}
-		return result;
+		return state;
+	}
+
+	/// Find the target of an arc with the given source and event, or -1
+	private int findSuccessor(int state, int event) {
+		int[] pairs = successors[state];
+		for (int i = 0; i < successorsLength[state]; i += 2)
+			if (pairs[i] == event)
+				return pairs[i + 1];
+		return -1;
+	}
+
+	/// Add an arc unless it already exists
+	private void addArc(int source, int event, int target) {
+		int[] pairs = successors[source];
+		int length = successorsLength[source];
+		for (int i = 0; i < length; i += 2)
+			if (pairs[i] == event && pairs[i + 1] == target)
+				return;
+		if (pairs == null)
+			pairs = successors[source] = new int[4];
+		else if (length == pairs.length)
+			pairs = successors[source] = Arrays.copyOf(pairs, 2 * length);
+		pairs[length] = event;
+		pairs[length + 1] = target;
+		successorsLength[source] = length + 2;
+	}
+
+	/// Follow an event from the given state, extending the current prefix
+	private int step(int state, int event) {
+		if (event >= counts.length)
+			counts = Arrays.copyOf(counts, Math.max(event + 1, 2 * counts.length));
+		counts[event]++;
+		hash += weight(event);
+
+		int target;
+		if (usesParikhVectors()) {
+			parikhVector = parikhVector.add(events.getLabel(event));
+		} else {
+			// The Parikh vector of the target only depends on the source and the event
+			target = findSuccessor(state, event);
+			if (target >= 0)
+				return target;
+		}
+		target = findOrCreateState(currentKey());
+		addArc(state, event, target);
+		return target;
+	}
+
+	private int getCharacterEvent(char c) {
+		if (c < asciiEvents.length) {
+			int result = asciiEvents[c];
+			if (result < 0)
+				result = asciiEvents[c] = events.getId(String.valueOf(c));
+			return result;
+		}
+		return events.getId(String.valueOf(c));
 	}
 
 	/**
@@ -76,20 +281,127 @@ public class CreateLTS {
 	 * @param word The word to add
 	 */
 	public void addWord(List<String> word) {
-		ParikhVector pv = new ParikhVector();
-		State lastState = ts.getInitialState();
-		for (String event : word) {
-			pv = pv.add(event);
-			State state = findOrCreateState(pv);
-			if (!lastState.getPostsetNodesByLabel(event).contains(state))
-				ts.createArc(lastState, state, event);
-
-			lastState = state;
+		startWord();
+		int state = 0;
+		for (String event : word)
+			state = step(state, events.getId(event));
+	}
+
+	/**
+	 * Add all words from a word list to the produced transition system. The word list has the same format as in
+	 * the create_lts module: Each line is a word and each character of a line is an event. The words are read one
+	 * by one, so the whole word list is never kept in memory.
+	 * @param reader The reader from which the word list is read. It is not closed.
+	 * @throws IOException If reading fails.
+	 */
+	public void addWords(Reader reader) throws IOException {
+		addWords(reader, new InterruptPoller());
+	}
+
+	private void addWords(Reader reader, InterruptPoller poller) throws IOException {
+		char[] buffer = new char[8192];
+		boolean pendingCarriageReturn = false;
+		int state = 0;
+		startWord();
+		while (true) {
+			int read = reader.read(buffer);
+			if (read < 0)
+				break;
+			for (int i = 0; i < read; i++) {
+				char c = buffer[i];
+				if (pendingCarriageReturn) {
+					pendingCarriageReturn = false;
+					if (c != '\n')
+						state = step(state, getCharacterEvent('\r'));
+				}
+				if (c == '\n') {
+					poller.poll();
+					startWord();
+					state = 0;
+				} else if (c == '\r') {
+					// Only a line break if followed by a line feed
+					pendingCarriageReturn = true;
+				} else {
+					state = step(state, getCharacterEvent(c));
+				}
+			}
+		}
+		if (pendingCarriageReturn)
+			step(state, getCharacterEvent('\r'));
+	}
+
+	/**
+	 * Read several word lists in parallel and add all their words to the produced transition system. Each file is
+	 * read into a separate shard as with {@link #addWords(Reader)}. Afterwards, the shards are merged into this
+	 * instance. The result is the same as when all files are read one after another, except for the order of
+	 * states.
+	 * @param files The files containing the word lists. They are read as UTF-8.
+	 * @throws IOException If reading fails.
+	 */
+	public void addWords(List<File> files) throws IOException {
+		final Interrupter interrupter = InterrupterRegistry.getCurrentThreadInterrupter();
+		List<Callable<CreateLTS>> tasks = new ArrayList<>(files.size());
+		for (final File file : files) {
+			tasks.add(new Callable<CreateLTS>() {
+				@Override
+				public CreateLTS call() throws IOException {
+					CreateLTS shard = new CreateLTS(transformer, events);
+					try (Reader reader = new InputStreamReader(new FileInputStream(file),
+								StandardCharsets.UTF_8)) {
+						shard.addWords(reader, new InterruptPoller(interrupter,
+									InterruptPoller.DEFAULT_INTERVAL));
+					}
+					return shard;
+				}
+			});
+		}
+
+		// Java 8 provides ForkJoinPool.commonPool(). Java 7 does not, so we need to create our own pool.
+		ForkJoinPool executor = new ForkJoinPool();
+		try {
+			for (Future<CreateLTS> future : executor.invokeAll(tasks))
+				merge(future.get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new UncheckedInterruptedException();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException)
+				throw (IOException) cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new RuntimeException(cause);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/// Add all states and arcs of a shard which shares our events and transformer
+	private void merge(CreateLTS shard) {
+		assert shard.events == events && shard.transformer == transformer;
+		int[] map = new int[shard.stateKeys.size()];
+		for (int state = 0; state < map.length; state++)
+			map[state] = findOrCreateState(shard.stateKeys.get(state));
+		for (int state = 0; state < map.length; state++) {
+			int[] pairs = shard.successors[state];
+			for (int i = 0; i < shard.successorsLength[state]; i += 2)
+				addArc(map[state], pairs[i], map[pairs[i + 1]]);
 		}
 	}
 
 	public TransitionSystem getTransitionSystem() {
-		return new TransitionSystem(ts);
+		TransitionSystem.Builder builder = new TransitionSystem.Builder("", stateKeys.size());
+		for (int state = 0; state < stateKeys.size(); state++)
+			builder.addState();
+		for (int state = 0; state < stateKeys.size(); state++) {
+			int[] pairs = successors[state];
+			for (int i = 0; i < successorsLength[state]; i += 2)
+				builder.addArc(state, pairs[i + 1], builder.addEvent(events.getLabel(pairs[i])));
+		}
+		builder.setInitialState(0);
+		return builder.getTransitionSystem();
 	}
 }
 
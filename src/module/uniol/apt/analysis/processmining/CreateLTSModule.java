@@ -46,6 +46,8 @@ import uniol.apt.util.interrupt.InterrupterRegistry;
 @AptModule
 public class CreateLTSModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "create_lts";
+
 	@Override
 	public String getShortDescription() {
 		return "Create an LTS from a list of words";
@@ -53,7 +55,7 @@ public class CreateLTSModule extends AbstractModule implements InterruptibleModu
 
 	@Override
 	public String getName() {
-		return "create_lts";
+		return NAME;
 	}
 
 	@Override
@@ -0,0 +1,106 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.analysis.processmining;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import uniol.apt.adt.ts.TransitionSystem;
+import uniol.apt.module.AbstractModule;
+import uniol.apt.module.AptModule;
+import uniol.apt.module.Category;
+import uniol.apt.module.InterruptibleModule;
+import uniol.apt.module.ModuleInput;
+import uniol.apt.module.ModuleInputSpec;
+import uniol.apt.module.ModuleOutput;
+import uniol.apt.module.ModuleOutputSpec;
+import uniol.apt.module.exception.ModuleException;
+
+/**
+ * Provide the LTS creation from word lists which are read incrementally as a module.
+ * @author Uli Schlachter
+ */
+@AptModule
+public class CreateLTSStreamModule extends AbstractModule implements InterruptibleModule {
+	private final static String NAME = "create_lts_stream";
+
+	static private final String STANDARD_INPUT_SYMBOL = "-";
+
+	@Override
+	public String getShortDescription() {
+		return "Create an LTS from a list of words without loading the list into memory";
+	}
+
+	@Override
+	public String getLongDescription() {
+		return getShortDescription() + ". This module produces the same result as create_lts, but reads the "
+			+ "words one by one. Multiple files can be given separated by commas. These are read in "
+			+ "parallel and the results are merged.";
+	}
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public void require(ModuleInputSpec inputSpec) {
+		inputSpec.addParameter("files", String.class, "Comma-separated list of files containing the words "
+				+ "that should be possible or " + STANDARD_INPUT_SYMBOL + " for standard input");
+	}
+
+	@Override
+	public void provide(ModuleOutputSpec outputSpec) {
+		outputSpec.addReturnValue("lts", TransitionSystem.class,
+			ModuleOutputSpec.PROPERTY_FILE, ModuleOutputSpec.PROPERTY_RAW);
+	}
+
+	@Override
+	public void run(ModuleInput input, ModuleOutput output) throws ModuleException {
+		String files = input.getParameter("files", String.class);
+
+		CreateLTS create = new CreateLTS();
+		try {
+			if (files.equals(STANDARD_INPUT_SYMBOL)) {
+				create.addWords(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+			} else {
+				List<File> list = new ArrayList<>();
+				for (String file : files.split(","))
+					list.add(new File(file));
+				create.addWords(list);
+			}
+		} catch (IOException e) {
+			throw new ModuleException("Can't read " + files + ": " + e.getMessage(), e);
+		}
+
+		output.setReturnValue("lts", TransitionSystem.class, create.getTransitionSystem());
+	}
+
+	@Override
+	public Category[] getCategories() {
+		return new Category[]{Category.LTS};
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
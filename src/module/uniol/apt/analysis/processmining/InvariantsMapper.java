@@ -20,6 +20,7 @@
 package uniol.apt.analysis.processmining;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -28,6 +29,7 @@ import java.util.Set;
 
 import org.apache.commons.collections4.Transformer;
 
+import uniol.apt.adt.ts.DenseParikhVector;
 import uniol.apt.adt.ts.ParikhVector;
 import uniol.apt.analysis.processmining.algebra.ArrayMatrix;
 import uniol.apt.analysis.processmining.algebra.Matrix;
@@ -40,8 +42,9 @@ import static uniol.apt.util.DebugUtil.debugFormat;
  * @author Uli Schlachter
  */
 public class InvariantsMapper implements Transformer<ParikhVector, List<Integer>> {
-	private final List<String> alphabetList;
-	private final List<List<Integer>> newEventWeights = new ArrayList<>();
+	private final DenseParikhVector.Alphabet denseAlphabet;
+	private final List<String> alphabetList = new ArrayList<>();
+	private final List<int[]> newEventWeights = new ArrayList<>();
 
 	/**
 	 * Define an invariant mapper over the given alphabet with the given words being invariant. All {@link
@@ -51,7 +54,9 @@ public class InvariantsMapper implements Transformer<ParikhVector, List<Integer>
 	 * @param invariantWords A collection of words which should be invariant.
 	 */
 	public InvariantsMapper(Set<String> alphabet, Collection<List<String>> invariantWords) {
-		alphabetList = new ArrayList<>(alphabet);
+		denseAlphabet = new DenseParikhVector.Alphabet(alphabet);
+		for (int index = 0; index < denseAlphabet.size(); index++)
+			alphabetList.add(denseAlphabet.getLabel(index));
 
 		if (alphabetList.isEmpty())
 			return;
@@ -106,26 +111,33 @@ public class InvariantsMapper implements Transformer<ParikhVector, List<Integer>
 				continue;
 			}
 
-			List<Integer> weights = new ArrayList<>();
-			int eventIndex = 0;
-			for (String event : alphabetList) {
-				weights.add(transformation.get(index, eventIndex));
-				eventIndex++;
-			}
+			int[] weights = new int[alphabetList.size()];
+			for (int eventIndex = 0; eventIndex < weights.length; eventIndex++)
+				weights[eventIndex] = transformation.get(index, eventIndex);
 			newEventWeights.add(weights);
-			debugFormat("New event e_%d has weights %s in %s", index, weights, alphabetList);
+			debugFormat("New event e_%d has weights %s in %s", index, Arrays.toString(weights),
+					alphabetList);
 		}
 	}
 
 	@Override
 	public List<Integer> transform(ParikhVector pv) {
-		if (!alphabetList.containsAll(pv.getLabels()))
+		return transform(denseAlphabet.fromParikhVector(pv));
+	}
+
+	/**
+	 * Map a Parikh vector over the alphabet of this mapper.
+	 * @param pv The Parikh vector to map.
+	 * @return The image of the Parikh vector.
+	 */
+	public List<Integer> transform(DenseParikhVector pv) {
+		if (!denseAlphabet.equals(pv.getAlphabet()))
 			throw new IllegalArgumentException();
-		List<Integer> result = new ArrayList<>();
-		for (List<Integer> eventWeights : newEventWeights) {
+		List<Integer> result = new ArrayList<>(newEventWeights.size());
+		for (int[] eventWeights : newEventWeights) {
 			int count = 0;
-			for (int index = 0; index < alphabetList.size(); index++)
-				count += eventWeights.get(index) * pv.get(alphabetList.get(index));
+			for (int index = 0; index < eventWeights.length; index++)
+				count += eventWeights[index] * pv.get(index);
 			result.add(count);
 		}
 		return result;
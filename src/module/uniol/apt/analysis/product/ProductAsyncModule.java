@@ -39,9 +39,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class ProductAsyncModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "product_async";
+
 	@Override
 	public String getName() {
-		return "product_async";
+		return NAME;
 	}
 
 	@Override
@@ -39,9 +39,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class ProductSyncModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "product_sync";
+
 	@Override
 	public String getName() {
-		return "product_sync";
+		return NAME;
 	}
 
 	@Override
@@ -0,0 +1,371 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.analysis.reachability;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import uniol.apt.adt.pn.Flow;
+import uniol.apt.adt.pn.Marking;
+import uniol.apt.adt.pn.PetriNet;
+import uniol.apt.adt.pn.Place;
+import uniol.apt.adt.pn.Token;
+import uniol.apt.adt.pn.Transition;
+import uniol.apt.util.interrupt.InterruptPoller;
+
+/**
+ * Search for firing sequences which witness a property of a Petri net without calculating its whole reachability
+ * graph. Markings are explored in the order of the number of firings needed to reach them plus the estimate of a
+ * {@link Heuristic} for the remaining firings, like in the A* algorithm. When a better path to an already known
+ * marking is found, the marking is explored again. With a heuristic that never overestimates, the witnesses are as
+ * short as possible. With a well informed heuristic, only a small part of the reachable markings
+ * is explored.
+ *
+ * If no witness exists, all reachable markings are explored, so that a search does not terminate for unbounded
+ * Petri nets in this case. Instances of this class must not be used by several threads at once.
+ * @author Uli Schlachter
+ */
+public class DirectedSearch {
+	private final PetriNet pn;
+	private final List<Place> places;
+	private final List<Transition> transitions;
+	private final int[] initial;
+	// For every transition: The index of each place in its preset and the weight of the arc
+	private final int[][] prePlaces;
+	private final int[][] preWeights;
+	// For every transition: The index of each place whose token count it changes and the change
+	private final int[][] changedPlaces;
+	private final int[][] changes;
+	private int exploredMarkings;
+
+	/** The property that a searched marking has. */
+	private interface Goal {
+		boolean isReached(int[] tokens);
+	}
+
+	/**
+	 * Construct a new search for the given Petri net.
+	 * @param pn The Petri net in which witnesses should be searched.
+	 */
+	public DirectedSearch(PetriNet pn) {
+		this.pn = pn;
+		this.places = new ArrayList<>(pn.getPlaces());
+		this.transitions = new ArrayList<>(pn.getTransitions());
+		this.initial = toArray(pn.getInitialMarking());
+
+		Map<Place, Integer> placeIndices = new HashMap<>();
+		for (Place place : places)
+			placeIndices.put(place, placeIndices.size());
+		int[][] incidence = pn.getIncidenceMatrix();
+		prePlaces = new int[transitions.size()][];
+		preWeights = new int[transitions.size()][];
+		changedPlaces = new int[transitions.size()][];
+		changes = new int[transitions.size()][];
+		for (int transition = 0; transition < transitions.size(); transition++) {
+			List<Flow> preset = new ArrayList<>(pn.getPresetEdges(transitions.get(transition)));
+			prePlaces[transition] = new int[preset.size()];
+			preWeights[transition] = new int[preset.size()];
+			for (int arc = 0; arc < preset.size(); arc++) {
+				prePlaces[transition][arc] = placeIndices.get(preset.get(arc).getPlace());
+				preWeights[transition][arc] = preset.get(arc).getWeight();
+			}
+
+			int changed = 0;
+			for (int place = 0; place < places.size(); place++)
+				if (incidence[place][transition] != 0)
+					changed++;
+			changedPlaces[transition] = new int[changed];
+			changes[transition] = new int[changed];
+			changed = 0;
+			for (int place = 0; place < places.size(); place++) {
+				if (incidence[place][transition] != 0) {
+					changedPlaces[transition][changed] = place;
+					changes[transition][changed++] = incidence[place][transition];
+				}
+			}
+		}
+	}
+
+	private int[] toArray(Marking marking) {
+		int[] result = new int[places.size()];
+		for (int place = 0; place < places.size(); place++) {
+			Token token = marking.getToken(places.get(place));
+			if (token.isOmega() || token.getValue() > Integer.MAX_VALUE)
+				throw new IllegalArgumentException(
+						"Markings must not contain omega or huge token counts: " + marking);
+			result[place] = (int) token.getValue();
+		}
+		return result;
+	}
+
+	private int indexOf(Transition transition) {
+		int index = transitions.indexOf(transition);
+		if (index == -1)
+			throw new IllegalArgumentException("Transition " + transition + " does not belong to " + pn);
+		return index;
+	}
+
+	/**
+	 * Get the number of markings that were explored by the last search.
+	 * @return The number of markings.
+	 */
+	public int getNumberOfExploredMarkings() {
+		return exploredMarkings;
+	}
+
+	/**
+	 * Find a firing sequence which reaches a marking.
+	 * @param target The marking that should be reached.
+	 * @param heuristic The heuristic that guides the search.
+	 * @return A firing sequence or null if the marking is not reachable.
+	 */
+	public List<Transition> findReachingSequence(Marking target, Heuristic heuristic) {
+		final int[] tokens = toArray(target);
+		return search(new Goal() {
+			@Override
+			public boolean isReached(int[] marking) {
+				return Arrays.equals(marking, tokens);
+			}
+		}, heuristic);
+	}
+
+	/**
+	 * Find a firing sequence which reaches a marking with at least as many tokens on each place as a given
+	 * marking.
+	 * @param target The marking that should be covered.
+	 * @param heuristic The heuristic that guides the search.
+	 * @return A firing sequence or null if the marking is not coverable.
+	 */
+	public List<Transition> findCoveringSequence(Marking target, Heuristic heuristic) {
+		final int[] tokens = toArray(target);
+		return search(new Goal() {
+			@Override
+			public boolean isReached(int[] marking) {
+				for (int place = 0; place < tokens.length; place++)
+					if (marking[place] < tokens[place])
+						return false;
+				return true;
+			}
+		}, heuristic);
+	}
+
+	/**
+	 * Find a firing sequence after which a transition is enabled.
+	 * @param transition The transition that should be enabled.
+	 * @param heuristic The heuristic that guides the search.
+	 * @return A firing sequence or null if the transition is dead.
+	 */
+	public List<Transition> findEnablingSequence(Transition transition, Heuristic heuristic) {
+		final int index = indexOf(transition);
+		return search(new Goal() {
+			@Override
+			public boolean isReached(int[] marking) {
+				return isEnabled(marking, index);
+			}
+		}, heuristic);
+	}
+
+	/**
+	 * Find a firing sequence after which a transition can never fire again. For each candidate marking, a second
+	 * search which is guided by {@link TokenDistanceHeuristic#forEnabling(PetriNet, Transition)} checks if the
+	 * transition can still be enabled.
+	 * @param transition The transition that should be killed.
+	 * @param heuristic The heuristic that guides the search for the killing marking.
+	 * @return A firing sequence or null if the transition is strongly live.
+	 */
+	public List<Transition> findKillingSequence(Transition transition, Heuristic heuristic) {
+		final int index = indexOf(transition);
+		final Heuristic enabling = TokenDistanceHeuristic.forEnabling(pn, transition);
+		final Goal enabled = new Goal() {
+			@Override
+			public boolean isReached(int[] marking) {
+				return isEnabled(marking, index);
+			}
+		};
+		// Markings from which the transition can still be enabled
+		final Set<Key> alive = new HashSet<>();
+		final int[] explored = new int[1];
+		List<Transition> result = search(new Goal() {
+			@Override
+			public boolean isReached(int[] marking) {
+				if (alive.contains(new Key(marking)))
+					return false;
+				Node node = search(marking, enabled, enabling);
+				explored[0] += exploredMarkings;
+				if (node == null)
+					return true;
+				for (; node != null; node = node.parent)
+					alive.add(new Key(node.tokens));
+				return false;
+			}
+		}, heuristic);
+		exploredMarkings += explored[0];
+		return result;
+	}
+
+	private boolean isEnabled(int[] tokens, int transition) {
+		for (int arc = 0; arc < prePlaces[transition].length; arc++)
+			if (tokens[prePlaces[transition][arc]] < preWeights[transition][arc])
+				return false;
+		return true;
+	}
+
+	/** A marking that was reached by a search. */
+	static private class Node implements Comparable<Node> {
+		private final int[] tokens;
+		private final Node parent;
+		private final int transition;
+		private final int[] firings;
+		private final int depth;
+		private final long estimate;
+		private final int serial;
+
+		private Node(int[] tokens, Node parent, int transition, int[] firings, int depth, long estimate,
+				int serial) {
+			this.tokens = tokens;
+			this.parent = parent;
+			this.transition = transition;
+			this.firings = firings;
+			this.depth = depth;
+			this.estimate = estimate;
+			this.serial = serial;
+		}
+
+		/** @return The length of the path to this node plus the estimate, saturated at Long.MAX_VALUE */
+		private long getCost() {
+			if (estimate > Long.MAX_VALUE - depth)
+				return Long.MAX_VALUE;
+			return depth + estimate;
+		}
+
+		@Override
+		public int compareTo(Node other) {
+			int cmp = Long.compare(getCost(), other.getCost());
+			if (cmp != 0)
+				return cmp;
+			// Prefer markings which are closer to the goal
+			cmp = Long.compare(estimate, other.estimate);
+			if (cmp != 0)
+				return cmp;
+			return Integer.compare(serial, other.serial);
+		}
+	}
+
+	/** Wrapper around the token counts of a marking for use as a hash map key. */
+	static private class Key {
+		private final int[] tokens;
+		private final int hashCode;
+
+		private Key(int[] tokens) {
+			this.tokens = tokens;
+			this.hashCode = Arrays.hashCode(tokens);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof Key && Arrays.equals(tokens, ((Key) other).tokens);
+		}
+	}
+
+	private List<Transition> search(Goal goal, Heuristic heuristic) {
+		Node node = search(initial, goal, heuristic);
+		if (node == null)
+			return null;
+		List<Transition> sequence = new ArrayList<>();
+		for (; node.parent != null; node = node.parent)
+			sequence.add(transitions.get(node.transition));
+		Collections.reverse(sequence);
+		return sequence;
+	}
+
+	/**
+	 * Search a marking which reaches a goal.
+	 * @param start The marking in which the search starts.
+	 * @param goal The goal.
+	 * @param heuristic The heuristic that guides the search.
+	 * @return The node for a marking which reaches the goal or null if there is no such marking.
+	 */
+	private Node search(int[] start, Goal goal, Heuristic heuristic) {
+		InterruptPoller poller = new InterruptPoller();
+		Map<Key, Node> visited = new HashMap<>();
+		PriorityQueue<Node> queue = new PriorityQueue<>();
+		try {
+			int[] noFirings = new int[transitions.size()];
+			long estimate = heuristic.estimate(start, noFirings);
+			if (estimate == Heuristic.INFINITE)
+				return null;
+			int serial = 0;
+			Node root = new Node(start, null, -1, noFirings, 0, estimate, serial);
+			visited.put(new Key(start), root);
+			queue.add(root);
+			while (!queue.isEmpty()) {
+				Node node = queue.poll();
+				if (visited.get(new Key(node.tokens)) != node)
+					// A better path to this marking was found after this node was queued
+					continue;
+				if (goal.isReached(node.tokens))
+					return node;
+
+				for (int transition = 0; transition < transitions.size(); transition++) {
+					poller.poll();
+					if (!isEnabled(node.tokens, transition))
+						continue;
+					int[] next = Arrays.copyOf(node.tokens, node.tokens.length);
+					for (int change = 0; change < changes[transition].length; change++)
+						next[changedPlaces[transition][change]] += changes[transition][change];
+					int[] firings = Arrays.copyOf(node.firings, node.firings.length);
+					firings[transition]++;
+					estimate = heuristic.estimate(next, firings);
+					// The estimate can depend on the path, so this does not rule out other paths to
+					// the same marking
+					if (estimate == Heuristic.INFINITE)
+						continue;
+					Node child = new Node(next, node, transition, firings, node.depth + 1, estimate,
+							++serial);
+
+					// Only keep the best known path to each marking
+					Key key = new Key(next);
+					Node old = visited.get(key);
+					if (old != null && old.compareTo(child) <= 0)
+						continue;
+					visited.put(key, child);
+					queue.add(child);
+				}
+			}
+			return null;
+		} finally {
+			exploredMarkings = visited.size();
+		}
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
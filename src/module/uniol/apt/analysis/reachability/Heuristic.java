@@ -0,0 +1,50 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.analysis.reachability;
+
+/**
+ * An estimate of the number of firings which are still needed to reach the goal of a {@link DirectedSearch}. Markings
+ * and firing counts are given as arrays whose entries are in the order of {@link
+ * uniol.apt.adt.pn.PetriNet#getPlaces()} and {@link uniol.apt.adt.pn.PetriNet#getTransitions()}, like the rows and
+ * columns of the incidence matrix.
+ * @author Uli Schlachter
+ */
+public interface Heuristic {
+	/** The estimate for markings from which the goal certainly is not reachable. */
+	public static final long INFINITE = Long.MAX_VALUE;
+
+	/** A heuristic which always estimates zero, so that the search becomes a breadth-first search. */
+	public static final Heuristic ZERO = new Heuristic() {
+		@Override
+		public long estimate(int[] marking, int[] firings) {
+			return 0;
+		}
+	};
+
+	/**
+	 * Estimate the number of firings that are still needed.
+	 * @param marking The number of tokens on each place in the current marking.
+	 * @param firings How often each transition fired on the path to the current marking.
+	 * @return A non-negative estimate or {@link #INFINITE}.
+	 */
+	public long estimate(int[] marking, int[] firings);
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -0,0 +1,289 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.analysis.reachability;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import uniol.apt.adt.pn.Flow;
+import uniol.apt.adt.pn.Marking;
+import uniol.apt.adt.pn.PetriNet;
+import uniol.apt.adt.pn.Place;
+import uniol.apt.adt.pn.Token;
+import uniol.apt.adt.pn.Transition;
+import uniol.apt.util.equations.InequalitySystem;
+import uniol.apt.util.equations.InequalitySystemSolver;
+
+/**
+ * Check if a marking can be reached or covered. Before any marking is explored, the state equation M = M0 + C x of
+ * the Petri net is solved. If it has no solution, the target is not reachable. The state equation is strengthened by
+ * two observations: Places of an initially unmarked siphon never get tokens, and an initially marked trap never
+ * loses all of its tokens. The siphon constraint is added up front. Trap constraints are added for the traps that are
+ * unmarked by a solution until a solution is found which does not unmark an initially marked trap.
+ *
+ * Only if the refined state equation has a solution, the markings of the Petri net are explored by a {@link
+ * DirectedSearch}. The solution x is used as a plan by a {@link StateEquationHeuristic}: Markings that are reached by
+ * firing planned transitions are explored before markings that are reached with fewer remaining planned firings,
+ * which are explored before markings that need unplanned firings. If the target is not reachable, all reachable
+ * markings are explored, so that this does not terminate for unbounded Petri nets in this case.
+ * @author Uli Schlachter
+ */
+public class Reachability {
+	private final PetriNet pn;
+	private final List<Place> places;
+	private final List<Transition> transitions;
+	private final int[][] incidence;
+	private final int[] initial;
+	private final Marking targetMarking;
+	private final int[] target;
+	private final boolean cover;
+	// For every transition: The index of each place in its preset
+	private final int[][] prePlaces;
+	// For every transition: The index of each place in its postset
+	private final int[][] postPlaces;
+	private int trapConstraints;
+
+	Reachability(PetriNet pn, Marking targetMarking, boolean cover) {
+		this.pn = pn;
+		this.places = new ArrayList<>(pn.getPlaces());
+		this.transitions = new ArrayList<>(pn.getTransitions());
+		// The rows and columns are in the same order as the lists of places and transitions
+		this.incidence = pn.getIncidenceMatrix();
+		this.cover = cover;
+		this.initial = toArray(pn.getInitialMarking());
+		this.targetMarking = targetMarking;
+		this.target = toArray(targetMarking);
+
+		Map<Place, Integer> placeIndices = new HashMap<>();
+		for (Place place : places)
+			placeIndices.put(place, placeIndices.size());
+		prePlaces = new int[transitions.size()][];
+		postPlaces = new int[transitions.size()][];
+		for (int transition = 0; transition < transitions.size(); transition++) {
+			List<Flow> preset = new ArrayList<>(pn.getPresetEdges(transitions.get(transition)));
+			prePlaces[transition] = new int[preset.size()];
+			for (int arc = 0; arc < preset.size(); arc++)
+				prePlaces[transition][arc] = placeIndices.get(preset.get(arc).getPlace());
+			List<Flow> postset = new ArrayList<>(pn.getPostsetEdges(transitions.get(transition)));
+			postPlaces[transition] = new int[postset.size()];
+			for (int arc = 0; arc < postset.size(); arc++)
+				postPlaces[transition][arc] = placeIndices.get(postset.get(arc).getPlace());
+		}
+	}
+
+	private int[] toArray(Marking marking) {
+		int[] result = new int[places.size()];
+		for (int place = 0; place < places.size(); place++) {
+			Token token = marking.getToken(places.get(place));
+			if (token.isOmega() || token.getValue() > Integer.MAX_VALUE)
+				throw new IllegalArgumentException(
+						"Markings must not contain omega or huge token counts: " + marking);
+			result[place] = (int) token.getValue();
+		}
+		return result;
+	}
+
+	/**
+	 * Check if a marking is reachable in a Petri net.
+	 * @param pn The Petri net to examine.
+	 * @param target The marking that should be reached.
+	 * @return A description of the result.
+	 */
+	static public ReachabilityResult checkReachable(PetriNet pn, Marking target) {
+		return new Reachability(pn, target, false).check();
+	}
+
+	/**
+	 * Check if a marking is coverable in a Petri net, i.e. if a marking is reachable which has at least as many
+	 * tokens on each place as the target.
+	 * @param pn The Petri net to examine.
+	 * @param target The marking that should be covered.
+	 * @return A description of the result.
+	 */
+	static public ReachabilityResult checkCoverable(PetriNet pn, Marking target) {
+		return new Reachability(pn, target, true).check();
+	}
+
+	private ReachabilityResult check() {
+		int[] plan = solveStateEquation();
+		if (plan == null)
+			return new ReachabilityResult(pn, null, true, trapConstraints, 0);
+
+		DirectedSearch search = new DirectedSearch(pn);
+		Heuristic heuristic = new StateEquationHeuristic(plan);
+		List<Transition> sequence;
+		if (cover)
+			sequence = search.findCoveringSequence(targetMarking, heuristic);
+		else
+			sequence = search.findReachingSequence(targetMarking, heuristic);
+		return new ReachabilityResult(pn, sequence, false, trapConstraints,
+				search.getNumberOfExploredMarkings());
+	}
+
+	/**
+	 * Solve the state equation, refined with siphons and traps.
+	 * @return How often each transition fires in the solution or null if there is no solution.
+	 */
+	int[] solveStateEquation() {
+		// Places of an initially unmarked siphon never get any tokens and transitions consuming from them
+		// are dead
+		boolean[] unmarked = new boolean[places.size()];
+		for (int place = 0; place < places.size(); place++)
+			unmarked[place] = initial[place] == 0;
+		boolean[] siphon = findMaximalSiphon(unmarked);
+		for (int place = 0; place < places.size(); place++)
+			if (siphon[place] && target[place] > 0)
+				return null;
+		if (transitions.isEmpty())
+			return isTarget(initial) ? new int[0] : null;
+
+		InequalitySystem system = new InequalitySystem();
+		for (int transition = 0; transition < transitions.size(); transition++) {
+			int[] unit = new int[transitions.size()];
+			unit[transition] = 1;
+			system.addInequality(0, "<=", unit);
+			for (int place : prePlaces[transition])
+				if (siphon[place])
+					system.addInequality(0, ">=", unit);
+		}
+		for (int place = 0; place < places.size(); place++) {
+			if (cover) {
+				system.addInequality(target[place] - initial[place], "<=", incidence[place]);
+				system.addInequality(-initial[place], "<=", incidence[place]);
+			} else {
+				system.addInequality(target[place] - initial[place], "=", incidence[place]);
+			}
+		}
+		InequalitySystemSolver solver = new InequalitySystemSolver();
+		solver.assertDisjunction(system);
+
+		trapConstraints = 0;
+		while (true) {
+			List<BigInteger> solution = solver.findSolution();
+			if (solution.isEmpty())
+				return null;
+
+			// Calculate the final marking of the solution and look for an initially marked trap in its
+			// unmarked places
+			long[] marking = new long[places.size()];
+			boolean[] empty = new boolean[places.size()];
+			for (int place = 0; place < places.size(); place++) {
+				marking[place] = initial[place];
+				for (int transition = 0; transition < transitions.size(); transition++) {
+					long firings = solution.get(transition).longValue();
+					marking[place] += incidence[place][transition] * firings;
+				}
+				empty[place] = marking[place] == 0;
+			}
+			boolean[] trap = findMaximalTrap(empty);
+			int trapCoefficients[] = new int[transitions.size()];
+			int initialTokens = 0;
+			for (int place = 0; place < places.size(); place++) {
+				if (!trap[place])
+					continue;
+				initialTokens += initial[place];
+				for (int transition = 0; transition < transitions.size(); transition++)
+					trapCoefficients[transition] += incidence[place][transition];
+			}
+			if (initialTokens == 0) {
+				int[] plan = new int[transitions.size()];
+				for (int transition = 0; transition < transitions.size(); transition++)
+					plan[transition] = (int) Math.min(solution.get(transition).longValue(),
+							Integer.MAX_VALUE);
+				return plan;
+			}
+
+			// The trap keeps at least one token in every reachable marking
+			InequalitySystem trapSystem = new InequalitySystem();
+			trapSystem.addInequality(1 - initialTokens, "<=", trapCoefficients);
+			solver.assertDisjunction(trapSystem);
+			trapConstraints++;
+		}
+	}
+
+	/**
+	 * Find the maximal siphon that is contained in a set of places. A siphon is a set of places so that every
+	 * transition that produces tokens on it also consumes tokens from it.
+	 * @param set The set of places.
+	 * @return The siphon.
+	 */
+	private boolean[] findMaximalSiphon(boolean[] set) {
+		boolean[] result = Arrays.copyOf(set, set.length);
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int transition = 0; transition < transitions.size(); transition++) {
+				if (intersects(prePlaces[transition], result))
+					continue;
+				// This transition produces tokens on its postset without consuming from the siphon
+				for (int place : postPlaces[transition]) {
+					changed |= result[place];
+					result[place] = false;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Find the maximal trap that is contained in a set of places. A trap is a set of places so that every
+	 * transition that consumes tokens from it also produces tokens on it.
+	 * @param set The set of places.
+	 * @return The trap.
+	 */
+	private boolean[] findMaximalTrap(boolean[] set) {
+		boolean[] result = Arrays.copyOf(set, set.length);
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int transition = 0; transition < transitions.size(); transition++) {
+				if (intersects(postPlaces[transition], result))
+					continue;
+				// This transition consumes tokens from its preset without producing on the trap
+				for (int place : prePlaces[transition]) {
+					changed |= result[place];
+					result[place] = false;
+				}
+			}
+		}
+		return result;
+	}
+
+	static private boolean intersects(int[] places, boolean[] set) {
+		for (int place : places)
+			if (set[place])
+				return true;
+		return false;
+	}
+
+	private boolean isTarget(int[] marking) {
+		for (int place = 0; place < places.size(); place++) {
+			if (cover ? marking[place] < target[place] : marking[place] != target[place])
+				return false;
+		}
+		return true;
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -0,0 +1,155 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.analysis.reachability;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import uniol.apt.adt.exception.NoSuchNodeException;
+import uniol.apt.adt.pn.Marking;
+import uniol.apt.adt.pn.PetriNet;
+import uniol.apt.analysis.language.FiringSequence;
+import uniol.apt.module.AbstractModule;
+import uniol.apt.module.AptModule;
+import uniol.apt.module.Category;
+import uniol.apt.module.InterruptibleModule;
+import uniol.apt.module.ModuleInput;
+import uniol.apt.module.ModuleInputSpec;
+import uniol.apt.module.ModuleOutput;
+import uniol.apt.module.ModuleOutputSpec;
+import uniol.apt.module.exception.ModuleException;
+
+/**
+ * Provide the reachability check as a module.
+ * @author Uli Schlachter
+ */
+@AptModule
+public class ReachabilityModule extends AbstractModule implements InterruptibleModule {
+
+	private final static String NAME = "reachable";
+
+	@Override
+	public String getShortDescription() {
+		return "Check if a marking is reachable or coverable";
+	}
+
+	@Override
+	public String getLongDescription() {
+		return getShortDescription()
+			+ ". The marking is given as a list of entries place:tokens like in 'p1:2 p3:1'. Places "
+			+ "that do not appear have no tokens and a place without a token count has one token. First, "
+			+ "the state equation of the Petri net, refined with siphons and traps, is solved. If it has "
+			+ "no solution, the marking is not reachable without looking at any markings. Otherwise, the "
+			+ "reachable markings are searched guided by the solution. In this case, this module does not "
+			+ "terminate for unbounded Petri nets where the marking is not reachable.";
+	}
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public void require(ModuleInputSpec inputSpec) {
+		inputSpec.addParameter("pn", PetriNet.class, "The Petri net that should be examined");
+		inputSpec.addParameter("marking", String.class, "The marking that should be reached");
+		inputSpec.addOptionalParameterWithDefault("mode", String.class, "reach", "reach",
+				"reach for reaching the marking exactly or cover for reaching a marking which "
+				+ "covers it");
+	}
+
+	@Override
+	public void provide(ModuleOutputSpec outputSpec) {
+		outputSpec.addReturnValue("reachable", Boolean.class);
+		outputSpec.addReturnValue("refuted_by_state_equation", Boolean.class);
+		outputSpec.addReturnValue("witness_firing_sequence", FiringSequence.class);
+	}
+
+	@Override
+	public void run(ModuleInput input, ModuleOutput output) throws ModuleException {
+		PetriNet pn = input.getParameter("pn", PetriNet.class);
+		Marking marking = parseMarking(pn, input.getParameter("marking", String.class));
+		String mode = input.getParameter("mode", String.class);
+
+		ReachabilityResult result;
+		switch (mode) {
+			case "reach":
+				result = Reachability.checkReachable(pn, marking);
+				break;
+			case "cover":
+				result = Reachability.checkCoverable(pn, marking);
+				break;
+			default:
+				throw new ModuleException("Unknown mode '" + mode + "', expected 'reach' or 'cover'");
+		}
+
+		output.setReturnValue("reachable", Boolean.class, result.isReachable());
+		output.setReturnValue("refuted_by_state_equation", Boolean.class,
+				result.isRefutedByStateEquation());
+		if (result.isReachable())
+			output.setReturnValue("witness_firing_sequence", FiringSequence.class,
+					new FiringSequence(result.getFiringSequence()));
+	}
+
+	/**
+	 * Parse a marking of the form "p1:2 p3:1". Entries can be separated by spaces or commas.
+	 * @param pn The Petri net that the marking belongs to.
+	 * @param str The marking to parse.
+	 * @return The marking.
+	 * @throws ModuleException If the marking cannot be parsed.
+	 */
+	static Marking parseMarking(PetriNet pn, String str) throws ModuleException {
+		Map<String, Integer> tokens = new HashMap<>();
+		for (String entry : str.split("[\\s,]+")) {
+			if (entry.isEmpty())
+				continue;
+			String[] parts = entry.split(":", -1);
+			if (parts.length > 2 || parts[0].isEmpty())
+				throw new ModuleException("Invalid entry '" + entry + "' in marking '" + str + "'");
+			int count = 1;
+			if (parts.length == 2) {
+				try {
+					count = Integer.parseInt(parts[1]);
+				} catch (NumberFormatException e) {
+					throw new ModuleException("Invalid token count in entry '" + entry + "'", e);
+				}
+				if (count < 0)
+					throw new ModuleException("Negative token count in entry '" + entry + "'");
+			}
+			try {
+				pn.getPlace(parts[0]);
+			} catch (NoSuchNodeException e) {
+				throw new ModuleException("Unknown place '" + parts[0] + "' in marking '" + str + "'",
+						e);
+			}
+			if (tokens.put(parts[0], count) != null)
+				throw new ModuleException("Place '" + parts[0] + "' appears twice in marking '"
+						+ str + "'");
+		}
+		return new Marking(pn, tokens);
+	}
+
+	@Override
+	public Category[] getCategories() {
+		return new Category[]{Category.PN};
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
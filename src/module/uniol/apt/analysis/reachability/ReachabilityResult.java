@@ -0,0 +1,108 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.analysis.reachability;
+
+import java.util.Collections;
+import java.util.List;
+
+import uniol.apt.adt.pn.PetriNet;
+import uniol.apt.adt.pn.Transition;
+
+/**
+ * This class represents results from the {@link Reachability} checks.
+ * @author Uli Schlachter
+ */
+public class ReachabilityResult {
+	private final PetriNet pn;
+	private final List<Transition> sequence;
+	private final boolean refutedByStateEquation;
+	private final int trapConstraints;
+	private final int exploredMarkings;
+
+	/**
+	 * Construct a new ReachabilityResult instance.
+	 * @param pn The Petri net that was examined.
+	 * @param sequence A firing sequence reaching the target or null if the target is not reachable.
+	 * @param refutedByStateEquation True if the state equation showed that the target is not reachable.
+	 * @param trapConstraints The number of trap constraints that were added to the state equation.
+	 * @param exploredMarkings The number of markings that were visited by the explicit search.
+	 */
+	ReachabilityResult(PetriNet pn, List<Transition> sequence, boolean refutedByStateEquation,
+			int trapConstraints, int exploredMarkings) {
+		assert sequence == null || !refutedByStateEquation;
+		this.pn = pn;
+		this.sequence = sequence == null ? null : Collections.unmodifiableList(sequence);
+		this.refutedByStateEquation = refutedByStateEquation;
+		this.trapConstraints = trapConstraints;
+		this.exploredMarkings = exploredMarkings;
+	}
+
+	/**
+	 * Get the Petri net that was examined.
+	 * @return The Petri net.
+	 */
+	public PetriNet getPetriNet() {
+		return pn;
+	}
+
+	/**
+	 * Is the target reachable?
+	 * @return true if the target is reachable.
+	 */
+	public boolean isReachable() {
+		return sequence != null;
+	}
+
+	/**
+	 * Get a firing sequence which reaches the target.
+	 * @return The firing sequence or null if the target is not reachable.
+	 */
+	public List<Transition> getFiringSequence() {
+		return sequence;
+	}
+
+	/**
+	 * Was the target shown to be unreachable without exploring any markings? This is the case if the state
+	 * equation with the additional constraints from siphons and traps has no solution.
+	 * @return true if the state equation refuted the target.
+	 */
+	public boolean isRefutedByStateEquation() {
+		return refutedByStateEquation;
+	}
+
+	/**
+	 * Get the number of constraints for initially marked traps that were added to the state equation to refine
+	 * it.
+	 * @return The number of trap constraints.
+	 */
+	public int getNumberOfTrapConstraints() {
+		return trapConstraints;
+	}
+
+	/**
+	 * Get the number of markings that the explicit search visited.
+	 * @return The number of markings, which is zero if the state equation refuted the target.
+	 */
+	public int getNumberOfExploredMarkings() {
+		return exploredMarkings;
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -0,0 +1,76 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.analysis.reachability;
+
+import java.util.Arrays;
+
+import uniol.apt.adt.pn.Marking;
+import uniol.apt.adt.pn.PetriNet;
+
+/**
+ * A heuristic which follows a solution of the state equation M = M0 + C x for a target marking. The solution x tells
+ * how often each transition has to fire. The estimate is the number of these firings that did not happen yet, so
+ * that every firing which is not part of the plan makes a marking less attractive.
+ * @author Uli Schlachter
+ * @see Reachability
+ */
+public class StateEquationHeuristic implements Heuristic {
+	private final int[] plan;
+
+	/**
+	 * Construct a new heuristic. This solves the state equation, refined with siphons and traps like in {@link
+	 * Reachability}.
+	 * @param pn The Petri net in which the search happens.
+	 * @param target The marking that should be reached.
+	 * @param cover If true, the plan only has to reach a marking which covers the target.
+	 */
+	public StateEquationHeuristic(PetriNet pn, Marking target, boolean cover) {
+		this(new Reachability(pn, target, cover).solveStateEquation());
+	}
+
+	/**
+	 * Construct a new heuristic which follows the given plan.
+	 * @param plan How often each transition should fire or null if the state equation has no solution.
+	 */
+	StateEquationHeuristic(int[] plan) {
+		this.plan = plan == null ? null : Arrays.copyOf(plan, plan.length);
+	}
+
+	/**
+	 * Check if the state equation has a solution. If not, the target is not reachable and every estimate is
+	 * {@link #INFINITE}.
+	 * @return true if the state equation has a solution.
+	 */
+	public boolean isFeasible() {
+		return plan != null;
+	}
+
+	@Override
+	public long estimate(int[] marking, int[] firings) {
+		if (plan == null)
+			return INFINITE;
+		long result = 0;
+		for (int transition = 0; transition < plan.length; transition++)
+			result += Math.max(0, plan[transition] - firings[transition]);
+		return result;
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -0,0 +1,53 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.analysis.reachability;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A heuristic which is the sum of other heuristics.
+ * @author Uli Schlachter
+ */
+public class SumHeuristic implements Heuristic {
+	private final List<Heuristic> heuristics;
+
+	/**
+	 * Construct a new heuristic.
+	 * @param heuristics The heuristics to add up.
+	 */
+	public SumHeuristic(Heuristic... heuristics) {
+		this.heuristics = Arrays.asList(heuristics.clone());
+	}
+
+	@Override
+	public long estimate(int[] marking, int[] firings) {
+		long result = 0;
+		for (Heuristic heuristic : heuristics) {
+			long estimate = heuristic.estimate(marking, firings);
+			if (estimate >= INFINITE - result)
+				return INFINITE;
+			result += estimate;
+		}
+		return result;
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -0,0 +1,90 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.analysis.reachability;
+
+import uniol.apt.adt.pn.Flow;
+import uniol.apt.adt.pn.Marking;
+import uniol.apt.adt.pn.PetriNet;
+import uniol.apt.adt.pn.Place;
+import uniol.apt.adt.pn.Transition;
+
+/**
+ * A heuristic which counts the tokens that are missing or superfluous on each place compared to a target marking. The
+ * difference on a place is divided by the largest change of that place by a single firing. Summing up the places
+ * gives an estimate that is well informed, but may overestimate.
+ * @author Uli Schlachter
+ */
+public class TokenDistanceHeuristic implements Heuristic {
+	private final int[] target;
+	private final int[] maxChange;
+	private final boolean cover;
+
+	/**
+	 * Construct a new heuristic.
+	 * @param pn The Petri net in which the search happens.
+	 * @param target The marking that should be reached.
+	 * @param cover If true, superfluous tokens are ignored, because the target only has to be covered.
+	 */
+	public TokenDistanceHeuristic(PetriNet pn, Marking target, boolean cover) {
+		int[][] incidence = pn.getIncidenceMatrix();
+		this.target = new int[incidence.length];
+		this.maxChange = new int[incidence.length];
+		this.cover = cover;
+		int place = 0;
+		for (Place p : pn.getPlaces()) {
+			this.target[place] = (int) Math.min(target.getToken(p).getValue(), Integer.MAX_VALUE);
+			for (int change : incidence[place])
+				maxChange[place] = Math.max(maxChange[place], Math.abs(change));
+			place++;
+		}
+	}
+
+	/**
+	 * Construct a heuristic for searching a marking which enables a transition.
+	 * @param pn The Petri net in which the search happens.
+	 * @param transition The transition that should be enabled.
+	 * @return The heuristic.
+	 */
+	static public TokenDistanceHeuristic forEnabling(PetriNet pn, Transition transition) {
+		Marking target = new Marking(pn);
+		for (Flow flow : pn.getPresetEdges(transition))
+			target = target.setTokenCount(flow.getPlace(), flow.getWeight());
+		return new TokenDistanceHeuristic(pn, target, true);
+	}
+
+	@Override
+	public long estimate(int[] marking, int[] firings) {
+		long result = 0;
+		for (int place = 0; place < target.length; place++) {
+			long difference = (long) target[place] - marking[place];
+			if (!cover)
+				difference = Math.abs(difference);
+			if (difference <= 0)
+				continue;
+			if (maxChange[place] == 0)
+				// No transition changes this place
+				return INFINITE;
+			result += (difference + maxChange[place] - 1) / maxChange[place];
+		}
+		return result;
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -0,0 +1,60 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.analysis.reachability;
+
+import java.util.List;
+
+import uniol.apt.adt.pn.PetriNet;
+import uniol.apt.adt.pn.Transition;
+
+/**
+ * A heuristic which prefers some transitions over others. Each firing of a transition is penalized with the position
+ * of the transition in a priority list, so that a {@link DirectedSearch} first tries firing sequences made of the
+ * transitions at the beginning of the list. Transitions which are not in the list get the largest penalty. This
+ * heuristic can be combined with others with {@link SumHeuristic}.
+ * @author Uli Schlachter
+ */
+public class TransitionPriorityHeuristic implements Heuristic {
+	private final int[] penalties;
+
+	/**
+	 * Construct a new heuristic.
+	 * @param pn The Petri net in which the search happens.
+	 * @param priorities The transitions from the most preferred one to the least preferred one.
+	 */
+	public TransitionPriorityHeuristic(PetriNet pn, List<Transition> priorities) {
+		penalties = new int[pn.getTransitions().size()];
+		int transition = 0;
+		for (Transition t : pn.getTransitions()) {
+			int index = priorities.indexOf(t);
+			penalties[transition++] = index == -1 ? priorities.size() : index;
+		}
+	}
+
+	@Override
+	public long estimate(int[] marking, int[] firings) {
+		long result = 0;
+		for (int transition = 0; transition < penalties.length; transition++)
+			result += (long) firings[transition] * penalties[transition];
+		return result;
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -41,9 +41,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class ReversibleModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "reversible";
+
 	@Override
 	public String getName() {
-		return "reversible";
+		return NAME;
 	}
 
 	@Override
@@ -21,9 +21,11 @@ package uniol.apt.analysis.reversible;
 
 import uniol.apt.adt.pn.Marking;
 import uniol.apt.adt.pn.PetriNet;
-import uniol.apt.adt.ts.TransitionSystem;
 import uniol.apt.analysis.coverability.CoverabilityGraph;
+import uniol.apt.analysis.coverability.IndexedCoverabilityGraph;
+import uniol.apt.analysis.coverability.IndexedCoverabilityGraph.Adjacency;
 import uniol.apt.analysis.exception.UnboundedException;
+import uniol.apt.util.interrupt.InterruptPoller;
 
 /**
  * Check if a given Petri net is reversible.
@@ -42,24 +44,43 @@ public class ReversibleNet {
 
 	/**
 	 * This method
-	 * 1) generates the coverability LTS and
-	 * 2) checks whether it is reversible.
+	 * 1) generates the indexed reachability graph and
+	 * 2) searches backwards from the initial marking for all markings that can reach it again.
 	 *
-	 * If the coverability LTS is reversible, so is the original PN.
+	 * The Petri net is reversible if this finds all reachable markings. Otherwise, the first marking in the order
+	 * of the reachability graph that was not found is the counterexample.
 	 * @throws UnboundedException If the examined Petri net is unbounded
 	 */
 	public void check() throws UnboundedException {
+		IndexedCoverabilityGraph graph = CoverabilityGraph.get(pn_).toIndexedReachabilityGraph();
+		Adjacency presets = graph.getPresets();
+		InterruptPoller poller = new InterruptPoller();
 
-		TransitionSystem ts;
-		ts = CoverabilityGraph.get(pn_).toReachabilityLTS();
+		// Node 0 is the initial marking; every node of the graph is reachable from it
+		int nodes = graph.getNodeCount();
+		boolean[] reversible = new boolean[nodes];
+		int[] queue = new int[nodes];
+		int head = 0;
+		int tail = 0;
+		reversible[0] = true;
+		queue[tail++] = 0;
+		while (head < tail) {
+			int node = queue[head++];
+			for (int arc = presets.getStart(node); arc < presets.getEnd(node); arc++) {
+				poller.poll();
+				int source = presets.getNode(arc);
+				if (!reversible[source]) {
+					reversible[source] = true;
+					queue[tail++] = source;
+				}
+			}
+		}
 
-		ReversibleTS ltsPersistent = new ReversibleTS(ts);
-		ltsPersistent.check();
-		reversible_ = ltsPersistent.isReversible();
-		if (ltsPersistent.getNode() != null)
-			marking_ = (Marking) ltsPersistent.getNode().getExtension(Marking.class.getName());
-
-		return;
+		reversible_ = tail == nodes;
+		marking_ = null;
+		for (int node = 0; node < nodes && marking_ == null; node++)
+			if (!reversible[node])
+				marking_ = graph.getMarking(node);
 	}
 
 	/**
@@ -38,9 +38,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class LargestKModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "k_marking";
+
 	@Override
 	public String getName() {
-		return "k_marking";
+		return NAME;
 	}
 
 	@Override
@@ -38,9 +38,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class StrongSeparationLengthModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "strong_separation_length";
+
 	@Override
 	public String getName() {
-		return "strong_separation_length";
+		return NAME;
 	}
 
 	@Override
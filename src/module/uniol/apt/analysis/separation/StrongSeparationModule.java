@@ -39,9 +39,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class StrongSeparationModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "strong_separation";
+
 	@Override
 	public String getName() {
-		return "strong_separation";
+		return NAME;
 	}
 
 	@Override
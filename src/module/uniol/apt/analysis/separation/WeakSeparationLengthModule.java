@@ -38,9 +38,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class WeakSeparationLengthModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "weak_separation_length";
+
 	@Override
 	public String getName() {
-		return "weak_separation_length";
+		return NAME;
 	}
 
 	@Override
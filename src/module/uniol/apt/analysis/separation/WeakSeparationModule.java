@@ -39,9 +39,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class WeakSeparationModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "weak_separation";
+
 	@Override
 	public String getName() {
-		return "weak_separation";
+		return NAME;
 	}
 
 	@Override
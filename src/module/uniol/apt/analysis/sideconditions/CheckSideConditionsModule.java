@@ -38,9 +38,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class CheckSideConditionsModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "sideconditions";
+
 	@Override
 	public String getName() {
-		return "sideconditions";
+		return NAME;
 	}
 
 	@Override
@@ -38,9 +38,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class NonPureModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "nonpure";
+
 	@Override
 	public String getName() {
-		return "nonpure";
+		return NAME;
 	}
 
 	@Override
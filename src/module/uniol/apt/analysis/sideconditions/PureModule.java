@@ -37,9 +37,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class PureModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "pure";
+
 	@Override
 	public String getName() {
-		return "pure";
+		return NAME;
 	}
 
 	@Override
@@ -38,9 +38,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class SNetModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "snet";
+
 	@Override
 	public String getName() {
-		return "snet";
+		return NAME;
 	}
 
 	@Override
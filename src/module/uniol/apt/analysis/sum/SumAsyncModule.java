@@ -39,9 +39,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class SumAsyncModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "sum_async";
+
 	@Override
 	public String getName() {
-		return "sum_async";
+		return NAME;
 	}
 
 	@Override
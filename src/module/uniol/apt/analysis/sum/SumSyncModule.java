@@ -39,9 +39,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class SumSyncModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "sum_sync";
+
 	@Override
 	public String getName() {
-		return "sum_sync";
+		return NAME;
 	}
 
 	@Override
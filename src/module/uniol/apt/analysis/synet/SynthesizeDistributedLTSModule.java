@@ -44,9 +44,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class SynthesizeDistributedLTSModule extends AbstractModule implements Module {
 
+	private final static String NAME = "use_synet";
+
 	@Override
 	public String getName() {
-		return "use_synet";
+		return NAME;
 	}
 
 	@Override
@@ -39,6 +39,8 @@ import uniol.apt.module.exception.ModuleException;
  */
 @AptModule
 public class FindWordsModule extends AbstractModule implements Module {
+	private final static String NAME = "find_words";
+
 	static private enum Operation {
 		UNSOLVABLE(true, true, false),
 		SOLVABLE(true, false, true),
@@ -91,7 +93,7 @@ public class FindWordsModule extends AbstractModule implements Module {
 
 	@Override
 	public String getName() {
-		return "find_words";
+		return NAME;
 	}
 
 	@Override
@@ -36,6 +36,8 @@ import uniol.apt.module.exception.ModuleException;
  */
 @AptModule
 public class LimitedUnfoldingModule extends AbstractModule implements InterruptibleModule {
+	private final static String NAME = "limited_unfolding";
+
 	@Override
 	public String getShortDescription() {
 		return "Calculate the limited unfolding of a lts";
@@ -51,7 +53,7 @@ public class LimitedUnfoldingModule extends AbstractModule implements Interrupti
 
 	@Override
 	public String getName() {
-		return "limited_unfolding";
+		return NAME;
 	}
 
 	@Override
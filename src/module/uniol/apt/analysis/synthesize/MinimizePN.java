@@ -40,6 +40,7 @@ import uniol.apt.adt.ts.State;
 import uniol.apt.adt.ts.TransitionSystem;
 import uniol.apt.analysis.synthesize.separation.SMTInterpolHelper;
 import uniol.apt.analysis.synthesize.separation.SeparationUtility;
+import uniol.apt.util.interrupt.InterrupterRegistry;
 import uniol.apt.util.interrupt.UncheckedInterruptedException;
 import uniol.apt.util.DifferentPairsIterable;
 import uniol.apt.util.Pair;
@@ -49,6 +50,12 @@ import static uniol.apt.util.DebugUtil.debugFormat;
 
 /**
  * Synthesize a minimal Petri Net from a transition system.
+ *
+ * The minimal number of places is found via a binary search. All queries use the same SMT solver instance, so that
+ * the solver can reuse what it learnt in earlier queries. For this, the solver knows about one region less than the
+ * best solution found so far. Only a prefix of these regions is used and the number of used regions is limited via
+ * the assertion stack of the solver. To avoid considering permutations of the same solution, the k-th separation
+ * problem may only be solved by one of the first k regions.
  * @author Uli Schlachter
  */
 public class MinimizePN {
@@ -56,6 +63,7 @@ public class MinimizePN {
 	private final RegionUtility utility;
 	private final Set<Region> regions;
 	private final boolean onlyEventSeparation;
+	private final boolean minimal;
 
 	/**
 	 * Calculate a Petri net with a minimal number of places solving some PN-synthesis problem.
@@ -65,6 +73,20 @@ public class MinimizePN {
 	 * @see synthesizePetriNet
 	 */
 	public MinimizePN(SynthesizePN synthesize) {
+		this(synthesize, 0);
+	}
+
+	/**
+	 * Calculate a Petri net with as few places as possible solving some PN-synthesis problem within a time budget.
+	 * When the time budget runs out, the smallest solution that was found so far is used.
+	 * @param synthesize The SynthesizePN instance whose result should be minimized.
+	 * @param timeBudget The time budget in milliseconds or zero for no limit.
+	 * @throws UnsupportedOperationException If the given synthesize instance did not successfully separate its
+	 * input.
+	 * @see synthesizePetriNet
+	 * @see isMinimal
+	 */
+	public MinimizePN(SynthesizePN synthesize, long timeBudget) {
 		this.synthesize = synthesize;
 		this.utility = synthesize.getUtility();
 		this.onlyEventSeparation = synthesize.onlyEventSeparation();
@@ -72,23 +94,44 @@ public class MinimizePN {
 		if (!synthesize.wasSuccessfullySeparated())
 			throw new UnsupportedOperationException("Net was not successfully synthesized "
 					+ "and thus cannot be minimized");
+		if (timeBudget < 0)
+			throw new IllegalArgumentException("The time budget must not be negative");
 
 		try {
 			Set<Region> separatingRegions = synthesize.getSeparatingRegions();
-			while (!separatingRegions.isEmpty()) {
-				debugFormat("Have solution with %d regions, trying to find solution with "
-						+ "one region less", separatingRegions.size());
-				Set<Region> newRegions = synthesizeWithLimit(separatingRegions.size() - 1);
-				if (newRegions == null)
+			Search search = null;
+			// All solutions with less than this number of regions are known not to exist
+			int lowerBound = 0;
+			boolean budgetExhausted = false;
+			if (!separatingRegions.isEmpty())
+				search = new Search(separatingRegions.size() - 1,
+						timeBudget == 0 ? 0 : System.nanoTime() + timeBudget * 1000000);
+			while (lowerBound < separatingRegions.size()) {
+				int limit = lowerBound + (separatingRegions.size() - 1 - lowerBound) / 2;
+				debugFormat("Have solution with %d regions and no solution with less than %d regions, "
+						+ "trying to find solution with at most %d regions",
+						separatingRegions.size(), lowerBound, limit);
+				Set<Region> newRegions = search.synthesizeWithLimit(limit);
+				if (search.isBudgetExhausted()) {
+					budgetExhausted = true;
 					break;
+				}
+				if (newRegions == null) {
+					lowerBound = limit + 1;
+					continue;
+				}
 
 				// minimizeRegions() can often reduce the number of regions even more
 				SynthesizePN.minimizeRegions(utility.getTransitionSystem(), newRegions,
 						onlyEventSeparation);
 				separatingRegions = newRegions;
 			}
-			debug("Could not reduce number of regions any more");
+			if (budgetExhausted)
+				debug("Time budget exhausted");
+			else
+				debug("Could not reduce number of regions any more");
 			this.regions = Collections.unmodifiableSet(separatingRegions);
+			this.minimal = !budgetExhausted;
 		} catch (UnreachableException e) {
 			throw new RuntimeException("Previous synthesis was successful "
 					+ "and now an unreachable state shows up?!", e);
@@ -103,6 +146,15 @@ public class MinimizePN {
 		return Collections.unmodifiableSet(regions);
 	}
 
+	/**
+	 * Check if the result is known to have the minimal number of places. This is only false if the time budget
+	 * ran out before the minimum was found.
+	 * @return true if the result is minimal.
+	 */
+	public boolean isMinimal() {
+		return minimal;
+	}
+
 	/**
 	 * Synthesize a Petri net with the minimal number of places.
 	 * @return A minimal Petri net.
@@ -111,138 +163,188 @@ public class MinimizePN {
 		return synthesize.synthesizePetriNet(regions);
 	}
 
-	private Set<Region> synthesizeWithLimit(int limit) throws UnreachableException {
-		Set<Region> result = synthesizeWithLimit(limit, Collections.<State>emptySet());
-		if (result == null || onlyEventSeparation)
-			// We don't have to look at state separation
-			return result;
-
-		Set<State> statesToSeparate = new HashSet<>();
-		while (true) {
-			Set<State> unseparated = SynthesizePN.calculateUnseparatedStates(
-					utility.getTransitionSystem().getNodes(), result);
-			debug("Current solution: ", result);
-			debug("Unseparated states: ", unseparated);
-			if (unseparated.isEmpty())
-				// All states were separated, return the result
-				return result;
-
-			// Try again, but also force these unseparated states to be separated
-			statesToSeparate.addAll(unseparated);
-			debug("Trying again, now separating ", statesToSeparate);
-			result = synthesizeWithLimit(limit, statesToSeparate);
-			if (result == null)
-				// We need more than <limit> places
-				return result;
-		}
-	}
+	/**
+	 * The solver instance which is used for all queries. It knows about a fixed number of regions of which a
+	 * prefix is used.
+	 */
+	private class Search {
+		private final TransitionSystem ts = utility.getTransitionSystem();
+		private final List<String> eventList = utility.getEventList();
+		private final boolean pure = synthesize.getProperties().isPure();
+		private final int numberRegions;
+		private final long deadline;
+		private final SMTInterpolHelper helper;
+		private final Script script;
+		private final Term[][] effects;
+		private final Term[] used;
+		private final Set<State> statesToSeparate = new HashSet<>();
+		private boolean budgetExhausted = false;
 
-	private Set<Region> synthesizeWithLimit(int limit, Set<State> statesToSeparate) throws UnreachableException {
-		TransitionSystem ts = utility.getTransitionSystem();
-		List<String> eventList = utility.getEventList();
-		int numberEvents = utility.getNumberOfEvents();
-		PNProperties properties = synthesize.getProperties();
-		boolean pure = properties.isPure();
-		SMTInterpolHelper helper;
+		private Search(int numberRegions, long deadline) throws UnreachableException {
+			int numberEvents = utility.getNumberOfEvents();
+			PNProperties properties = synthesize.getProperties();
+			this.numberRegions = numberRegions;
+			this.deadline = deadline;
 
-		try {
-			// getLocationMap() handles output-nonbranching
-			helper = new SMTInterpolHelper(utility, properties.setOutputNonbranching(false),
-					SeparationUtility.getLocationMap(utility, properties));
-		} catch (MissingLocationException e) {
-			throw new RuntimeException("Previous synthesis was successful "
-					+ "and now we have a missing location!?", e);
-		}
-		Script script = helper.getScript();
+			try {
+				// getLocationMap() handles output-nonbranching
+				helper = new SMTInterpolHelper(utility, properties.setOutputNonbranching(false),
+						SeparationUtility.getLocationMap(utility, properties));
+			} catch (MissingLocationException e) {
+				throw new RuntimeException("Previous synthesis was successful "
+						+ "and now we have a missing location!?", e);
+			}
+			script = helper.getScript();
 
-		// Declare all regions
-		Term[][] effects = new Term[limit][];
-		for (int i = 0; i < limit; i++) {
-			effects[i] = new Term[numberEvents];
-			Term[] region;
-			if (pure) {
-				region = new Term[1 + numberEvents];
-				for (int event = 0; event < numberEvents; event++) {
-					String suffix = eventList.get(event) + "-" + i;
-					script.declareFun("e-" + suffix, new Sort[0], script.sort("Int"));
-					region[1 + event] = script.term("e-" + suffix);
-					effects[i][event] = region[1 + event];
+			// Declare all regions
+			effects = new Term[numberRegions][];
+			used = new Term[numberRegions];
+			for (int i = 0; i < numberRegions; i++) {
+				effects[i] = new Term[numberEvents];
+				Term[] region;
+				if (pure) {
+					region = new Term[1 + numberEvents];
+					for (int event = 0; event < numberEvents; event++) {
+						String suffix = eventList.get(event) + "-" + i;
+						script.declareFun("e-" + suffix, new Sort[0], script.sort("Int"));
+						region[1 + event] = script.term("e-" + suffix);
+						effects[i][event] = region[1 + event];
+					}
+				} else {
+					region = new Term[1 + 2 * numberEvents];
+					for (int event = 0; event < numberEvents; event++) {
+						String suffix = eventList.get(event) + "-" + i;
+						script.declareFun("b-" + suffix, new Sort[0], script.sort("Int"));
+						script.declareFun("f-" + suffix, new Sort[0], script.sort("Int"));
+						region[1 + event] = script.term("b-" + suffix);
+						region[1 + event + numberEvents] = script.term("f-" + suffix);
+						effects[i][event] = script.term("-", region[1 + event + numberEvents],
+								region[1 + event]);
+					}
 				}
-			} else {
-				region = new Term[1 + 2 * numberEvents];
-				for (int event = 0; event < numberEvents; event++) {
-					String suffix = eventList.get(event) + "-" + i;
-					script.declareFun("b-" + suffix, new Sort[0], script.sort("Int"));
-					script.declareFun("f-" + suffix, new Sort[0], script.sort("Int"));
-					region[1 + event] = script.term("b-" + suffix);
-					region[1 + event + numberEvents] = script.term("f-" + suffix);
-					effects[i][event] = script.term("-", region[1 + event + numberEvents],
-							region[1 + event]);
+				script.declareFun("m0-" + i, new Sort[0], script.sort("Int"));
+				region[0] = script.term("m0-" + i);
+				script.assertTerm(script.term("isRegion", region));
+
+				script.declareFun("used-" + i, new Sort[0], script.sort("Bool"));
+				used[i] = script.term("used-" + i);
+			}
+
+			// The used regions are a prefix of all regions
+			for (int i = 1; i < numberRegions; i++)
+				script.assertTerm(script.term("=>", used[i], used[i - 1]));
+
+			// Define separation problems and require all of them to be solved by some used region. Every
+			// solution can be ordered so that the k-th problem is solved by one of the first k regions: Go
+			// through the problems and whenever a problem is not yet solved, take a region solving it as
+			// the next region. Thus, only these regions have to be considered.
+			int problemIndex = 0;
+			for (Pair<State, String> problem : new SynthesizePN.EventStateSeparationProblems(ts)) {
+				Term[] problemSolved = new Term[Math.min(numberRegions, problemIndex + 1)];
+				for (int i = 0; i < problemSolved.length; i++) {
+					Term term = helper.evaluateReachingParikhVector(script.term("m0-" + i),
+							effects[i], problem.getFirst());
+					if (pure)
+						term = script.term("+", term,
+								script.term("e-" + problem.getSecond() + "-" + i));
+					else
+						term = script.term("-", term,
+								script.term("b-" + problem.getSecond() + "-" + i));
+					problemSolved[i] = script.term("and", used[i],
+							script.term(">", script.numeral(BigInteger.ZERO), term));
 				}
+				script.assertTerm(collectTerms(script, "or", problemSolved, "false"));
+				problemIndex++;
 			}
-			script.declareFun("m0-" + i, new Sort[0], script.sort("Int"));
-			region[0] = script.term("m0-" + i);
-			script.assertTerm(script.term("isRegion", region));
 		}
 
-		// Define separation problems and require all of them to be solved
-		boolean firstProblem = true;
-		for (Pair<State, String> problem : new SynthesizePN.EventStateSeparationProblems(ts)) {
-			if (limit == 0) {
-				// No regions do not solve anything
-				script.assertTerm(script.term("false"));
-				break;
-			}
+		private boolean isBudgetExhausted() {
+			return budgetExhausted;
+		}
+
+		private Set<Region> synthesizeWithLimit(int limit) throws UnreachableException {
+			while (true) {
+				Set<Region> result = solveWithLimit(limit);
+				if (result == null || onlyEventSeparation)
+					// We don't have to look at state separation
+					return result;
 
-			// We require the first region to solve the first separation problem
-			int candidateRegions = firstProblem ? 1 : limit;
-			Term[] problemSolved = new Term[candidateRegions];
-			for (int i = 0; i < candidateRegions; i++) {
-				Term term = helper.evaluateReachingParikhVector(script.term("m0-" + i),
-						effects[i], problem.getFirst());
-				if (pure)
-					term = script.term("+", term,
-							script.term("e-" + problem.getSecond() + "-" + i));
-				else
-					term = script.term("-", term,
-							script.term("b-" + problem.getSecond() + "-" + i));
-				problemSolved[i] = script.term(">", script.numeral(BigInteger.ZERO), term);
+				Set<State> unseparated = SynthesizePN.calculateUnseparatedStates(ts.getNodes(), result);
+				debug("Current solution: ", result);
+				debug("Unseparated states: ", unseparated);
+				if (unseparated.isEmpty())
+					// All states were separated, return the result
+					return result;
+
+				// Try again, but also force these unseparated states to be separated. This is
+				// needed for any number of regions, so the solver can keep this requirement.
+				Set<State> oldStatesToSeparate = new HashSet<>(statesToSeparate);
+				statesToSeparate.addAll(unseparated);
+				debug("Trying again, now separating ", statesToSeparate);
+				for (Pair<State, State> problem : new DifferentPairsIterable<>(statesToSeparate)) {
+					State state1 = problem.getFirst();
+					State state2 = problem.getSecond();
+					if (oldStatesToSeparate.contains(state1)
+							&& oldStatesToSeparate.contains(state2))
+						continue;
+					Term[] problemSolved = new Term[numberRegions];
+					for (int i = 0; i < numberRegions; i++) {
+						Term pv0 = helper.evaluateReachingParikhVector(script.term("m0-" + i),
+								effects[i], state1);
+						Term pv1 = helper.evaluateReachingParikhVector(script.term("m0-" + i),
+								effects[i], state2);
+						problemSolved[i] = script.term("and", used[i],
+								script.term("not", script.term("=", pv0, pv1)));
+					}
+					script.assertTerm(collectTerms(script, "or", problemSolved, "false"));
+				}
 			}
-			script.assertTerm(collectTerms(script, "or", problemSolved, "false"));
-			firstProblem = false;
 		}
-		if (onlyEventSeparation)
-			assert statesToSeparate.isEmpty();
-		else
-			for (Pair<State, State> problem :
-					new DifferentPairsIterable<>(statesToSeparate)) {
-				Term[] problemSolved = new Term[limit];
-				State state1 = problem.getFirst();
-				State state2 = problem.getSecond();
-				for (int i = 0; i < limit; i++) {
-					Term pv0 = helper.evaluateReachingParikhVector(script.term("m0-" + i),
-							effects[i], state1);
-					Term pv1 = helper.evaluateReachingParikhVector(script.term("m0-" + i),
-							effects[i], state2);
-					problemSolved[i] = script.term("not", script.term("=", pv0, pv1));
+
+		private Set<Region> solveWithLimit(int limit) {
+			if (deadline != 0) {
+				long remaining = (deadline - System.nanoTime()) / 1000000;
+				if (remaining <= 0) {
+					budgetExhausted = true;
+					return null;
 				}
-				script.assertTerm(collectTerms(script, "or", problemSolved, "false"));
+				script.setOption(":timeout", BigInteger.valueOf(remaining));
 			}
 
-		// Is there a model?
-		LBool isSat = script.checkSat();
-		if (isSat == LBool.UNKNOWN) {
-			assert ReasonUnknown.TIMEOUT.equals(script.getInfo(":reason-unknown"))
-				: script.getInfo(":reason-unknown");
-			throw new UncheckedInterruptedException();
-		} else if (isSat == LBool.UNSAT) {
-			return null;
+			script.push(1);
+			try {
+				if (limit < numberRegions)
+					script.assertTerm(script.term("not", used[limit]));
+
+				// Is there a model?
+				LBool isSat = script.checkSat();
+				if (isSat == LBool.UNKNOWN) {
+					assert ReasonUnknown.TIMEOUT.equals(script.getInfo(":reason-unknown"))
+						: script.getInfo(":reason-unknown");
+					if (deadline == 0 || InterrupterRegistry.getCurrentThreadInterrupter()
+							.isInterruptRequested())
+						throw new UncheckedInterruptedException();
+					budgetExhausted = true;
+					return null;
+				} else if (isSat == LBool.UNSAT) {
+					return null;
+				}
+
+				// Extract all used regions
+				Model model = script.getModel();
+				Set<Region> result = new HashSet<>();
+				for (int numRegion = 0; numRegion < limit; numRegion++) {
+					if (!model.evaluate(used[numRegion]).equals(script.term("true")))
+						break;
+					result.add(extractRegion(model, numRegion));
+				}
+				return result;
+			} finally {
+				script.pop(1);
+			}
 		}
 
-		// Extract all regions
-		Model model = script.getModel();
-		Set<Region> result = new HashSet<>();
-		for (int numRegion = 0; numRegion < limit; numRegion++) {
+		private Region extractRegion(Model model, int numRegion) {
 			Region.Builder r;
 			if (pure) {
 				List<BigInteger> weights = new ArrayList<>();
@@ -262,10 +364,8 @@ public class MinimizePN {
 				r = new Region.Builder(utility, backwardWeights, forwardWeights);
 			}
 			BigInteger initialMarking = getValue(model, script.term("m0-" + numRegion));
-			result.add(r.withInitialMarking(initialMarking));
+			return r.withInitialMarking(initialMarking);
 		}
-
-		return result;
 	}
 
 	private BigInteger getValue(Model model, Term term) {
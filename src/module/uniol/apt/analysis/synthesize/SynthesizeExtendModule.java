@@ -47,6 +47,8 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class SynthesizeExtendModule extends SynthesizeModule implements Module {
 
+	private final static String NAME = "pn_extend_and_synthesize";
+
 	@Override
 	public String getShortDescription() {
 		return "Synthesize a Petri Net from a transition system, reusing places of a PetriNet";
@@ -60,7 +62,7 @@ public class SynthesizeExtendModule extends SynthesizeModule implements Module {
 
 	@Override
 	public String getName() {
-		return "pn_extend_and_synthesize";
+		return NAME;
 	}
 
 	@Override
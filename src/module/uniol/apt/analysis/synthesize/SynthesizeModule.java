@@ -44,6 +44,8 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class SynthesizeModule extends AbstractSynthesizeModule implements InterruptibleModule {
 
+	private final static String NAME = "synthesize";
+
 	@Override
 	public String getShortDescription() {
 		return "Synthesize a Petri Net from a transition system";
@@ -61,7 +63,7 @@ public class SynthesizeModule extends AbstractSynthesizeModule implements Interr
 
 	@Override
 	public String getName() {
-		return "synthesize";
+		return NAME;
 	}
 
 	@Override
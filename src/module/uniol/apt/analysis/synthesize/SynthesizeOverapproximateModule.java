@@ -39,6 +39,8 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class SynthesizeOverapproximateModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "overapproximate_synthesize";
+
 	@Override
 	public String getShortDescription() {
 		return "Synthesize the minimal Petri Net overapproximation from a transition system";
@@ -55,7 +57,7 @@ public class SynthesizeOverapproximateModule extends AbstractModule implements I
 
 	@Override
 	public String getName() {
-		return "overapproximate_synthesize";
+		return NAME;
 	}
 
 	@Override
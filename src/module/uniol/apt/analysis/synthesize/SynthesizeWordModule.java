@@ -46,6 +46,8 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class SynthesizeWordModule extends AbstractSynthesizeModule implements InterruptibleModule {
 
+	private final static String NAME = "word_synthesize";
+
 	@Override
 	public String getShortDescription() {
 		return "Synthesize a Petri Net from a word";
@@ -81,7 +83,7 @@ public class SynthesizeWordModule extends AbstractSynthesizeModule implements In
 
 	@Override
 	public String getName() {
-		return "word_synthesize";
+		return NAME;
 	}
 
 	@Override
@@ -38,9 +38,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class TNetModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "tnet";
+
 	@Override
 	public String getName() {
-		return "tnet";
+		return NAME;
 	}
 
 	@Override
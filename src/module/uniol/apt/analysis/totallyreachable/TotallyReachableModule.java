@@ -39,9 +39,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class TotallyReachableModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "totally_reachable";
+
 	@Override
 	public String getName() {
-		return "totally_reachable";
+		return NAME;
 	}
 
 	@Override
@@ -38,6 +38,8 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class SiphonModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "siphons";
+
 	@Override
 	public String getShortDescription() {
 		return "Compute all minimal siphons in a Petri net";
@@ -52,7 +54,7 @@ public class SiphonModule extends AbstractModule implements InterruptibleModule
 
 	@Override
 	public String getName() {
-		return "siphons";
+		return NAME;
 	}
 
 	@Override
@@ -38,6 +38,8 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class TrapsModule extends AbstractModule implements InterruptibleModule {
 
+	private final static String NAME = "traps";
+
 	@Override
 	public String getShortDescription() {
 		return "Compute all minimal traps in a Petri net";
@@ -52,7 +54,7 @@ public class TrapsModule extends AbstractModule implements InterruptibleModule {
 
 	@Override
 	public String getName() {
-		return "traps";
+		return NAME;
 	}
 
 	@Override
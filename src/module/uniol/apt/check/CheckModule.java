@@ -40,9 +40,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class CheckModule extends AbstractModule implements Module {
 
+	private final static String NAME = "check";
+
 	@Override
 	public String getName() {
-		return "check";
+		return NAME;
 	}
 
 	@Override
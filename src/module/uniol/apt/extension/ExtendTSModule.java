@@ -44,9 +44,11 @@ import uniol.apt.module.exception.ModuleException;
  */
 @AptModule
 public class ExtendTSModule extends AbstractModule implements Module {
+	private final static String NAME = "extend_lts";
+
 	@Override
 	public String getName() {
-		return "extend_lts";
+		return NAME;
 	}
 
 	@Override
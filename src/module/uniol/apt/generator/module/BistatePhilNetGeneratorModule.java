@@ -30,6 +30,8 @@ import uniol.apt.module.Module;
 @AptModule
 public class BistatePhilNetGeneratorModule extends AbstractGeneratorModule implements Module {
 
+	private final static String NAME = "bistate_philnet_generator";
+
 	@Override
 	public String getShortDescription() {
 		return "Construct a Petri net for a bistate philosopher's net of a given size.";
@@ -37,7 +39,7 @@ public class BistatePhilNetGeneratorModule extends AbstractGeneratorModule imple
 
 	@Override
 	public String getName() {
-		return "bistate_philnet_generator";
+		return NAME;
 	}
 
 	@Override
@@ -30,6 +30,8 @@ import uniol.apt.module.Module;
 @AptModule
 public class BitNetGeneratorModule extends AbstractGeneratorModule implements Module {
 
+	private final static String NAME = "bitnet_generator";
+
 	@Override
 	public String getShortDescription() {
 		return "Construct a Petri net for a bit nets of a given size.";
@@ -37,7 +39,7 @@ public class BitNetGeneratorModule extends AbstractGeneratorModule implements Mo
 
 	@Override
 	public String getName() {
-		return "bitnet_generator";
+		return NAME;
 	}
 
 	@Override
@@ -31,6 +31,8 @@ import uniol.apt.module.Module;
 @AptModule
 public class ConnectedBitNetGeneratorModule extends AbstractGeneratorModule implements Module {
 
+	private final static String NAME = "connected_bitnet_generator";
+
 	@Override
 	public String getShortDescription() {
 		return "Construct a Petri net for a connected bit net of a given size.";
@@ -38,7 +40,7 @@ public class ConnectedBitNetGeneratorModule extends AbstractGeneratorModule impl
 
 	@Override
 	public String getName() {
-		return "connected_bitnet_generator";
+		return NAME;
 	}
 
 	@Override
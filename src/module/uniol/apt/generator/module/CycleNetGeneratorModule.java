@@ -38,6 +38,8 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class CycleNetGeneratorModule extends AbstractModule implements Module {
 
+	private final static String NAME = "cycle_generator";
+
 	@Override
 	public String getShortDescription() {
 		return "Construct a Petri net for a cycle of a given size with a given number of initial token.";
@@ -45,7 +47,7 @@ public class CycleNetGeneratorModule extends AbstractModule implements Module {
 
 	@Override
 	public String getName() {
-		return "cycle_generator";
+		return NAME;
 	}
 
 	@Override
@@ -38,6 +38,8 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class GenerateReverseArcModule extends AbstractModule implements Module {
 
+	private final static String NAME = "generate_reverse_arc";
+
 	@Override
 	public String getShortDescription() {
 		return "Generate reverse arcs for all arcs with a given label";
@@ -51,7 +53,7 @@ public class GenerateReverseArcModule extends AbstractModule implements Module {
 
 	@Override
 	public String getName() {
-		return "generate_reverse_arc";
+		return NAME;
 	}
 
 	@Override
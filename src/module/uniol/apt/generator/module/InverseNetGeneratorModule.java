@@ -38,6 +38,8 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class InverseNetGeneratorModule extends AbstractModule implements Module {
 
+	private final static String NAME = "inverse_generator";
+
 	@Override
 	public String getShortDescription() {
 		return "Construct the inverse of a Petri net";
@@ -45,7 +47,7 @@ public class InverseNetGeneratorModule extends AbstractModule implements Module
 
 	@Override
 	public String getName() {
-		return "inverse_generator";
+		return NAME;
 	}
 
 	@Override
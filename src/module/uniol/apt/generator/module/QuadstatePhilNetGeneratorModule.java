@@ -30,6 +30,8 @@ import uniol.apt.module.Module;
 @AptModule
 public class QuadstatePhilNetGeneratorModule extends AbstractGeneratorModule implements Module {
 
+	private final static String NAME = "quadstate_philnet_generator";
+
 	@Override
 	public String getShortDescription() {
 		return "Construct a Petri net for a quadstate philosopher's net of a given size.";
@@ -37,7 +39,7 @@ public class QuadstatePhilNetGeneratorModule extends AbstractGeneratorModule imp
 
 	@Override
 	public String getName() {
-		return "quadstate_philnet_generator";
+		return NAME;
 	}
 
 	@Override
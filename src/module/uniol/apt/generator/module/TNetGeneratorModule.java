@@ -46,6 +46,8 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class TNetGeneratorModule extends AbstractModule implements Module {
 
+	private final static String NAME = "tnet_generator";
+
 	@Override
 	public String getShortDescription() {
 		return "Construct all T-nets up to a given size.";
@@ -53,7 +55,7 @@ public class TNetGeneratorModule extends AbstractModule implements Module {
 
 	@Override
 	public String getName() {
-		return "tnet_generator";
+		return NAME;
 	}
 
 	@Override
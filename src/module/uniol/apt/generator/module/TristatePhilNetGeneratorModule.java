@@ -30,6 +30,8 @@ import uniol.apt.module.Module;
 @AptModule
 public class TristatePhilNetGeneratorModule extends AbstractGeneratorModule implements Module {
 
+	private final static String NAME = "tristate_philnet_generator";
+
 	@Override
 	public String getShortDescription() {
 		return "Construct a Petri net for a tristate philosopher's net of a given size.";
@@ -37,7 +39,7 @@ public class TristatePhilNetGeneratorModule extends AbstractGeneratorModule impl
 
 	@Override
 	public String getName() {
-		return "tristate_philnet_generator";
+		return NAME;
 	}
 
 	@Override
@@ -31,6 +31,8 @@ import uniol.apt.module.Module;
  */
 @AptModule
 public class LTSConvertModule extends AbstractConvertModule<TransitionSystem> implements Module {
+	private final static String NAME = "lts_convert";
+
 	/**
 	 * Constructor
 	 */
@@ -40,7 +42,7 @@ public class LTSConvertModule extends AbstractConvertModule<TransitionSystem> im
 
 	@Override
 	public String getName() {
-		return "lts_convert";
+		return NAME;
 	}
 
 	@Override
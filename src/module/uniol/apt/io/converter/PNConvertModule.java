@@ -31,6 +31,8 @@ import uniol.apt.module.Module;
  */
 @AptModule
 public class PNConvertModule extends AbstractConvertModule<PetriNet> implements Module {
+	private final static String NAME = "pn_convert";
+
 	/**
 	 * Constructor
 	 */
@@ -40,7 +42,7 @@ public class PNConvertModule extends AbstractConvertModule<PetriNet> implements
 
 	@Override
 	public String getName() {
-		return "pn_convert";
+		return NAME;
 	}
 
 	@Override
@@ -19,39 +19,57 @@
 
 package uniol.apt.module;
 
-import java.util.ServiceLoader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import uniol.apt.util.ServiceIndex;
 
 /**
- * Used to register modules that are used in APT.
+ * Used to register modules that are used in APT. Modules are found via the index that the annotation processor
+ * generates and are only instantiated when they are first used. Modules which are only registered for the {@link
+ * java.util.ServiceLoader}, e.g. because they were compiled without the index, are still found, but they are
+ * instantiated as soon as a module is looked up that is not in the index.
  *
  * @author vsp
  *
  */
-public class AptModuleRegistry extends AbstractModuleRegistry {
+public class AptModuleRegistry implements ModuleRegistry {
 	public static final AptModuleRegistry INSTANCE = new AptModuleRegistry();
 
+	private final ServiceIndex<Module> modules;
+
 	private AptModuleRegistry() {
-		super();
-		for (Module module : ServiceLoader.load(Module.class, getClass().getClassLoader())) {
-			String moduleName = module.getClass().getCanonicalName();
-			String name = module.getName();
-			if (name == null || name.equals("")
-					|| !name.equals(name.toLowerCase())) {
-				throw new RuntimeException(String.format(
-						"Module %s reports an invalid name: %s",
-						moduleName, name));
+		String resourceName = "META-INF/uniol/apt/compiler/" + Module.class.getCanonicalName() + "/index";
+		modules = new ServiceIndex<Module>(Module.class, getClass().getClassLoader(), resourceName,
+				true, "module", "name") {
+			@Override
+			protected String getKey(Module module) {
+				return module.getName();
 			}
-			Module oldModule = findModule(name);
-			if (oldModule != null && !oldModule.getClass().equals(module.getClass())) {
-				throw new RuntimeException(String.format(
-						"Different modules claim, to have name %s:"
-						+ " %s and %s", name,
-						oldModule.getClass().getCanonicalName(),
-						moduleName));
-			}
-			registerModule(module);
+		};
+	}
+
+	@Override
+	public Module findModule(String name) {
+		return modules.get(name);
+	}
+
+	@Override
+	public Collection<Module> findModulesByPrefix(String prefix) {
+		List<Module> result = new ArrayList<>();
+		for (String name : modules.getKeys().tailSet(prefix)) {
+			if (!name.startsWith(prefix))
+				break;
+			result.add(modules.get(name));
 		}
+		return Collections.unmodifiableCollection(result);
+	}
 
+	@Override
+	public Collection<Module> getModules() {
+		return modules.getAll().values();
 	}
 }
 
@@ -39,9 +39,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class PnAnalysisModule extends AbstractModule implements Module {
 
+	private final static String NAME = "pn_analysis";
+
 	@Override
 	public String getName() {
-		return "pn_analysis";
+		return NAME;
 	}
 
 	@Override
@@ -37,9 +37,11 @@ import uniol.apt.module.exception.ModuleException;
 @AptModule
 public class RandomTNetGeneratorModule extends AbstractModule implements Module {
 
+	private final static String NAME = "random_t_net_generator";
+
 	@Override
 	public String getName() {
-		return "random_t_net_generator";
+		return NAME;
 	}
 
 	@Override
@@ -0,0 +1,134 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.adt.extension;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import org.testng.annotations.Test;
+
+import uniol.apt.adt.exception.StructureException;
+import uniol.apt.util.Pair;
+
+/**
+ * @author Uli Schlachter
+ */
+@SuppressWarnings("unchecked")
+public class ExtensibleTest {
+	static private final ExtensionKey<Integer> INT_KEY = ExtensionKey.create("ExtensibleTest-int", Integer.class);
+	static private final ExtensionKey<String> STRING_KEY = ExtensionKey.create("ExtensibleTest-string",
+			String.class);
+
+	@Test
+	public void testStringKeys() {
+		Extensible e = new Extensible();
+		assertThat(e.hasExtension("ExtensibleTest-a"), is(false));
+		e.putExtension("ExtensibleTest-a", "value");
+		assertThat(e.hasExtension("ExtensibleTest-a"), is(true));
+		assertThat(e.getExtension("ExtensibleTest-a"), equalTo((Object) "value"));
+		e.removeExtension("ExtensibleTest-a");
+		assertThat(e.hasExtension("ExtensibleTest-a"), is(false));
+	}
+
+	@Test
+	public void testTypedKeys() {
+		Extensible e = new Extensible();
+		e.putExtension(INT_KEY, 42);
+		assertThat(e.hasExtension(INT_KEY), is(true));
+		assertThat(e.hasExtension(STRING_KEY), is(false));
+		assertThat(e.getExtension(INT_KEY), equalTo(42));
+		e.removeExtension(INT_KEY);
+		assertThat(e.hasExtension(INT_KEY), is(false));
+	}
+
+	@Test
+	public void testTypedAndStringKeysAreTheSame() {
+		Extensible e = new Extensible();
+		e.putExtension(STRING_KEY, "typed");
+		assertThat(e.getExtension("ExtensibleTest-string"), equalTo((Object) "typed"));
+		e.putExtension("ExtensibleTest-string", "untyped");
+		assertThat(e.getExtension(STRING_KEY), equalTo("untyped"));
+		assertThat(e.getExtensions(), contains(new Pair<String, Object>("ExtensibleTest-string", "untyped")));
+	}
+
+	@Test
+	public void testStringKeysAreNotRemembered() {
+		Extensible e = new Extensible();
+		e.putExtension("ExtensibleTest-b", "value");
+		assertThat(ExtensionKey.lookup("ExtensibleTest-b"), equalTo(-1));
+		assertThat(e.getExtensions(), contains(new Pair<String, Object>("ExtensibleTest-b", "value")));
+	}
+
+	@Test
+	public void testStringKeyBeforeTypedKey() {
+		Extensible e = new Extensible();
+		e.putExtension("ExtensibleTest-late", 1);
+		ExtensionKey<Integer> key = ExtensionKey.create("ExtensibleTest-late", Integer.class);
+		assertThat(e.getExtension(key), equalTo(1));
+		e.putExtension(key, 2);
+		assertThat(e.getExtension("ExtensibleTest-late"), equalTo((Object) 2));
+		assertThat(e.getExtensions(), hasSize(1));
+		e.removeExtension(key);
+		assertThat(e.hasExtension("ExtensibleTest-late"), is(false));
+	}
+
+	@Test
+	public void testNullValue() {
+		Extensible e = new Extensible();
+		e.putExtension(STRING_KEY, null);
+		assertThat(e.hasExtension(STRING_KEY), is(true));
+		assertThat(e.getExtension(STRING_KEY), nullValue());
+	}
+
+	@Test(expectedExceptions = StructureException.class)
+	public void testMissingTypedKey() {
+		new Extensible().getExtension(INT_KEY);
+	}
+
+	@Test(expectedExceptions = StructureException.class)
+	public void testMissingUnknownKey() {
+		new Extensible().getExtension("ExtensibleTest-never-used");
+	}
+
+	@Test(expectedExceptions = ClassCastException.class)
+	public void testWrongType() {
+		Extensible e = new Extensible();
+		e.putExtension("ExtensibleTest-int", "not an integer");
+		e.getExtension(INT_KEY);
+	}
+
+	@Test
+	public void testCopyAndProperties() {
+		Extensible e = new Extensible();
+		e.putExtension(INT_KEY, 1, ExtensionProperty.NOCOPY);
+		e.putExtension(STRING_KEY, "copied", ExtensionProperty.WRITE_TO_FILE);
+		assertThat(e.getWriteToFileExtensions(),
+				contains(new Pair<String, Object>("ExtensibleTest-string", "copied")));
+
+		Extensible copy = new Extensible();
+		copy.copyExtensions(e);
+		assertThat(copy.hasExtension(INT_KEY), is(false));
+		assertThat(copy.getExtension(STRING_KEY), equalTo("copied"));
+		// Properties are not copied
+		assertThat(copy.getWriteToFileExtensions(), empty());
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -0,0 +1,162 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.adt.ts;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static uniol.apt.adt.matcher.Matchers.arcThatConnectsVia;
+import static uniol.apt.adt.matcher.Matchers.nodeWithID;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hamcrest.Matchers;
+import org.testng.annotations.Test;
+
+import uniol.apt.adt.exception.StructureException;
+
+/**
+ * @author Uli Schlachter
+ */
+public class CompactTransitionSystemTest {
+	static private List<Integer> postsetArcs(CompactTransitionSystem ts, int state) {
+		List<Integer> result = new ArrayList<>();
+		for (int arc = ts.getFirstPostsetArc(state); arc != CompactTransitionSystem.NONE;
+				arc = ts.getNextPostsetArc(arc))
+			result.add(arc);
+		return result;
+	}
+
+	static private List<Integer> presetArcs(CompactTransitionSystem ts, int state) {
+		List<Integer> result = new ArrayList<>();
+		for (int arc = ts.getFirstPresetArc(state); arc != CompactTransitionSystem.NONE;
+				arc = ts.getNextPresetArc(arc))
+			result.add(arc);
+		return result;
+	}
+
+	@Test
+	public void testEmpty() {
+		CompactTransitionSystem ts = new CompactTransitionSystem("empty");
+		assertThat(ts.getName(), equalTo("empty"));
+		assertThat(ts.getNumberOfStates(), equalTo(0));
+		assertThat(ts.getNumberOfArcs(), equalTo(0));
+		assertThat(ts.getNumberOfEvents(), equalTo(0));
+		assertThat(ts.getInitialState(), equalTo(CompactTransitionSystem.NONE));
+	}
+
+	@Test
+	public void testStatesAndArcs() {
+		// Start with tiny arrays so that they have to grow
+		CompactTransitionSystem ts = new CompactTransitionSystem("ts", 1, 1);
+		int s0 = ts.createState();
+		int s1 = ts.createState();
+		int s2 = ts.createState();
+		int a = ts.createArc(s0, s1, "a");
+		int b = ts.createArc(s0, s2, "b");
+		int c = ts.createArc(s1, s2, "a");
+		ts.setInitialState(s0);
+
+		assertThat(ts.getNumberOfStates(), equalTo(3));
+		assertThat(ts.getNumberOfArcs(), equalTo(3));
+		assertThat(ts.getNumberOfEvents(), equalTo(2));
+		assertThat(ts.getInitialState(), equalTo(s0));
+		assertThat(ts.getStateId(s2), equalTo("s2"));
+
+		assertThat(ts.getArcSource(b), equalTo(s0));
+		assertThat(ts.getArcTarget(b), equalTo(s2));
+		assertThat(ts.getArcLabel(b), equalTo("b"));
+		assertThat(ts.getArcEvent(a), equalTo(ts.getArcEvent(c)));
+		assertThat(ts.getEventIndex("a"), equalTo(ts.getArcEvent(a)));
+		assertThat(ts.getEventIndex("x"), equalTo(CompactTransitionSystem.NONE));
+
+		assertThat(postsetArcs(ts, s0), containsInAnyOrder(a, b));
+		assertThat(postsetArcs(ts, s1), contains(c));
+		assertThat(postsetArcs(ts, s2), empty());
+		assertThat(presetArcs(ts, s0), empty());
+		assertThat(presetArcs(ts, s2), containsInAnyOrder(b, c));
+
+		assertThat(ts.findArc(s0, s1, ts.getEventIndex("a")), equalTo(a));
+		assertThat(ts.findArc(s0, s1, ts.getEventIndex("b")), equalTo(CompactTransitionSystem.NONE));
+	}
+
+	@Test(expectedExceptions = IndexOutOfBoundsException.class)
+	public void testInvalidState() {
+		CompactTransitionSystem ts = new CompactTransitionSystem("ts");
+		int s0 = ts.createState();
+		ts.createArc(s0, s0 + 1, "a");
+	}
+
+	@Test
+	public void testExtensions() {
+		CompactTransitionSystem ts = new CompactTransitionSystem("ts");
+		int s0 = ts.createState();
+		int s1 = ts.createState();
+		int a = ts.createArc(s0, s1, "a");
+		ts.getStateExtensions().put(s1, "key", "value");
+		ts.getArcExtensions().put(a, "key", 42);
+
+		assertThat(ts.getStateExtensions().has(s0, "key"), is(false));
+		assertThat(ts.getStateExtensions().getOrNull(s0, "key"), nullValue());
+		assertThat(ts.getStateExtensions().get(s1, "key"), equalTo((Object) "value"));
+		assertThat(ts.getArcExtensions().get(a, "key"), equalTo((Object) 42));
+		assertThat(ts.getStateExtensions().getKeys(), contains("key"));
+
+		ts.getStateExtensions().remove(s1, "key");
+		assertThat(ts.getStateExtensions().has(s1, "key"), is(false));
+	}
+
+	@Test(expectedExceptions = StructureException.class)
+	public void testMissingExtension() {
+		CompactTransitionSystem ts = new CompactTransitionSystem("ts");
+		ts.getStateExtensions().get(ts.createState(), "key");
+	}
+
+	@Test
+	public void testToTransitionSystem() {
+		CompactTransitionSystem compact = new CompactTransitionSystem("ts");
+		int s0 = compact.createState();
+		int s1 = compact.createState();
+		compact.createArc(s0, s1, "a");
+		int b = compact.createArc(s1, s0, "b");
+		// A duplicate arc is ignored
+		compact.createArc(s1, s0, "b");
+		compact.setInitialState(s1);
+		compact.putExtension("graph", "ext");
+		compact.getStateExtensions().put(s0, "state", "ext0");
+		compact.getArcExtensions().put(b, "arc", "extb");
+
+		TransitionSystem ts = compact.toTransitionSystem();
+		assertThat(ts.getName(), equalTo("ts"));
+		assertThat(ts.getNodes(), hasSize(2));
+		assertThat(ts.getNodes(), Matchers.<State>hasItem(nodeWithID("s0")));
+		assertThat(ts.getNodes(), Matchers.<State>hasItem(nodeWithID("s1")));
+		assertThat(ts.getEdges(), hasSize(2));
+		assertThat(ts.getEdges(), hasItem(arcThatConnectsVia("s0", "s1", "a")));
+		assertThat(ts.getEdges(), hasItem(arcThatConnectsVia("s1", "s0", "b")));
+		assertThat(ts.getInitialState(), nodeWithID("s1"));
+		assertThat(ts.getExtension("graph"), equalTo((Object) "ext"));
+		assertThat(ts.getNode("s0").getExtension("state"), equalTo((Object) "ext0"));
+		assertThat(ts.getNode("s1").hasExtension("state"), is(false));
+		assertThat(ts.getArc("s1", "s0", "b").getExtension("arc"), equalTo((Object) "extb"));
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -0,0 +1,149 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.adt.ts;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.testng.annotations.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import static org.hamcrest.Matchers.*;
+
+/** @author Uli Schlachter */
+public class DenseParikhVectorTest {
+	private final DenseParikhVector.Alphabet alphabet =
+		new DenseParikhVector.Alphabet(Arrays.asList("c", "a", "b"));
+
+	private DenseParikhVector pv(String... sequence) {
+		return alphabet.fromSequence(Arrays.asList(sequence));
+	}
+
+	@Test
+	public void testAlphabet() {
+		assertThat(alphabet.size(), equalTo(3));
+		assertThat(alphabet.getLabel(0), equalTo("a"));
+		assertThat(alphabet.getLabel(2), equalTo("c"));
+		assertThat(alphabet.indexOf("b"), equalTo(1));
+		assertThat(alphabet.indexOf("d"), equalTo(-1));
+		assertThat(alphabet, equalTo(new DenseParikhVector.Alphabet(Arrays.asList("a", "b", "c", "a"))));
+		assertThat(alphabet, not(equalTo(new DenseParikhVector.Alphabet(Arrays.asList("a", "b")))));
+	}
+
+	@Test
+	public void testEmptyVector() {
+		DenseParikhVector pv = alphabet.zero();
+		assertThat(pv.isZero(), equalTo(true));
+		assertThat(pv, equalTo(pv()));
+		assertThat(pv.add(pv), equalTo(pv));
+		assertThat(pv.compare(pv), equalTo(ParikhVector.Comparison.EQUAL));
+		assertThat(pv.mutuallyDisjoint(pv), equalTo(true));
+		assertThat(pv.get("d"), equalTo(0));
+		assertThat(pv, hasToString("{}"));
+		assertThat(pv.toParikhVector(), equalTo(new ParikhVector()));
+	}
+
+	@Test
+	public void testAdd() {
+		DenseParikhVector pv = pv("a", "c");
+		assertThat(pv.isZero(), equalTo(false));
+		assertThat(pv.add("a"), equalTo(pv("a", "a", "c")));
+		assertThat(pv.add(1), equalTo(pv("a", "b", "c")));
+		assertThat(pv.add(pv), equalTo(pv("a", "a", "c", "c")));
+		assertThat(pv.add(pv).hashCode(), equalTo(pv("c", "a", "c", "a").hashCode()));
+		assertThat(pv, equalTo(pv("c", "a")));
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testUnknownLabel() {
+		pv("a", "d");
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testDifferentAlphabet() {
+		DenseParikhVector.Alphabet other = new DenseParikhVector.Alphabet(Arrays.asList("a", "b"));
+		pv("a").add(other.zero());
+	}
+
+	@Test
+	public void testSameAlphabetFromDifferentInstances() {
+		DenseParikhVector.Alphabet other = new DenseParikhVector.Alphabet(Arrays.asList("a", "b", "c"));
+		assertThat(pv("a", "b"), equalTo(other.fromSequence(Arrays.asList("b", "a"))));
+		assertThat(pv("a").add(other.fromSequence(Arrays.asList("b"))), equalTo(pv("a", "b")));
+	}
+
+	@Test
+	public void testTryRemove() {
+		DenseParikhVector pv = pv("a", "a", "b");
+		assertThat(pv.tryRemove(0, 2), equalTo(pv("b")));
+		assertThat(pv.tryRemove(0, 3), nullValue());
+		assertThat(pv.tryRemove(2, 1), nullValue());
+	}
+
+	@Test
+	public void testResidual() {
+		DenseParikhVector pv1 = pv("a", "a", "b");
+		DenseParikhVector pv2 = pv("a", "c");
+		assertThat(pv1.residual(pv2), equalTo(pv("a", "b")));
+		assertThat(pv2.residual(pv1), equalTo(pv("c")));
+		assertThat(pv1.residual(pv1), equalTo(alphabet.zero()));
+	}
+
+	@Test
+	public void testCompare() {
+		DenseParikhVector pv1 = pv("a", "b");
+		DenseParikhVector pv2 = pv("a", "b", "b");
+		DenseParikhVector pv3 = pv("a", "c");
+		assertThat(pv1.compare(pv2), equalTo(ParikhVector.Comparison.LESS_THAN));
+		assertThat(pv2.compare(pv1), equalTo(ParikhVector.Comparison.GREATER_THAN));
+		assertThat(pv1.compare(pv("b", "a")), equalTo(ParikhVector.Comparison.EQUAL));
+		assertThat(pv1.compare(pv3), equalTo(ParikhVector.Comparison.INCOMPARABLE));
+		assertThat(pv1.isUncomparableTo(pv3), equalTo(true));
+		assertThat(pv1.isUncomparableTo(pv2), equalTo(false));
+	}
+
+	@Test
+	public void testDisjoint() {
+		assertThat(pv("a", "b").mutuallyDisjoint(pv("c")), equalTo(true));
+		assertThat(pv("a", "b").mutuallyDisjoint(pv("b", "c")), equalTo(false));
+		assertThat(pv("a", "b").sameOrMutuallyDisjoint(pv("b", "a")), equalTo(true));
+		assertThat(pv("a", "b").sameOrMutuallyDisjoint(pv("b")), equalTo(false));
+	}
+
+	@Test
+	public void testConversion() {
+		ParikhVector pv = new ParikhVector("c", "a", "c");
+		DenseParikhVector dense = alphabet.fromParikhVector(pv);
+		assertThat(dense, equalTo(pv("a", "c", "c")));
+		assertThat(dense.get("c"), equalTo(2));
+		assertThat(dense.toParikhVector(), equalTo(pv));
+		assertThat(dense.toString(), equalTo(pv.toString()));
+	}
+
+	@Test
+	public void testEmptyAlphabet() {
+		DenseParikhVector.Alphabet empty = new DenseParikhVector.Alphabet(Collections.<String>emptyList());
+		assertThat(empty.size(), equalTo(0));
+		assertThat(empty.zero().isZero(), equalTo(true));
+		assertThat(empty.fromParikhVector(new ParikhVector()), equalTo(empty.zero()));
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -306,6 +306,63 @@ public class TransitionSystemTest {
 		assertThat(states[1].getPostsetNodes(), emptyIterable());
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testBuilder() {
+		TransitionSystem.Builder builder = new TransitionSystem.Builder("built", 1);
+		int s0 = builder.addState();
+		int s1 = builder.addState();
+		int s2 = builder.addState();
+		int a = builder.addEvent("a");
+		int b = builder.addEvent("b");
+		// Never used by an arc, so not part of the alphabet
+		builder.addEvent("c");
+		assertThat(builder.addEvent("a"), equalTo(a));
+
+		assertThat(builder.addArc(s0, s1, a), notNullValue());
+		assertThat(builder.addArc(s1, s2, b), notNullValue());
+		assertThat(builder.addArc(s0, s1, b), notNullValue());
+		// Duplicate arcs are rejected
+		assertThat(builder.addArc(s0, s1, a), nullValue());
+		builder.setInitialState(s0);
+
+		TransitionSystem ts = builder.getTransitionSystem();
+		assertThat(ts.getName(), equalTo("built"));
+		assertThat(ts.getInitialState(), nodeWithID("s0"));
+		assertThat(ts.getNodes(), containsInAnyOrder(nodeWithID("s0"), nodeWithID("s1"), nodeWithID("s2")));
+		assertThat(ts.getEdges(), containsInAnyOrder(arcThatConnectsVia("s0", "s1", "a"),
+					arcThatConnectsVia("s1", "s2", "b"), arcThatConnectsVia("s0", "s1", "b")));
+		assertThat(ts.getAlphabet(), containsInAnyOrder("a", "b"));
+		assertThat(builder.getState(s1).getPresetNodes(), contains(builder.getState(s0)));
+		assertThat(builder.getState(s0).getPostsetEdgesByLabel("b"),
+				contains(arcThatConnectsVia("s0", "s1", "b")));
+
+		// The result is a normal transition system
+		assertThat(ts.createState(), nodeWithID("s3"));
+		ts.removeArc("s0", "s1", "a");
+		assertThat(builder.getState(s1).getPresetNodes(), contains(builder.getState(s0)));
+		ts.removeArc("s0", "s1", "b");
+		assertThat(builder.getState(s1).getPresetNodes(), emptyIterable());
+		assertThat(ts.getAlphabet(), contains("b"));
+	}
+
+	@Test
+	public void testBuilderUpdatesCachedPresets() {
+		TransitionSystem.Builder builder = new TransitionSystem.Builder("built", 2);
+		int s0 = builder.addState();
+		int s1 = builder.addState();
+		assertThat(builder.getState(s1).getPresetNodes(), emptyIterable());
+		builder.addArc(s0, s1, builder.addEvent("a"));
+		assertThat(builder.getState(s1).getPresetNodes(), contains(builder.getState(s0)));
+		assertThat(builder.getState(s0).getPostsetNodes(), contains(builder.getState(s1)));
+	}
+
+	@Test(expectedExceptions = IndexOutOfBoundsException.class)
+	public void testBuilderInvalidState() {
+		TransitionSystem.Builder builder = new TransitionSystem.Builder("built", 2);
+		builder.addArc(builder.addState(), 1, builder.addEvent("a"));
+	}
+
 }
 // vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
 
@@ -0,0 +1,152 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.analysis;
+
+import org.testng.annotations.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import uniol.apt.CrashCourseNets;
+import uniol.apt.TestNetCollection;
+import uniol.apt.adt.pn.PetriNet;
+import uniol.apt.adt.pn.Place;
+import uniol.apt.adt.pn.Transition;
+import uniol.apt.adt.ts.TransitionSystem;
+import uniol.apt.analysis.coverability.CoverabilityGraph;
+import uniol.apt.analysis.coverability.CoverabilityGraphEdge;
+
+/** @author Uli Schlachter */
+public class StepCoverabilityGraphTest {
+	/**
+	 * Create a net with the given number of transitions which can each fire once, independently of each other.
+	 * @param numTransitions The number of transitions.
+	 * @return The net.
+	 */
+	static private PetriNet getIndependentNet(int numTransitions) {
+		PetriNet pn = new PetriNet("independent");
+		for (int i = 0; i < numTransitions; i++) {
+			Place p = pn.createPlace();
+			p.setInitialToken(1);
+			pn.createFlow(p, pn.createTransition());
+		}
+		return pn;
+	}
+
+	static private void checkSameAsStepNet(PetriNet pn) {
+		CoverabilityGraph expected = CoverabilityGraph.get(new GenerateStepNet(pn).getStepNet());
+		int expectedArcs = 0;
+		for (CoverabilityGraphEdge edge : expected.getEdges())
+			expectedArcs++;
+
+		StepCoverabilityGraph graph = StepCoverabilityGraph.compute(pn);
+		assertThat(graph.getNumberOfNodes(), equalTo(expected.calculateNodes()));
+		assertThat(graph.getNumberOfArcs(), equalTo(expectedArcs));
+	}
+
+	@Test
+	public void testCCNet1() {
+		checkSameAsStepNet(CrashCourseNets.getCCNet1());
+	}
+
+	@Test
+	public void testPersistentBiCFNet() {
+		checkSameAsStepNet(TestNetCollection.getPersistentBiCFNet());
+	}
+
+	@Test
+	public void testABCLanguageNet() {
+		checkSameAsStepNet(TestNetCollection.getABCLanguageNet());
+	}
+
+	@Test
+	public void testDeadNet() {
+		StepCoverabilityGraph graph = StepCoverabilityGraph.compute(TestNetCollection.getDeadNet());
+		assertThat(graph.getNumberOfNodes(), equalTo(1));
+		assertThat(graph.getNumberOfArcs(), equalTo(0));
+	}
+
+	@Test
+	public void testTwoIndependentTransitions() {
+		StepCoverabilityGraph graph = StepCoverabilityGraph.compute(getIndependentNet(2));
+		assertThat(graph.getNumberOfNodes(), equalTo(4));
+		assertThat(graph.getNumberOfArcs(), equalTo(5));
+
+		TransitionSystem lts = graph.toLTS();
+		assertThat(lts.getNodes(), hasSize(4));
+		assertThat(lts.getEdges(), hasSize(5));
+		assertThat(lts.getAlphabet(), containsInAnyOrder("{t0}", "{t1}", "{t0,t1}"));
+		assertThat(lts.getInitialState().getPostsetEdges(), hasSize(3));
+	}
+
+	@Test
+	public void testTwoIndependentTransitionsMaximal() {
+		StepCoverabilityGraph graph = StepCoverabilityGraph.compute(getIndependentNet(2), true);
+		assertThat(graph.getNumberOfNodes(), equalTo(2));
+		assertThat(graph.getNumberOfArcs(), equalTo(1));
+		assertThat(graph.toLTS().getAlphabet(), contains("{t0,t1}"));
+	}
+
+	@Test
+	public void testManyIndependentTransitions() {
+		// The middle levels of the search have more than 64 markings and are expanded in parallel
+		StepCoverabilityGraph graph = StepCoverabilityGraph.compute(getIndependentNet(8));
+		assertThat(graph.getNumberOfNodes(), equalTo(1 << 8));
+		// Every subset of the not yet fired transitions forms a step: 3^8 - 2^8
+		assertThat(graph.getNumberOfArcs(), equalTo(6561 - 256));
+
+		graph = StepCoverabilityGraph.compute(getIndependentNet(8), true);
+		assertThat(graph.getNumberOfNodes(), equalTo(2));
+		assertThat(graph.getNumberOfArcs(), equalTo(1));
+	}
+
+	@Test
+	public void testConflict() {
+		// Two transitions compete for the single token on a place; they never form a step
+		PetriNet pn = new PetriNet();
+		Place p = pn.createPlace();
+		p.setInitialToken(1);
+		Transition a = pn.createTransition("a");
+		Transition b = pn.createTransition("b");
+		pn.createFlow(p, a);
+		pn.createFlow(p, b);
+
+		StepCoverabilityGraph graph = StepCoverabilityGraph.compute(pn, true);
+		assertThat(graph.getNumberOfNodes(), equalTo(2));
+		assertThat(graph.getNumberOfArcs(), equalTo(2));
+		assertThat(graph.toLTS().getAlphabet(), containsInAnyOrder("{a}", "{b}"));
+	}
+
+	@Test
+	public void testUnbounded() {
+		PetriNet pn = new PetriNet();
+		Place p = pn.createPlace("p");
+		p.setInitialToken(1);
+		Transition t = pn.createTransition("t");
+		pn.createFlow(p, t);
+		pn.createFlow(t, p, 2);
+
+		StepCoverabilityGraph graph = StepCoverabilityGraph.compute(pn);
+		assertThat(graph.getNumberOfNodes(), equalTo(2));
+		assertThat(graph.getNumberOfArcs(), equalTo(2));
+		assertThat(graph.renderAsDot(), containsString("s1 -> s1[label=\"{t}\"];"));
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -0,0 +1,235 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.analysis.bmc;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import uniol.apt.adt.pn.Marking;
+import uniol.apt.adt.pn.PetriNet;
+import uniol.apt.adt.pn.Place;
+import uniol.apt.adt.pn.Transition;
+import uniol.apt.analysis.coverability.CoverabilityGraph;
+import uniol.apt.analysis.coverability.CoverabilityGraphNode;
+import uniol.apt.generator.cycle.CycleGenerator;
+import uniol.apt.generator.philnet.BistatePhilNetGenerator;
+import uniol.apt.generator.philnet.QuadstatePhilNetGenerator;
+import uniol.apt.generator.philnet.TristatePhilNetGenerator;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static uniol.apt.TestNetCollection.*;
+
+/** @author Uli Schlachter */
+public class BoundedModelCheckerTest {
+	static private Marking fire(PetriNet pn, List<Transition> sequence) {
+		Marking marking = pn.getInitialMarking();
+		for (Transition transition : sequence) {
+			assertThat(transition.isFireable(marking), is(true));
+			marking = transition.fire(marking);
+		}
+		return marking;
+	}
+
+	static private boolean isDead(PetriNet pn, Marking marking) {
+		for (Transition transition : pn.getTransitions())
+			if (transition.isFireable(marking))
+				return false;
+		return true;
+	}
+
+	/** A chain p0 -> t0 -> p1 -> ... -> t(n-1) -> pn with a token on p0 */
+	static private PetriNet getChainNet(int length) {
+		PetriNet pn = new PetriNet("chain");
+		Place previous = pn.createPlace("p0");
+		previous.setInitialToken(1);
+		for (int i = 0; i < length; i++) {
+			Transition transition = pn.createTransition("t" + i);
+			Place next = pn.createPlace("p" + (i + 1));
+			pn.createFlow(previous, transition);
+			pn.createFlow(transition, next);
+			previous = next;
+		}
+		return pn;
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testInvalidBound() {
+		new BoundedModelChecker(getDeadlockNet(), 0);
+	}
+
+	@Test
+	public void testDeadlockNet() {
+		PetriNet pn = getDeadlockNet();
+		List<Transition> sequence = new BoundedModelChecker(pn, 1).findDeadlock(5);
+		assertThat(sequence, hasSize(1));
+		assertThat(isDead(pn, fire(pn, sequence)), is(true));
+	}
+
+	@Test
+	public void testTokenGeneratorHasNoDeadlock() {
+		BoundedModelChecker checker = new BoundedModelChecker(getTokenGeneratorNet(), 1);
+		assertThat(checker.findDeadlock(5), nullValue());
+		assertThat(checker.isComplete(), is(true));
+	}
+
+	@Test
+	public void testTokenGeneratorIsNotSafe() {
+		PetriNet pn = getTokenGeneratorNet();
+		BoundedModelChecker checker = new BoundedModelChecker(pn, 1);
+		assertThat(checker.findBoundViolation(1), nullValue());
+		assertThat(checker.isComplete(), is(false));
+		Transition t1 = pn.getTransition("t1");
+		assertThat(checker.findBoundViolation(5), equalTo(Arrays.asList(t1, t1)));
+	}
+
+	@Test
+	public void testTokenGeneratorIsNotThreeBounded() {
+		PetriNet pn = getTokenGeneratorNet();
+		List<Transition> sequence = new BoundedModelChecker(pn, 3).findBoundViolation(5);
+		assertThat(sequence, hasSize(4));
+		assertThat(fire(pn, sequence).getToken("p1").getValue(), equalTo(4L));
+	}
+
+	@Test
+	public void testInitialMarkingExceedsBound() {
+		PetriNet pn = getDeadlockNet();
+		pn.getPlace("p1").setInitialToken(2);
+		BoundedModelChecker checker = new BoundedModelChecker(pn, 1);
+		assertThat(checker.findBoundViolation(5), empty());
+		assertThat(checker.findDeadlock(5), nullValue());
+		assertThat(checker.isComplete(), is(true));
+	}
+
+	@Test
+	public void testCycleNet() {
+		BoundedModelChecker checker = new BoundedModelChecker(new CycleGenerator().generateNet(3), 1);
+		assertThat(checker.findBoundViolation(10), nullValue());
+		assertThat(checker.isComplete(), is(false));
+		assertThat(checker.findDeadlock(10), nullValue());
+		assertThat(checker.isComplete(), is(false));
+	}
+
+	@Test
+	public void testDeepDeadlock() {
+		PetriNet pn = getChainNet(40);
+		BoundedModelChecker checker = new BoundedModelChecker(pn, 1);
+		assertThat(checker.findDeadlock(39), nullValue());
+		assertThat(checker.isComplete(), is(false));
+
+		List<Transition> sequence = checker.findDeadlock(60);
+		assertThat(sequence, hasSize(40));
+		assertThat(isDead(pn, fire(pn, sequence)), is(true));
+
+		assertThat(checker.findBoundViolation(60), nullValue());
+		assertThat(checker.isComplete(), is(true));
+	}
+
+	@Test
+	public void testFindMarkingAfterDeeperSearch() {
+		PetriNet pn = getChainNet(20);
+		BoundedModelChecker checker = new BoundedModelChecker(pn, 1);
+		assertThat(checker.findDeadlock(30), hasSize(20));
+
+		// The steps that were unrolled for the deeper search must not prevent shorter firing sequences
+		Marking target = new Marking(pn).setTokenCount("p7", 1);
+		List<Transition> sequence = checker.findMarking(target, 30);
+		assertThat(sequence, hasSize(7));
+		assertThat(fire(pn, sequence), equalTo(target));
+	}
+
+	@Test
+	public void testFindMarkingWithWeights() {
+		PetriNet pn = new PetriNet();
+		Place p = pn.createPlace("p");
+		Place q = pn.createPlace("q");
+		p.setInitialToken(3);
+		Transition t = pn.createTransition("t");
+		pn.createFlow(p, t, 2);
+		pn.createFlow(t, q, 3);
+		Transition u = pn.createTransition("u");
+		pn.createFlow(q, u);
+		pn.createFlow(u, p);
+
+		Marking target = new Marking(pn).setTokenCount(q, 5);
+		BoundedModelChecker checker = new BoundedModelChecker(pn, 5);
+		List<Transition> sequence = checker.findMarking(target, 10);
+		assertThat(sequence, notNullValue());
+		assertThat(fire(pn, sequence), equalTo(target));
+
+		assertThat(checker.findMarking(target.setTokenCount(q, 6), 10), nullValue());
+		assertThat(checker.isComplete(), is(true));
+	}
+
+	@Test
+	public void testInitiallyDeadNet() {
+		PetriNet pn = new PetriNet();
+		Place p = pn.createPlace("p");
+		Transition t = pn.createTransition("t");
+		pn.createFlow(p, t);
+		assertThat(new BoundedModelChecker(pn, 1).findDeadlock(5), empty());
+	}
+
+	@Test
+	public void testNetWithoutTransitions() {
+		PetriNet pn = getNoTransitionOnePlaceNet();
+		BoundedModelChecker checker = new BoundedModelChecker(pn, 1);
+		assertThat(checker.findDeadlock(5), empty());
+		assertThat(checker.findMarking(pn.getInitialMarking(), 5), empty());
+		assertThat(checker.findBoundViolation(5), nullValue());
+		assertThat(checker.isComplete(), is(true));
+	}
+
+	@Test
+	public void testFindInitialMarking() {
+		PetriNet pn = getChainNet(3);
+		assertThat(new BoundedModelChecker(pn, 1).findMarking(pn.getInitialMarking(), 5), empty());
+	}
+
+	static private void checkDeadlocksAgainstReachabilityGraph(PetriNet pn) {
+		// The nets are safe, so the reachability graph is small and no firing sequence needs to be longer than
+		// its number of nodes
+		boolean hasDeadlock = false;
+		int size = 0;
+		for (CoverabilityGraphNode node : CoverabilityGraph.get(pn).getNodes()) {
+			assertThat(node.getMarking().hasOmega(), is(false));
+			size++;
+			hasDeadlock |= node.getPostsetEdges().isEmpty();
+		}
+
+		List<Transition> sequence = new BoundedModelChecker(pn, 1).findDeadlock(size);
+		assertThat(sequence != null, equalTo(hasDeadlock));
+		if (sequence != null)
+			assertThat(isDead(pn, fire(pn, sequence)), is(true));
+	}
+
+	@Test
+	public void testPhilosophersNets() {
+		for (int size = 2; size <= 4; size++) {
+			checkDeadlocksAgainstReachabilityGraph(new BistatePhilNetGenerator().generateNet(size));
+			checkDeadlocksAgainstReachabilityGraph(new TristatePhilNetGenerator().generateNet(size));
+			checkDeadlocksAgainstReachabilityGraph(new QuadstatePhilNetGenerator().generateNet(size));
+		}
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -20,6 +20,7 @@
 package uniol.apt.analysis.connectivity;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 
 import org.hamcrest.Matcher;
@@ -240,6 +241,26 @@ public class ConnectivityTest {
 	public void testQuadstatePhilNet(int size) {
 		testStronglyConnected(quadStatePhilNetGenerator.generateNet(size));
 	}
+
+	@Test
+	public void testIndexedWeaklyConnectedComponents() {
+		TransitionSystem ts = new TransitionSystem();
+		ts.createStates("s0", "s1", "s2", "s3", "s4");
+		ts.createArc("s2", "s0", "a");
+		ts.createArc("s3", "s3", "a");
+		ts.createArc("s4", "s2", "a");
+		GraphSnapshot<State> snapshot = new GraphSnapshot<>(ts);
+		int[] components = Connectivity.getWeaklyConnectedComponents(snapshot);
+
+		int s0 = components[snapshot.getIndex(ts.getNode("s0"))];
+		int s1 = components[snapshot.getIndex(ts.getNode("s1"))];
+		int s3 = components[snapshot.getIndex(ts.getNode("s3"))];
+		assertThat(components[snapshot.getIndex(ts.getNode("s2"))], equalTo(s0));
+		assertThat(components[snapshot.getIndex(ts.getNode("s4"))], equalTo(s0));
+		assertThat(Arrays.asList(s0, s1, s3), containsInAnyOrder(0, 1, 2));
+		// Components are numbered in the order of their first node
+		assertThat(components[0], equalTo(0));
+	}
 }
 
 // vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -0,0 +1,237 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.analysis.connectivity;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.testng.annotations.Test;
+
+import uniol.apt.adt.ts.State;
+import uniol.apt.adt.ts.TransitionSystem;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/** @author Uli Schlachter */
+public class StronglyConnectedComponentsTest {
+	/** A graph given by the successors of each node. */
+	static private class ArrayGraph implements IndexedGraph {
+		private final int[] start;
+		private final int[] targets;
+
+		private ArrayGraph(int[]... successors) {
+			start = new int[successors.length + 1];
+			for (int node = 0; node < successors.length; node++)
+				start[node + 1] = start[node] + successors[node].length;
+			targets = new int[start[successors.length]];
+			for (int node = 0; node < successors.length; node++)
+				System.arraycopy(successors[node], 0, targets, start[node], successors[node].length);
+		}
+
+		@Override
+		public int getNodeCount() {
+			return start.length - 1;
+		}
+
+		@Override
+		public int getStart(int node) {
+			return start[node];
+		}
+
+		@Override
+		public int getEnd(int node) {
+			return start[node + 1];
+		}
+
+		@Override
+		public int getTarget(int arc) {
+			return targets[arc];
+		}
+	}
+
+	static private int[] successors(IndexedGraph graph, int node) {
+		int[] result = new int[graph.getEnd(node) - graph.getStart(node)];
+		for (int arc = graph.getStart(node); arc < graph.getEnd(node); arc++)
+			result[arc - graph.getStart(node)] = graph.getTarget(arc);
+		return result;
+	}
+
+	/**
+	 * Check that the components are numbered in reverse topological order and that the condensation matches the
+	 * graph.
+	 */
+	static private void checkConsistency(IndexedGraph graph, StronglyConnectedComponents components) {
+		IndexedGraph condensation = components.getCondensation();
+		assertThat(condensation.getNodeCount(), equalTo(components.getComponentCount()));
+		Set<List<Integer>> expected = new HashSet<>();
+		for (int node = 0; node < graph.getNodeCount(); node++) {
+			int component = components.getComponent(node);
+			for (int target : successors(graph, node)) {
+				int other = components.getComponent(target);
+				assertThat(other, lessThanOrEqualTo(component));
+				if (other != component)
+					expected.add(Arrays.asList(component, other));
+			}
+		}
+		Set<List<Integer>> actual = new HashSet<>();
+		for (int component = 0; component < components.getComponentCount(); component++) {
+			int previous = -1;
+			for (int target : successors(condensation, component)) {
+				assertThat(target, greaterThan(previous));
+				previous = target;
+				actual.add(Arrays.asList(component, target));
+			}
+		}
+		assertThat(actual, equalTo(expected));
+	}
+
+	/** Check that both results describe the same partition of the nodes. */
+	static private void checkSamePartition(StronglyConnectedComponents first, StronglyConnectedComponents second) {
+		assertThat(second.getComponentCount(), equalTo(first.getComponentCount()));
+		int[] map = new int[first.getComponentCount()];
+		Arrays.fill(map, -1);
+		int[] firstComponents = first.getComponents();
+		int[] secondComponents = second.getComponents();
+		assertThat(secondComponents.length, equalTo(firstComponents.length));
+		for (int node = 0; node < firstComponents.length; node++) {
+			if (map[firstComponents[node]] == -1)
+				map[firstComponents[node]] = secondComponents[node];
+			assertThat(secondComponents[node], equalTo(map[firstComponents[node]]));
+		}
+	}
+
+	static private void checkBothAlgorithms(IndexedGraph graph) {
+		StronglyConnectedComponents sequential = StronglyConnectedComponents.calculateSequential(graph);
+		StronglyConnectedComponents parallel = StronglyConnectedComponents.calculateParallel(graph);
+		checkConsistency(graph, sequential);
+		checkConsistency(graph, parallel);
+		checkSamePartition(sequential, parallel);
+	}
+
+	@Test
+	public void testEmptyGraph() {
+		IndexedGraph graph = new ArrayGraph();
+		StronglyConnectedComponents components = StronglyConnectedComponents.calculate(graph);
+		assertThat(components.getComponentCount(), equalTo(0));
+		assertThat(components.getCondensation().getNodeCount(), equalTo(0));
+		checkBothAlgorithms(graph);
+	}
+
+	@Test
+	public void testSmallGraph() {
+		// Components {0, 1, 2}, {3, 4} and {5}; 5 has a self loop and 2 has a multiple arc to 3
+		IndexedGraph graph = new ArrayGraph(
+				new int[] { 1 },
+				new int[] { 2 },
+				new int[] { 0, 3, 3 },
+				new int[] { 4, 5 },
+				new int[] { 3 },
+				new int[] { 5 });
+		StronglyConnectedComponents components = StronglyConnectedComponents.calculate(graph);
+		assertThat(components.getComponentCount(), equalTo(3));
+		assertThat(components.getComponents(), equalTo(new int[] { 2, 2, 2, 1, 1, 0 }));
+
+		IndexedGraph condensation = components.getCondensation();
+		assertThat(successors(condensation, 0), equalTo(new int[0]));
+		assertThat(successors(condensation, 1), equalTo(new int[] { 0 }));
+		assertThat(successors(condensation, 2), equalTo(new int[] { 1 }));
+		checkBothAlgorithms(graph);
+	}
+
+	@Test
+	public void testGetComponentsIsCopy() {
+		StronglyConnectedComponents components = StronglyConnectedComponents.calculate(
+				new ArrayGraph(new int[] { 1 }, new int[0]));
+		components.getComponents()[0] = 42;
+		assertThat(components.getComponent(0), equalTo(1));
+	}
+
+	@Test
+	public void testSnapshot() {
+		TransitionSystem ts = new TransitionSystem();
+		ts.createStates("s0", "s1", "s2");
+		ts.createArc("s0", "s1", "a");
+		ts.createArc("s1", "s0", "b");
+		ts.createArc("s1", "s2", "c");
+		GraphSnapshot<State> snapshot = new GraphSnapshot<>(ts);
+		StronglyConnectedComponents components = StronglyConnectedComponents.calculate(snapshot);
+
+		int s0 = components.getComponent(snapshot.getIndex(ts.getNode("s0")));
+		int s1 = components.getComponent(snapshot.getIndex(ts.getNode("s1")));
+		int s2 = components.getComponent(snapshot.getIndex(ts.getNode("s2")));
+		assertThat(components.getComponentCount(), equalTo(2));
+		assertThat(s0, equalTo(s1));
+		assertThat(s2, equalTo(0));
+		assertThat(s0, equalTo(1));
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testSnapshotForeignNode() {
+		TransitionSystem ts = new TransitionSystem();
+		ts.createState("s0");
+		TransitionSystem other = new TransitionSystem();
+		new GraphSnapshot<>(ts).getIndex(other.createState("s0"));
+	}
+
+	@Test
+	public void testLongChainOfCycles() {
+		// A chain of 2-cycles is not trimmed and is never split evenly by the forward-backward algorithm
+		int pairs = 50000;
+		int[][] successors = new int[2 * pairs][];
+		for (int pair = 0; pair < pairs; pair++) {
+			int first = 2 * pair;
+			if (pair + 1 < pairs)
+				successors[first] = new int[] { first + 1, first + 2 };
+			else
+				successors[first] = new int[] { first + 1 };
+			successors[first + 1] = new int[] { first };
+		}
+		IndexedGraph graph = new ArrayGraph(successors);
+		assertThat(StronglyConnectedComponents.calculateParallel(graph).getComponentCount(), equalTo(pairs));
+		checkBothAlgorithms(graph);
+	}
+
+	@Test
+	public void testRandomGraphs() {
+		Random random = new Random(42);
+		for (int round = 0; round < 5; round++) {
+			// A big cycle through half of the nodes plus random arcs with a varying density
+			int nodes = 40000;
+			int arcsPerNode = round + 1;
+			int[][] successors = new int[nodes][];
+			for (int node = 0; node < nodes; node++) {
+				int count = random.nextInt(arcsPerNode + 1);
+				boolean onCycle = node < nodes / 2;
+				successors[node] = new int[count + (onCycle ? 1 : 0)];
+				for (int arc = 0; arc < count; arc++)
+					successors[node][arc] = random.nextInt(nodes);
+				if (onCycle)
+					successors[node][count] = (node + 1) % (nodes / 2);
+			}
+			checkBothAlgorithms(new ArrayGraph(successors));
+		}
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -37,6 +37,10 @@ import static org.testng.Assert.assertFalse;
 import uniol.apt.adt.pn.PetriNet;
 import uniol.apt.adt.pn.Marking;
 import uniol.apt.adt.pn.Transition;
+import uniol.apt.adt.ts.CompactTransitionSystem;
+import uniol.apt.adt.ts.TransitionSystem;
+import uniol.apt.analysis.exception.UnboundedException;
+import uniol.apt.analysis.isomorphism.IsomorphismLogic;
 import uniol.apt.generator.cycle.CycleGenerator;
 
 import static uniol.apt.TestNetCollection.*;
@@ -396,6 +400,37 @@ public class CoverabilityGraphTest {
 		// And finally throw some exception
 		it.next();
 	}
+
+	@Test
+	public void testCompactReachabilityLTS() throws Exception {
+		PetriNet pn = getConcurrentDiamondNet();
+		CoverabilityGraph cov = CoverabilityGraph.getReachabilityGraph(pn);
+		CompactTransitionSystem compact = cov.toCompactReachabilityLTS();
+
+		assertThat(compact.getNumberOfStates(), equalTo(4));
+		assertThat(compact.getNumberOfArcs(), equalTo(4));
+		int initial = compact.getInitialState();
+		assertThat(compact.getStateExtensions().get(initial, Marking.class.getName()),
+				equalTo((Object) pn.getInitialMarking()));
+
+		TransitionSystem lts = compact.toTransitionSystem();
+		assertThat(new IsomorphismLogic(lts, cov.toReachabilityLTS(), true).isIsomorphic(), is(true));
+	}
+
+	@Test
+	public void testCompactLTSMultiArcNet() {
+		CompactTransitionSystem compact = CoverabilityGraph.get(getMultiArcNet()).toCompactCoverabilityLTS();
+
+		// The two edges of the self-loop are merged into a single arc
+		assertThat(compact.getNumberOfStates(), equalTo(1));
+		assertThat(compact.getNumberOfArcs(), equalTo(1));
+	}
+
+	@Test(expectedExceptions = UnboundedException.class)
+	public void testCompactReachabilityLTSUnbounded() throws Exception {
+		CoverabilityGraph.get(getTokenGeneratorNet()).toCompactReachabilityLTS();
+	}
 }
 
+
 // vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
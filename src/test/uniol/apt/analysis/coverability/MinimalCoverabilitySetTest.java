@@ -0,0 +1,162 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.analysis.coverability;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import uniol.apt.adt.pn.Marking;
+import uniol.apt.adt.pn.PetriNet;
+import uniol.apt.adt.pn.Place;
+import uniol.apt.adt.pn.Token;
+import uniol.apt.adt.pn.Transition;
+import uniol.apt.adt.ts.State;
+import uniol.apt.adt.ts.TransitionSystem;
+import uniol.apt.analysis.bounded.Bounded;
+import uniol.apt.generator.philnet.BistatePhilNetGenerator;
+import uniol.apt.generator.philnet.QuadstatePhilNetGenerator;
+
+import static uniol.apt.TestNetCollection.*;
+
+/** @author Uli Schlachter */
+public class MinimalCoverabilitySetTest {
+	/**
+	 * A net where t1 pumps up p1 until t2 disables it and marks p2, which t3 empties again.
+	 * @return The net.
+	 */
+	static private PetriNet getPumpNet() {
+		PetriNet pn = new PetriNet("pump");
+		Place s = pn.createPlace("s");
+		Place p1 = pn.createPlace("p1");
+		Place p2 = pn.createPlace("p2");
+		s.setInitialToken(1);
+		Transition t1 = pn.createTransition("t1");
+		Transition t2 = pn.createTransition("t2");
+		Transition t3 = pn.createTransition("t3");
+		pn.createFlow(s, t1);
+		pn.createFlow(t1, s);
+		pn.createFlow(t1, p1);
+		pn.createFlow(s, t2);
+		pn.createFlow(p1, t2);
+		pn.createFlow(t2, p2);
+		pn.createFlow(p2, t3);
+		return pn;
+	}
+
+	@DataProvider(name = "nets")
+	static public Object[][] nets() {
+		return new Object[][] {
+			{ getEmptyNet() },
+			{ getNoTransitionOnePlaceNet() },
+			{ getOneTransitionNoPlaceNet() },
+			{ getTokenGeneratorNet() },
+			{ getDeadlockNet() },
+			{ getNonPersistentNet() },
+			{ getPersistentBiCFNet() },
+			{ getConcurrentDiamondNet() },
+			{ getConflictingDiamondNet() },
+			{ getABCLanguageNet() },
+			{ getMultiArcNet() },
+			{ getACBCCLoopNet() },
+			{ getPumpNet() },
+			{ new BistatePhilNetGenerator().generateNet(3) },
+			{ new QuadstatePhilNetGenerator().generateNet(3) },
+		};
+	}
+
+	static private boolean lessOrEqual(Marking smaller, Marking larger) {
+		for (Place p : smaller.getNet().getPlaces())
+			if (smaller.getToken(p).compareTo(larger.getToken(p)) > 0)
+				return false;
+		return true;
+	}
+
+	static private Set<Marking> getMaximalMarkings(CoverabilityGraph graph) {
+		List<Marking> markings = new ArrayList<>();
+		for (CoverabilityGraphNode node : graph.getNodes())
+			markings.add(node.getMarking());
+		Set<Marking> result = new HashSet<>();
+		for (Marking marking : markings) {
+			boolean maximal = true;
+			for (Marking other : markings)
+				if (lessOrEqual(marking, other) && !other.equals(marking))
+					maximal = false;
+			if (maximal)
+				result.add(marking);
+		}
+		return result;
+	}
+
+	@Test(dataProvider = "nets")
+	public void testSameAsMaximalCoverabilityGraphMarkings(PetriNet pn) {
+		Set<Marking> expected = getMaximalMarkings(CoverabilityGraph.get(pn));
+		MinimalCoverabilitySet mcs = MinimalCoverabilitySet.compute(pn);
+		assertThat(new HashSet<>(mcs.getMarkings()), equalTo(expected));
+	}
+
+	@Test(dataProvider = "nets")
+	public void testIsBounded(PetriNet pn) {
+		boolean expected = Bounded.checkBounded(pn).isBounded();
+		assertThat(MinimalCoverabilitySet.isBounded(pn), equalTo(expected));
+		assertThat(MinimalCoverabilitySet.compute(pn).isBounded(), equalTo(expected));
+	}
+
+	@Test(dataProvider = "nets")
+	public void testLTS(PetriNet pn) {
+		MinimalCoverabilitySet mcs = MinimalCoverabilitySet.compute(pn);
+		List<Marking> markings = mcs.getMarkings();
+		TransitionSystem lts = mcs.toLTS();
+
+		assertThat(lts.getNodes(), hasSize(markings.size()));
+		for (State state : lts.getNodes())
+			assertThat(markings, hasItem(state.getExtension(CoverabilityGraph.MARKING_KEY)));
+		Marking initial = lts.getInitialState().getExtension(CoverabilityGraph.MARKING_KEY);
+		assertThat(lessOrEqual(pn.getInitialMarking(), initial), is(true));
+	}
+
+	@Test
+	public void testPumpNet() {
+		PetriNet pn = getPumpNet();
+		MinimalCoverabilitySet mcs = MinimalCoverabilitySet.compute(pn);
+
+		Marking pumping = new Marking(pn).setTokenCount("s", 1).setTokenCount("p1", Token.OMEGA);
+		Marking moved = new Marking(pn).setTokenCount("p1", Token.OMEGA).setTokenCount("p2", 1);
+		assertThat(mcs.getMarkings(), containsInAnyOrder(pumping, moved));
+		assertThat(mcs.isBounded(), is(false));
+		assertThat(MinimalCoverabilitySet.isBounded(pn), is(false));
+	}
+
+	@Test
+	public void testBoundedNet() {
+		PetriNet pn = getConcurrentDiamondNet();
+		MinimalCoverabilitySet mcs = MinimalCoverabilitySet.compute(pn);
+		assertThat(mcs.isBounded(), is(true));
+		assertThat(mcs.getNumberOfNodes(), greaterThanOrEqualTo(mcs.getMarkings().size()));
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
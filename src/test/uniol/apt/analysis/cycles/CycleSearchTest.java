@@ -298,6 +298,39 @@ public class CycleSearchTest {
 			cycle(Arrays.asList("s1", "s2"), Arrays.asList("a", "b"))
 		));
 	}
+
+	@Test
+	public void testCycleAfterUnblocking() throws Exception {
+		TransitionSystem ts = new TransitionSystem();
+		ts.createStates("s0", "s1", "s2", "s3");
+		ts.setInitialState("s0");
+
+		ts.createArc("s0", "s2", "b");
+		ts.createArc("s1", "s3", "b");
+		ts.createArc("s2", "s2", "a");
+		ts.createArc("s2", "s2", "c");
+		ts.createArc("s2", "s0", "a");
+		ts.createArc("s2", "s1", "b");
+		ts.createArc("s2", "s3", "c");
+		ts.createArc("s3", "s0", "c");
+		ts.createArc("s3", "s2", "a");
+		ts.createArc("s3", "s2", "c");
+		ts.createArc("s3", "s3", "c");
+
+		List<List<Pair<State, Arc>>> c = getCycles(ts);
+		assertThat(c, containsInAnyOrder(
+			cycle(Arrays.asList("s2"), Arrays.asList("a")),
+			cycle(Arrays.asList("s2"), Arrays.asList("c")),
+			cycle(Arrays.asList("s3"), Arrays.asList("c")),
+			cycle(Arrays.asList("s0", "s2"), Arrays.asList("b", "a")),
+			cycle(Arrays.asList("s2", "s3"), Arrays.asList("c", "c")),
+			cycle(Arrays.asList("s2", "s3"), Arrays.asList("c", "a")),
+			cycle(Arrays.asList("s0", "s2", "s3"), Arrays.asList("b", "c", "c")),
+			cycle(Arrays.asList("s1", "s3", "s2"), Arrays.asList("b", "c", "b")),
+			cycle(Arrays.asList("s1", "s3", "s2"), Arrays.asList("b", "a", "b")),
+			cycle(Arrays.asList("s0", "s2", "s1", "s3"), Arrays.asList("b", "b", "b", "c"))
+		));
+	}
 }
 
 // vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
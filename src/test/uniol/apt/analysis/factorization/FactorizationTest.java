@@ -20,8 +20,10 @@
 package uniol.apt.analysis.factorization;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
 import static uniol.apt.adt.matcher.Matchers.arcThatConnectsVia;
 
 import java.util.HashSet;
@@ -72,6 +74,7 @@ public class FactorizationTest {
 
 		Factorization fact = new Factorization(ts);
 		assertThat(fact.hasFactors(), equalTo(false));
+		assertThat(fact.getPrimeLabelSets(), contains(containsInAnyOrder("a", "b")));
 	}
 
 	@Test
@@ -97,6 +100,28 @@ public class FactorizationTest {
 		));
 	}
 
+	@Test
+	public void testPrimeFactors() {
+		PetriNet pn = new SimpleBitNetGenerator().generateNet(4);
+		TransitionSystem ts = CoverabilityGraph.get(pn).toCoverabilityLTS();
+
+		Factorization fact = new Factorization(ts);
+		assertThat(fact.hasFactors(), equalTo(true));
+		assertThat(fact.getPrimeLabelSets(), containsInAnyOrder(
+					containsInAnyOrder("set0", "unset0"),
+					containsInAnyOrder("set1", "unset1"),
+					containsInAnyOrder("set2", "unset2"),
+					containsInAnyOrder("set3", "unset3")));
+		assertThat(fact.getFactor1().getNodes(), hasSize(2));
+		assertThat(fact.getFactor2().getNodes(), hasSize(8));
+
+		for (TransitionSystem factor : fact.getPrimeFactors()) {
+			assertThat(factor.getNodes(), hasSize(2));
+			assertThat(factor.getEdges(), hasSize(2));
+			assertThat(new Factorization(factor).hasFactors(), equalTo(false));
+		}
+	}
+
 }
 
 // vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
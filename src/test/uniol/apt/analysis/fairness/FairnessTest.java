@@ -186,6 +186,51 @@ public class FairnessTest {
 		assertThat(result.cycle, cycle);
 		assertThat(result.enabling, empty());
 	}
+
+	// The states of a hypercube are connected by more cycles than can be enumerated
+	@Test
+	public void testHypercubeTS() {
+		int dimension = 10;
+		TransitionSystem ts = new TransitionSystem();
+		for (int i = 0; i < (1 << dimension); i++)
+			ts.createState("s" + i);
+		ts.setInitialState("s0");
+		for (int i = 0; i < (1 << dimension); i++)
+			for (int bit = 0; bit < dimension; bit++)
+				ts.createArc("s" + i, "s" + (i ^ (1 << bit)), "t" + bit);
+
+		FairnessResult result = Fairness.checkFairness(ts, ts.getEvent("t3"));
+		assertThat(result.isFair(), is(false));
+		assertThat(result.k, is(0));
+		assertThat(result.unfairState, nodeWithID("s0"));
+		assertThat(result.sequence, empty());
+		assertThat(result.cycle, hasSize(2));
+		assertThat(result.cycle, everyItem(not(arcWithLabel("t3"))));
+		assertThat(result.enabling, empty());
+	}
+
+	@Test
+	public void testUnfairOnlyAfterEnabling() {
+		TransitionSystem ts = new TransitionSystem();
+		ts.createStates("s0", "s1", "s2", "s3");
+		ts.setInitialState("s0");
+		ts.createArc("s0", "s1", "a");
+		ts.createArc("s1", "s2", "b");
+		ts.createArc("s2", "s1", "b");
+		ts.createArc("s2", "s3", "c");
+		ts.createArc("s3", "s3", "d");
+
+		FairnessResult result = Fairness.checkFairness(ts, ts.getEvent("c"));
+		assertThat(result.isFair(), is(false));
+		assertThat(result.k, is(0));
+		assertThat(result.unfairState, nodeWithID("s2"));
+		assertThat(result.sequence, sequenceWithLabels("a", "b"));
+		assertThat(result.cycle, sequenceWithLabels("b", "b"));
+		assertThat(result.enabling, empty());
+
+		result = Fairness.checkFairness(ts, ts.getEvent("a"));
+		assertThat(result.isFair(), is(true));
+	}
 }
 
 // vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
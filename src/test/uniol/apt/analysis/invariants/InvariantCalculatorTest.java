@@ -30,6 +30,8 @@ import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.assertEquals;
 
 import uniol.apt.adt.pn.PetriNet;
+import uniol.apt.adt.pn.Place;
+import uniol.apt.adt.pn.Transition;
 import uniol.apt.io.parser.impl.PnmlPNParser;
 
 import static uniol.apt.io.parser.ParserTestUtils.getAptPN;
@@ -48,6 +50,10 @@ public class InvariantCalculatorTest {
 		for (List<Integer> inv : expected) {
 			assertTrue(calculated.contains(inv), inv.toString() + " " + calculated.toString());
 		}
+		calculated = InvariantCalculator.calcSInvariants(pn, InvariantCalculator.InvariantAlgorithm.SPARSE);
+		for (List<Integer> inv : expected) {
+			assertTrue(calculated.contains(inv), inv.toString() + " " + calculated.toString());
+		}
 	}
 
 	private void testTInvariant(PetriNet pn, Set<List<Integer>> expected) {
@@ -59,6 +65,10 @@ public class InvariantCalculatorTest {
 		for (List<Integer> inv : expected) {
 			assertTrue(calculated.contains(inv), inv.toString() + " " + calculated.toString());
 		}
+		calculated = InvariantCalculator.calcTInvariants(pn, InvariantCalculator.InvariantAlgorithm.SPARSE);
+		for (List<Integer> inv : expected) {
+			assertTrue(calculated.contains(inv), inv.toString() + " " + calculated.toString());
+		}
 	}
 
 	private void coveredBySInvariant(PetriNet pn, boolean covered) {
@@ -66,6 +76,8 @@ public class InvariantCalculatorTest {
 			InvariantCalculator.InvariantAlgorithm.FARKAS) != null, covered);
 		assertEquals(InvariantCalculator.coveredBySInvariants(pn,
 			InvariantCalculator.InvariantAlgorithm.PIPE) != null, covered);
+		assertEquals(InvariantCalculator.coveredBySInvariants(pn,
+			InvariantCalculator.InvariantAlgorithm.SPARSE) != null, covered);
 	}
 
 	private void coveredByTInvariant(PetriNet pn, boolean covered) {
@@ -73,6 +85,15 @@ public class InvariantCalculatorTest {
 			InvariantCalculator.InvariantAlgorithm.FARKAS) != null, covered);
 		assertEquals(InvariantCalculator.coveredByTInvariants(pn,
 			InvariantCalculator.InvariantAlgorithm.PIPE) != null, covered);
+		assertEquals(InvariantCalculator.coveredByTInvariants(pn,
+			InvariantCalculator.InvariantAlgorithm.SPARSE) != null, covered);
+	}
+
+	private boolean supportContains(List<Integer> larger, List<Integer> smaller) {
+		for (int i = 0; i < larger.size(); i++)
+			if (larger.get(i) == 0 && smaller.get(i) != 0)
+				return false;
+		return true;
 	}
 
 	// TESTNETCOLLECTION ....
@@ -475,9 +496,79 @@ public class InvariantCalculatorTest {
 			assertTrue(calculated.contains(inv), inv.toString() + " " + calculated.toString());
 		}
 
+		// Some of the expected invariants are sums of others. The sparse algorithm only finds the invariants
+		// with minimal support, which are exactly the minimal ones of the other algorithm.
+		Set<List<Integer>> minimal = InvariantCalculator.calcSInvariants(pn,
+			InvariantCalculator.InvariantAlgorithm.SPARSE);
+		for (List<Integer> inv : calculated) {
+			boolean isMinimal = true;
+			for (List<Integer> other : calculated)
+				if (!other.equals(inv) && supportContains(inv, other))
+					isMinimal = false;
+			assertEquals(minimal.contains(inv), isMinimal, inv.toString());
+		}
+		assertTrue(calculated.containsAll(minimal));
+
 		assertEquals(InvariantCalculator.coveredBySInvariants(pn) != null, true);
 	}
 
+	@Test
+	public void testSparseManyCombinations() {
+		// A transition that moves a token from one of n places to one of n other places. Every pair of such
+		// places is a minimal S-invariant, so eliminating this transition combines n*n pairs of rows.
+		int n = 70;
+		PetriNet pn = new PetriNet();
+		Transition t = pn.createTransition("t");
+		for (int i = 0; i < n; i++) {
+			pn.createFlow(pn.createPlace("in" + i), t);
+			pn.createFlow(t, pn.createPlace("out" + i));
+		}
+		Set<List<Integer>> calculated = InvariantCalculator.calcSInvariants(pn,
+				InvariantCalculator.InvariantAlgorithm.SPARSE);
+
+		assertEquals(calculated.size(), n * n);
+		for (List<Integer> inv : calculated) {
+			int inputs = 0;
+			int outputs = 0;
+			int i = 0;
+			for (Place p : pn.getPlaces()) {
+				assertTrue(inv.get(i) == 0 || inv.get(i) == 1, inv.toString());
+				if (inv.get(i) == 1 && p.getId().startsWith("in"))
+					inputs++;
+				if (inv.get(i) == 1 && p.getId().startsWith("out"))
+					outputs++;
+				i++;
+			}
+			assertEquals(inputs, 1);
+			assertEquals(outputs, 1);
+		}
+	}
+
+	@Test
+	public void testSparseOnlyMinimalSupports() {
+		// The Farkas algorithm also finds the sum of both invariants, which does not have a minimal support
+		PetriNet pn = new PetriNet();
+		for (int i = 0; i < 5; i++)
+			pn.createPlace("p" + i);
+		pn.createTransitions("t0", "t1", "t2");
+		pn.createFlow("p4", "t0");
+		pn.createFlow("t0", "p1");
+		pn.createFlow("t0", "p2");
+		pn.createFlow("p4", "t1");
+		pn.createFlow("t1", "p3");
+		pn.createFlow("t1", "p0");
+		pn.createFlow("p1", "t2");
+		pn.createFlow("t2", "p3");
+
+		Set<List<Integer>> expected = new HashSet<>();
+		expected.add(Arrays.asList(1, 0, 1, 0, 1));
+		expected.add(Arrays.asList(0, 1, 0, 1, 1));
+		assertTrue(InvariantCalculator.calcSInvariants(pn, InvariantCalculator.InvariantAlgorithm.FARKAS)
+				.contains(Arrays.asList(1, 1, 1, 1, 2)));
+		assertEquals(InvariantCalculator.calcSInvariants(pn, InvariantCalculator.InvariantAlgorithm.SPARSE),
+				expected);
+	}
+
 	
 	@Test
 	public void testNotCovered() {
@@ -199,6 +199,65 @@ public abstract class AbstractIsomorphismTest {
 		testNonWeakIsomorphism(ts2, ts1);
 	}
 
+	@Test
+	public void testLoopsWithDifferentLabels() {
+		TransitionSystem ts1 = new TransitionSystem();
+		ts1.createStates("s0", "s1");
+		ts1.setInitialState("s0");
+		ts1.createArc("s0", "s0", "a");
+		ts1.createArc("s0", "s1", "b");
+
+		TransitionSystem ts2 = new TransitionSystem();
+		ts2.createStates("s0", "s1");
+		ts2.setInitialState("s0");
+		ts2.createArc("s0", "s0", "b");
+		ts2.createArc("s0", "s1", "a");
+
+		BidiMap<State, State> isomorphism = testWeakIsomorphism(ts1, ts2);
+		assertTrue(isomorphism.size() == 2);
+		assertThat(isomorphism, allOf(
+					hasEntry(nodeWithID("s0"), nodeWithID("s0")),
+					hasEntry(nodeWithID("s1"), nodeWithID("s1"))));
+	}
+
+	@Test
+	public void testArcIntoInitialState() {
+		TransitionSystem ts1 = new TransitionSystem();
+		ts1.createStates("s0", "s1");
+		ts1.setInitialState("s0");
+		ts1.createArc("s1", "s0", "a");
+
+		TransitionSystem ts2 = new TransitionSystem();
+		ts2.createStates("s1", "s0");
+		ts2.setInitialState("s0");
+		ts2.createArc("s1", "s0", "a");
+
+		BidiMap<State, State> isomorphism = testIsomorphism(ts1, ts2);
+		assertTrue(isomorphism.size() == 2);
+		assertThat(isomorphism, allOf(
+					hasEntry(nodeWithID("s0"), nodeWithID("s0")),
+					hasEntry(nodeWithID("s1"), nodeWithID("s1"))));
+	}
+
+	@Test
+	public void testParallelArcs() {
+		TransitionSystem ts1 = new TransitionSystem();
+		ts1.createStates("s0", "s1");
+		ts1.setInitialState("s0");
+		ts1.createArc("s0", "s1", "a");
+		ts1.createArc("s0", "s1", "b");
+		ts1.createArc("s1", "s0", "a");
+
+		TransitionSystem ts2 = new TransitionSystem();
+		ts2.createStates("s0", "s1");
+		ts2.setInitialState("s0");
+		ts2.createArc("s0", "s1", "a");
+		ts2.createArc("s1", "s0", "a");
+		ts2.createArc("s1", "s0", "b");
+
+		testNonWeakIsomorphism(ts1, ts2);
+		testNonWeakIsomorphism(ts2, ts1);
+	}
 }
 
 // vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -22,6 +22,8 @@ package uniol.apt.analysis.isomorphism;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
@@ -45,6 +47,9 @@ import static uniol.apt.TestTSCollection.getSingleStateTS;
 import static uniol.apt.TestTSCollection.getSingleStateTSWithLoop;
 import static uniol.apt.adt.matcher.Matchers.nodeWithID;
 
+import java.util.Arrays;
+import java.util.List;
+
 import org.apache.commons.collections4.BidiMap;
 import org.testng.annotations.Test;
 
@@ -94,6 +99,46 @@ public class IsomorphismLogicTest extends AbstractIsomorphismTest {
 		assertFalse(logic.isIsomorphic());
 		assertTrue(logic.getIsomorphism().isEmpty());
 	}
+
+	@Test
+	public void testFingerprints() {
+		IsomorphismLogic logic = new IsomorphismLogic(new LTSFingerprint(getTs3A(), true),
+				new LTSFingerprint(getTs3B(), true));
+		assertTrue(logic.isIsomorphic());
+		assertThat(logic.getIsomorphism(), hasEntry(nodeWithID("s1"), nodeWithID("s1")));
+
+		logic = new IsomorphismLogic(new LTSFingerprint(getTs1A(), false),
+				new LTSFingerprint(getTs1B(), false));
+		assertFalse(logic.isIsomorphic());
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testFingerprintsDifferentMode() {
+		new IsomorphismLogic(new LTSFingerprint(getTs3A(), true), new LTSFingerprint(getTs3B(), false));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testIsomorphismClasses() {
+		TransitionSystem ts3a = getTs3A();
+		TransitionSystem ts3b = getTs3B();
+		TransitionSystem iso3a = getIsoTs3A();
+		TransitionSystem iso3b = getIsoTs3B();
+		TransitionSystem ts1a = getTs1A();
+		List<TransitionSystem> ltss = Arrays.asList(ts3a, iso3a, ts1a, ts3b, iso3b);
+
+		List<List<TransitionSystem>> classes = IsomorphismLogic.getIsomorphismClasses(ltss, false);
+		assertThat(classes, contains(
+					contains(sameInstance(ts3a), sameInstance(ts3b)),
+					contains(sameInstance(iso3a), sameInstance(iso3b)),
+					contains(sameInstance(ts1a))));
+		classes = IsomorphismLogic.getIsomorphismClasses(ltss, true);
+		assertThat(classes, contains(
+					contains(sameInstance(ts3a), sameInstance(ts3b)),
+					contains(sameInstance(iso3a)),
+					contains(sameInstance(ts1a)),
+					contains(sameInstance(iso3b))));
+	}
 }
 
 // vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -0,0 +1,114 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.analysis.isomorphism;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static uniol.apt.BestNetCollection.getTs1A;
+import static uniol.apt.BestNetCollection.getTs1B;
+import static uniol.apt.BestNetCollection.getTs3A;
+import static uniol.apt.BestNetCollection.getTs3B;
+import static uniol.apt.TestNetsForIsomorphism.getIsoTs3A;
+import static uniol.apt.TestNetsForIsomorphism.getIsoTs3B;
+
+import org.testng.annotations.Test;
+
+import uniol.apt.adt.ts.State;
+import uniol.apt.adt.ts.TransitionSystem;
+
+/** @author Uli Schlachter */
+public class LTSFingerprintTest {
+	static private TransitionSystem getChain(String... labels) {
+		TransitionSystem ts = new TransitionSystem();
+		ts.createState("s0");
+		ts.setInitialState("s0");
+		for (int i = 0; i < labels.length; i++) {
+			ts.createState("s" + (i + 1));
+			ts.createArc("s" + i, "s" + (i + 1), labels[i]);
+		}
+		return ts;
+	}
+
+	@Test
+	public void testIsomorphicSystems() {
+		for (boolean checkLabels : new boolean[] { false, true }) {
+			LTSFingerprint fp1 = new LTSFingerprint(getTs3A(), checkLabels);
+			LTSFingerprint fp2 = new LTSFingerprint(getTs3B(), checkLabels);
+			assertThat(fp1, equalTo(fp2));
+			assertThat(fp1.hashCode(), equalTo(fp2.hashCode()));
+		}
+	}
+
+	@Test
+	public void testDifferentSystems() {
+		assertThat(new LTSFingerprint(getTs1A(), false), not(equalTo(new LTSFingerprint(getTs1B(), false))));
+	}
+
+	@Test
+	public void testLabels() {
+		assertThat(new LTSFingerprint(getIsoTs3A(), false), equalTo(new LTSFingerprint(getIsoTs3B(), false)));
+		assertThat(new LTSFingerprint(getChain("a", "b"), true),
+				not(equalTo(new LTSFingerprint(getChain("b", "a"), true))));
+		assertThat(new LTSFingerprint(getChain("a", "b"), false),
+				equalTo(new LTSFingerprint(getChain("b", "a"), false)));
+	}
+
+	@Test
+	public void testLabelsAreNotMixedUp() {
+		LTSFingerprint fp1 = new LTSFingerprint(getChain("a", "b"), true);
+		LTSFingerprint fp2 = new LTSFingerprint(getChain("a", "b"), false);
+		assertThat(fp1, not(equalTo(fp2)));
+	}
+
+	@Test
+	public void testInitialState() {
+		TransitionSystem ts = getChain("a", "a");
+		LTSFingerprint fp1 = new LTSFingerprint(ts, true);
+		ts.setInitialState("s2");
+		LTSFingerprint fp2 = new LTSFingerprint(ts, true);
+		assertThat(fp1, not(equalTo(fp2)));
+	}
+
+	@Test
+	public void testParallelArcs() {
+		TransitionSystem ts1 = getChain("a");
+		TransitionSystem ts2 = getChain("a");
+		ts2.createArc("s0", "s1", "b");
+		assertThat(new LTSFingerprint(ts1, false), not(equalTo(new LTSFingerprint(ts2, false))));
+	}
+
+	@Test
+	public void testColours() {
+		TransitionSystem ts = getChain("a", "a", "a");
+		ts.createArc("s3", "s1", "a");
+		LTSFingerprint fp = new LTSFingerprint(ts, true);
+		State s0 = ts.getNode("s0");
+		State s1 = ts.getNode("s1");
+		State s2 = ts.getNode("s2");
+		State s3 = ts.getNode("s3");
+		assertThat(fp.getColour(s0), not(equalTo(fp.getColour(s1))));
+		assertThat(fp.getColour(s1), not(equalTo(fp.getColour(s2))));
+		assertThat(fp.getColour(s2), not(equalTo(fp.getColour(s3))));
+		assertThat(fp.getColour(s1), not(equalTo(fp.getColour(s3))));
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
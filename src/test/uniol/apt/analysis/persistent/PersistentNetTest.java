@@ -0,0 +1,124 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.analysis.persistent;
+
+import org.testng.annotations.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import uniol.apt.adt.pn.PetriNet;
+import uniol.apt.adt.pn.Place;
+import uniol.apt.adt.pn.Transition;
+import uniol.apt.analysis.exception.UnboundedException;
+import uniol.apt.generator.bitnet.SimpleBitNetGenerator;
+import static uniol.apt.TestNetCollection.*;
+
+/** @author Uli Schlachter */
+public class PersistentNetTest {
+	@Test
+	public void testConcurrentDiamondNet() throws Exception {
+		PersistentNet persistent = new PersistentNet(getConcurrentDiamondNet());
+		persistent.check();
+		assertThat(persistent.isPersistent(), is(true));
+		assertThat(persistent.getMarking(), nullValue());
+		assertThat(persistent.getLabel1(), nullValue());
+		assertThat(persistent.getLabel2(), nullValue());
+	}
+
+	@Test
+	public void testNonPersistentNet() throws Exception {
+		PetriNet pn = getNonPersistentNet();
+		PersistentNet persistent = new PersistentNet(pn);
+		persistent.check();
+		assertThat(persistent.isPersistent(), is(false));
+		assertThat(persistent.getMarking(), equalTo(pn.getInitialMarking()));
+		assertThat(persistent.getLabel1(), isOneOf("a", "b"));
+		assertThat(persistent.getLabel2(), isOneOf("a", "b"));
+		assertThat(persistent.getLabel1(), not(equalTo(persistent.getLabel2())));
+	}
+
+	@Test
+	public void testNonPersistentNetBackwards() throws Exception {
+		PetriNet pn = getNonPersistentNet();
+		PersistentNet persistent = new PersistentNet(pn, true);
+		persistent.check();
+		assertThat(persistent.isPersistent(), is(false));
+		assertThat(persistent.getMarking(), equalTo(pn.getTransition("a").fire(pn.getInitialMarking())));
+	}
+
+	@Test
+	public void testConflictingDiamondNet() throws Exception {
+		// The shared place is only a side condition, so the structural conflict is not a behavioural one
+		PersistentNet persistent = new PersistentNet(getConflictingDiamondNet());
+		persistent.check();
+		assertThat(persistent.isPersistent(), is(true));
+	}
+
+	@Test
+	public void testConflictWithEqualLabels() throws Exception {
+		PetriNet pn = getDeadlockNet();
+		PersistentNet persistent = new PersistentNet(pn);
+		persistent.check();
+		assertThat(persistent.isPersistent(), is(false));
+
+		for (Transition t : pn.getTransitions())
+			t.setLabel("a");
+		persistent = new PersistentNet(pn);
+		persistent.check();
+		assertThat(persistent.isPersistent(), is(true));
+	}
+
+	@Test(expectedExceptions = UnboundedException.class)
+	public void testUnboundedNet() throws Exception {
+		new PersistentNet(getTokenGeneratorNet()).check();
+	}
+
+	@Test
+	public void testLargePersistentNet() throws Exception {
+		// The reachability graph has 2^13 markings, enough to be checked in parallel
+		PetriNet pn = new SimpleBitNetGenerator().generateNet(13);
+		PersistentNet persistent = new PersistentNet(pn);
+		persistent.check();
+		assertThat(persistent.isPersistent(), is(true));
+
+		persistent = new PersistentNet(pn, true);
+		persistent.check();
+		assertThat(persistent.isPersistent(), is(true));
+	}
+
+	@Test
+	public void testLargeNonPersistentNet() throws Exception {
+		PetriNet pn = new SimpleBitNetGenerator().generateNet(12);
+		Place p = pn.createPlace("conflict");
+		p.setInitialToken(1);
+		pn.createFlow(p, pn.createTransition("c1"));
+		pn.createFlow(p, pn.createTransition("c2"));
+
+		PersistentNet persistent = new PersistentNet(pn);
+		persistent.check();
+		assertThat(persistent.isPersistent(), is(false));
+		// The initial marking is the first counterexample
+		assertThat(persistent.getMarking(), equalTo(pn.getInitialMarking()));
+		assertThat(persistent.getLabel1(), isOneOf("c1", "c2"));
+		assertThat(persistent.getLabel2(), isOneOf("c1", "c2"));
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
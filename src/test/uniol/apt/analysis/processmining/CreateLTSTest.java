@@ -19,7 +19,14 @@
 
 package uniol.apt.analysis.processmining;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import org.apache.commons.collections4.Transformer;
 import org.apache.commons.collections4.TransformerUtils;
 
@@ -94,6 +101,79 @@ public class CreateLTSTest {
 		assertThat(s0.getPostsetNodesByLabel("a"), hasSize(1));
 		assertThat(s0.getPostsetNodesByLabel("b"), hasSize(1));
 	}
+
+	@Test
+	public void createLaterEventsReachSameState() {
+		CreateLTS create = new CreateLTS();
+		create.addWord(Arrays.asList("a", "b"));
+		create.addWord(Arrays.asList("c"));
+		create.addWord(Arrays.asList("b", "a"));
+		TransitionSystem ts = create.getTransitionSystem();
+
+		assertThat(ts.getNodes(), hasSize(5));
+		assertThat(ts.getEdges(), hasSize(5));
+		State s0 = ts.getInitialState();
+		State s1 = s0.getPostsetNodesByLabel("a").iterator().next();
+		State s2 = s0.getPostsetNodesByLabel("b").iterator().next();
+		assertThat(s1.getPostsetNodesByLabel("b"), equalTo(s2.getPostsetNodesByLabel("a")));
+	}
+
+	@Test
+	public void createFromReader() throws IOException {
+		CreateLTS create = new CreateLTS();
+		create.addWords(new StringReader("ab\r\n\nba\n"));
+		TransitionSystem ts = create.getTransitionSystem();
+
+		assertThat(ts.getNodes(), hasSize(4));
+		assertThat(ts.getEdges(), hasSize(4));
+		assertThat(ts.getAlphabet(), containsInAnyOrder("a", "b"));
+
+		State s0 = ts.getInitialState();
+		State s1 = s0.getPostsetNodesByLabel("a").iterator().next();
+		State s2 = s0.getPostsetNodesByLabel("b").iterator().next();
+		assertThat(s1.getPostsetNodesByLabel("b"), equalTo(s2.getPostsetNodesByLabel("a")));
+	}
+
+	@Test
+	public void createFromReaderWithoutTrailingNewline() throws IOException {
+		CreateLTS create = new CreateLTS();
+		create.addWords(new StringReader("a\rb"));
+		TransitionSystem ts = create.getTransitionSystem();
+
+		assertThat(ts.getNodes(), hasSize(4));
+		assertThat(ts.getEdges(), hasSize(3));
+		assertThat(ts.getAlphabet(), containsInAnyOrder("a", "b", "\r"));
+	}
+
+	@Test
+	public void createFromFilesInParallel() throws IOException {
+		List<File> files = new ArrayList<>();
+		try {
+			String[] contents = { "ab\nc\n", "ba\nca\n", "", "acb\nbb" };
+			for (String content : contents) {
+				File file = File.createTempFile("words", ".txt");
+				files.add(file);
+				Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+			}
+
+			CreateLTS parallel = new CreateLTS();
+			parallel.addWords(files);
+			TransitionSystem ts = parallel.getTransitionSystem();
+
+			CreateLTS sequential = new CreateLTS();
+			sequential.addWords(new StringReader("ab\nc\nba\nca\nacb\nbb\n"));
+			TransitionSystem expected = sequential.getTransitionSystem();
+
+			assertThat(ts.getNodes(), hasSize(expected.getNodes().size()));
+			assertThat(ts.getEdges(), hasSize(expected.getEdges().size()));
+			assertThat(ts.getNodes(), hasSize(8));
+			assertThat(ts.getEdges(), hasSize(9));
+			assertThat(ts.getAlphabet(), containsInAnyOrder("a", "b", "c"));
+		} finally {
+			for (File file : files)
+				file.delete();
+		}
+	}
 }
 
 // vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -0,0 +1,251 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.analysis.reachability;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+import uniol.apt.adt.pn.Marking;
+import uniol.apt.adt.pn.PetriNet;
+import uniol.apt.adt.pn.Place;
+import uniol.apt.adt.pn.Transition;
+import uniol.apt.analysis.exception.UnboundedException;
+import uniol.apt.analysis.live.Live;
+import uniol.apt.generator.cycle.CycleGenerator;
+import uniol.apt.generator.philnet.BistatePhilNetGenerator;
+import uniol.apt.generator.philnet.TristatePhilNetGenerator;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static uniol.apt.TestNetCollection.*;
+
+/** @author Uli Schlachter */
+public class DirectedSearchTest {
+	static private Marking fire(PetriNet pn, List<Transition> sequence) {
+		Marking marking = pn.getInitialMarking();
+		for (Transition transition : sequence) {
+			assertThat(transition.isFireable(marking), is(true));
+			marking = transition.fire(marking);
+		}
+		return marking;
+	}
+
+	/** Fire random transitions to find a reachable marking */
+	static private Marking randomWalk(PetriNet pn, int steps, long seed) {
+		Random random = new Random(seed);
+		Transition[] transitions = pn.getTransitions().toArray(new Transition[0]);
+		Marking marking = pn.getInitialMarking();
+		for (int step = 0; step < steps; step++) {
+			Transition transition = transitions[random.nextInt(transitions.length)];
+			if (transition.isFireable(marking))
+				marking = transition.fire(marking);
+		}
+		return marking;
+	}
+
+	/** Two ways from p0 to p1: ta and tb */
+	static private PetriNet getAlternativesNet() {
+		PetriNet pn = new PetriNet();
+		Place p0 = pn.createPlace("p0");
+		Place p1 = pn.createPlace("p1");
+		p0.setInitialToken(1);
+		for (String id : Arrays.asList("ta", "tb")) {
+			Transition transition = pn.createTransition(id);
+			pn.createFlow(p0, transition);
+			pn.createFlow(transition, p1);
+		}
+		return pn;
+	}
+
+	@Test
+	public void testReachInitialMarking() {
+		PetriNet pn = getDeadlockNet();
+		DirectedSearch search = new DirectedSearch(pn);
+		assertThat(search.findReachingSequence(pn.getInitialMarking(), Heuristic.ZERO), empty());
+		assertThat(search.getNumberOfExploredMarkings(), equalTo(1));
+	}
+
+	@Test
+	public void testReachWithTokenDistance() {
+		PetriNet pn = new BistatePhilNetGenerator().generateNet(8);
+		Marking target = randomWalk(pn, 50, 42);
+		DirectedSearch search = new DirectedSearch(pn);
+
+		List<Transition> shortest = search.findReachingSequence(target, Heuristic.ZERO);
+		int breadthFirst = search.getNumberOfExploredMarkings();
+		assertThat(fire(pn, shortest), equalTo(target));
+
+		List<Transition> sequence = search.findReachingSequence(target,
+				new TokenDistanceHeuristic(pn, target, false));
+		assertThat(fire(pn, sequence), equalTo(target));
+		assertThat(sequence, hasSize(shortest.size()));
+		assertThat(search.getNumberOfExploredMarkings(), lessThan(breadthFirst));
+	}
+
+	@Test
+	public void testReachWithStateEquation() {
+		PetriNet pn = new TristatePhilNetGenerator().generateNet(6);
+		Marking target = randomWalk(pn, 50, 23);
+		DirectedSearch search = new DirectedSearch(pn);
+
+		search.findReachingSequence(target, Heuristic.ZERO);
+		int breadthFirst = search.getNumberOfExploredMarkings();
+
+		StateEquationHeuristic heuristic = new StateEquationHeuristic(pn, target, false);
+		assertThat(heuristic.isFeasible(), is(true));
+		List<Transition> sequence = search.findReachingSequence(target, heuristic);
+		assertThat(fire(pn, sequence), equalTo(target));
+		assertThat(search.getNumberOfExploredMarkings(), lessThan(breadthFirst));
+	}
+
+	@Test
+	public void testUnreachable() {
+		PetriNet pn = new CycleGenerator().generateNet(3);
+		Marking target = pn.getInitialMarking().addTokenCount(pn.getPlaces().iterator().next(), 1);
+		DirectedSearch search = new DirectedSearch(pn);
+		assertThat(search.findReachingSequence(target, Heuristic.ZERO), nullValue());
+		assertThat(search.getNumberOfExploredMarkings(), equalTo(3));
+
+		// The state equation proves that nothing has to be explored
+		StateEquationHeuristic heuristic = new StateEquationHeuristic(pn, target, false);
+		assertThat(heuristic.isFeasible(), is(false));
+		assertThat(search.findReachingSequence(target, heuristic), nullValue());
+		assertThat(search.getNumberOfExploredMarkings(), equalTo(0));
+	}
+
+	@Test
+	public void testCoverUnboundedNet() {
+		PetriNet pn = getTokenGeneratorNet();
+		Marking target = new Marking(pn, 10);
+		DirectedSearch search = new DirectedSearch(pn);
+		List<Transition> sequence = search.findCoveringSequence(target,
+				new TokenDistanceHeuristic(pn, target, true));
+		assertThat(sequence, hasSize(10));
+		assertThat(search.getNumberOfExploredMarkings(), equalTo(11));
+	}
+
+	@Test
+	public void testTransitionPriority() {
+		PetriNet pn = getAlternativesNet();
+		Marking target = new Marking(pn, 0, 1);
+		DirectedSearch search = new DirectedSearch(pn);
+		Transition ta = pn.getTransition("ta");
+		Transition tb = pn.getTransition("tb");
+		assertThat(search.findReachingSequence(target, new TransitionPriorityHeuristic(pn, Arrays.asList(ta))),
+				contains(ta));
+		assertThat(search.findReachingSequence(target, new TransitionPriorityHeuristic(pn, Arrays.asList(tb))),
+				contains(tb));
+		assertThat(search.findReachingSequence(target, new SumHeuristic(
+						new TokenDistanceHeuristic(pn, target, false),
+						new TransitionPriorityHeuristic(pn, Arrays.asList(tb, ta)))),
+				contains(tb));
+	}
+
+	@Test
+	public void testPathDependentInfiniteEstimate() {
+		PetriNet pn = getAlternativesNet();
+		Marking target = new Marking(pn, 0, 1);
+		DirectedSearch search = new DirectedSearch(pn);
+		Transition ta = pn.getTransition("ta");
+		Transition tb = pn.getTransition("tb");
+		final int taIndex = new ArrayList<>(pn.getTransitions()).indexOf(ta);
+		// The target is reached via ta and via tb, but ta is ruled out
+		Heuristic heuristic = new Heuristic() {
+			@Override
+			public long estimate(int[] marking, int[] firings) {
+				return firings[taIndex] > 0 ? INFINITE : 0;
+			}
+		};
+		assertThat(search.findReachingSequence(target, heuristic), contains(tb));
+	}
+
+	@Test
+	public void testEnable() {
+		PetriNet pn = new BistatePhilNetGenerator().generateNet(5);
+		DirectedSearch search = new DirectedSearch(pn);
+		for (Transition transition : pn.getTransitions()) {
+			List<Transition> sequence = search.findEnablingSequence(transition,
+					TokenDistanceHeuristic.forEnabling(pn, transition));
+			assertThat(transition.isFireable(fire(pn, sequence)), is(true));
+		}
+	}
+
+	@Test
+	public void testEnableDeadTransition() {
+		PetriNet pn = getDeadTransitionNet();
+		Transition td = pn.getTransition("td");
+		DirectedSearch search = new DirectedSearch(pn);
+		assertThat(search.findEnablingSequence(td, Heuristic.ZERO), nullValue());
+		// The heuristic sees that no transition puts tokens into the preset of td
+		assertThat(search.findEnablingSequence(td, TokenDistanceHeuristic.forEnabling(pn, td)), nullValue());
+		assertThat(search.getNumberOfExploredMarkings(), equalTo(1));
+	}
+
+	@Test
+	public void testKillDeadlockNet() {
+		PetriNet pn = getDeadlockNet();
+		Transition t1 = pn.getTransition("t1");
+		Transition t2 = pn.getTransition("t2");
+		DirectedSearch search = new DirectedSearch(pn);
+		assertThat(search.findKillingSequence(t1, Heuristic.ZERO), anyOf(contains(t1), contains(t2)));
+		assertThat(search.findKillingSequence(t2, Heuristic.ZERO), anyOf(contains(t1), contains(t2)));
+	}
+
+	@Test
+	public void testKillDeadTransition() {
+		PetriNet pn = getDeadTransitionNet();
+		DirectedSearch search = new DirectedSearch(pn);
+		assertThat(search.findKillingSequence(pn.getTransition("td"), Heuristic.ZERO), empty());
+		assertThat(search.findKillingSequence(pn.getTransition("tl"), Heuristic.ZERO), nullValue());
+	}
+
+	@Test
+	public void testKillAgainstLive() throws UnboundedException {
+		for (PetriNet pn : Arrays.asList(getNonPersistentNet(), getConflictingDiamondNet(),
+					new CycleGenerator().generateNet(4),
+					new BistatePhilNetGenerator().generateNet(3),
+					new TristatePhilNetGenerator().generateNet(3))) {
+			DirectedSearch search = new DirectedSearch(pn);
+			for (Transition transition : pn.getTransitions()) {
+				List<Transition> sequence = search.findKillingSequence(transition, Heuristic.ZERO);
+				assertThat(transition.getId(), sequence == null, equalTo(Live.checkStronglyLive(pn,
+								transition)));
+				if (sequence == null)
+					continue;
+				PetriNet killed = new PetriNet(pn);
+				killed.setInitialMarking(new Marking(killed, fire(pn, sequence)));
+				assertThat(Live.checkSimplyLive(killed, killed.getTransition(transition.getId())),
+						nullValue());
+			}
+		}
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testForeignTransition() {
+		new DirectedSearch(getDeadlockNet()).findEnablingSequence(
+				getDeadlockNet().getTransition("t1"), Heuristic.ZERO);
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -0,0 +1,198 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.analysis.reachability;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.testng.annotations.Test;
+
+import uniol.apt.adt.pn.Marking;
+import uniol.apt.adt.pn.PetriNet;
+import uniol.apt.adt.pn.Place;
+import uniol.apt.adt.pn.Transition;
+import uniol.apt.analysis.coverability.CoverabilityGraph;
+import uniol.apt.analysis.coverability.CoverabilityGraphNode;
+import uniol.apt.generator.cycle.CycleGenerator;
+import uniol.apt.generator.philnet.BistatePhilNetGenerator;
+import uniol.apt.generator.philnet.TristatePhilNetGenerator;
+import uniol.apt.module.exception.ModuleException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static uniol.apt.TestNetCollection.*;
+
+/** @author Uli Schlachter */
+public class ReachabilityTest {
+	static private Marking fire(PetriNet pn, List<Transition> sequence) {
+		Marking marking = pn.getInitialMarking();
+		for (Transition transition : sequence) {
+			assertThat(transition.isFireable(marking), is(true));
+			marking = transition.fire(marking);
+		}
+		return marking;
+	}
+
+	/** A chain p0 -> t0 -> p1 -> ... -> t(n-1) -> pn with a token on p0 */
+	static private PetriNet getChainNet(int length) {
+		PetriNet pn = new PetriNet("chain");
+		Place previous = pn.createPlace("p0");
+		previous.setInitialToken(1);
+		for (int i = 0; i < length; i++) {
+			Transition transition = pn.createTransition("t" + i);
+			Place next = pn.createPlace("p" + (i + 1));
+			pn.createFlow(previous, transition);
+			pn.createFlow(transition, next);
+			previous = next;
+		}
+		return pn;
+	}
+
+	@Test
+	public void testChainReachable() throws ModuleException {
+		PetriNet pn = getChainNet(5);
+		Marking target = ReachabilityModule.parseMarking(pn, "p5");
+		ReachabilityResult result = Reachability.checkReachable(pn, target);
+		assertThat(result.isReachable(), is(true));
+		assertThat(result.isRefutedByStateEquation(), is(false));
+		assertThat(result.getFiringSequence(), hasSize(5));
+		assertThat(fire(pn, result.getFiringSequence()), equalTo(target));
+		// The plan leads directly to the target
+		assertThat(result.getNumberOfExploredMarkings(), equalTo(6));
+	}
+
+	@Test
+	public void testInitialMarkingReachable() {
+		PetriNet pn = getChainNet(5);
+		ReachabilityResult result = Reachability.checkReachable(pn, pn.getInitialMarking());
+		assertThat(result.isReachable(), is(true));
+		assertThat(result.getFiringSequence(), empty());
+	}
+
+	@Test
+	public void testInvariantRefutation() throws ModuleException {
+		PetriNet pn = getChainNet(5);
+		ReachabilityResult result = Reachability.checkReachable(pn,
+				ReachabilityModule.parseMarking(pn, "p0:1, p1:1"));
+		assertThat(result.isReachable(), is(false));
+		assertThat(result.isRefutedByStateEquation(), is(true));
+		assertThat(result.getNumberOfExploredMarkings(), equalTo(0));
+	}
+
+	@Test
+	public void testCoverable() throws ModuleException {
+		PetriNet pn = getTokenGeneratorNet();
+		Marking target = ReachabilityModule.parseMarking(pn, "p1:5");
+		assertThat(Reachability.checkReachable(pn, target).isReachable(), is(true));
+		ReachabilityResult result = Reachability.checkCoverable(pn, target);
+		assertThat(result.isReachable(), is(true));
+		assertThat(fire(pn, result.getFiringSequence()).getToken("p1").getValue(), greaterThanOrEqualTo(5L));
+	}
+
+	@Test
+	public void testNotCoverable() throws ModuleException {
+		PetriNet pn = getChainNet(3);
+		ReachabilityResult result = Reachability.checkCoverable(pn,
+				ReachabilityModule.parseMarking(pn, "p3:2"));
+		assertThat(result.isReachable(), is(false));
+		assertThat(result.isRefutedByStateEquation(), is(true));
+	}
+
+	@Test
+	public void testSiphonRefutation() {
+		// t doubles the tokens on p, but p is initially empty
+		PetriNet pn = new PetriNet();
+		Place p = pn.createPlace("p");
+		Transition t = pn.createTransition("t");
+		pn.createFlow(p, t);
+		pn.createFlow(t, p, 2);
+
+		ReachabilityResult result = Reachability.checkReachable(pn, new Marking(pn, 1));
+		assertThat(result.isReachable(), is(false));
+		assertThat(result.isRefutedByStateEquation(), is(true));
+		assertThat(result.getNumberOfTrapConstraints(), equalTo(0));
+	}
+
+	@Test
+	public void testTrapRefutation() {
+		// t takes two tokens and gives one back, so p never becomes empty
+		PetriNet pn = new PetriNet();
+		Place p = pn.createPlace("p");
+		p.setInitialToken(1);
+		Transition t = pn.createTransition("t");
+		pn.createFlow(p, t, 2);
+		pn.createFlow(t, p);
+
+		ReachabilityResult result = Reachability.checkReachable(pn, new Marking(pn, 0));
+		assertThat(result.isReachable(), is(false));
+		assertThat(result.isRefutedByStateEquation(), is(true));
+		assertThat(result.getNumberOfTrapConstraints(), equalTo(1));
+	}
+
+	@Test
+	public void testNoTransitions() {
+		PetriNet pn = getNoTransitionOnePlaceNet();
+		assertThat(Reachability.checkReachable(pn, pn.getInitialMarking()).isReachable(), is(true));
+		assertThat(Reachability.checkReachable(pn, new Marking(pn, 7)).isReachable(), is(false));
+	}
+
+	@Test(expectedExceptions = ModuleException.class)
+	public void testUnknownPlace() throws ModuleException {
+		ReachabilityModule.parseMarking(getChainNet(1), "p0 p7:1");
+	}
+
+	private void checkAgainstReachabilityGraph(PetriNet pn) {
+		Set<Marking> reachable = new HashSet<>();
+		for (CoverabilityGraphNode node : CoverabilityGraph.getReachabilityGraph(pn).getNodes())
+			reachable.add(node.getMarking());
+
+		List<Place> places = new ArrayList<>(pn.getPlaces());
+		for (Marking marking : reachable) {
+			ReachabilityResult result = Reachability.checkReachable(pn, marking);
+			assertThat(marking.toString(), result.isReachable(), is(true));
+			assertThat(fire(pn, result.getFiringSequence()), equalTo(marking));
+
+			// Markings with one more token on some place are often not reachable
+			for (Place place : places) {
+				Marking bigger = marking.addTokenCount(place, 1);
+				result = Reachability.checkReachable(pn, bigger);
+				assertThat(bigger.toString(), result.isReachable(),
+						equalTo(reachable.contains(bigger)));
+				if (result.isReachable())
+					assertThat(fire(pn, result.getFiringSequence()), equalTo(bigger));
+			}
+		}
+	}
+
+	@Test
+	public void testAgainstReachabilityGraph() {
+		for (PetriNet pn : Arrays.asList(getDeadlockNet(), getNonPersistentNet(), getConcurrentDiamondNet(),
+					getConflictingDiamondNet(), getDeadNet(), getDeadTransitionNet(),
+					getMultiArcNet(), new CycleGenerator().generateNet(4, 2),
+					new BistatePhilNetGenerator().generateNet(3),
+					new TristatePhilNetGenerator().generateNet(3)))
+			checkAgainstReachabilityGraph(pn);
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -0,0 +1,70 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.analysis.reversible;
+
+import org.testng.annotations.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import uniol.apt.adt.pn.PetriNet;
+import uniol.apt.analysis.exception.UnboundedException;
+import uniol.apt.generator.bitnet.SimpleBitNetGenerator;
+import static uniol.apt.TestNetCollection.*;
+
+/** @author Uli Schlachter */
+public class ReversibleNetTest {
+	@Test
+	public void testReversibleNet() throws Exception {
+		ReversibleNet reversible = new ReversibleNet(getNonPersistentNet());
+		reversible.check();
+		assertThat(reversible.isReversible(), is(true));
+		assertThat(reversible.getMarking(), nullValue());
+	}
+
+	@Test
+	public void testDeadlockNet() throws Exception {
+		PetriNet pn = getDeadlockNet();
+		ReversibleNet reversible = new ReversibleNet(pn);
+		reversible.check();
+		assertThat(reversible.isReversible(), is(false));
+		assertThat(reversible.getMarking(), equalTo(pn.getTransition("t1").fire(pn.getInitialMarking())));
+	}
+
+	@Test
+	public void testEmptyNet() throws Exception {
+		ReversibleNet reversible = new ReversibleNet(getEmptyNet());
+		reversible.check();
+		assertThat(reversible.isReversible(), is(true));
+	}
+
+	@Test(expectedExceptions = UnboundedException.class)
+	public void testUnboundedNet() throws Exception {
+		new ReversibleNet(getTokenGeneratorNet()).check();
+	}
+
+	@Test
+	public void testBitNet() throws Exception {
+		ReversibleNet reversible = new ReversibleNet(new SimpleBitNetGenerator().generateNet(8));
+		reversible.check();
+		assertThat(reversible.isReversible(), is(true));
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
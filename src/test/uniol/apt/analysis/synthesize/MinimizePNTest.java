@@ -41,6 +41,7 @@ import uniol.apt.analysis.language.LanguageEquivalence;
 import uniol.apt.analysis.on.OutputNonBranching;
 import uniol.apt.analysis.plain.Plain;
 import uniol.apt.analysis.sideconditions.Pure;
+import uniol.apt.generator.philnet.TristatePhilNetGenerator;
 import static uniol.apt.analysis.synthesize.SynthesizeUtils.*;
 
 /** @author Uli Schlachter */
@@ -105,6 +106,7 @@ public class MinimizePNTest {
 		MinimizePN min = new MinimizePN(synth);
 
 		assertThat(min.getSeparatingRegions(), hasSize(size));
+		assertThat(min.isMinimal(), is(true));
 		testSolution(properties, synth, min);
 	}
 
@@ -169,6 +171,39 @@ public class MinimizePNTest {
 		doStateSeparation(true);
 	}
 
+	@Test
+	public void testCC1LTSWithTimeBudget() throws Exception {
+		PNProperties properties = new PNProperties();
+		TransitionSystem ts = TestTSCollection.getcc1LTS();
+		SynthesizePN synth = mockSynthesize(ts, properties, 6);
+		MinimizePN min = new MinimizePN(synth, 60 * 1000);
+
+		assertThat(min.getSeparatingRegions(), hasSize(3));
+		assertThat(min.isMinimal(), is(true));
+		testSolution(properties, synth, min);
+	}
+
+	@Test
+	public void testExhaustedTimeBudget() throws Exception {
+		PNProperties properties = new PNProperties();
+		TransitionSystem ts = CoverabilityGraph.get(new TristatePhilNetGenerator().generateNet(3))
+			.toReachabilityLTS();
+		SynthesizePN synth = SynthesizePN.Builder.createForIsomorphicBehaviour(ts).build();
+		assertThat(synth.wasSuccessfullySeparated(), is(true));
+		MinimizePN min = new MinimizePN(synth, 1);
+
+		// The budget runs out before the search can prove anything, but the result is still a solution
+		assertThat(min.isMinimal(), is(false));
+		assertThat(min.getSeparatingRegions().size(), lessThanOrEqualTo(synth.getSeparatingRegions().size()));
+		testSolution(properties, synth, min);
+	}
+
+	@Test(expectedExceptions = { IllegalArgumentException.class })
+	public void testNegativeTimeBudget() throws Exception {
+		TransitionSystem ts = TestTSCollection.getcc1LTS();
+		new MinimizePN(mockSynthesize(ts, new PNProperties(), 6), -1);
+	}
+
 	@Test(expectedExceptions = { UnsupportedOperationException.class })
 	public void testABAndA() throws Exception {
 		SynthesizePN synth = mock(SynthesizePN.class);
@@ -0,0 +1,108 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.json;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import uniol.apt.ui.impl.AptParametersTransformer;
+import uniol.apt.ui.impl.AptReturnValuesTransformer;
+
+/** @author Uli Schlachter */
+public class ConcurrentSessionTest {
+	private ExecutorService workers;
+	private JSONExecutor executor;
+
+	@BeforeMethod
+	public void setup() {
+		workers = Executors.newFixedThreadPool(4);
+		executor = new JSONExecutor(new TestModuleRegistry(), AptParametersTransformer.INSTANCE,
+				AptReturnValuesTransformer.INSTANCE);
+	}
+
+	@AfterMethod
+	public void teardown() {
+		workers.shutdownNow();
+	}
+
+	private Map<Object, JSONObject> run(String input) throws Exception {
+		StringWriter output = new StringWriter();
+		new ConcurrentSession(new StringReader(input), output, executor, workers).run();
+
+		Map<Object, JSONObject> results = new HashMap<>();
+		JSONTokener tokener = new JSONTokener(output.toString());
+		tokener.nextClean();
+		while (!tokener.end()) {
+			tokener.back();
+			JSONObject result = new JSONObject(tokener);
+			results.put(result.opt("id"), result);
+			tokener.nextClean();
+		}
+		return results;
+	}
+
+	private String command(int id, String argument) {
+		return "{\"command\": \"run_module\", \"module\": \"example\", \"id\": " + id
+			+ ", \"arguments\": {\"string\": \"" + argument + "\"}}";
+	}
+
+	@Test
+	public void testEmpty() throws Exception {
+		assertThat(run("").keySet(), empty());
+	}
+
+	@Test
+	public void testManyCommands() throws Exception {
+		StringBuilder input = new StringBuilder();
+		for (int i = 0; i < 100; i++)
+			input.append(command(i, "FOO" + i));
+
+		Map<Object, JSONObject> results = run(input.toString());
+		assertThat(results.keySet(), hasSize(100));
+		for (int i = 0; i < 100; i++) {
+			JSONObject result = results.get(i);
+			assertThat(result, notNullValue());
+			assertThat(result.getJSONObject("return_values").getString("lower_case_string"),
+					equalTo("foo" + i));
+		}
+	}
+
+	@Test
+	public void testSyntaxError() throws Exception {
+		Map<Object, JSONObject> results = run(command(1, "A") + "banana");
+		assertThat(results.keySet(), containsInAnyOrder((Object) 1, null));
+		assertThat(results.get(null).getString("type"), equalTo("org.json.JSONException"));
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -225,6 +225,29 @@ public class JSONExecutorTest {
 		assertThat(InterrupterRegistry.getCurrentThreadInterrupter(), instanceOf(NoOpInterrupter.class));
 	}
 
+	@Test
+	public void callModuleWithId() {
+		StringWriter command = new StringWriter();
+		new JSONWriter(command)
+			.object()
+			.key("command").value("run_module")
+			.key("id").value(42)
+			.key("module").value("example")
+			.key("arguments").object()
+				.key("string").value("iNpUt")
+				.endObject()
+			.endObject();
+
+		StringWriter result = new StringWriter();
+		new JSONWriter(result)
+			.object()
+			.key("id").value(42)
+			.key("return_values").object()
+				.key("lower_case_string").value("input")
+			.endObject().endObject();
+		runTest(command.toString(), result.toString());
+	}
+
 	@Test
 	public void callModuleNested() {
 		assertThat("something else left an interrupter for this thread behind",
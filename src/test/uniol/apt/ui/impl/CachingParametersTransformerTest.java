@@ -0,0 +1,173 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.ui.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+import uniol.apt.adt.pn.PetriNet;
+import uniol.apt.adt.extension.ExtensionProperty;
+import uniol.apt.adt.ts.TransitionSystem;
+import uniol.apt.analysis.coverability.CoverabilityGraph;
+
+/** @author Uli Schlachter */
+public class CachingParametersTransformerTest {
+	static private final String NET = ".name \"net\"\n.type PN\n.places p\n.transitions t\n.flows t: {p} -> {}\n"
+		+ ".initial_marking {p}\n";
+	static private final String LTS = ".name \"lts\"\n.type LTS\n.states s0[initial] s1\n.labels a\n"
+		+ ".arcs s0 a s1\n";
+
+	private File directory;
+
+	@BeforeMethod
+	public void createDirectory() throws IOException {
+		directory = Files.createTempDirectory("apt-cache-test").toFile();
+	}
+
+	@AfterMethod
+	public void removeDirectory() throws IOException {
+		FileUtils.deleteDirectory(directory);
+	}
+
+	private CachingParametersTransformer persistentTransformer() {
+		return new CachingParametersTransformer(AptParametersTransformer.INSTANCE,
+				new ParsedObjectCache(4, directory));
+	}
+
+	@Test
+	public void testPetriNetIsCached() throws Exception {
+		CachingParametersTransformer transformer = new CachingParametersTransformer(
+				AptParametersTransformer.INSTANCE, new ParsedObjectCache(4));
+
+		PetriNet pn1 = (PetriNet) transformer.transformString(NET, PetriNet.class);
+		assertThat(transformer.getCache().size(), equalTo(1));
+		PetriNet pn2 = (PetriNet) transformer.transformString(NET, PetriNet.class);
+		assertThat(transformer.getCache().size(), equalTo(1));
+
+		assertThat(pn2, not(sameInstance(pn1)));
+		assertThat(pn2.getName(), equalTo("net"));
+		assertThat(pn2.getPlaces(), hasSize(1));
+		assertThat(pn2.getTransitions(), hasSize(1));
+		assertThat(pn2.getInitialMarking().getToken("p").getValue(), equalTo(1l));
+	}
+
+	@Test
+	public void testModificationsDoNotLeak() throws Exception {
+		CachingParametersTransformer transformer = new CachingParametersTransformer(
+				AptParametersTransformer.INSTANCE, new ParsedObjectCache(4));
+
+		TransitionSystem ts1 = (TransitionSystem) transformer.transformString(LTS, TransitionSystem.class);
+		ts1.createState("s2");
+		TransitionSystem ts2 = (TransitionSystem) transformer.transformString(LTS, TransitionSystem.class);
+		assertThat(ts2.getNodes(), hasSize(2));
+	}
+
+	@Test
+	public void testLeastRecentlyUsedIsEvicted() throws Exception {
+		CachingParametersTransformer transformer = new CachingParametersTransformer(
+				AptParametersTransformer.INSTANCE, new ParsedObjectCache(1));
+		ParsedObjectCache cache = transformer.getCache();
+
+		transformer.transformString(NET, PetriNet.class);
+		transformer.transformString(LTS, TransitionSystem.class);
+		assertThat(cache.size(), equalTo(1));
+		assertThat(cache.get(PetriNet.class, ParsedObjectCache.hash(NET)), nullValue());
+		assertThat(cache.get(TransitionSystem.class, ParsedObjectCache.hash(LTS)), notNullValue());
+	}
+
+	@Test
+	public void testUncacheableTypesArePassedOn() throws Exception {
+		CachingParametersTransformer transformer = new CachingParametersTransformer(
+				AptParametersTransformer.INSTANCE, new ParsedObjectCache(4));
+
+		assertThat(transformer.transformString("42", Integer.class), equalTo((Object) 42));
+		assertThat(transformer.getCache().size(), equalTo(0));
+	}
+
+	@Test
+	public void testSnapshotRoundTrip() throws Exception {
+		PetriNet pn = (PetriNet) AptParametersTransformer.INSTANCE.transformString(NET, PetriNet.class);
+		pn.putExtension("number", 42, ExtensionProperty.WRITE_TO_FILE);
+		pn.getPlace("p").putExtension("text", "foo");
+
+		PetriNet copy = (PetriNet) ObjectSnapshots.read(ObjectSnapshots.write(pn, true));
+		assertThat(copy.getExtension("number"), equalTo((Object) 42));
+		assertThat(copy.getWriteToFileExtensions(), hasSize(1));
+		assertThat(copy.getPlace("p").getExtension("text"), equalTo((Object) "foo"));
+		assertThat(ObjectSnapshots.write(copy, true), equalTo(ObjectSnapshots.write(pn, true)));
+	}
+
+	@Test
+	public void testPersistentCache() throws Exception {
+		persistentTransformer().transformString(NET, PetriNet.class);
+
+		ParsedObjectCache cache = new ParsedObjectCache(4, directory);
+		PetriNet pn = cache.get(PetriNet.class, ParsedObjectCache.hash(NET));
+		assertThat(pn, notNullValue());
+		assertThat(pn.getName(), equalTo("net"));
+		assertThat(pn.getPlaces(), hasSize(1));
+	}
+
+	@Test
+	public void testBrokenSnapshotIsIgnored() throws Exception {
+		persistentTransformer().transformString(NET, PetriNet.class);
+		for (File file : directory.listFiles())
+			FileUtils.writeStringToFile(file, "garbage", "UTF-8");
+
+		ParsedObjectCache cache = new ParsedObjectCache(4, directory);
+		assertThat(cache.get(PetriNet.class, ParsedObjectCache.hash(NET)), nullValue());
+		assertThat(directory.listFiles(), emptyArray());
+	}
+
+	@Test
+	public void testCoverabilityGraphIsSaved() throws Exception {
+		CachingParametersTransformer transformer = persistentTransformer();
+		PetriNet pn1 = (PetriNet) transformer.transformString(NET, PetriNet.class);
+		assertThat(transformer.updateCache(pn1), is(false));
+		assertThat(CoverabilityGraph.get(pn1).calculateNodes(), equalTo(2));
+		assertThat(transformer.updateCache(pn1), is(true));
+
+		PetriNet pn2 = (PetriNet) persistentTransformer().transformString(NET, PetriNet.class);
+		// The restored net already carries the complete coverability graph
+		assertThat(ObjectSnapshots.write(pn2, true), equalTo(ObjectSnapshots.write(pn1, true)));
+		assertThat(CoverabilityGraph.get(pn2).calculateNodes(), equalTo(2));
+	}
+
+	@Test
+	public void testModifiedObjectIsNotUpdated() throws Exception {
+		CachingParametersTransformer transformer = persistentTransformer();
+		PetriNet pn = (PetriNet) transformer.transformString(NET, PetriNet.class);
+		pn.createPlace("q");
+		CoverabilityGraph.get(pn).calculateNodes();
+		assertThat(transformer.updateCache(pn), is(false));
+		assertThat(transformer.updateCache(new PetriNet()), is(false));
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -0,0 +1,77 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.ui.impl;
+
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/** @author Uli Schlachter */
+public class PipelineParametersParserTest {
+	@Test
+	public void testSingleModule() {
+		PipelineParametersParser parser = new PipelineParametersParser();
+		parser.parse(new String[] { "example_module", "arg1", "arg2" });
+
+		assertThat(parser.getModuleNames(), arrayContaining("example_module"));
+		assertThat(parser.getModuleArguments(0), arrayContaining("arg1", "arg2"));
+		assertThat(parser.getModuleArguments("example_module"), arrayContaining("arg1", "arg2"));
+		assertThat(parser.isParallel(), is(false));
+	}
+
+	@Test
+	public void testEmpty() {
+		PipelineParametersParser parser = new PipelineParametersParser();
+		parser.parse(new String[] {});
+		assertThat(parser.getModuleNames(), emptyArray());
+
+		parser.parse(new String[] { "--parallel", "::" });
+		assertThat(parser.getModuleNames(), emptyArray());
+	}
+
+	@Test
+	public void testPipeline() {
+		PipelineParametersParser parser = new PipelineParametersParser();
+		parser.parse(new String[] { "mod1", "net", "::", "mod2", "::", "::", "mod1", "net", "2", "::" });
+
+		assertThat(parser.getModuleNames(), arrayContaining("mod1", "mod2", "mod1"));
+		assertThat(parser.getModuleArguments(0), arrayContaining("net"));
+		assertThat(parser.getModuleArguments(1), emptyArray());
+		assertThat(parser.getModuleArguments(2), arrayContaining("net", "2"));
+		assertThat(parser.getModuleArguments("mod1"), arrayContaining("net"));
+		assertThat(parser.getModuleArguments("mod3"), emptyArray());
+	}
+
+	@Test
+	public void testParallel() {
+		PipelineParametersParser parser = new PipelineParametersParser();
+		parser.parse(new String[] { "--parallel", "mod1", "net", "::", "mod2", "net" });
+
+		assertThat(parser.isParallel(), is(true));
+		assertThat(parser.getModuleNames(), arrayContaining("mod1", "mod2"));
+
+		parser.parse(new String[] { "mod1", "--parallel" });
+		assertThat(parser.isParallel(), is(false));
+		assertThat(parser.getModuleArguments(0), arrayContaining("--parallel"));
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
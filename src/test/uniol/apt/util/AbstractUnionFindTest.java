@@ -0,0 +1,108 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.util;
+
+import java.util.Random;
+
+import org.testng.annotations.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/** @author Uli Schlachter */
+abstract public class AbstractUnionFindTest {
+
+	abstract UnionFind createRelation(int size);
+
+	@Test
+	public void testEmptyRelation() {
+		UnionFind relation = createRelation(4);
+		assertThat(relation.getSize(), equalTo(4));
+		assertThat(relation.getClassCount(), equalTo(4));
+		assertThat(relation.isEquivalent(0, 1), is(false));
+		assertThat(relation.isEquivalent(2, 2), is(true));
+		assertThat(relation.getLeader(3), equalTo(3));
+		assertThat(relation.getClassNumbers(), equalTo(new int[] { 0, 1, 2, 3 }));
+	}
+
+	@Test
+	public void testNoElements() {
+		UnionFind relation = createRelation(0);
+		assertThat(relation.getClassCount(), equalTo(0));
+		assertThat(relation.getClassNumbers(), equalTo(new int[0]));
+	}
+
+	@Test
+	public void testJoin() {
+		UnionFind relation = createRelation(5);
+		assertThat(relation.joinClasses(3, 1), is(true));
+		assertThat(relation.joinClasses(1, 3), is(false));
+		assertThat(relation.joinClasses(2, 2), is(false));
+		assertThat(relation.joinClasses(4, 1), is(true));
+
+		assertThat(relation.isEquivalent(4, 3), is(true));
+		assertThat(relation.isEquivalent(0, 3), is(false));
+		assertThat(relation.getLeader(1), equalTo(relation.getLeader(4)));
+		assertThat(relation.getClassCount(), equalTo(3));
+		assertThat(relation.getClassNumbers(), equalTo(new int[] { 0, 1, 2, 1, 1 }));
+	}
+
+	@Test
+	public void testChain() {
+		UnionFind relation = createRelation(100);
+		for (int e = 1; e < 100; e++)
+			assertThat(relation.joinClasses(e - 1, e), is(true));
+		assertThat(relation.getClassCount(), equalTo(1));
+		for (int e = 0; e < 100; e++)
+			assertThat(relation.isEquivalent(0, e), is(true));
+	}
+
+	@Test
+	public void testAgainstEquivalenceRelation() {
+		Random random = new Random(42);
+		UnionFind relation = createRelation(50);
+		EquivalenceRelation<Integer> expected = new EquivalenceRelation<>();
+		for (int i = 0; i < 40; i++) {
+			int e1 = random.nextInt(50);
+			int e2 = random.nextInt(50);
+			assertThat(relation.joinClasses(e1, e2), equalTo(!expected.isEquivalent(e1, e2)));
+			expected.joinClasses(e1, e2);
+		}
+		for (int e1 = 0; e1 < 50; e1++)
+			for (int e2 = 0; e2 < 50; e2++)
+				assertThat(relation.isEquivalent(e1, e2), equalTo(expected.isEquivalent(e1, e2)));
+	}
+
+	@Test(expectedExceptions = IndexOutOfBoundsException.class)
+	public void testInvalidElement() {
+		createRelation(3).getLeader(3);
+	}
+
+	@Test(expectedExceptions = IndexOutOfBoundsException.class)
+	public void testNegativeElement() {
+		createRelation(3).joinClasses(0, -1);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testNegativeSize() {
+		createRelation(-1);
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
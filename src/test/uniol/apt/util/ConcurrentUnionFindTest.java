@@ -0,0 +1,86 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.annotations.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/** @author Uli Schlachter */
+public class ConcurrentUnionFindTest extends AbstractUnionFindTest {
+	@Override
+	UnionFind createRelation(int size) {
+		return new ConcurrentUnionFind(size);
+	}
+
+	@Test
+	public void testConcurrentJoins() throws Exception {
+		final int size = 10000;
+		final int threads = 4;
+		final UnionFind relation = createRelation(size);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			// Every thread joins elements with their successor, starting at a different offset. Together,
+			// all elements end up in a single class.
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int thread = 0; thread < threads; thread++) {
+				final int offset = thread;
+				results.add(executor.submit(new Callable<Integer>() {
+					@Override
+					public Integer call() {
+						Random random = new Random(offset);
+						int joins = 0;
+						for (int e = offset; e < size; e += threads) {
+							if (relation.joinClasses(e, (e + 1) % size))
+								joins++;
+							// Random joins create contention
+							int e1 = random.nextInt(size);
+							int e2 = random.nextInt(size);
+							if (relation.joinClasses(e1, e2))
+								joins++;
+						}
+						return joins;
+					}
+				}));
+			}
+
+			int joins = 0;
+			for (Future<Integer> result : results)
+				joins += result.get();
+			// Each successful join merged two different classes
+			assertThat(joins, equalTo(size - 1));
+		} finally {
+			executor.shutdownNow();
+		}
+		assertThat(relation.getClassCount(), equalTo(1));
+		for (int e = 0; e < size; e++)
+			assertThat(relation.isEquivalent(0, e), is(true));
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
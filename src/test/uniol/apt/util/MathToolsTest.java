@@ -41,6 +41,57 @@ public class MathToolsTest {
 		assertEquals(MathTools.gcd(-17, -5), 1);
 	}
 
+	@Test
+	public void testGCDLong() {
+		assertEquals(MathTools.gcd(0L, 5L), 5L);
+		assertEquals(MathTools.gcd(-15L, 5L), 5L);
+		assertEquals(MathTools.gcd((long) BIG_PRIME1 * BIG_PRIME2, (long) BIG_PRIME2 * 3), (long) BIG_PRIME2);
+	}
+
+	@Test
+	public void testAddExact() {
+		assertEquals(MathTools.addExact(Long.MAX_VALUE - 1, 1), Long.MAX_VALUE);
+		assertEquals(MathTools.addExact(Long.MIN_VALUE, Long.MAX_VALUE), -1L);
+	}
+
+	@Test(expectedExceptions = ArithmeticException.class)
+	public void testAddExactOverflow() {
+		MathTools.addExact(Long.MAX_VALUE, 1);
+	}
+
+	@Test(expectedExceptions = ArithmeticException.class)
+	public void testAddExactUnderflow() {
+		MathTools.addExact(Long.MIN_VALUE, -1);
+	}
+
+	@Test
+	public void testMultiplyExact() {
+		assertEquals(MathTools.multiplyExact(BIG_PRIME1, BIG_PRIME2), (long) BIG_PRIME1 * BIG_PRIME2);
+		assertEquals(MathTools.multiplyExact(-3, Long.MAX_VALUE / 3), -(Long.MAX_VALUE / 3) * 3);
+		assertEquals(MathTools.multiplyExact(0, Long.MIN_VALUE), 0L);
+	}
+
+	@Test(expectedExceptions = ArithmeticException.class)
+	public void testMultiplyExactOverflow() {
+		MathTools.multiplyExact((long) BIG_PRIME1 * BIG_PRIME2, BIG_PRIME1);
+	}
+
+	@Test(expectedExceptions = ArithmeticException.class)
+	public void testMultiplyExactMinValue() {
+		MathTools.multiplyExact(Long.MIN_VALUE, -1);
+	}
+
+	@Test
+	public void testToIntExact() {
+		assertEquals(MathTools.toIntExact(Integer.MIN_VALUE), Integer.MIN_VALUE);
+		assertEquals(MathTools.toIntExact(42L), 42);
+	}
+
+	@Test(expectedExceptions = ArithmeticException.class)
+	public void testToIntExactOverflow() {
+		MathTools.toIntExact(Integer.MAX_VALUE + 1L);
+	}
+
 	@Test
 	public void testGCDArray() {
 		assertEquals(MathTools.gcd(), 0);
@@ -0,0 +1,257 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/** @author Uli Schlachter */
+public class ServiceIndexTest {
+	static private final String PREFIX = ServiceIndexTest.class.getName() + "$";
+
+	static private int instances = 0;
+
+	/** Interface of the services in this test. */
+	public interface Named {
+		/** @return The key of this service */
+		String getName();
+	}
+
+	/** Service with name "a". */
+	static public class ServiceA implements Named {
+		/** Constructor */
+		public ServiceA() {
+			instances++;
+		}
+
+		@Override
+		public String getName() {
+			return "a";
+		}
+	}
+
+	/** Service with name "b". */
+	static public class ServiceB implements Named {
+		/** Constructor */
+		public ServiceB() {
+			instances++;
+		}
+
+		@Override
+		public String getName() {
+			return "b";
+		}
+	}
+
+	/** Service with name "c". */
+	static public class ServiceC implements Named {
+		/** Constructor */
+		public ServiceC() {
+			instances++;
+		}
+
+		@Override
+		public String getName() {
+			return "c";
+		}
+	}
+
+	private File list;
+	private File serviceLoaderList;
+
+	@BeforeMethod
+	public void setup() throws IOException {
+		list = Files.createTempFile("apt-service-index-test", ".list").toFile();
+		serviceLoaderList = Files.createTempFile("apt-service-index-test", ".services").toFile();
+		instances = 0;
+	}
+
+	@AfterMethod
+	public void teardown() {
+		FileUtils.deleteQuietly(list);
+		FileUtils.deleteQuietly(serviceLoaderList);
+	}
+
+	static private void writeList(File file, String... lines) throws IOException {
+		StringBuilder content = new StringBuilder();
+		for (String line : lines)
+			content.append(line.replace("$", PREFIX)).append("\n");
+		FileUtils.writeStringToFile(file, content.toString(), StandardCharsets.UTF_8.name());
+	}
+
+	private ServiceIndex<Named> createIndex(String... lines) throws IOException {
+		writeList(list, lines);
+
+		final URL url = list.toURI().toURL();
+		ClassLoader loader = new ClassLoader(getClass().getClassLoader()) {
+			@Override
+			public Enumeration<URL> getResources(String name) {
+				return Collections.enumeration(Collections.singleton(url));
+			}
+		};
+		return new ServiceIndex<Named>(Named.class, loader, "list", "service", "name") {
+			@Override
+			protected String getKey(Named service) {
+				return service.getName();
+			}
+		};
+	}
+
+	private ServiceIndex<Named> createIndexWithServiceLoader(String[] indexLines, String... serviceLoaderLines)
+			throws IOException {
+		final List<URL> lists = new ArrayList<>();
+		if (indexLines != null) {
+			writeList(list, indexLines);
+			lists.add(list.toURI().toURL());
+		}
+		writeList(serviceLoaderList, serviceLoaderLines);
+		final URL serviceLoaderURL = serviceLoaderList.toURI().toURL();
+		ClassLoader loader = new ClassLoader(getClass().getClassLoader()) {
+			@Override
+			public Enumeration<URL> getResources(String name) {
+				if (name.equals("META-INF/services/" + Named.class.getName()))
+					return Collections.enumeration(Collections.singleton(serviceLoaderURL));
+				return Collections.enumeration(lists);
+			}
+		};
+		return new ServiceIndex<Named>(Named.class, loader, "list", true, "service", "name") {
+			@Override
+			protected String getKey(Named service) {
+				return service.getName();
+			}
+		};
+	}
+
+	@Test
+	public void testOnlyRequestedIsLoaded() throws IOException {
+		ServiceIndex<Named> index = createIndex("$ServiceA a", "$ServiceB b", "$ServiceC");
+		assertThat(instances, equalTo(0));
+
+		assertThat(index.get("a"), instanceOf(ServiceA.class));
+		assertThat(instances, equalTo(1));
+		assertThat(index.getPendingKeys(), contains("b"));
+
+		// Looking up the same key again does not create a new instance
+		assertThat(index.get("a"), sameInstance(index.get("a")));
+		assertThat(instances, equalTo(1));
+	}
+
+	@Test
+	public void testUnindexedClass() throws IOException {
+		ServiceIndex<Named> index = createIndex("$ServiceA a", "$ServiceB b", "$ServiceC");
+
+		assertThat(index.get("c"), instanceOf(ServiceC.class));
+		assertThat(instances, equalTo(1));
+		assertThat(index.get("d"), nullValue());
+		assertThat(instances, equalTo(1));
+		assertThat(index.getPendingKeys(), contains("a", "b"));
+	}
+
+	@Test
+	public void testGetKeys() throws IOException {
+		ServiceIndex<Named> index = createIndex("$ServiceB b", "$ServiceC", "", "$ServiceA a");
+
+		assertThat(index.getKeys(), contains("a", "b", "c"));
+		assertThat(instances, equalTo(1));
+		assertThat(index.getPendingKeys(), contains("a", "b"));
+	}
+
+	@Test
+	public void testGetAll() throws IOException {
+		ServiceIndex<Named> index = createIndex("$ServiceB b", "$ServiceC", "$ServiceA a");
+
+		assertThat(index.getAll().keySet(), contains("a", "b", "c"));
+		assertThat(index.getAll().get("b"), instanceOf(ServiceB.class));
+		assertThat(instances, equalTo(3));
+		assertThat(index.getPendingKeys(), empty());
+	}
+
+	@Test
+	public void testServiceLoaderWithoutIndex() throws IOException {
+		ServiceIndex<Named> index = createIndexWithServiceLoader(null, "# Comment", "$ServiceA",
+				"$ServiceB # Comment");
+		assertThat(instances, equalTo(0));
+
+		assertThat(index.get("b"), instanceOf(ServiceB.class));
+		assertThat(index.getKeys(), contains("a", "b"));
+		assertThat(instances, equalTo(2));
+	}
+
+	@Test
+	public void testServiceLoaderWithIndex() throws IOException {
+		ServiceIndex<Named> index = createIndexWithServiceLoader(new String[] { "$ServiceA a", "$ServiceB b" },
+				"$ServiceA", "$ServiceB", "$ServiceC");
+
+		// Only the class which is not in the index is instantiated
+		assertThat(index.get("c"), instanceOf(ServiceC.class));
+		assertThat(instances, equalTo(1));
+		assertThat(index.getPendingKeys(), contains("a", "b"));
+
+		assertThat(index.getAll().keySet(), contains("a", "b", "c"));
+		assertThat(instances, equalTo(3));
+	}
+
+	@Test(expectedExceptions = RuntimeException.class,
+			expectedExceptionsMessageRegExp = "Service .*ServiceA is indexed with name b, but reports a")
+	public void testWrongKey() throws IOException {
+		createIndex("$ServiceA b").get("b");
+	}
+
+	@Test(expectedExceptions = RuntimeException.class,
+			expectedExceptionsMessageRegExp = "Different services claim, to have name a: .*")
+	public void testConflictInIndex() throws IOException {
+		createIndex("$ServiceA a", "$ServiceB a");
+	}
+
+	@Test(expectedExceptions = RuntimeException.class,
+			expectedExceptionsMessageRegExp = "Different services claim, to have name c: .*")
+	public void testConflictWithUnindexed() throws IOException {
+		createIndex("$ServiceA c", "$ServiceC").getKeys();
+	}
+
+	@Test(expectedExceptions = RuntimeException.class,
+			expectedExceptionsMessageRegExp = "Service foo reports an invalid name: A")
+	public void testInvalidKey() throws IOException {
+		createIndex("foo A");
+	}
+
+	@Test(expectedExceptions = RuntimeException.class,
+			expectedExceptionsMessageRegExp = "Could not load class .*NoSuchService")
+	public void testMissingClass() throws IOException {
+		createIndex("$NoSuchService x").get("x");
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120
@@ -0,0 +1,121 @@
+/*-
+ * APT - Analysis of Petri Nets and labeled Transition systems
+ * Copyright (C) 2017  Uli Schlachter
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package uniol.apt.util.interrupt;
+
+import org.testng.annotations.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/** @author Uli Schlachter */
+public class CancellationTokenTest {
+	@Test
+	public void testCancel() {
+		CancellationToken token = new CancellationToken();
+		assertThat(token.isCancelled(), is(false));
+		assertThat(token.isInterruptRequested(), is(false));
+		token.throwIfCancelled();
+
+		token.cancel();
+		assertThat(token.isCancelled(), is(true));
+		assertThat(token.isInterruptRequested(), is(true));
+	}
+
+	@Test(expectedExceptions = UncheckedInterruptedException.class)
+	public void testThrowIfCancelled() {
+		CancellationToken token = new CancellationToken();
+		token.cancel();
+		token.throwIfCancelled();
+	}
+
+	@Test
+	public void testExpiredTimeout() {
+		assertThat(new CancellationToken(0).isCancelled(), is(true));
+		assertThat(new TimeoutInterrupter(-1).isInterruptRequested(), is(true));
+	}
+
+	@Test(timeOut = 10000)
+	public void testTimeout() throws InterruptedException {
+		long timeout = 50l * 1000 * 1000;
+		long start = System.nanoTime();
+		TimeoutInterrupter interrupter = new TimeoutInterrupter(timeout);
+		while (!interrupter.isInterruptRequested())
+			Thread.sleep(1);
+		assertThat(System.nanoTime() - start, greaterThanOrEqualTo(timeout));
+	}
+
+	@Test
+	public void testPollerChecksFirstCall() {
+		CancellationToken token = new CancellationToken();
+		token.cancel();
+		InterruptPoller poller = new InterruptPoller(token, 100);
+		try {
+			poller.poll();
+			throw new AssertionError("Expected an exception");
+		} catch (UncheckedInterruptedException e) {
+			// Expected
+		}
+	}
+
+	@Test
+	public void testPollerInterval() {
+		CancellationToken token = new CancellationToken();
+		InterruptPoller poller = new InterruptPoller(token, 3);
+		poller.poll();
+		token.cancel();
+		poller.poll();
+		poller.poll();
+		try {
+			poller.poll();
+			throw new AssertionError("Expected an exception");
+		} catch (UncheckedInterruptedException e) {
+			// Expected
+		}
+	}
+
+	@Test(expectedExceptions = UncheckedInterruptedException.class)
+	public void testPollerCheck() {
+		CancellationToken token = new CancellationToken();
+		InterruptPoller poller = new InterruptPoller(token, 100);
+		poller.poll();
+		token.cancel();
+		poller.check();
+	}
+
+	@Test
+	public void testPollerUsesThreadInterrupter() {
+		CancellationToken token = new CancellationToken();
+		InterrupterRegistry.setCurrentThreadInterrupter(token);
+		InterruptPoller poller;
+		try {
+			poller = new InterruptPoller();
+		} finally {
+			InterrupterRegistry.clearCurrentThreadInterrupter();
+		}
+		token.cancel();
+		try {
+			poller.poll();
+			throw new AssertionError("Expected an exception");
+		} catch (UncheckedInterruptedException e) {
+			// Expected
+		}
+	}
+}
+
+// vim: ft=java:noet:sw=8:sts=8:ts=8:tw=120